@@ -1,6 +1,8 @@
 package io.searchbox.action;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -10,12 +12,14 @@ import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import io.searchbox.annotations.JestId;
 import io.searchbox.client.JestResult;
+import io.searchbox.client.node.NodePreference;
 import io.searchbox.params.Parameters;
 import io.searchbox.strings.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.net.URLEncoder;
@@ -41,6 +45,7 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
     protected String typeName;
     protected String nodes;
     protected Object payload;
+    protected NodePreference nodePreference;
 
     private final ConcurrentMap<String, Object> headerMap = new ConcurrentHashMap<String, Object>();
     private final Multimap<String, Object> parameterMap = LinkedHashMultimap.create();
@@ -50,11 +55,27 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
     public AbstractAction() {
     }
 
+    /**
+     * Copies the index, type, nodes, parameters, headers and node preference of the source action.
+     */
+    protected AbstractAction(AbstractAction<T> source) {
+        parameterMap.putAll(source.parameterMap);
+        headerMap.putAll(source.headerMap);
+        cleanApiParameters.addAll(source.cleanApiParameters);
+        indexName = source.indexName;
+        typeName = source.typeName;
+        nodes = source.nodes;
+        payload = source.payload;
+        nodePreference = source.nodePreference;
+        URI = source.URI;
+    }
+
     @SuppressWarnings("unchecked")
     public AbstractAction(Builder builder) {
         parameterMap.putAll(builder.parameters);
         headerMap.putAll(builder.headers);
         cleanApiParameters.addAll(builder.cleanApiParameters);
+        nodePreference = builder.nodePreference;
 
         if (builder instanceof AbstractMultiIndexActionBuilder) {
             indexName = ((AbstractMultiIndexActionBuilder) builder).getJoinedIndices();
@@ -69,9 +90,57 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
 
     protected T createNewElasticSearchResult(T result, String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
         ObjectNode jsonMap = parseResponseBody(responseBody, objectMapper);
-        result.setResponseCode(statusCode);
         result.setJsonString(responseBody);
-        result.setJsonObject(jsonMap);
+        return createNewElasticSearchResult(result, jsonMap, statusCode, reasonPhrase);
+    }
+
+    /**
+     * Counterpart of {@link #createNewElasticSearchResult(JestResult, String, int, String, ObjectMapper)} for
+     * {@link StreamingResultAction}s; the response is parsed once off the stream and the JSON String of the result
+     * is only rendered on demand.
+     */
+    protected T createNewElasticSearchResult(T result, InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        ObjectNode jsonMap = parseResponseStream(responseStream, objectMapper);
+        result.setJsonStringDeferred(true);
+        return createNewElasticSearchResult(result, jsonMap, statusCode, reasonPhrase);
+    }
+
+    /**
+     * Counterpart of {@link #createNewElasticSearchResult(JestResult, InputStream, int, String, ObjectMapper)} for
+     * responses parsed by a parser of another format than JSON.
+     */
+    protected T createNewElasticSearchResult(T result, JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        ObjectNode jsonMap = parseResponse(responseParser, objectMapper);
+        result.setJsonStringDeferred(true);
+        return createNewElasticSearchResult(result, jsonMap, statusCode, reasonPhrase);
+    }
+
+    /**
+     * Counterpart of {@link #createNewElasticSearchResult(JestResult, String, int, String, ObjectMapper)} for
+     * {@link StreamingResultAction}s; only the raw response bytes are retained on the result, the JSON object is
+     * built lazily unless the response is a failure.
+     */
+    protected T createNewElasticSearchResult(T result, byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        if (responseBody == null || isBlank(responseBody, objectMapper)) {
+            return createNewElasticSearchResult(result, objectMapper.createObjectNode(), statusCode, reasonPhrase);
+        }
+
+        result.setJsonBytes(responseBody);
+        if (!isHttpSuccessful(statusCode)) {
+            // error responses are small and their error message is needed right away
+            result.getJsonObject();
+        }
+        return createNewElasticSearchResult(result, null, statusCode, reasonPhrase);
+    }
+
+    /**
+     * @param jsonMap parsed response, or null if the result retains the raw response to be parsed lazily
+     */
+    protected T createNewElasticSearchResult(T result, ObjectNode jsonMap, int statusCode, String reasonPhrase) {
+        result.setResponseCode(statusCode);
+        if (jsonMap != null) {
+            result.setJsonObject(jsonMap);
+        }
         result.setPathToResult(getPathToResult());
 
         if (isHttpSuccessful(statusCode)) {
@@ -110,6 +179,55 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
         }
     }
 
+    protected ObjectNode parseResponseStream(InputStream responseStream, ObjectMapper objectMapper) throws IOException {
+        if (responseStream == null) {
+            return objectMapper.createObjectNode();
+        }
+        return parseResponse(objectMapper.getFactory().createParser(responseStream), objectMapper);
+    }
+
+    protected ObjectNode parseResponse(JsonParser responseParser, ObjectMapper objectMapper) throws IOException {
+        if (responseParser == null) {
+            return objectMapper.createObjectNode();
+        }
+
+        try (JsonParser parser = responseParser) {
+            if (!startsWithObject(parser)) {
+                return objectMapper.createObjectNode();
+            }
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    /**
+     * Reads the first token of a response.
+     *
+     * @return true if the response is a JSON object, false if it contains no JSON content at all
+     * @throws IllegalArgumentException if the response contains anything else
+     */
+    private static boolean startsWithObject(JsonParser parser) throws IOException {
+        final JsonToken firstToken = parser.nextToken();
+        if (firstToken == null) {
+            return false;
+        }
+        if (firstToken != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Response did not contain a JSON Object");
+        }
+        return true;
+    }
+
+    /**
+     * Checks the first token of a retained response without building its tree, so that a response which is not a
+     * JSON object (e.g.: an HTML error page of a proxy) is still rejected when the result is created.
+     *
+     * @return true if the response contains no JSON content at all
+     */
+    private static boolean isBlank(byte[] responseBody, ObjectMapper objectMapper) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            return !startsWithObject(parser);
+        }
+    }
+
     public static String getIdFromSource(Object source) {
         if (source == null) return null;
         Field[] fields = source.getClass().getDeclaredFields();
@@ -140,6 +258,11 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
         return headerMap;
     }
 
+    @Override
+    public NodePreference getNodePreference() {
+        return nodePreference;
+    }
+
     @Override
     public String getURI() {
         String finalUri = URI;
@@ -159,6 +282,22 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
         this.URI = URI;
     }
 
+    /**
+     * @return the payload as given to the builder, e.g.: a source object not serialized yet by
+     * {@link #getData(ObjectMapper)}
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return the body of the request as an object to serialize (e.g.: straight into the generator of a binary content
+     * format), or as a JSON string; actions overriding {@link #getData(ObjectMapper)} override this as well
+     */
+    public Object getBody(ObjectMapper objectMapper) throws IOException {
+        return payload == null || payload instanceof String ? getData(objectMapper) : payload;
+    }
+
     @Override
     public String getData(ObjectMapper objectMapper) throws IOException {
         if (payload == null) {
@@ -260,6 +399,7 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
         protected Multimap<String, Object> parameters = LinkedHashMultimap.<String, Object>create();
         protected Map<String, Object> headers = new LinkedHashMap<String, Object>();
         protected Set<String> cleanApiParameters = new LinkedHashSet<String>();
+        protected NodePreference nodePreference;
 
         public K toggleApiParameter(String key, boolean enable) {
             if (enable) {
@@ -304,6 +444,14 @@ public abstract class AbstractAction<T extends JestResult> implements Action<T>
             return (K) this;
         }
 
+        /**
+         * Nodes the action should preferably be sent to, overrides the default preference of the action (if any).
+         */
+        public K nodePreference(NodePreference nodePreference) {
+            this.nodePreference = nodePreference;
+            return (K) this;
+        }
+
         public K refresh(boolean refresh) {
             return setParameter(Parameters.REFRESH, refresh);
         }
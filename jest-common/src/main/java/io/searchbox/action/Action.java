@@ -2,6 +2,7 @@ package io.searchbox.action;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.client.JestResult;
+import io.searchbox.client.node.NodePreference;
 
 import java.io.IOException;
 import java.util.Map;
@@ -22,4 +23,11 @@ public interface Action<T extends JestResult> {
     Map<String, Object> getHeaders();
 
     T createNewElasticSearchResult(String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * @return the nodes this action should preferably be sent to, null if any node will do
+     */
+    default NodePreference getNodePreference() {
+        return null;
+    }
 }
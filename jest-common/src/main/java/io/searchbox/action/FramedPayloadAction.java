@@ -0,0 +1,24 @@
+package io.searchbox.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.config.ContentFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Represents an Action whose payload is a stream of documents (e.g.: bulk) rather than a single JSON document, and
+ * which thus frames its documents itself when its payload is written in a binary {@link ContentFormat}.
+ */
+public interface FramedPayloadAction<T extends JestResult> extends Action<T> {
+
+    /**
+     * Writes the same documents as {@link Action#getData(ObjectMapper)} would return, each encoded in the given
+     * format and followed by the {@link ContentFormat#getStreamSeparator() stream separator} of the format; the
+     * stream is flushed but not closed by this method.
+     *
+     * @param contentFormat a format supporting streams of documents
+     */
+    void writeData(OutputStream outputStream, ObjectMapper objectMapper, ContentFormat contentFormat) throws IOException;
+}
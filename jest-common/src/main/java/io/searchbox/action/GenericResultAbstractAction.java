@@ -1,9 +1,11 @@
 package io.searchbox.action;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.client.JestResult;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author cihat keser
@@ -21,4 +23,20 @@ public abstract class GenericResultAbstractAction extends AbstractAction<JestRes
     public JestResult createNewElasticSearchResult(String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
         return createNewElasticSearchResult(new JestResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
     }
+
+    /**
+     * Subclasses that return a JSON object response can opt into streaming by declaring
+     * {@link StreamingResultAction}, this method then fulfills its contract.
+     */
+    public JestResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new JestResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    public JestResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new JestResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    public JestResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new JestResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
 }
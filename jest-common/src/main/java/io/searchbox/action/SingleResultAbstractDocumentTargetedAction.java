@@ -1,14 +1,16 @@
 package io.searchbox.action;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.core.DocumentResult;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author Bartosz Polnik
  */
-public abstract class SingleResultAbstractDocumentTargetedAction extends AbstractDocumentTargetedAction<DocumentResult> {
+public abstract class SingleResultAbstractDocumentTargetedAction extends AbstractDocumentTargetedAction<DocumentResult> implements StreamingResultAction<DocumentResult> {
     public SingleResultAbstractDocumentTargetedAction(Builder builder) {
         super(builder);
     }
@@ -17,4 +19,19 @@ public abstract class SingleResultAbstractDocumentTargetedAction extends Abstrac
     public DocumentResult createNewElasticSearchResult(String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
         return createNewElasticSearchResult(new DocumentResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
     }
+
+    @Override
+    public DocumentResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new DocumentResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public DocumentResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new DocumentResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public DocumentResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new DocumentResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
 }
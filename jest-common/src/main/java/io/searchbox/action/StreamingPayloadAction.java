@@ -0,0 +1,21 @@
+package io.searchbox.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.JestResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Represents an Action whose (potentially huge) request body can be written straight to the request stream
+ * instead of being built as a String by {@link Action#getData(ObjectMapper)} first. Clients which read request
+ * bodies rather than write them (e.g.: the async Apache client) write it once to a byte buffer instead.
+ */
+public interface StreamingPayloadAction<T extends JestResult> extends Action<T> {
+
+    /**
+     * Writes the same UTF-8 encoded payload as {@link Action#getData(ObjectMapper)} would return;
+     * the stream is flushed but not closed by this method.
+     */
+    void writeData(OutputStream outputStream, ObjectMapper objectMapper) throws IOException;
+}
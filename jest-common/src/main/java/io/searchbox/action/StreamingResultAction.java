@@ -0,0 +1,41 @@
+package io.searchbox.action;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.JestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Represents an Action whose result can be created without buffering the response body into a String first.
+ * <br/>
+ * When created from the response stream, the body is parsed exactly once with a Jackson parser reading from the
+ * stream, the raw JSON String is not kept on the result and will only be rendered from the parsed tree if
+ * {@link JestResult#getJsonString()} is called.
+ * <br/>
+ * When created from the raw response bytes, only these bytes are kept on the result; the JSON object, the JSON
+ * String and the map view of the result are built from them lazily on first access.
+ */
+public interface StreamingResultAction<T extends JestResult> extends Action<T> {
+
+    /**
+     * @param responseStream stream of the response body, can be null if the response had no entity;
+     *                       the stream is fully consumed and closed by this method
+     */
+    T createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * @param responseBody raw UTF-8 bytes of the response body, can be null if the response had no entity
+     */
+    T createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * Counterpart of {@link #createNewElasticSearchResult(InputStream, int, String, ObjectMapper)} for responses in
+     * another format than JSON (e.g.: Smile), parsed by a parser of that format.
+     *
+     * @param responseParser parser of the response body, can be null if the response had no entity;
+     *                       the parser is fully consumed and closed by this method
+     */
+    T createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException;
+}
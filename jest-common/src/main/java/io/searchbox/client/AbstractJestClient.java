@@ -1,26 +1,75 @@
 package io.searchbox.client;
 
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.action.AbstractAction;
+import io.searchbox.action.Action;
+import io.searchbox.action.FramedPayloadAction;
+import io.searchbox.action.StreamingPayloadAction;
+import io.searchbox.action.StreamingResultAction;
+import io.searchbox.client.config.ContentFormat;
 import io.searchbox.client.config.discovery.NodeChecker;
 import io.searchbox.client.config.exception.NoServerConfiguredException;
 import io.searchbox.client.config.idle.IdleConnectionReaper;
+import io.searchbox.client.metrics.ClientGauges;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.metrics.NoopClientMetricsListener;
+import io.searchbox.client.node.Node;
+import io.searchbox.client.node.NodePreference;
+import io.searchbox.client.node.NodeSelector;
+import io.searchbox.client.node.RoundRobinNodeSelector;
+import io.searchbox.client.node.ShardRoutingTable;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
+import io.searchbox.core.BulkResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @author Dogukan Sonmez
@@ -29,17 +78,60 @@ public abstract class AbstractJestClient implements JestClient {
 
     public static final String ELASTIC_SEARCH_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
 
+    public static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
+
     protected ObjectMapper objectMapper = new ObjectMapper()
             .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
             .setDateFormat(new SimpleDateFormat(ELASTIC_SEARCH_DATE_FORMAT));
 
     private final static Logger log = LoggerFactory.getLogger(AbstractJestClient.class);
 
+    private static final ClientGauges NO_GAUGES = new ClientGauges() {
+        @Override
+        public int getPendingAsyncRequests() {
+            return 0;
+        }
+
+        @Override
+        public int getLeasedConnections() {
+            return -1;
+        }
+
+        @Override
+        public int getAvailableConnections() {
+            return -1;
+        }
+
+        @Override
+        public int getPendingConnections() {
+            return -1;
+        }
+    };
+
     private final AtomicReference<ServerPool> serverPoolReference =
-            new AtomicReference<ServerPool>(new ServerPool(ImmutableSet.<String>of()));
+            new AtomicReference<ServerPool>(new ServerPool(ImmutableSet.<String>of(), null));
+    private volatile NodeSelector nodeSelector = new RoundRobinNodeSelector();
+    private volatile Map<String, String> preferredNodeAttributes = Collections.emptyMap();
+    private volatile NodePreference localNodePreference;
+    private volatile ShardRoutingTable shardRoutingTable;
+    private volatile ClientMetricsListener metricsListener = new NoopClientMetricsListener();
+    private long minDeadNodeTimeoutNanos = TimeUnit.MINUTES.toNanos(1);
+    private long maxDeadNodeTimeoutNanos = TimeUnit.MINUTES.toNanos(30);
     private NodeChecker nodeChecker;
     private IdleConnectionReaper idleConnectionReaper;
     private boolean requestCompressionEnabled;
+    private volatile RequestCompressionPolicy requestCompressionPolicy = new RequestCompressionPolicy.Builder().build();
+    private boolean responseCompressionEnabled;
+    private boolean responseStreamingEnabled;
+    private boolean lazyResponseParsingEnabled;
+    private volatile ContentFormat contentFormat = ContentFormat.JSON;
+    private volatile RetryBackoff retryBackoff = new RetryBackoff.Builder().build();
+    private volatile RetryBudget retryBudget;
+    private volatile HedgingPolicy hedgingPolicy;
+    private long attemptTimeoutNanos;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean closed;
+    private final Set<AsyncExecution<?>> asyncExecutions = Collections.newSetFromMap(new ConcurrentHashMap<AsyncExecution<?>, Boolean>());
 
     public void setNodeChecker(NodeChecker nodeChecker) {
         this.nodeChecker = nodeChecker;
@@ -57,11 +149,15 @@ public abstract class AbstractJestClient implements JestClient {
             }
             return;
         }
+        final ServerPool previousPool = serverPoolReference.get();
         if (log.isInfoEnabled()) {
-            log.info("Setting server pool to a list of {} servers: [{}]",
-                      servers.size(), Joiner.on(',').join(scrubServerURIs(servers)));
+            log.info("Setting server pool to a list of {} servers: [{}], added: [{}], removed: [{}]",
+                      servers.size(), Joiner.on(',').join(scrubServerURIs(servers)),
+                      Joiner.on(',').join(scrubServerURIs(Sets.difference(servers, previousPool.getServers()))),
+                      Joiner.on(',').join(scrubServerURIs(Sets.difference(previousPool.getServers(), servers))));
         }
-        serverPoolReference.set(new ServerPool(servers));
+        // nodes of the servers kept in the pool keep their state, only added and removed servers change
+        serverPoolReference.set(new ServerPool(servers, previousPool));
 
         if (servers.isEmpty()) {
             log.warn("No servers are currently available to connect.");
@@ -72,23 +168,31 @@ public abstract class AbstractJestClient implements JestClient {
     Set<String> scrubServerURIs(Set<String> servers) {
         final ImmutableSet.Builder<String> scrubbedServers = ImmutableSet.builder();
         for (String server : servers) {
-            final URI originalURI = URI.create(server);
-            try {
-                final URI scrubbedURI = new URI(originalURI.getScheme(),
-                        null, // Remove user info
-                        originalURI.getHost(),
-                        originalURI.getPort(),
-                        originalURI.getPath(),
-                        originalURI.getQuery(),
-                        originalURI.getFragment());
-                scrubbedServers.add(scrubbedURI.toString());
-            } catch (URISyntaxException e) {
-                log.debug("Couldn't scrub server URI " + originalURI, e);
+            final String scrubbedServer = scrubServerURI(server);
+            if (scrubbedServer != null) {
+                scrubbedServers.add(scrubbedServer);
             }
         }
         return scrubbedServers.build();
     }
 
+    private String scrubServerURI(String server) {
+        final URI originalURI = URI.create(server);
+        try {
+            final URI scrubbedURI = new URI(originalURI.getScheme(),
+                    null, // Remove user info
+                    originalURI.getHost(),
+                    originalURI.getPort(),
+                    originalURI.getPath(),
+                    originalURI.getQuery(),
+                    originalURI.getFragment());
+            return scrubbedURI.toString();
+        } catch (URISyntaxException e) {
+            log.debug("Couldn't scrub server URI " + originalURI, e);
+            return null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -101,6 +205,11 @@ public abstract class AbstractJestClient implements JestClient {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * Async executions still pending (e.g.: waiting for a retry) are failed with an {@link IOException}.
+     */
     @Override
     public void close() throws IOException {
         if (null != nodeChecker) {
@@ -111,13 +220,253 @@ public abstract class AbstractJestClient implements JestClient {
             idleConnectionReaper.stopAsync();
             idleConnectionReaper.awaitTerminated();
         }
+        synchronized (this) {
+            // no retry or hedge can be scheduled from now on
+            closed = true;
+        }
+        final IOException failure = new IOException("client closed");
+        for (AsyncExecution<?> execution : asyncExecutions) {
+            execution.fail(failure);
+        }
+        synchronized (this) {
+            if (retryScheduler != null) {
+                retryScheduler.shutdownNow();
+            }
+        }
+    }
+
+    protected boolean isClosed() {
+        return closed;
     }
 
     /**
      * @throws io.searchbox.client.config.exception.NoServerConfiguredException
      */
     protected String getNextServer() {
-        return serverPoolReference.get().getNextServer();
+        return getNextNode().getServer();
+    }
+
+    /**
+     * @return the node chosen by the node selector for the next request, clients should record the request on it
+     * @throws io.searchbox.client.config.exception.NoServerConfiguredException
+     */
+    protected Node getNextNode() {
+        return getNextNode((NodePreference) null);
+    }
+
+    /**
+     * @return the alive node holding the primary shard of the document(s) of the given action if shard aware routing
+     * is enabled and that node is known, otherwise the node chosen by the node selector among the nodes matching the
+     * {@link Action#getNodePreference() node preference} of the action (if any)
+     * @throws io.searchbox.client.config.exception.NoServerConfiguredException
+     */
+    protected Node getNextNode(Action<?> action) {
+        final ShardRoutingTable routingTable = shardRoutingTable;
+        if (routingTable != null) {
+            final String nodeId = routingTable.getPrimaryNodeId(action);
+            if (nodeId != null) {
+                final Node primaryNode = serverPoolReference.get().getAliveNode(nodeId);
+                if (primaryNode != null) {
+                    return primaryNode;
+                }
+            }
+        }
+        return getNextNode(action.getNodePreference());
+    }
+
+    /**
+     * @param triedNodes nodes the action already failed on, e.g.: to retry it on another node
+     * @return the node chosen as by {@link #getNextNode(Action)} unless the action was tried on it, then another
+     * alive node the action was not tried on (if any)
+     * @throws io.searchbox.client.config.exception.NoServerConfiguredException
+     */
+    protected Node getNextNode(Action<?> action, Collection<Node> triedNodes) {
+        Node node = getNextNode(action);
+        if (triedNodes.isEmpty() || !triedNodes.contains(node)) {
+            return node;
+        }
+
+        final List<Node> nodes = getNodes();
+        for (int i = 1; i < nodes.size() && triedNodes.contains(node); i++) {
+            node = getNextNode(action.getNodePreference());
+        }
+        if (triedNodes.contains(node)) {
+            // the selector keeps choosing tried nodes (e.g.: by latency), pick any other alive node
+            final long now = System.nanoTime();
+            for (Node candidate : nodes) {
+                if (!triedNodes.contains(candidate) && candidate.isAlive(now)) {
+                    return candidate;
+                }
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Nodes matching both the given preference and the preferred node attributes of the client are chosen first,
+     * then nodes matching the given preference, then nodes having the preferred attributes and finally any node.
+     *
+     * @param preference may be null
+     * @throws io.searchbox.client.config.exception.NoServerConfiguredException
+     */
+    protected Node getNextNode(NodePreference preference) {
+        final NodePreference local = localNodePreference;
+        if (local != null) {
+            preference = preference == null ? local : preference.and(local).orElse(preference).orElse(local);
+        }
+        return serverPoolReference.get().getNextNode(nodeSelector, preference);
+    }
+
+    /**
+     * @return the nodes of the server pool along with their request statistics
+     */
+    public List<Node> getNodes() {
+        return serverPoolReference.get().getNodes();
+    }
+
+    /**
+     * Marks the node dead after the client failed to connect to it or it responded as unavailable, so that it is
+     * skipped until its dead timeout elapses.
+     */
+    protected void markNodeDead(Node node) {
+        if (minDeadNodeTimeoutNanos <= 0) {
+            return;
+        }
+        final long timeout = node.markDead(minDeadNodeTimeoutNanos, maxDeadNodeTimeoutNanos);
+        if (timeout > 0) {
+            log.warn("Marking node {} dead for {} ms after {} consecutive failures", scrubServerURI(node.getServer()),
+                    TimeUnit.NANOSECONDS.toMillis(timeout), node.getConsecutiveFailures());
+        }
+    }
+
+    /**
+     * @return true if the exception means the node could not be reached at all, i.e.: the request was not sent
+     */
+    protected boolean isConnectFailure(Throwable throwable) {
+        return throwable instanceof ConnectException
+                || throwable instanceof NoRouteToHostException
+                || throwable instanceof UnknownHostException;
+    }
+
+    /**
+     * A 503 answered by Elasticsearch itself (e.g.: no master, all shards failed) reports the state of the cluster,
+     * which the other nodes would answer the same way, so it does not mark the node unavailable.
+     *
+     * @param contentType Content-Type of the response, null if it has none
+     * @return true if the response means the node is currently unavailable, i.e.: a 502 or 504 from a proxy in front
+     * of it, or a 503 without an Elasticsearch error body
+     */
+    protected boolean isNodeUnavailable(int statusCode, String contentType) {
+        if (statusCode == 502 || statusCode == 504) {
+            return true;
+        }
+        return statusCode == 503 && !isElasticsearchResponse(contentType);
+    }
+
+    /**
+     * @return true if the Content-Type is one Elasticsearch answers in
+     */
+    private static boolean isElasticsearchResponse(String contentType) {
+        return contentType != null && (contentType.regionMatches(true, 0, "application/json", 0, "application/json".length())
+                || ContentFormat.fromMediaType(contentType).isBinary());
+    }
+
+    protected void markNodeAlive(Node node) {
+        if (node.markAlive()) {
+            log.info("Node {} is alive again", scrubServerURI(node.getServer()));
+        }
+    }
+
+    /**
+     * Sets how long nodes are skipped after a failure: the min timeout after the first consecutive failure, doubled
+     * for each further one up to the max timeout. A min timeout of zero disables marking nodes dead.
+     */
+    public void setDeadNodeTimeout(long minTimeout, long maxTimeout, TimeUnit timeUnit) {
+        this.minDeadNodeTimeoutNanos = timeUnit.toNanos(minTimeout);
+        this.maxDeadNodeTimeoutNanos = timeUnit.toNanos(maxTimeout);
+    }
+
+    public NodeSelector getNodeSelector() {
+        return nodeSelector;
+    }
+
+    public void setNodeSelector(NodeSelector nodeSelector) {
+        this.nodeSelector = nodeSelector;
+    }
+
+    public ClientMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Reports the requests of the client to the given listener, and binds the gauges of the client to it.
+     */
+    public void setMetricsListener(ClientMetricsListener metricsListener) {
+        this.metricsListener = metricsListener == null ? new NoopClientMetricsListener() : metricsListener;
+        this.metricsListener.bindGauges(getGauges());
+    }
+
+    /**
+     * @return the gauges of the client, read live; by default the client has no pools and no async requests. Metrics
+     * libraries may only keep weak references to the gauges they read, so implementations should return an instance
+     * held by the client rather than a new one.
+     */
+    protected ClientGauges getGauges() {
+        return NO_GAUGES;
+    }
+
+    /**
+     * @return the action type the requests of the action are recorded under
+     */
+    protected String getActionType(Action<?> action) {
+        final String simpleName = action.getClass().getSimpleName();
+        return simpleName.isEmpty() ? action.getClass().getName() : simpleName;
+    }
+
+    /**
+     * Reports the failed items of a bulk result to the metrics listener.
+     */
+    protected void recordBulkItemFailures(Node node, JestResult result) {
+        if (result instanceof BulkResult && !result.isSucceeded()) {
+            final BulkResult bulkResult = (BulkResult) result;
+            final int failedItems = bulkResult.getFailedItemPositions().length;
+            if (failedItems > 0) {
+                metricsListener.onBulkItemFailures(node, failedItems, bulkResult.getItemCount());
+            }
+        }
+    }
+
+    public ShardRoutingTable getShardRoutingTable() {
+        return shardRoutingTable;
+    }
+
+    /**
+     * Enables shard aware routing of single document actions with the given table, or disables it if null.
+     */
+    public void setShardRoutingTable(ShardRoutingTable shardRoutingTable) {
+        this.shardRoutingTable = shardRoutingTable;
+    }
+
+    /**
+     * @return the attributes requests are preferably sent to nodes having, empty if none
+     */
+    public Map<String, String> getPreferredNodeAttributes() {
+        return preferredNodeAttributes;
+    }
+
+    /**
+     * Prefers nodes having all the given attributes (e.g.: the availability zone of the client) for all requests,
+     * in addition to the node preferences of the actions. Requires discovery, as the attributes of the nodes are
+     * only known once discovered.
+     */
+    public void setPreferredNodeAttributes(Map<String, String> preferredNodeAttributes) {
+        if (preferredNodeAttributes == null || preferredNodeAttributes.isEmpty()) {
+            this.preferredNodeAttributes = Collections.emptyMap();
+            this.localNodePreference = null;
+        } else {
+            this.preferredNodeAttributes = Collections.unmodifiableMap(new LinkedHashMap<String, String>(preferredNodeAttributes));
+            this.localNodePreference = NodePreference.withAttributes(preferredNodeAttributes);
+        }
     }
 
     protected int getServerPoolSize() {
@@ -141,39 +490,813 @@ public abstract class AbstractJestClient implements JestClient {
         this.requestCompressionEnabled = requestCompressionEnabled;
     }
 
-    private static final class ServerPool {
-        private final List<String> serversRing;
-        private final AtomicInteger nextServerIndex = new AtomicInteger(0);
+    public RequestCompressionPolicy getRequestCompressionPolicy() {
+        return requestCompressionPolicy;
+    }
+
+    /**
+     * Sets the policy deciding which request bodies are compressed if request compression is enabled.
+     */
+    public void setRequestCompressionPolicy(RequestCompressionPolicy requestCompressionPolicy) {
+        this.requestCompressionPolicy = requestCompressionPolicy;
+    }
 
-        public ServerPool(final Set<String> servers) {
-            this.serversRing = ImmutableList.copyOf(servers);
+    public boolean isResponseCompressionEnabled() {
+        return responseCompressionEnabled;
+    }
+
+    /**
+     * Sets whether to ask for gzip compressed responses, which are decompressed while they are read.
+     */
+    public void setResponseCompressionEnabled(boolean responseCompressionEnabled) {
+        this.responseCompressionEnabled = responseCompressionEnabled;
+    }
+
+    /**
+     * @param bodyLength size of the body of the action in bytes, -1 if unknown (e.g.: a streamed bulk payload)
+     * @return true if request compression is enabled and the compression policy deems it worth it for the action
+     */
+    protected boolean shouldCompressRequest(Action<?> action, long bodyLength) {
+        return requestCompressionEnabled && requestCompressionPolicy.shouldCompress(getActionType(action), bodyLength);
+    }
+
+    /**
+     * @return the given body of the action gzip compressed
+     */
+    protected byte[] compressRequest(Action<?> action, byte[] body) throws IOException {
+        return requestCompressionPolicy.compress(getActionType(action), body);
+    }
+
+    /**
+     * @return a stream gzip compressing the body of the action into the given stream; it must be closed to finish
+     * the compression, which leaves the given stream open
+     */
+    protected OutputStream compressRequest(Action<?> action, OutputStream outputStream) throws IOException {
+        return requestCompressionPolicy.compress(getActionType(action), outputStream);
+    }
+
+    public boolean isResponseStreamingEnabled() {
+        return responseStreamingEnabled;
+    }
+
+    public void setResponseStreamingEnabled(boolean responseStreamingEnabled) {
+        this.responseStreamingEnabled = responseStreamingEnabled;
+    }
+
+    public boolean isLazyResponseParsingEnabled() {
+        return lazyResponseParsingEnabled;
+    }
+
+    public void setLazyResponseParsingEnabled(boolean lazyResponseParsingEnabled) {
+        this.lazyResponseParsingEnabled = lazyResponseParsingEnabled;
+    }
+
+    public ContentFormat getContentFormat() {
+        return contentFormat;
+    }
+
+    /**
+     * Sets the format payloads are sent and responses requested in.
+     */
+    public void setContentFormat(ContentFormat contentFormat) {
+        this.contentFormat = contentFormat;
+    }
+
+    /**
+     * @return the format to send the payload of the action in: the content format of the client, unless the payload
+     * is a stream of documents the format does not support (e.g.: a bulk in CBOR) which is then sent in JSON
+     */
+    protected ContentFormat getRequestContentFormat(Action<?> action) {
+        final ContentFormat format = contentFormat;
+        if (format.isBinary() && action instanceof FramedPayloadAction && !format.isStreamSupported()) {
+            return ContentFormat.JSON;
         }
+        return format;
+    }
 
-        public Set<String> getServers() {
-            return ImmutableSet.copyOf(serversRing);
+    /**
+     * Creates the result of the action from a response in a binary format, parsed off the response stream. The JSON
+     * String of results of actions which are not {@link StreamingResultAction}s is rendered from the parsed response.
+     *
+     * @param responseStream stream of the response body, can be null if the response had no entity; the stream is
+     *                       fully consumed and closed by this method
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends JestResult> T deserializeBinaryResponse(Action<T> clientRequest, ContentFormat responseFormat,
+                                                                 InputStream responseStream, int statusCode,
+                                                                 String reasonPhrase) throws IOException {
+        final JsonParser parser = responseStream == null ? null : responseFormat.getFactory().createParser(responseStream);
+        if (clientRequest instanceof StreamingResultAction) {
+            return ((StreamingResultAction<T>) clientRequest).createNewElasticSearchResult(parser, statusCode, reasonPhrase, objectMapper);
+        }
+
+        String json = null;
+        if (parser != null) {
+            try (JsonParser responseParser = parser) {
+                if (responseParser.nextToken() != null) {
+                    json = objectMapper.writeValueAsString(objectMapper.readTree(responseParser));
+                }
+            }
         }
+        return clientRequest.createNewElasticSearchResult(json, statusCode, reasonPhrase, objectMapper);
+    }
+
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Sets the delays between the retries of async requests; sync requests are retried right away.
+     */
+    public void setRetryBackoff(RetryBackoff retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * Sets the budget shared by the retries of all (sync and async) requests, null for no limit.
+     */
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
 
-        public String getNextServer() {
-            if (serversRing.size() > 0) {
+    /**
+     * Sets the policy hedging the idempotent reads (sync and async) on a second node, null to disable hedging.
+     * <br/>
+     * While a policy is set, every sync read it can hedge (searches, gets, multi gets, counts and multi searches)
+     * is executed as an async request, whether it ends up hedged or not, and the calling thread waits for its
+     * result: it is sent by the async client (with its connections and timeouts), retried after the
+     * {@link #setRetryBackoff(RetryBackoff) retry backoff} like async requests, and the caller only waits for the
+     * {@link #setAttemptTimeout(long, TimeUnit) attempt timeout} after its last attempt started.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    public long getAttemptTimeout(TimeUnit timeUnit) {
+        return timeUnit.convert(attemptTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets how long the sync caller of a hedged read waits for its last attempt (or retry) to answer, e.g.: the
+     * connect timeout plus the read timeout of the client; 0 (the default) to wait as long as the attempts take.
+     */
+    public void setAttemptTimeout(long attemptTimeout, TimeUnit timeUnit) {
+        this.attemptTimeoutNanos = timeUnit.toNanos(attemptTimeout);
+    }
+
+    /**
+     * @return true if the budget (if any) allows to retry the request
+     */
+    protected boolean acquireRetry(RetryBudget retryBudget, Object request) {
+        if (retryBudget == null || retryBudget.tryAcquireRetry()) {
+            return true;
+        }
+        log.debug("Not retrying request {} as the retry budget of the client is exhausted", request);
+        return false;
+    }
+
+    /**
+     * @throws RejectedExecutionException if the client is closed
+     */
+    private synchronized ScheduledExecutorService getRetryScheduler() {
+        if (closed) {
+            throw new RejectedExecutionException("client closed");
+        }
+        if (retryScheduler == null) {
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("jest-async-retry-%d")
+                            .build());
+        }
+        return retryScheduler;
+    }
+
+    protected <T extends JestResult> TransportRequest createRequest(Action<T> clientRequest, Node node) throws IOException {
+        return createRequest(clientRequest, node, false);
+    }
+
+    /**
+     * Serializes the action, in the content format of the client, into a request to the given node, gzip
+     * compressing its body if request compression is enabled and the compression policy deems it worth it.
+     *
+     * @param bufferPayload true to write the payload of streaming actions (e.g.: bulk) once to a buffer, so that the
+     *                      compression policy knows its size, instead of having it written straight into the buffers
+     *                      of the transport
+     */
+    protected <T extends JestResult> TransportRequest createRequest(final Action<T> clientRequest, Node node,
+                                                                   boolean bufferPayload) throws IOException {
+        final String url = getRequestURL(node.getServer(), clientRequest.getURI());
+        final Map<String, String> headers = new LinkedHashMap<String, String>();
+        final ContentFormat format = getRequestContentFormat(clientRequest);
+
+        TransportRequest.Payload payload = null;
+        byte[] body = null;
+        boolean compress = false;
+        if (format.isBinary() ? clientRequest instanceof FramedPayloadAction : clientRequest instanceof StreamingPayloadAction) {
+            if (bufferPayload) {
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+                createPayload(clientRequest, format, false).writeTo(buffer);
+                body = buffer.toByteArray();
+            } else {
+                // written by the transport straight into its buffers
+                compress = shouldCompressRequest(clientRequest, -1);
+                payload = createPayload(clientRequest, format, compress);
+            }
+        } else if (format.isBinary()) {
+            body = encodePayload(clientRequest, format);
+        } else {
+            final String data = clientRequest.getData(objectMapper);
+            if (data != null) {
+                body = data.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        if (body != null) {
+            compress = shouldCompressRequest(clientRequest, body.length);
+            if (compress) {
+                body = compressRequest(clientRequest, body);
+            }
+        }
+        if (payload != null || body != null) {
+            headers.put("Content-Type", format.isBinary() ? format.getMediaType() : JSON_CONTENT_TYPE);
+            if (compress) {
+                headers.put("Content-Encoding", "gzip");
+            }
+        }
+        if (getContentFormat().isBinary()) {
+            headers.put("Accept", getContentFormat().getMediaType());
+        }
+        if (isResponseCompressionEnabled()) {
+            headers.put("Accept-Encoding", "gzip");
+        }
+
+        // add headers added to action
+        for (Map.Entry<String, Object> header : clientRequest.getHeaders().entrySet()) {
+            if (format.isBinary() && "Content-Type".equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            headers.put(header.getKey(), header.getValue().toString());
+        }
+
+        log.debug("Request method={} url={}", clientRequest.getRestMethodName(), url);
+        return payload != null
+                ? TransportRequest.withPayload(clientRequest.getRestMethodName(), url, payload, headers)
+                : new TransportRequest(clientRequest.getRestMethodName(), url, body, headers);
+    }
+
+    /**
+     * @return the payload of the given action (not framed per document) encoded in the given format, null if it has
+     * none; the payload object is written straight into the generator of the format unless it is a JSON string
+     */
+    protected byte[] encodePayload(Action<?> clientRequest, ContentFormat format) throws IOException {
+        final Object body = clientRequest instanceof AbstractAction
+                ? ((AbstractAction<?>) clientRequest).getBody(objectMapper)
+                : clientRequest.getData(objectMapper);
+        return body == null ? null : format.encode(body, objectMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends JestResult> TransportRequest.Payload createPayload(final Action<T> clientRequest,
+                                                                         final ContentFormat format,
+                                                                         final boolean compress) {
+        return new TransportRequest.Payload() {
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                final OutputStream payloadStream = compress ? compressRequest(clientRequest, outputStream) : outputStream;
+                if (format.isBinary()) {
+                    ((FramedPayloadAction<T>) clientRequest).writeData(payloadStream, objectMapper, format);
+                } else {
+                    ((StreamingPayloadAction<T>) clientRequest).writeData(payloadStream, objectMapper);
+                }
+                if (compress) {
+                    // finishes the compression, the stream of the transport is left open
+                    payloadStream.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates the result of the action from the response, parsed in the format and with the encoding it declares.
+     *
+     * @param requestLine request the response answers, for error messages
+     * @param statusLine  status line of the response, for error messages
+     * @throws IOException if the response is not in a content format of Elasticsearch (e.g.: text/html from a proxy)
+     */
+    protected <T extends JestResult> T deserializeResponse(Action<T> clientRequest, TransportResponse response,
+                                                           String requestLine, String statusLine) throws IOException {
+        try {
+            if (!"gzip".equalsIgnoreCase(response.getHeader("Content-Encoding"))) {
+                return deserializeDecodedResponse(clientRequest, response);
+            }
+            final Map<String, String> headers = new LinkedHashMap<String, String>(response.getHeaders());
+            headers.remove("Content-Encoding");
+            // e.g.: the response to a HEAD request has no body to decompress
+            final InputStream content = response.getBodyLength() == 0 ? null : response.getContent();
+            final TransportResponse decodedResponse = new TransportResponse(response.getStatusCode(),
+                    response.getReasonPhrase(), headers, content == null ? null : new GZIPInputStream(content), -1);
+            try {
+                return deserializeDecodedResponse(clientRequest, decodedResponse);
+            } finally {
+                decodedResponse.close();
+            }
+        } catch (JsonParseException e) {
+            final String mimeType = response.getHeader("Content-Type");
+            if (mimeType != null && !mimeType.startsWith("application/json") && !ContentFormat.fromMediaType(mimeType).isBinary()) {
+                // probably a proxy that responded in text/html
+                throw new IOException("Request " + requestLine + " yielded " + mimeType + ", should be json: " + statusLine, e);
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends JestResult> T deserializeDecodedResponse(Action<T> clientRequest, TransportResponse response) throws IOException {
+        final ContentFormat responseFormat = ContentFormat.fromMediaType(response.getHeader("Content-Type"));
+        if (responseFormat.isBinary()) {
+            return deserializeBinaryResponse(clientRequest, responseFormat, response.getContent(),
+                    response.getStatusCode(), response.getReasonPhrase());
+        }
+        if (isLazyResponseParsingEnabled() && clientRequest instanceof StreamingResultAction) {
+            return ((StreamingResultAction<T>) clientRequest).createNewElasticSearchResult(
+                    response.getBody(),
+                    response.getStatusCode(),
+                    response.getReasonPhrase(),
+                    objectMapper
+            );
+        }
+        if (isResponseStreamingEnabled() && clientRequest instanceof StreamingResultAction) {
+            return ((StreamingResultAction<T>) clientRequest).createNewElasticSearchResult(
+                    response.getContent(),
+                    response.getStatusCode(),
+                    response.getReasonPhrase(),
+                    objectMapper
+            );
+        }
+        final byte[] body = response.getBody();
+        return clientRequest.createNewElasticSearchResult(
+                body == null ? null : new String(body, StandardCharsets.UTF_8),
+                response.getStatusCode(),
+                response.getReasonPhrase(),
+                objectMapper
+        );
+    }
+
+    /**
+     * @return a result handler completing the given future
+     */
+    protected static <T> JestResultHandler<T> completing(final CompletableFuture<T> future) {
+        return new JestResultHandler<T>() {
+            @Override
+            public void completed(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(ex);
+            }
+        };
+    }
+
+    /**
+     * Starts the execution, created with a handler {@link #completing(CompletableFuture) completing} the given
+     * future, and aborts it (or its pending retry) as soon as the future is cancelled or completed exceptionally by
+     * the caller.
+     *
+     * @return the given future, completed exceptionally if the execution could not be started
+     */
+    protected <T extends JestResult> CompletableFuture<T> startAsync(final AsyncExecution<T> execution, CompletableFuture<T> future) {
+        try {
+            execution.start();
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        future.whenComplete(new BiConsumer<T, Throwable>() {
+            @Override
+            public void accept(T result, Throwable failure) {
+                // no-op if the request is already done
+                if (failure != null) {
+                    execution.cancel();
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Starts the execution, created with a handler {@link #completing(CompletableFuture) completing} the given
+     * future, and waits for the future; at most for the attempt timeout of the execution after its last attempt (or
+     * retry) started.
+     *
+     * @throws SocketTimeoutException if no attempt answered in time
+     */
+    protected <T extends JestResult> T executeAndWait(AsyncExecution<T> execution, CompletableFuture<T> future) throws IOException {
+        execution.start();
+        try {
+            if (execution.getAttemptTimeoutNanos() <= 0) {
+                return future.get();
+            }
+            long remainingNanos;
+            while ((remainingNanos = execution.getDeadlineNanos() - System.nanoTime()) > 0) {
                 try {
-                    return serversRing.get(nextServerIndex.getAndIncrement() % serversRing.size());
-                } catch (IndexOutOfBoundsException outOfBoundsException) {
-                    // In the very rare case where nextServerIndex overflowed, this will end up with a negative number,
-                    // resulting in an IndexOutOfBoundsException.
-                    // We should then start back at the beginning of the server list.
-                    // Note that this might happen on several threads at once, in which the reset might happen a few times
-                    log.info("Resetting next server index");
-                    nextServerIndex.set(0);
-                    return serversRing.get(nextServerIndex.getAndIncrement() % serversRing.size());
+                    return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // a retry or a hedge may have pushed the deadline back
                 }
             }
-            else {
+            execution.fail(new SocketTimeoutException("No response to " + getActionType(execution.getClientRequest())
+                    + " within " + TimeUnit.NANOSECONDS.toMillis(execution.getAttemptTimeoutNanos()) + " ms of its last attempt"));
+            return future.get();
+        } catch (InterruptedException e) {
+            execution.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Executes an action asynchronously on the next node, then on other nodes for each retry. The retry and the
+     * failure of an attempt are decided on the thread that failed it, the retries run on the retry scheduler.
+     * <br/>
+     * Hedgeable reads are also sent to another node once the delay of the {@link HedgingPolicy} elapsed without a
+     * response: the first attempt to answer wins and the others are aborted, a failed attempt is only reported (or
+     * retried) once no other attempt is pending.
+     */
+    protected abstract class AsyncExecution<T extends JestResult> {
+        private final Action<T> clientRequest;
+        private final JestResultHandler<? super T> resultHandler;
+        private final RetryBudget retryBudget;
+        private final HedgingPolicy hedgingPolicy;
+        private final List<Node> triedNodes = new CopyOnWriteArrayList<Node>();
+        private final List<Future<?>> attemptFutures = new CopyOnWriteArrayList<Future<?>>();
+        private final AtomicInteger pendingAttempts = new AtomicInteger();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile int executionCount;
+        private volatile ScheduledFuture<?> scheduledRetry;
+        private volatile ScheduledFuture<?> scheduledHedge;
+        private volatile boolean cancelled;
+        private final long startNanos = System.nanoTime();
+        private final long attemptTimeoutNanos;
+        private long deadlineNanos;
+
+        /**
+         * Forwards the outcome of the first attempt to end, then aborts the others.
+         */
+        private final JestResultHandler<T> attemptHandler = new JestResultHandler<T>() {
+            @Override
+            public void completed(T result) {
+                if (done.compareAndSet(false, true)) {
+                    asyncExecutions.remove(AsyncExecution.this);
+                    recordLatency();
+                    abortPendingAttempts();
+                    resultHandler.completed(result);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                if (done.compareAndSet(false, true)) {
+                    asyncExecutions.remove(AsyncExecution.this);
+                    abortPendingAttempts();
+                    resultHandler.failed(ex);
+                }
+            }
+        };
+
+        protected AsyncExecution(Action<T> clientRequest, JestResultHandler<? super T> resultHandler) {
+            this(clientRequest, resultHandler, AbstractJestClient.this.attemptTimeoutNanos);
+        }
+
+        /**
+         * @param attemptTimeoutNanos how long {@link #executeAndWait(AsyncExecution, CompletableFuture)} waits for
+         *                            the last attempt, 0 to wait as long as the attempts take
+         */
+        protected AsyncExecution(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, long attemptTimeoutNanos) {
+            this.clientRequest = clientRequest;
+            this.resultHandler = resultHandler;
+            this.retryBudget = AbstractJestClient.this.retryBudget;
+            final HedgingPolicy hedgingPolicy = AbstractJestClient.this.hedgingPolicy;
+            this.hedgingPolicy = hedgingPolicy != null && hedgingPolicy.isHedgeable(clientRequest) ? hedgingPolicy : null;
+            this.attemptTimeoutNanos = attemptTimeoutNanos;
+        }
+
+        /**
+         * Sends an attempt of the action to the given node, whose outcome is reported to the
+         * {@link #getAttemptHandler() attempt handler}; a failure is first passed to
+         * {@link #onAttemptFailed(Exception, Node, boolean)}.
+         *
+         * @return the future of the attempt, cancelled to abort it
+         */
+        protected abstract Future<?> sendAttempt(Node node) throws IOException;
+
+        /**
+         * @param executionCount number of retries of the execution so far
+         * @return true if the retry handler of the client retries the failed attempt
+         */
+        protected abstract boolean retryRequest(Exception failure, int executionCount);
+
+        public Action<T> getClientRequest() {
+            return clientRequest;
+        }
+
+        public JestResultHandler<T> getAttemptHandler() {
+            return attemptHandler;
+        }
+
+        public long getAttemptTimeoutNanos() {
+            return attemptTimeoutNanos;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} the attempts of the execution are expected to have answered by, i.e.: the
+         * attempt timeout after the start of its last attempt or scheduled retry; only tracked if the attempt timeout
+         * is not 0
+         */
+        public synchronized long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+
+        /**
+         * @param startNanos {@link System#nanoTime()} an attempt starts at
+         */
+        private synchronized void extendDeadline(long startNanos) {
+            final long deadline = startNanos + attemptTimeoutNanos;
+            if (deadlineNanos == 0 || deadline - deadlineNanos > 0) {
+                deadlineNanos = deadline;
+            }
+        }
+
+        public void start() throws IOException {
+            if (retryBudget != null) {
+                retryBudget.onRequest();
+            }
+            asyncExecutions.add(this);
+            try {
+                execute(getNextNode(clientRequest));
+            } catch (IOException | RuntimeException e) {
+                asyncExecutions.remove(this);
+                throw e;
+            }
+            if (hedgingPolicy != null) {
+                scheduleHedge();
+            }
+        }
+
+        private void execute(Node node) throws IOException {
+            extendDeadline(System.nanoTime());
+            triedNodes.add(node);
+            // counted first, the attempt may end before it is returned
+            pendingAttempts.incrementAndGet();
+            final Future<?> attemptFuture;
+            try {
+                attemptFuture = sendAttempt(node);
+            } catch (IOException | RuntimeException e) {
+                pendingAttempts.decrementAndGet();
+                throw e;
+            }
+            attemptFutures.add(attemptFuture);
+            if (cancelled || done.get()) {
+                attemptFuture.cancel(true);
+            }
+        }
+
+        private void scheduleHedge() {
+            hedgingPolicy.onRequest();
+            final long delayNanos = hedgingPolicy.getDelayNanos(getActionType(clientRequest));
+            if (delayNanos < 0) {
+                return;
+            }
+            try {
+                scheduledHedge = getRetryScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        hedge(delayNanos);
+                    }
+                }, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the client is closed
+            }
+        }
+
+        private void hedge(long delayNanos) {
+            if (cancelled || done.get()) {
+                return;
+            }
+            try {
+                final Node node = getNextNode(clientRequest, triedNodes);
+                // no other node to hedge on
+                if (triedNodes.contains(node) || !hedgingPolicy.tryAcquireHedge()) {
+                    return;
+                }
+                log.debug("Hedging {} on {} after {} ms", getActionType(clientRequest), node,
+                        TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                execute(node);
+            } catch (Exception e) {
+                // the pending attempt still answers
+                log.debug("Could not hedge request.", e);
+            }
+        }
+
+        /**
+         * Records the latency of the execution as a sample of the hedging delay. It is measured from the start of
+         * the execution rather than of the winning attempt, so that the slow attempts aborted by a hedge still
+         * count as slow.
+         */
+        private void recordLatency() {
+            if (hedgingPolicy != null) {
+                hedgingPolicy.onLatency(getActionType(clientRequest), System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * @param retryable false if the failure should not be retried (e.g.: it happened reading the response)
+         * @return true if the failure is handled by the execution (another attempt is pending or already won, or the
+         * failed attempt is retried), false if it should be reported
+         */
+        public boolean onAttemptFailed(Exception failure, Node node, boolean retryable) {
+            if (pendingAttempts.decrementAndGet() > 0 || done.get()) {
+                return true;
+            }
+            return retryable && retry(failure, node);
+        }
+
+        /**
+         * @return true if the failed attempt is retried, false if the failure should be reported
+         */
+        private boolean retry(Exception failure, Node node) {
+            final String actionType = getActionType(clientRequest);
+            if (cancelled || !retryRequest(failure, executionCount++) || !acquireRetry(retryBudget, actionType)) {
+                return false;
+            }
+
+            final long delayMillis = retryBackoff.getDelayMillis(executionCount - 1);
+            extendDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+            try {
+                scheduledRetry = getRetryScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cancelled || done.get()) {
+                            return;
+                        }
+                        try {
+                            execute(getNextNode(clientRequest, triedNodes));
+                        } catch (Exception e) {
+                            attemptHandler.failed(e);
+                        }
+                    }
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // the client is closed
+                return false;
+            }
+            log.debug("Retrying {} in {} ms (attempt {})", actionType, delayMillis, executionCount);
+            getMetricsListener().onRetry(actionType, node, executionCount);
+            return true;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            asyncExecutions.remove(this);
+            abortPendingAttempts();
+        }
+
+        /**
+         * Fails the execution with the given failure unless it is already done, aborting its pending attempts.
+         */
+        public void fail(Exception failure) {
+            attemptHandler.failed(failure);
+        }
+
+        /**
+         * Cancels the scheduled retry and hedge, aborts the pending attempts; no-op for the attempts already done.
+         */
+        private void abortPendingAttempts() {
+            final ScheduledFuture<?> retry = scheduledRetry;
+            if (retry != null) {
+                retry.cancel(false);
+            }
+            final ScheduledFuture<?> hedge = scheduledHedge;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            for (Future<?> attemptFuture : attemptFutures) {
+                attemptFuture.cancel(true);
+            }
+        }
+    }
+
+    private static final class ServerPool {
+        private final List<Node> nodes;
+        private final Set<String> servers;
+
+        /**
+         * @param previous pool whose nodes (and thus their statistics) are kept for the servers it shares with
+         *                 the new pool, may be null
+         */
+        public ServerPool(final Set<String> servers, final ServerPool previous) {
+            final Map<String, Node> previousNodes = new LinkedHashMap<String, Node>();
+            if (previous != null) {
+                for (Node node : previous.nodes) {
+                    previousNodes.put(node.getServer(), node);
+                }
+            }
+
+            final ImmutableList.Builder<Node> nodes = ImmutableList.builder();
+            for (String server : servers) {
+                final Node node = previousNodes.get(server);
+                nodes.add(node != null ? node : new Node(server));
+            }
+            this.nodes = nodes.build();
+            this.servers = ImmutableSet.copyOf(servers);
+        }
+
+        public Set<String> getServers() {
+            return servers;
+        }
+
+        public List<Node> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Selects among the alive nodes matching the preference (or all alive nodes if none matches); if all nodes
+         * are dead, the one that is the closest to being retried.
+         */
+        public Node getNextNode(NodeSelector nodeSelector, NodePreference preference) {
+            if (nodes.isEmpty()) {
                 throw new NoServerConfiguredException("No Server is assigned to client to connect");
             }
+
+            final long now = System.nanoTime();
+            List<Node> aliveNodes = null;
+            Node nextToResurrect = null;
+            for (int i = 0; i < nodes.size(); i++) {
+                final Node node = nodes.get(i);
+                if (node.isAlive(now)) {
+                    if (aliveNodes != null) {
+                        aliveNodes.add(node);
+                    }
+                } else {
+                    if (aliveNodes == null) {
+                        // only copied once a dead node is found, the common case does not allocate
+                        aliveNodes = new ArrayList<Node>(nodes.subList(0, i));
+                    }
+                    if (nextToResurrect == null || node.getDeadUntilNanos() - nextToResurrect.getDeadUntilNanos() < 0) {
+                        nextToResurrect = node;
+                    }
+                }
+            }
+
+            if (aliveNodes == null) {
+                aliveNodes = nodes;
+            } else if (aliveNodes.isEmpty()) {
+                return nextToResurrect;
+            }
+
+            if (preference != null) {
+                final List<Node> preferredNodes = preference.filter(aliveNodes);
+                if (!preferredNodes.isEmpty()) {
+                    return nodeSelector.select(preferredNodes);
+                }
+            }
+            return nodeSelector.select(aliveNodes);
+        }
+
+        /**
+         * @return the node with the given cluster node id if it is alive, null otherwise
+         */
+        public Node getAliveNode(String nodeId) {
+            for (int i = 0; i < nodes.size(); i++) {
+                final Node node = nodes.get(i);
+                if (nodeId.equals(node.getId())) {
+                    return node.isAlive(System.nanoTime()) ? node : null;
+                }
+            }
+            return null;
         }
 
         public int getSize() {
-            return serversRing.size();
+            return nodes.size();
         }
     }
 }
@@ -0,0 +1,193 @@
+package io.searchbox.client;
+
+import io.searchbox.action.Action;
+import io.searchbox.core.Count;
+import io.searchbox.core.Get;
+import io.searchbox.core.MultiGet;
+import io.searchbox.core.MultiSearch;
+import io.searchbox.core.Search;
+import io.searchbox.params.Parameters;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when to hedge idempotent reads (searches, gets, multi gets, counts and multi searches): if the first attempt
+ * of a read has not answered within the given percentile of the recent latencies of its action type, a duplicate is
+ * sent to another node and the first response wins, cutting the tail latency caused by a single slow node.
+ * <br/>
+ * With the default 95th percentile about 5% of the reads are duplicated; the hedges are moreover capped by a
+ * {@link RetryBudget}, so that a cluster slowing down as a whole does not get twice the load. Reads of an action type
+ * are not hedged until enough of its latencies were recorded.
+ * <br/>
+ * This class is thread-safe and meant to be shared by all requests of a client.
+ */
+public class HedgingPolicy {
+
+    /**
+     * Number of latencies recorded before the delay of an action type is computed again.
+     */
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final double percentile;
+    private final int windowSize;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final RetryBudget budget;
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<String, LatencyWindow>();
+
+    protected HedgingPolicy(Builder builder) {
+        this.percentile = builder.percentile;
+        this.windowSize = builder.windowSize;
+        this.minSamples = builder.minSamples;
+        this.minDelayNanos = builder.minDelayTimeUnit.toNanos(builder.minDelay);
+        this.budget = builder.budget != null
+                ? builder.budget : new RetryBudget.Builder().retryRatio(0.1).maxRetries(10).build();
+    }
+
+    /**
+     * @return true if the action is an idempotent read which may be hedged; scrolled searches are not, as each
+     * attempt would open a search context
+     */
+    public boolean isHedgeable(Action<?> action) {
+        if (action instanceof Search) {
+            return ((Search) action).getParameter(Parameters.SCROLL).isEmpty();
+        }
+        return action instanceof Get
+                || action instanceof MultiGet
+                || action instanceof Count
+                || action instanceof MultiSearch;
+    }
+
+    /**
+     * @return the delay after which to hedge a read of the given action type, -1 if not enough latencies of it were
+     * recorded yet
+     */
+    public long getDelayNanos(String actionType) {
+        final LatencyWindow window = windows.get(actionType);
+        return window == null ? -1 : window.getDelayNanos();
+    }
+
+    /**
+     * Records the latency of an attempt of a read of the given action type.
+     */
+    public void onLatency(String actionType, long latencyNanos) {
+        LatencyWindow window = windows.get(actionType);
+        if (window == null) {
+            final LatencyWindow newWindow = new LatencyWindow();
+            window = windows.putIfAbsent(actionType, newWindow);
+            if (window == null) {
+                window = newWindow;
+            }
+        }
+        window.record(latencyNanos);
+    }
+
+    /**
+     * Records a hedgeable read sent by the client, earning part of a hedge.
+     */
+    public void onRequest() {
+        budget.onRequest();
+    }
+
+    /**
+     * @return true if the budget allows a hedge, which is then withdrawn from it
+     */
+    public boolean tryAcquireHedge() {
+        return budget.tryAcquireRetry();
+    }
+
+    private final class LatencyWindow {
+        private final long[] latencies = new long[windowSize];
+        private int size;
+        private int next;
+        private int recordedSinceComputed;
+        private long delayNanos = -1;
+
+        synchronized void record(long latencyNanos) {
+            latencies[next] = latencyNanos;
+            next = (next + 1) % latencies.length;
+            if (size < latencies.length) {
+                size++;
+            }
+            if (size >= minSamples && (delayNanos < 0 || ++recordedSinceComputed >= RECOMPUTE_INTERVAL)) {
+                recordedSinceComputed = 0;
+                final long[] sorted = Arrays.copyOf(latencies, size);
+                Arrays.sort(sorted);
+                final int index = Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+                delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+            }
+        }
+
+        synchronized long getDelayNanos() {
+            return delayNanos;
+        }
+    }
+
+    public static class Builder {
+        private double percentile = 0.95;
+        private int windowSize = 1000;
+        private int minSamples = 100;
+        private long minDelay = 10;
+        private TimeUnit minDelayTimeUnit = TimeUnit.MILLISECONDS;
+        private RetryBudget budget;
+
+        /**
+         * Percentile of the recent latencies of an action type after which its reads are hedged, defaults to 0.95.
+         */
+        public Builder percentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Number of recent latencies of each action type the percentile is computed on, defaults to 1000.
+         */
+        public Builder windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Number of latencies of an action type to record before its reads are hedged, defaults to 100.
+         */
+        public Builder minSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * Reads are never hedged sooner than this delay, 10 ms by default: duplicating fast reads costs more load
+         * than it saves latency.
+         */
+        public Builder minDelay(long minDelay, TimeUnit minDelayTimeUnit) {
+            this.minDelay = minDelay;
+            this.minDelayTimeUnit = minDelayTimeUnit;
+            return this;
+        }
+
+        /**
+         * Caps the hedges to a fraction of the hedgeable reads, by default to 10% of them with at most 10 hedges
+         * saved up for a burst of slow reads.
+         */
+        public Builder budget(RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        public HedgingPolicy build() {
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1 exclusive");
+            }
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("Window size must be positive");
+            }
+            if (minSamples < 1 || minSamples > windowSize) {
+                throw new IllegalArgumentException("Min samples must be positive and at most the window size");
+            }
+            return new HedgingPolicy(this);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import io.searchbox.action.Action;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -17,6 +18,31 @@ public interface JestClient extends Closeable {
 
     <T extends JestResult> void executeAsync(Action<T> clientRequest, JestResultHandler<? super T> jestResultHandler) throws IOException;
 
+    /**
+     * Executes the action asynchronously. The returned future completes with the result, or exceptionally if the
+     * action could not be executed. Cancelling the future (or completing it otherwise, e.g.: on a timeout) aborts
+     * the request if the client supports it.
+     */
+    default <T extends JestResult> CompletableFuture<T> executeAsync(Action<T> clientRequest) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executeAsync(clientRequest, new JestResultHandler<T>() {
+                @Override
+                public void completed(T result) {
+                    future.complete(result);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * @deprecated Use {@link #close()} instead.
      */
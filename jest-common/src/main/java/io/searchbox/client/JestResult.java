@@ -11,15 +11,22 @@ import io.searchbox.annotations.JestVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * The JSON object, JSON String and map view of a result are built lazily on first access (e.g.: from the retained
+ * response bytes) and are not thread-safe; a result shared between threads should have them built before it is
+ * published.
+ *
  * @author Dogukan Sonmez
  */
 public class JestResult {
@@ -49,11 +56,20 @@ public class JestResult {
 
     protected JsonNode jsonObject;
     protected String jsonString;
+    /**
+     * Raw UTF-8 bytes of the response, only retained when the result is built lazily.
+     */
+    protected byte[] jsonBytes;
     protected String pathToResult;
     protected int responseCode;
     protected boolean isSucceeded;
     protected String errorMessage;
     protected ObjectMapper objectMapper;
+    protected boolean jsonStringDeferred;
+    /**
+     * Map view read from {@link #jsonBytes}, only cached until the JSON object is built.
+     */
+    private Map<String, Map> jsonMap;
 
     private JestResult() {
     }
@@ -61,11 +77,13 @@ public class JestResult {
     public JestResult(JestResult source) {
         this.jsonObject = source.jsonObject;
         this.jsonString = source.jsonString;
+        this.jsonBytes = source.jsonBytes;
         this.pathToResult = source.pathToResult;
         this.responseCode = source.responseCode;
         this.isSucceeded = source.isSucceeded;
         this.errorMessage = source.errorMessage;
         this.objectMapper = source.objectMapper;
+        this.jsonStringDeferred = source.jsonStringDeferred;
     }
 
     public JestResult(ObjectMapper objectMapper) {
@@ -81,6 +99,9 @@ public class JestResult {
     }
 
     public Object getValue(String key) {
+        if (jsonObject == null && jsonBytes != null) {
+            return rawJsonMap().get(key);
+        }
         return getJsonMap().get(key);
     }
 
@@ -93,6 +114,13 @@ public class JestResult {
     }
 
     public String getJsonString() {
+        if (jsonString == null) {
+            if (jsonBytes != null) {
+                jsonString = new String(jsonBytes, StandardCharsets.UTF_8);
+            } else if (jsonStringDeferred && jsonObject != null) {
+                jsonString = jsonObject.toString();
+            }
+        }
         return jsonString;
     }
 
@@ -100,6 +128,15 @@ public class JestResult {
         this.jsonString = jsonString;
     }
 
+    /**
+     * Marks the JSON String of this result as not retained from the response (e.g.: result was parsed straight
+     * off the response stream); it will then be rendered from the JSON object on the first call to
+     * {@link #getJsonString()}.
+     */
+    public void setJsonStringDeferred(boolean jsonStringDeferred) {
+        this.jsonStringDeferred = jsonStringDeferred;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -120,21 +157,61 @@ public class JestResult {
     }
 
     public JsonNode getJsonObject() {
+        if (jsonObject == null && jsonBytes != null) {
+            try {
+                setJsonObject(objectMapper.readTree(jsonBytes));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not parse retained response body", e);
+            }
+        }
         return jsonObject;
     }
 
     public void setJsonObject(JsonNode jsonObject) {
         this.jsonObject = jsonObject;
+        this.jsonMap = null;
         if (jsonObject.get("error") != null) {
             errorMessage = jsonObject.get("error").toString();
         }
     }
 
+    /**
+     * Retains the raw UTF-8 response body without parsing it; the JSON object, the JSON String and the map view
+     * of this result are then built from these bytes on first access.
+     */
+    public void setJsonBytes(byte[] jsonBytes) {
+        this.jsonBytes = jsonBytes;
+        this.jsonObject = null;
+        this.jsonString = null;
+        this.jsonMap = null;
+    }
+
+    /**
+     * @return the map view of this result, null if it has no JSON. While the response bytes retained by
+     * {@link #setJsonBytes(byte[])} are not parsed into the JSON object, the map view is read from them once and
+     * cached: a copy of it is returned, whose nested values are shared with the cached map and must not be modified.
+     * Otherwise the map view is converted from the JSON object on each call.
+     */
     @Deprecated
     public Map<String, Map> getJsonMap() {
+        if (jsonObject == null && jsonBytes != null) {
+            final Map<String, Map> rawJsonMap = rawJsonMap();
+            return rawJsonMap == null ? null : new LinkedHashMap<String, Map>(rawJsonMap);
+        }
         return objectMapper.convertValue(jsonObject, TYPE_REFERENCE);
     }
 
+    private Map<String, Map> rawJsonMap() {
+        if (jsonMap == null) {
+            try {
+                jsonMap = objectMapper.readValue(jsonBytes, TYPE_REFERENCE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not parse retained response body", e);
+            }
+        }
+        return jsonMap;
+    }
+
     public void setJsonMap(Map<String, Object> resultMap) {
         final JsonNode jsonNode = objectMapper.convertValue(resultMap, JsonNode.class);
         setJsonObject(jsonNode);
@@ -158,6 +235,7 @@ public class JestResult {
      */
     public List<String> getSourceAsStringList() {
         String[] keys = getKeys();
+        final JsonNode jsonObject = getJsonObject();
         if (!isSucceeded || jsonObject == null || keys == null || keys.length == 0 || !jsonObject.has(keys[0])) {
             return null;
         }
@@ -210,6 +288,7 @@ public class JestResult {
     protected List<JsonNode> extractSource(boolean addEsMetadataFields) {
         List<JsonNode> sourceList = new ArrayList<JsonNode>();
 
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null) {
             String[] keys = getKeys();
             if (keys == null) {
@@ -266,32 +345,38 @@ public class JestResult {
         T obj = null;
         try {
             obj = objectMapper.convertValue(source, type);
+            assignMetaFields(obj, source, type);
+        } catch (Exception e) {
+            log.error("Unhandled exception occurred while converting source to the object. " + type.getCanonicalName(), e);
+        }
+        return obj;
+    }
 
-            // Check if JestId is visible
-            Class clazz = type;
-            int knownMetadataFieldsCount = META_FIELDS.size();
-            int foundFieldsCount = 0;
-            boolean allFieldsFound = false;
-            while (clazz != null && !allFieldsFound) {
-                Field[] fields = clazz.getDeclaredFields();
-                for (Field field : fields) {
-                    if (foundFieldsCount == knownMetadataFieldsCount) {
-                        allFieldsFound = true;
-                        break;
-                    }
-                    for (MetaField metaField : META_FIELDS) {
-                        if (field.isAnnotationPresent(metaField.annotationClass) && setAnnotatedField(obj, source, field, metaField.internalFieldName)) {
-                            foundFieldsCount++;
-                        }
+    /**
+     * Sets the fields of obj annotated with {@link JestId} or {@link JestVersion} (unless they already have a value)
+     * from the corresponding internal metadata fields (e.g.: {@value #ES_METADATA_ID}) of the given node.
+     */
+    protected <T> void assignMetaFields(T obj, JsonNode metaFields, Class<T> type) {
+        // Check if JestId is visible
+        Class clazz = type;
+        int knownMetadataFieldsCount = META_FIELDS.size();
+        int foundFieldsCount = 0;
+        boolean allFieldsFound = false;
+        while (clazz != null && !allFieldsFound) {
+            Field[] fields = clazz.getDeclaredFields();
+            for (Field field : fields) {
+                if (foundFieldsCount == knownMetadataFieldsCount) {
+                    allFieldsFound = true;
+                    break;
+                }
+                for (MetaField metaField : META_FIELDS) {
+                    if (field.isAnnotationPresent(metaField.annotationClass) && setAnnotatedField(obj, metaFields, field, metaField.internalFieldName)) {
+                        foundFieldsCount++;
                     }
                 }
-                clazz = clazz.getSuperclass();
             }
-
-        } catch (Exception e) {
-            log.error("Unhandled exception occurred while converting source to the object. " + type.getCanonicalName(), e);
+            clazz = clazz.getSuperclass();
         }
-        return obj;
     }
 
     private <T> boolean setAnnotatedField(T obj, JsonNode source, Field field, String fieldName) {
@@ -0,0 +1,199 @@
+package io.searchbox.client;
+
+import com.google.common.io.CountingOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decides which request bodies are worth gzip compressing: bodies smaller than the threshold are sent as is, as are
+ * the bodies of action types which do not compress well. The ratio (compressed size / original size) achieved for
+ * each action type is tracked as a moving average; once it exceeds the max ratio, the bodies of that action type are
+ * sent uncompressed, except for one out of every probe interval which is still compressed to track the ratio.
+ * <br/>
+ * This class is thread-safe and meant to be shared by all requests of a client.
+ */
+public class RequestCompressionPolicy {
+
+    /**
+     * Weight of the last ratio in the moving average of an action type.
+     */
+    private static final double RATIO_WEIGHT = 0.2;
+
+    private final int threshold;
+    private final double maxRatio;
+    private final int probeInterval;
+    private final ConcurrentMap<String, CompressionStats> stats = new ConcurrentHashMap<String, CompressionStats>();
+
+    protected RequestCompressionPolicy(Builder builder) {
+        this.threshold = builder.threshold;
+        this.maxRatio = builder.maxRatio;
+        this.probeInterval = builder.probeInterval;
+    }
+
+    /**
+     * @param bodyLength size of the body in bytes, -1 if unknown (e.g.: a streamed bulk payload)
+     * @return true if the body of the request should be compressed
+     */
+    public boolean shouldCompress(String actionType, long bodyLength) {
+        if (bodyLength >= 0 && bodyLength < threshold) {
+            return false;
+        }
+        final CompressionStats actionStats = stats.get(actionType);
+        return actionStats == null || actionStats.shouldCompress();
+    }
+
+    /**
+     * Records the sizes of a compressed body of the given action type; bodies under the threshold (e.g.: a small
+     * streamed bulk) are ignored, as the gzip header and trailer skew their ratio.
+     */
+    public void onCompressed(String actionType, long length, long compressedLength) {
+        if (length <= 0 || length < threshold) {
+            return;
+        }
+        CompressionStats actionStats = stats.get(actionType);
+        if (actionStats == null) {
+            final CompressionStats newStats = new CompressionStats();
+            actionStats = stats.putIfAbsent(actionType, newStats);
+            if (actionStats == null) {
+                actionStats = newStats;
+            }
+        }
+        actionStats.record((double) compressedLength / length);
+    }
+
+    /**
+     * @return the average ratio achieved compressing bodies of the given action type, NaN if none was compressed yet
+     */
+    public double getCompressionRatio(String actionType) {
+        final CompressionStats actionStats = stats.get(actionType);
+        return actionStats == null ? Double.NaN : actionStats.getRatio();
+    }
+
+    /**
+     * @return the given body gzip compressed, its ratio recorded for the action type
+     */
+    public byte[] compress(String actionType, byte[] body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, body.length / 4));
+        final OutputStream outputStream = compress(actionType, bytes);
+        outputStream.write(body);
+        outputStream.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return a stream gzip compressing what is written to it into the given stream; closing it finishes the
+     * compression and records its ratio for the action type, but leaves the given stream open
+     */
+    public OutputStream compress(String actionType, OutputStream outputStream) throws IOException {
+        return new CompressingOutputStream(actionType, new CountingOutputStream(outputStream));
+    }
+
+    private final class CompressionStats {
+        private double ratio = Double.NaN;
+        private int skipped;
+
+        synchronized void record(double lastRatio) {
+            ratio = Double.isNaN(ratio) ? lastRatio : ratio + RATIO_WEIGHT * (lastRatio - ratio);
+        }
+
+        synchronized double getRatio() {
+            return ratio;
+        }
+
+        synchronized boolean shouldCompress() {
+            if (Double.isNaN(ratio) || ratio <= maxRatio) {
+                return true;
+            }
+            if (++skipped >= probeInterval) {
+                skipped = 0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class CompressingOutputStream extends GZIPOutputStream {
+        private final String actionType;
+        private final CountingOutputStream compressed;
+        private long length;
+        private boolean closed;
+
+        CompressingOutputStream(String actionType, CountingOutputStream compressed) throws IOException {
+            super(compressed, 8192);
+            this.actionType = actionType;
+            this.compressed = compressed;
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            length += len;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+                flush();
+            } finally {
+                def.end();
+            }
+            onCompressed(actionType, length, compressed.getCount());
+        }
+    }
+
+    public static class Builder {
+        private int threshold = 1024;
+        private double maxRatio = 0.8;
+        private int probeInterval = 100;
+
+        /**
+         * Size in bytes under which bodies are sent uncompressed, defaults to 1 KB: compressing smaller bodies costs
+         * more CPU than it saves transfer time. Does not apply to streamed payloads, whose size is unknown.
+         */
+        public Builder threshold(int threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Average compressed size / original size above which the bodies of an action type are sent uncompressed,
+         * defaults to 0.8 (i.e.: compression must save at least 20%).
+         */
+        public Builder maxRatio(double maxRatio) {
+            this.maxRatio = maxRatio;
+            return this;
+        }
+
+        /**
+         * One out of how many bodies of an action type sent uncompressed is still compressed to track the ratio,
+         * defaults to 100.
+         */
+        public Builder probeInterval(int probeInterval) {
+            this.probeInterval = probeInterval;
+            return this;
+        }
+
+        public RequestCompressionPolicy build() {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("Threshold must not be negative");
+            }
+            if (maxRatio <= 0) {
+                throw new IllegalArgumentException("Max ratio must be positive");
+            }
+            if (probeInterval < 1) {
+                throw new IllegalArgumentException("Probe interval must be positive");
+            }
+            return new RequestCompressionPolicy(this);
+        }
+    }
+}
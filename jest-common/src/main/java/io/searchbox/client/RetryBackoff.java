@@ -0,0 +1,71 @@
+package io.searchbox.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exponentially growing, jittered delays between the retries of a request, so that clients retrying at the same
+ * time do not hit the cluster in lockstep.
+ */
+public class RetryBackoff {
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double jitter;
+
+    protected RetryBackoff(Builder builder) {
+        this.initialDelayMillis = builder.initialDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.jitter = builder.jitter;
+    }
+
+    /**
+     * @param retryCount number of retries done so far
+     * @return delay before the next retry; the exponential delay capped at the max delay, reduced by a random
+     * fraction of up to the jitter
+     */
+    public long getDelayMillis(int retryCount) {
+        long delay = maxDelayMillis;
+        if (retryCount < 31) {
+            delay = Math.min(maxDelayMillis, initialDelayMillis * (1L << retryCount));
+        }
+        return Math.round(delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    public static class Builder {
+        private long initialDelayMillis = 50;
+        private long maxDelayMillis = 5000;
+        private double jitter = 0.5;
+
+        /**
+         * Delay before the first retry, defaults to 50 ms.
+         */
+        public Builder initialDelay(long initialDelay, TimeUnit timeUnit) {
+            this.initialDelayMillis = timeUnit.toMillis(initialDelay);
+            return this;
+        }
+
+        /**
+         * Upper bound of the delays, defaults to 5 s.
+         */
+        public Builder maxDelay(long maxDelay, TimeUnit timeUnit) {
+            this.maxDelayMillis = timeUnit.toMillis(maxDelay);
+            return this;
+        }
+
+        /**
+         * Fraction (between 0 and 1) by which each delay is randomly reduced, defaults to 0.5.
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public RetryBackoff build() {
+            if (jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("Jitter must be between 0 and 1");
+            }
+            return new RetryBackoff(this);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.searchbox.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the retries of a client to a fraction of its requests, so that retries can not multiply the load of a
+ * cluster that is failing as a whole (a retry storm). Each request deposits the retry ratio into a bucket holding
+ * at most the given number of retries, and each retry withdraws one; retries are denied while the bucket is empty.
+ * <br/>
+ * The bucket starts full, so that a client that has not sent many requests yet can still retry.
+ * <br/>
+ * This class is thread-safe and meant to be shared by all requests of a client.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    protected RetryBudget(Builder builder) {
+        this.depositPerRequest = Math.round(builder.retryRatio * SCALE);
+        this.maxBalance = builder.maxRetries * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Records a request (not a retry) sent by the client.
+     */
+    public void onRequest() {
+        long current;
+        long next;
+        do {
+            current = balance.get();
+            next = Math.min(maxBalance, current + depositPerRequest);
+        } while (current != next && !balance.compareAndSet(current, next));
+    }
+
+    /**
+     * @return true if the budget allows a retry, which is then withdrawn from it
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * @return the number of retries currently allowed
+     */
+    public int getAvailableRetries() {
+        return (int) (balance.get() / SCALE);
+    }
+
+    public static class Builder {
+        private double retryRatio = 0.1;
+        private int maxRetries = 10;
+
+        /**
+         * Retries allowed per request in the long run, defaults to 0.1 (i.e.: at most 10% of the requests are
+         * retried).
+         */
+        public Builder retryRatio(double retryRatio) {
+            this.retryRatio = retryRatio;
+            return this;
+        }
+
+        /**
+         * Retries that can be saved up for a burst of failures, defaults to 10.
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public RetryBudget build() {
+            if (retryRatio < 0) {
+                throw new IllegalArgumentException("Retry ratio must not be negative");
+            }
+            if (maxRetries < 1) {
+                throw new IllegalArgumentException("Max retries must be positive");
+            }
+            return new RetryBudget(this);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package io.searchbox.client.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.HedgingPolicy;
+import io.searchbox.client.RequestCompressionPolicy;
+import io.searchbox.client.RetryBackoff;
+import io.searchbox.client.RetryBudget;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.node.NodeSelector;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -19,6 +27,12 @@ public class ClientConfig {
     private boolean isDiscoveryEnabled;
     private String discoveryFilter;
     private boolean isRequestCompressionEnabled;
+    private RequestCompressionPolicy requestCompressionPolicy;
+    private boolean isResponseCompressionEnabled;
+    private boolean isResponseStreamingEnabled;
+    private boolean isLazyResponseParsingEnabled;
+    private boolean isShardAwareRoutingEnabled;
+    private ContentFormat contentFormat;
     private int connTimeout;
     private int readTimeout;
     private long discoveryFrequency;
@@ -26,6 +40,15 @@ public class ClientConfig {
     private TimeUnit discoveryFrequencyTimeUnit;
     private TimeUnit maxConnectionIdleTimeDurationTimeUnit;
     private ObjectMapper objectMapper;
+    private NodeSelector nodeSelector;
+    private long minDeadNodeTimeout;
+    private long maxDeadNodeTimeout;
+    private TimeUnit deadNodeTimeoutTimeUnit;
+    private Map<String, String> preferredNodeAttributes;
+    private ClientMetricsListener metricsListener;
+    private RetryBackoff retryBackoff;
+    private RetryBudget retryBudget;
+    private HedgingPolicy hedgingPolicy;
 
     private String defaultSchemeForDiscoveredNodes;
 
@@ -38,6 +61,12 @@ public class ClientConfig {
         this.isDiscoveryEnabled = builder.isDiscoveryEnabled;
         this.discoveryFilter = builder.discoveryFilter;
         this.isRequestCompressionEnabled = builder.isRequestCompressionEnabled;
+        this.requestCompressionPolicy = builder.requestCompressionPolicy;
+        this.isResponseCompressionEnabled = builder.isResponseCompressionEnabled;
+        this.isResponseStreamingEnabled = builder.isResponseStreamingEnabled;
+        this.isLazyResponseParsingEnabled = builder.isLazyResponseParsingEnabled;
+        this.isShardAwareRoutingEnabled = builder.isShardAwareRoutingEnabled;
+        this.contentFormat = builder.contentFormat;
         this.discoveryFrequency = builder.discoveryFrequency;
         this.discoveryFrequencyTimeUnit = builder.discoveryFrequencyTimeUnit;
         this.connTimeout = builder.connTimeout;
@@ -45,6 +74,15 @@ public class ClientConfig {
         this.maxConnectionIdleTime = builder.maxConnectionIdleTime;
         this.maxConnectionIdleTimeDurationTimeUnit = builder.maxConnectionIdleTimeDurationTimeUnit;
         this.objectMapper = builder.objectMapper;
+        this.nodeSelector = builder.nodeSelector;
+        this.minDeadNodeTimeout = builder.minDeadNodeTimeout;
+        this.maxDeadNodeTimeout = builder.maxDeadNodeTimeout;
+        this.deadNodeTimeoutTimeUnit = builder.deadNodeTimeoutTimeUnit;
+        this.preferredNodeAttributes = builder.preferredNodeAttributes;
+        this.metricsListener = builder.metricsListener;
+        this.retryBackoff = builder.retryBackoff;
+        this.retryBudget = builder.retryBudget;
+        this.hedgingPolicy = builder.hedgingPolicy;
         this.defaultSchemeForDiscoveredNodes = builder.defaultSchemeForDiscoveredNodes;
     }
 
@@ -92,6 +130,42 @@ public class ClientConfig {
         return objectMapper;
     }
 
+    public NodeSelector getNodeSelector() {
+        return nodeSelector;
+    }
+
+    public long getMinDeadNodeTimeout() {
+        return minDeadNodeTimeout;
+    }
+
+    public long getMaxDeadNodeTimeout() {
+        return maxDeadNodeTimeout;
+    }
+
+    public TimeUnit getDeadNodeTimeoutTimeUnit() {
+        return deadNodeTimeoutTimeUnit;
+    }
+
+    public Map<String, String> getPreferredNodeAttributes() {
+        return preferredNodeAttributes;
+    }
+
+    public ClientMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    public RetryBackoff getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
     public String getDefaultSchemeForDiscoveredNodes() {
         return defaultSchemeForDiscoveredNodes;
     }
@@ -100,6 +174,30 @@ public class ClientConfig {
         return isRequestCompressionEnabled;
     }
 
+    public RequestCompressionPolicy getRequestCompressionPolicy() {
+        return requestCompressionPolicy;
+    }
+
+    public boolean isResponseCompressionEnabled() {
+        return isResponseCompressionEnabled;
+    }
+
+    public boolean isResponseStreamingEnabled() {
+        return isResponseStreamingEnabled;
+    }
+
+    public boolean isLazyResponseParsingEnabled() {
+        return isLazyResponseParsingEnabled;
+    }
+
+    public boolean isShardAwareRoutingEnabled() {
+        return isShardAwareRoutingEnabled;
+    }
+
+    public ContentFormat getContentFormat() {
+        return contentFormat;
+    }
+
     public static class Builder extends AbstractBuilder<ClientConfig, Builder> {
 
         public Builder(ClientConfig clientConfig) {
@@ -126,6 +224,12 @@ public class ClientConfig {
                 isMultiThreaded,
                 isDiscoveryEnabled,
                 isRequestCompressionEnabled,
+                requestCompressionPolicy,
+                isResponseCompressionEnabled,
+                isResponseStreamingEnabled,
+                isLazyResponseParsingEnabled,
+                isShardAwareRoutingEnabled,
+                contentFormat,
                 discoveryFrequency,
                 discoveryFilter,
                 connTimeout,
@@ -134,6 +238,15 @@ public class ClientConfig {
                 maxConnectionIdleTime,
                 maxConnectionIdleTimeDurationTimeUnit,
                 objectMapper,
+                nodeSelector,
+                minDeadNodeTimeout,
+                maxDeadNodeTimeout,
+                deadNodeTimeoutTimeUnit,
+                preferredNodeAttributes,
+                metricsListener,
+                retryBackoff,
+                retryBudget,
+                hedgingPolicy,
                 defaultSchemeForDiscoveredNodes);
     }
 
@@ -154,6 +267,12 @@ public class ClientConfig {
                 && Objects.equals(isMultiThreaded, rhs.isMultiThreaded)
                 && Objects.equals(isDiscoveryEnabled, rhs.isDiscoveryEnabled)
                 && Objects.equals(isRequestCompressionEnabled, rhs.isRequestCompressionEnabled)
+                && Objects.equals(requestCompressionPolicy, rhs.requestCompressionPolicy)
+                && Objects.equals(isResponseCompressionEnabled, rhs.isResponseCompressionEnabled)
+                && Objects.equals(isResponseStreamingEnabled, rhs.isResponseStreamingEnabled)
+                && Objects.equals(isLazyResponseParsingEnabled, rhs.isLazyResponseParsingEnabled)
+                && Objects.equals(isShardAwareRoutingEnabled, rhs.isShardAwareRoutingEnabled)
+                && Objects.equals(contentFormat, rhs.contentFormat)
                 && Objects.equals(discoveryFrequency, rhs.discoveryFrequency)
                 && Objects.equals(discoveryFilter, rhs.discoveryFilter)
                 && Objects.equals(connTimeout, rhs.connTimeout)
@@ -162,6 +281,15 @@ public class ClientConfig {
                 && Objects.equals(maxConnectionIdleTime, rhs.maxConnectionIdleTime)
                 && Objects.equals(maxConnectionIdleTimeDurationTimeUnit, rhs.maxConnectionIdleTimeDurationTimeUnit)
                 && Objects.equals(objectMapper, rhs.objectMapper)
+                && Objects.equals(nodeSelector, rhs.nodeSelector)
+                && Objects.equals(minDeadNodeTimeout, rhs.minDeadNodeTimeout)
+                && Objects.equals(maxDeadNodeTimeout, rhs.maxDeadNodeTimeout)
+                && Objects.equals(deadNodeTimeoutTimeUnit, rhs.deadNodeTimeoutTimeUnit)
+                && Objects.equals(preferredNodeAttributes, rhs.preferredNodeAttributes)
+                && Objects.equals(metricsListener, rhs.metricsListener)
+                && Objects.equals(retryBackoff, rhs.retryBackoff)
+                && Objects.equals(retryBudget, rhs.retryBudget)
+                && Objects.equals(hedgingPolicy, rhs.hedgingPolicy)
                 && Objects.equals(defaultSchemeForDiscoveredNodes, rhs.defaultSchemeForDiscoveredNodes);
     }
 
@@ -171,6 +299,12 @@ public class ClientConfig {
         protected boolean isDiscoveryEnabled;
         protected String discoveryFilter;
         protected boolean isRequestCompressionEnabled;
+        protected RequestCompressionPolicy requestCompressionPolicy;
+        protected boolean isResponseCompressionEnabled;
+        protected boolean isResponseStreamingEnabled;
+        protected boolean isLazyResponseParsingEnabled;
+        protected boolean isShardAwareRoutingEnabled;
+        protected ContentFormat contentFormat = ContentFormat.JSON;
         protected long discoveryFrequency = 10L;
         protected long maxConnectionIdleTime = -1L;
         protected Integer maxTotalConnection;
@@ -180,6 +314,15 @@ public class ClientConfig {
         protected TimeUnit discoveryFrequencyTimeUnit = TimeUnit.SECONDS;
         protected TimeUnit maxConnectionIdleTimeDurationTimeUnit = TimeUnit.SECONDS;
         protected ObjectMapper objectMapper;
+        protected NodeSelector nodeSelector;
+        protected long minDeadNodeTimeout = 1L;
+        protected long maxDeadNodeTimeout = 30L;
+        protected TimeUnit deadNodeTimeoutTimeUnit = TimeUnit.MINUTES;
+        protected Map<String, String> preferredNodeAttributes = new LinkedHashMap<String, String>();
+        protected ClientMetricsListener metricsListener;
+        protected RetryBackoff retryBackoff = new RetryBackoff.Builder().build();
+        protected RetryBudget retryBudget;
+        protected HedgingPolicy hedgingPolicy;
         protected String defaultSchemeForDiscoveredNodes = "http://";
 
         public AbstractBuilder(Collection<String> serverUris) {
@@ -200,6 +343,22 @@ public class ClientConfig {
             this.connTimeout = clientConfig.connTimeout;
             this.readTimeout = clientConfig.readTimeout;
             this.objectMapper = clientConfig.objectMapper;
+            this.nodeSelector = clientConfig.nodeSelector;
+            this.minDeadNodeTimeout = clientConfig.minDeadNodeTimeout;
+            this.maxDeadNodeTimeout = clientConfig.maxDeadNodeTimeout;
+            this.deadNodeTimeoutTimeUnit = clientConfig.deadNodeTimeoutTimeUnit;
+            this.preferredNodeAttributes = new LinkedHashMap<String, String>(clientConfig.preferredNodeAttributes);
+            this.metricsListener = clientConfig.metricsListener;
+            this.retryBackoff = clientConfig.retryBackoff;
+            this.retryBudget = clientConfig.retryBudget;
+            this.hedgingPolicy = clientConfig.hedgingPolicy;
+            this.isRequestCompressionEnabled = clientConfig.isRequestCompressionEnabled;
+            this.requestCompressionPolicy = clientConfig.requestCompressionPolicy;
+            this.isResponseCompressionEnabled = clientConfig.isResponseCompressionEnabled;
+            this.isResponseStreamingEnabled = clientConfig.isResponseStreamingEnabled;
+            this.isLazyResponseParsingEnabled = clientConfig.isLazyResponseParsingEnabled;
+            this.isShardAwareRoutingEnabled = clientConfig.isShardAwareRoutingEnabled;
+            this.contentFormat = clientConfig.contentFormat;
         }
 
         public K addServer(String serverUri) {
@@ -217,6 +376,78 @@ public class ClientConfig {
             return (K) this;
         }
 
+        /**
+         * Strategy for choosing the node of each request, defaults to round-robin.
+         *
+         * @see io.searchbox.client.node.LeastOutstandingRequestsNodeSelector
+         * @see io.searchbox.client.node.EwmaNodeSelector
+         */
+        public K nodeSelector(NodeSelector nodeSelector) {
+            this.nodeSelector = nodeSelector;
+            return (K) this;
+        }
+
+        /**
+         * How long a node is skipped after the client failed to connect to it or a proxy answered it is unavailable
+         * (502, 504, or a 503 not from Elasticsearch): the min timeout after the first consecutive failure, doubled for each further one up to the max timeout.
+         * Defaults to 1 and 30 minutes; a min timeout of zero disables marking nodes dead.
+         */
+        public K deadNodeTimeout(long minDeadNodeTimeout, long maxDeadNodeTimeout, TimeUnit deadNodeTimeoutTimeUnit) {
+            this.minDeadNodeTimeout = minDeadNodeTimeout;
+            this.maxDeadNodeTimeout = maxDeadNodeTimeout;
+            this.deadNodeTimeoutTimeUnit = deadNodeTimeoutTimeUnit;
+            return (K) this;
+        }
+
+        /**
+         * Prefers discovered nodes having the given attribute value (e.g.: <code>zone</code> and the availability
+         * zone of the client) for all requests; may be called for several attributes, which must all match.
+         *
+         * @see io.searchbox.client.node.NodePreference
+         */
+        public K preferredNodeAttribute(String name, String value) {
+            this.preferredNodeAttributes.put(name, value);
+            return (K) this;
+        }
+
+        /**
+         * Listener the client reports its requests, retries, bulk item failures and gauges to, e.g.: to publish
+         * them to a metrics registry. None by default.
+         *
+         * @see io.searchbox.client.metrics.ClientMetricsListener
+         */
+        public K metricsListener(ClientMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return (K) this;
+        }
+
+        /**
+         * Sets the delays between the retries (as decided by the retry handler) of async requests, an exponential
+         * backoff starting at 50 ms with 50% jitter by default.
+         */
+        public K retryBackoff(RetryBackoff retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return (K) this;
+        }
+
+        /**
+         * Caps the retries of the client to a fraction of its requests, not capped by default.
+         */
+        public K retryBudget(RetryBudget retryBudget) {
+            this.retryBudget = retryBudget;
+            return (K) this;
+        }
+
+        /**
+         * Hedges the idempotent reads (searches, gets, counts...) on a second node when the first one is slow to
+         * answer, disabled by default. Once set, the sync reads it can hedge are all executed as async requests the
+         * caller waits for, see {@link io.searchbox.client.AbstractJestClient#setHedgingPolicy(HedgingPolicy)}.
+         */
+        public K hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return (K) this;
+        }
+
         public K discoveryFrequency(long discoveryFrequency, TimeUnit discoveryFrequencyTimeUnit) {
             this.discoveryFrequency = discoveryFrequency;
             this.discoveryFrequencyTimeUnit = discoveryFrequencyTimeUnit;
@@ -247,6 +478,70 @@ public class ClientConfig {
             return (K) this;
         }
 
+        /**
+         * Policy deciding which request bodies are worth compressing if request compression is enabled; by default
+         * bodies under 1 KB and bodies of action types saving less than 20% are sent uncompressed.
+         *
+         * @see io.searchbox.client.RequestCompressionPolicy
+         */
+        public K requestCompressionPolicy(RequestCompressionPolicy requestCompressionPolicy) {
+            this.requestCompressionPolicy = requestCompressionPolicy;
+            return (K) this;
+        }
+
+        /**
+         * Whether to ask for GZIP compressed response bodies (<code>Accept-Encoding: gzip</code>), which are
+         * decompressed while they are parsed. Elasticsearch compresses responses if <code>http.compression</code>
+         * is enabled on its nodes.
+         */
+        public K responseCompressionEnabled(boolean isResponseCompressionEnabled) {
+            this.isResponseCompressionEnabled = isResponseCompressionEnabled;
+            return (K) this;
+        }
+
+        /**
+         * Whether to parse responses of actions implementing {@link io.searchbox.action.StreamingResultAction}
+         * straight off the response stream instead of buffering the whole body into a String first.
+         * The JSON String of such results is then only rendered on demand.
+         */
+        public K responseStreamingEnabled(boolean isResponseStreamingEnabled) {
+            this.isResponseStreamingEnabled = isResponseStreamingEnabled;
+            return (K) this;
+        }
+
+        /**
+         * Whether results of actions implementing {@link io.searchbox.action.StreamingResultAction} should only
+         * retain the raw response bytes and build their JSON object, JSON String and map view lazily on first access.
+         * Takes precedence over {@link #responseStreamingEnabled(boolean)}.
+         */
+        public K lazyResponseParsingEnabled(boolean isLazyResponseParsingEnabled) {
+            this.isLazyResponseParsingEnabled = isLazyResponseParsingEnabled;
+            return (K) this;
+        }
+
+        /**
+         * Whether single document actions (and bulks whose items all belong to the same node) should be sent
+         * directly to the node holding the primary shard of their documents. The shard routing table is refreshed
+         * along with discovery, which must be enabled.
+         *
+         * @see io.searchbox.client.node.ShardRoutingTable
+         */
+        public K shardAwareRoutingEnabled(boolean isShardAwareRoutingEnabled) {
+            this.isShardAwareRoutingEnabled = isShardAwareRoutingEnabled;
+            return (K) this;
+        }
+
+        /**
+         * Format of the request and response bodies, JSON by default. With a binary format (e.g.: Smile) payloads
+         * are sent and responses requested in that format; responses in a binary format are always parsed off the
+         * response stream, regardless of {@link #responseStreamingEnabled(boolean)} and
+         * {@link #lazyResponseParsingEnabled(boolean)}.
+         */
+        public K contentFormat(ContentFormat contentFormat) {
+            this.contentFormat = contentFormat;
+            return (K) this;
+        }
+
         public K connTimeout(int connTimeout) {
             this.connTimeout = connTimeout;
             return (K) this;
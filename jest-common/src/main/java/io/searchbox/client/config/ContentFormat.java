@@ -0,0 +1,164 @@
+package io.searchbox.client.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Format of the request and response bodies exchanged with Elasticsearch. The binary formats are smaller on the
+ * wire and cheaper to parse than JSON on both sides; they require <code>jackson-dataformat-smile</code> or
+ * <code>jackson-dataformat-cbor</code> respectively on the classpath.
+ * <br/>
+ * Only the encoding on the wire changes: actions and results still expose their content as JSON.
+ */
+public enum ContentFormat {
+
+    JSON("application/json", true),
+    SMILE("application/smile", true),
+    /**
+     * Elasticsearch does not accept streams of CBOR documents, bulk and multi search requests are thus sent in JSON.
+     */
+    CBOR("application/cbor", false);
+
+    private static final byte SMILE_STREAM_SEPARATOR = (byte) 0xFF;
+
+    private final String mediaType;
+    private final boolean streamSupported;
+
+    ContentFormat(String mediaType, boolean streamSupported) {
+        this.mediaType = mediaType;
+        this.streamSupported = streamSupported;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * @return true if Elasticsearch accepts streams of documents (e.g.: bulk requests) in this format
+     */
+    public boolean isStreamSupported() {
+        return streamSupported;
+    }
+
+    /**
+     * @return the byte separating the documents of a stream, i.e.: a new line in JSON
+     */
+    public byte getStreamSeparator() {
+        switch (this) {
+            case JSON:
+                return '\n';
+            case SMILE:
+                return SMILE_STREAM_SEPARATOR;
+            default:
+                throw new UnsupportedOperationException(this + " does not support streams of documents");
+        }
+    }
+
+    /**
+     * @return the shared factory of the parsers and generators of this format
+     */
+    public JsonFactory getFactory() {
+        switch (this) {
+            case SMILE:
+                return SmileFactoryHolder.FACTORY;
+            case CBOR:
+                return CborFactoryHolder.FACTORY;
+            default:
+                return JsonFactoryHolder.FACTORY;
+        }
+    }
+
+    /**
+     * Copies the given JSON document (e.g.: the payload of an action) to the generator of this format.
+     */
+    public void copyJson(String json, ObjectMapper objectMapper, JsonGenerator generator) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    /**
+     * Writes the given body (e.g.: a source object or a JSON tree) straight into the generator of this format, or
+     * copies it if it is a JSON document.
+     */
+    public void writeValue(Object body, ObjectMapper objectMapper, JsonGenerator generator) throws IOException {
+        if (body instanceof String) {
+            copyJson((String) body, objectMapper, generator);
+        } else {
+            objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValue(generator, body);
+        }
+    }
+
+    /**
+     * @return the given body (e.g.: a source object or a JSON document) encoded in this format
+     */
+    public byte[] encode(Object body, ObjectMapper objectMapper) throws IOException {
+        if (body instanceof String) {
+            return fromJson((String) body, objectMapper);
+        } else if (this == JSON) {
+            return objectMapper.writeValueAsBytes(body);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = getFactory().createGenerator(bytes)) {
+            writeValue(body, objectMapper, generator);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the given JSON document encoded in this format
+     */
+    public byte[] fromJson(String json, ObjectMapper objectMapper) throws IOException {
+        if (this == JSON) {
+            return json.getBytes(StandardCharsets.UTF_8);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length());
+        try (JsonGenerator generator = getFactory().createGenerator(bytes)) {
+            copyJson(json, objectMapper, generator);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the format of the given media type (e.g.: the Content-Type of a response), JSON if unknown or null
+     */
+    public static ContentFormat fromMediaType(String mediaType) {
+        if (mediaType != null) {
+            for (ContentFormat contentFormat : values()) {
+                if (mediaType.regionMatches(true, 0, contentFormat.mediaType, 0, contentFormat.mediaType.length())) {
+                    return contentFormat;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    // the factories of the binary formats are only loaded once used, as their dependencies are optional
+
+    private static final class JsonFactoryHolder {
+        static final JsonFactory FACTORY = new JsonFactory();
+    }
+
+    private static final class SmileFactoryHolder {
+        static final JsonFactory FACTORY = new SmileFactory();
+    }
+
+    private static final class CborFactoryHolder {
+        static final JsonFactory FACTORY = new CBORFactory();
+    }
+}
@@ -7,15 +7,23 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AbstractScheduledService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.action.Action;
+import io.searchbox.client.AbstractJestClient;
 import io.searchbox.client.JestClient;
 import io.searchbox.client.JestResult;
 import io.searchbox.client.config.ClientConfig;
 import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.node.Node;
+import io.searchbox.client.node.ShardRoutingTable;
 import io.searchbox.cluster.NodesInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -25,7 +33,11 @@ import java.util.regex.Pattern;
 /**
  * Discovers new nodes by calling NodesInfo API on the next available server
  * and parses the <code>nodes</code> object in response to get http publish
- * address.
+ * address. The roles and attributes of the discovered nodes are kept on the
+ * {@link Node}s of the client for routing requests by {@link io.searchbox.client.node.NodePreference}.
+ * <br/>
+ * If shard aware routing is enabled, the {@link ShardRoutingTable} of the client is refreshed from the cluster
+ * state after each successful discovery.
  */
 public class NodeChecker extends AbstractScheduledService {
 
@@ -34,7 +46,9 @@ public class NodeChecker extends AbstractScheduledService {
     private final static String PUBLISH_ADDRESS_KEY = "publish_address";
     private final static Pattern INETSOCKETADDRESS_PATTERN = Pattern.compile("(?:inet\\[)?(?:(?:[^:]+)?\\/)?([^:]+):(\\d+)\\]?");
 
-    private final NodesInfo action;
+    protected final NodesInfo action;
+    protected final Action<JestResult> clusterStateAction;
+    protected final boolean shardAwareRoutingEnabled;
 
     protected JestClient client;
     protected Scheduler scheduler;
@@ -47,6 +61,13 @@ public class NodeChecker extends AbstractScheduledService {
                 .withHttp()
                 .addNode(clientConfig.getDiscoveryFilter())
                 .build();
+        // qualified, as State also names the service state inherited from Service
+        clusterStateAction = new io.searchbox.cluster.State.Builder()
+                .withRoutingTable()
+                .withMetadata()
+                .setParameter("filter_path", ShardRoutingTable.CLUSTER_STATE_FILTER_PATH)
+                .build();
+        this.shardAwareRoutingEnabled = clientConfig.isShardAwareRoutingEnabled();
         this.client = jestClient;
         this.defaultScheme = clientConfig.getDefaultSchemeForDiscoveredNodes();
         this.scheduler = Scheduler.newFixedDelaySchedule(
@@ -79,40 +100,157 @@ public class NodeChecker extends AbstractScheduledService {
         }
 
         if (result.isSucceeded()) {
-            LinkedHashSet<String> httpHosts = new LinkedHashSet<String>();
-
-            JsonNode jsonMap = result.getJsonObject();
-            JsonNode nodes = jsonMap.get("nodes");
-            if (nodes != null) {
-                for (JsonNode host : nodes) {
-                    // get as a JsonNode first as some nodes in the cluster may not have an http_address
-                    if (host.has(HTTP_ADDRESS_KEY)) {
-                        JsonNode addressElement = host.get(HTTP_ADDRESS_KEY);
-                        if (!addressElement.isNull()) {
-                            String httpAddress = getHttpAddress(addressElement.asText());
-                            if (httpAddress != null) {
-                                httpHosts.add(httpAddress);
-                            }
-                        }
-                    } else {
-                        String httpAddress = acquirePublishAddress(host);
-                        if (httpAddress != null) {
-                            httpHosts.add(httpAddress);
-                        }
-                    }
-                }
-            }
+            LinkedHashSet<String> httpHosts = getHttpHosts(result);
             if (log.isDebugEnabled()) {
                 log.debug("Discovered {} HTTP hosts: {}", httpHosts.size(), Joiner.on(',').join(httpHosts));
             }
             discoveredServerList = httpHosts;
             client.setServers(discoveredServerList);
+            updateNodeMetadata(result);
+            if (shardAwareRoutingEnabled) {
+                updateShardRoutingTable();
+            }
         } else {
             log.warn("NodesInfo request resulted in error: {}", result.getErrorMessage());
             client.setServers(bootstrapServerList);
         }
     }
 
+    /**
+     * @return the http addresses of the nodes in the given NodesInfo result
+     */
+    protected LinkedHashSet<String> getHttpHosts(JestResult result) {
+        LinkedHashSet<String> httpHosts = new LinkedHashSet<String>();
+
+        JsonNode jsonMap = result.getJsonObject();
+        JsonNode nodes = jsonMap.get("nodes");
+        if (nodes != null) {
+            for (JsonNode host : nodes) {
+                String httpAddress = getHttpHost(host);
+                if (httpAddress != null) {
+                    httpHosts.add(httpAddress);
+                }
+            }
+        }
+        return httpHosts;
+    }
+
+    /**
+     * Applies the roles and attributes of the nodes in the given NodesInfo result to the matching nodes of the
+     * server pool of the client.
+     */
+    protected void updateNodeMetadata(JestResult result) {
+        if (!(client instanceof AbstractJestClient)) {
+            return;
+        }
+        JsonNode nodes = result.getJsonObject().get("nodes");
+        if (nodes == null) {
+            return;
+        }
+
+        Map<String, Node> poolNodes = new LinkedHashMap<String, Node>();
+        for (Node node : ((AbstractJestClient) client).getNodes()) {
+            poolNodes.put(node.getServer(), node);
+        }
+        Iterator<Map.Entry<String, JsonNode>> hosts = nodes.fields();
+        while (hosts.hasNext()) {
+            Map.Entry<String, JsonNode> host = hosts.next();
+            String httpAddress = getHttpHost(host.getValue());
+            Node node = httpAddress == null ? null : poolNodes.get(httpAddress);
+            if (node != null) {
+                node.setMetadata(host.getKey(), getRoles(host.getValue()), getAttributes(host.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Fetches the cluster state and replaces the shard routing table of the client with the one built from it;
+     * the previous table is kept if that fails. Only the <code>metadata</code> and <code>routing_table</code>
+     * metrics are requested, narrowed by <code>filter_path</code> to the shard counts and the primaries.
+     * <br/>
+     * Blocks the discovery thread like the NodesInfo request does;
+     * {@link io.searchbox.client.config.discovery.AsyncNodeChecker} overrides this to send it asynchronously.
+     */
+    protected void updateShardRoutingTable() {
+        try {
+            applyClusterState(client.execute(clusterStateAction));
+        } catch (Exception e) {
+            log.warn("Error executing cluster state request for shard aware routing!", e);
+        }
+    }
+
+    protected void applyClusterState(JestResult result) {
+        if (!(client instanceof AbstractJestClient)) {
+            return;
+        }
+        if (!result.isSucceeded()) {
+            log.warn("Cluster state request resulted in error: {}", result.getErrorMessage());
+            return;
+        }
+        ShardRoutingTable routingTable = ShardRoutingTable.fromClusterState(result.getJsonObject());
+        log.debug("Shard routing table updated for {} indices", routingTable.getIndices().size());
+        ((AbstractJestClient) client).setShardRoutingTable(routingTable);
+    }
+
+    /**
+     * @return the roles of the node; derived from the <code>master</code>, <code>data</code> and
+     * <code>client</code> attributes for versions prior to 5.0, which did not report roles
+     */
+    protected Set<String> getRoles(JsonNode host) {
+        Set<String> roles = new LinkedHashSet<String>();
+        JsonNode rolesElement = host.get("roles");
+        if (rolesElement != null && rolesElement.isArray()) {
+            for (JsonNode role : rolesElement) {
+                roles.add(role.asText());
+            }
+            return roles;
+        }
+
+        JsonNode attributes = host.path("attributes");
+        if (attributes.path("client").asBoolean(false)) {
+            return roles;
+        }
+        if (attributes.path(Node.ROLE_MASTER).asBoolean(true)) {
+            roles.add(Node.ROLE_MASTER);
+        }
+        if (attributes.path(Node.ROLE_DATA).asBoolean(true)) {
+            roles.add(Node.ROLE_DATA);
+        }
+        return roles;
+    }
+
+    /**
+     * @return the custom attributes of the node, e.g.: rack or zone
+     */
+    protected Map<String, String> getAttributes(JsonNode host) {
+        JsonNode attributesElement = host.get("attributes");
+        if (attributesElement == null || !attributesElement.isObject()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> attributes = new LinkedHashMap<String, String>();
+        Iterator<Map.Entry<String, JsonNode>> fields = attributesElement.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isValueNode()) {
+                attributes.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return attributes;
+    }
+
+    private String getHttpHost(JsonNode host) {
+        // get as a JsonNode first as some nodes in the cluster may not have an http_address
+        if (host.has(HTTP_ADDRESS_KEY)) {
+            JsonNode addressElement = host.get(HTTP_ADDRESS_KEY);
+            if (!addressElement.isNull()) {
+                return getHttpAddress(addressElement.asText());
+            }
+            return null;
+        }
+        return acquirePublishAddress(host);
+    }
+
     private String acquirePublishAddress(JsonNode json) {
         if (json.has("http")) {
             ObjectNode http = (ObjectNode) json.get("http");
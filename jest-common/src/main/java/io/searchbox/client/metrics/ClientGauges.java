@@ -0,0 +1,27 @@
+package io.searchbox.client.metrics;
+
+/**
+ * Current state of a client, read whenever a gauge is sampled. Values that a client does not know are -1.
+ */
+public interface ClientGauges {
+
+    /**
+     * @return the number of asynchronous requests sent and not yet completed
+     */
+    int getPendingAsyncRequests();
+
+    /**
+     * @return the number of pooled connections currently leased, summed over the pools of the client
+     */
+    int getLeasedConnections();
+
+    /**
+     * @return the number of idle pooled connections, summed over the pools of the client
+     */
+    int getAvailableConnections();
+
+    /**
+     * @return the number of requests waiting for a pooled connection, summed over the pools of the client
+     */
+    int getPendingConnections();
+}
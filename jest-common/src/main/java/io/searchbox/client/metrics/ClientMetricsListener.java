@@ -0,0 +1,44 @@
+package io.searchbox.client.metrics;
+
+import io.searchbox.client.node.Node;
+
+/**
+ * Receives the events of a client to record metrics about them, e.g.: per action type and per node. The action
+ * type is the simple class name of the action (<code>Search</code>, <code>Bulk</code>, ...).
+ * <p>
+ * Implementations must be thread-safe and cheap; events of asynchronous requests are delivered on the I/O threads
+ * of the client. The node is null for requests sent to an explicit URL rather than a node of the server pool; its
+ * server URI may contain user info and should not be used as is as a metric tag.
+ *
+ * @see NoopClientMetricsListener
+ */
+public interface ClientMetricsListener {
+
+    /**
+     * Called when the client starts to use the listener, with the gauges it provides.
+     */
+    void bindGauges(ClientGauges gauges);
+
+    /**
+     * A response was received (whatever its status code) and read.
+     *
+     * @param requestBytes  size of the request body, 0 if none and -1 if unknown (e.g.: streamed or compressed)
+     * @param responseBytes size of the response body as sent by the node, -1 if unknown (e.g.: chunked)
+     */
+    void onRequest(String actionType, Node node, long latencyNanos, long requestBytes, long responseBytes, int statusCode);
+
+    /**
+     * No response could be received or read.
+     */
+    void onRequestFailure(String actionType, Node node, long latencyNanos, Exception failure);
+
+    /**
+     * A failed request is executed again, after the given number of unsuccessful executions.
+     */
+    void onRetry(String actionType, Node node, int executionCount);
+
+    /**
+     * A bulk response reported failed items.
+     */
+    void onBulkItemFailures(Node node, int failedItems, int totalItems);
+}
@@ -0,0 +1,29 @@
+package io.searchbox.client.metrics;
+
+import io.searchbox.client.node.Node;
+
+/**
+ * Ignores all events, the default listener of the clients.
+ */
+public class NoopClientMetricsListener implements ClientMetricsListener {
+
+    @Override
+    public void bindGauges(ClientGauges gauges) {
+    }
+
+    @Override
+    public void onRequest(String actionType, Node node, long latencyNanos, long requestBytes, long responseBytes, int statusCode) {
+    }
+
+    @Override
+    public void onRequestFailure(String actionType, Node node, long latencyNanos, Exception failure) {
+    }
+
+    @Override
+    public void onRetry(String actionType, Node node, int executionCount) {
+    }
+
+    @Override
+    public void onBulkItemFailures(Node node, int failedItems, int totalItems) {
+    }
+}
@@ -0,0 +1,89 @@
+package io.searchbox.client.node;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks two nodes at random and sends the request to the one with the lower expected cost, i.e.: its moving
+ * average latency multiplied by its number of requests in flight plus one ("power of two choices").
+ * <br/>
+ * A slow node thus quickly receives only a small share of the traffic. Since its latency would never be updated
+ * without any traffic, the average of a node that completed no request for a while is decayed towards the average
+ * latency of the nodes so that it is probed again eventually. A node no request got a response from yet (e.g.: a
+ * newly added node) is assumed to have that average latency, so that its requests in flight still count until its
+ * first response.
+ */
+public class EwmaNodeSelector implements NodeSelector {
+
+    private final long decayNanos;
+
+    public EwmaNodeSelector() {
+        this(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param decayTime time constant of the decay of the latency of idle nodes
+     */
+    public EwmaNodeSelector(long decayTime, TimeUnit timeUnit) {
+        this.decayNanos = timeUnit.toNanos(decayTime);
+    }
+
+    @Override
+    public Node select(List<Node> nodes) {
+        final int size = nodes.size();
+        if (size == 1) {
+            return nodes.get(0);
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        final long now = System.nanoTime();
+        final double averageLatency = getAverageLatency(nodes);
+        final Node firstNode = nodes.get(first);
+        final Node secondNode = nodes.get(second);
+        return getCost(secondNode, now, averageLatency) < getCost(firstNode, now, averageLatency) ? secondNode : firstNode;
+    }
+
+    protected double getCost(Node node, long now) {
+        return getCost(node, now, 0);
+    }
+
+    /**
+     * @param averageLatency latency assumed for a node without any, and towards which the latency of an idle node
+     *                       is decayed
+     */
+    protected double getCost(Node node, long now, double averageLatency) {
+        double latency = node.getEwmaLatencyNanos();
+        if (latency <= 0) {
+            latency = averageLatency;
+        } else {
+            final long idleNanos = now - node.getLastRequestEndNanos();
+            if (idleNanos > 0 && decayNanos > 0) {
+                latency = averageLatency + (latency - averageLatency) * Math.exp(-(double) idleNanos / decayNanos);
+            }
+        }
+        return latency * (node.getInFlightRequests() + 1);
+    }
+
+    /**
+     * @return the average latency of the nodes having one, 0 if none has
+     */
+    private static double getAverageLatency(List<Node> nodes) {
+        double total = 0;
+        int count = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            final double latency = nodes.get(i).getEwmaLatencyNanos();
+            if (latency > 0) {
+                total += latency;
+                count++;
+            }
+        }
+        return count == 0 ? 0 : total / count;
+    }
+}
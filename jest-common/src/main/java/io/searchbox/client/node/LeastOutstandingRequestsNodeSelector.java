@@ -0,0 +1,31 @@
+package io.searchbox.client.node;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends each request to the node with the fewest requests in flight, so that a slow node (whose requests pile up)
+ * receives less traffic; ties are broken round-robin.
+ */
+public class LeastOutstandingRequestsNodeSelector implements NodeSelector {
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    @Override
+    public Node select(List<Node> nodes) {
+        final int size = nodes.size();
+        final int offset = (nextIndex.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        Node selected = null;
+        int selectedInFlight = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final Node node = nodes.get((offset + i) % size);
+            final int inFlight = node.getInFlightRequests();
+            if (inFlight < selectedInFlight) {
+                selected = node;
+                selectedInFlight = inFlight;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,26 @@
+package io.searchbox.client.node;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hash of the routing value of a document as computed by Elasticsearch to pick its shard: the 32 bit x86 variant
+ * of MurmurHash3 with a seed of 0, over the UTF-16 code units of the value in little-endian order.
+ */
+public final class Murmur3HashFunction {
+
+    private static final HashFunction MURMUR3_32 = Hashing.murmur3_32(0);
+
+    private Murmur3HashFunction() {
+    }
+
+    public static int hash(String routing) {
+        final byte[] bytesToHash = new byte[routing.length() * 2];
+        for (int i = 0; i < routing.length(); ++i) {
+            final char c = routing.charAt(i);
+            bytesToHash[i * 2] = (byte) c;
+            bytesToHash[i * 2 + 1] = (byte) (c >>> 8);
+        }
+        return MURMUR3_32.hashBytes(bytesToHash).asInt();
+    }
+}
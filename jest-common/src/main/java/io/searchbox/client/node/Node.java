@@ -0,0 +1,226 @@
+package io.searchbox.client.node;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A server of the pool of a client along with the statistics of the requests sent to it, which are recorded by
+ * the client and used by {@link NodeSelector}s to pick the node of the next request.
+ * <br/>
+ * The statistics of a node are kept as long as its server stays in the pool.
+ * <br/>
+ * A node the client failed to talk to is marked dead for a time growing exponentially with its number of
+ * consecutive failures; the client skips dead nodes (unless all nodes are dead) and retries them once that time
+ * elapsed.
+ * <br/>
+ * Discovered nodes also carry the roles and attributes reported by the cluster, which {@link NodePreference}s of
+ * actions use to route requests to suitable nodes.
+ */
+public class Node {
+
+    /**
+     * Weight of the latest sample in the exponentially weighted moving average of the latency.
+     */
+    public static final double EWMA_ALPHA = 0.3;
+
+    public static final String ROLE_MASTER = "master";
+    public static final String ROLE_DATA = "data";
+    public static final String ROLE_INGEST = "ingest";
+
+    private final String server;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private double ewmaLatencyNanos = -1;
+    private long lastRequestEndNanos;
+
+    private int consecutiveFailures;
+    private long deadUntilNanos;
+
+    private volatile String id;
+    private volatile Set<String> roles;
+    private volatile Map<String, String> attributes = Collections.emptyMap();
+
+    public Node(String server) {
+        this.server = server;
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Called by the client right before a request is sent to this node.
+     */
+    public void onRequestStart() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    /**
+     * Called by the client once a request sent to this node completed, exactly once for each call to
+     * {@link #onRequestStart()} unless the request is cancelled.
+     *
+     * @param latencyNanos time since the request was sent
+     * @param failed       whether the request failed without a response, its latency is then not part of the
+     *                     moving average (a node failing fast must not look fast)
+     */
+    public void onRequestEnd(long latencyNanos, boolean failed) {
+        inFlightRequests.decrementAndGet();
+        requestCount.incrementAndGet();
+        if (failed) {
+            failureCount.incrementAndGet();
+        }
+
+        synchronized (this) {
+            if (!failed) {
+                if (ewmaLatencyNanos < 0) {
+                    ewmaLatencyNanos = latencyNanos;
+                } else {
+                    ewmaLatencyNanos += EWMA_ALPHA * (latencyNanos - ewmaLatencyNanos);
+                }
+            }
+            lastRequestEndNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called by the client instead of {@link #onRequestEnd(long, boolean)} once it aborted a request sent to this
+     * node (e.g.: the slower attempt of a hedged request); the request is neither counted nor part of the latency.
+     */
+    public void onRequestCancelled() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * Marks the node dead for the min timeout doubled for each further consecutive failure, capped at the max
+     * timeout. Failures of concurrent requests sent before the node was marked dead do not extend the timeout.
+     *
+     * @return the time in nanoseconds the node is dead for, 0 if it was already dead
+     */
+    public synchronized long markDead(long minTimeoutNanos, long maxTimeoutNanos) {
+        final long now = System.nanoTime();
+        if (consecutiveFailures > 0 && deadUntilNanos - now > 0) {
+            return 0;
+        }
+        long timeout = maxTimeoutNanos;
+        if (consecutiveFailures < 31) {
+            timeout = Math.min(maxTimeoutNanos, minTimeoutNanos * (1L << consecutiveFailures));
+        }
+        consecutiveFailures++;
+        deadUntilNanos = now + timeout;
+        return timeout;
+    }
+
+    /**
+     * @return true if the node was dead before
+     */
+    public synchronized boolean markAlive() {
+        final boolean wasDead = consecutiveFailures > 0;
+        consecutiveFailures = 0;
+        deadUntilNanos = 0;
+        return wasDead;
+    }
+
+    /**
+     * @return true unless the node is marked dead and its dead timeout did not elapse yet
+     */
+    public synchronized boolean isAlive(long nowNanos) {
+        return consecutiveFailures == 0 || deadUntilNanos - nowNanos <= 0;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} until which the node is dead, only meaningful if it is not alive
+     */
+    public synchronized long getDeadUntilNanos() {
+        return deadUntilNanos;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @param id         id of the node in the cluster, null if unknown
+     * @param roles      roles of the node, null if unknown; a node without any role is a coordinating only node
+     * @param attributes custom attributes of the node (e.g.: rack or zone)
+     */
+    public void setMetadata(String id, Set<String> roles, Map<String, String> attributes) {
+        this.id = id;
+        this.roles = roles == null ? null : Collections.unmodifiableSet(roles);
+        this.attributes = attributes == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * @return the id of the node in the cluster, null unless it was discovered
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the roles of the node, null unless they were discovered
+     */
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        final Set<String> roles = this.roles;
+        return roles != null && roles.contains(role);
+    }
+
+    /**
+     * @return true if the roles of the node are known and it has none, i.e.: it only coordinates requests
+     */
+    public boolean isCoordinatingOnly() {
+        final Set<String> roles = this.roles;
+        return roles != null && roles.isEmpty();
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return moving average of the latency of the requests that got a response, 0 if none did yet
+     */
+    public synchronized double getEwmaLatencyNanos() {
+        return Math.max(0, ewmaLatencyNanos);
+    }
+
+    /**
+     * @return {@link System#nanoTime()} of the completion of the last request, 0 if none completed yet
+     */
+    public synchronized long getLastRequestEndNanos() {
+        return lastRequestEndNanos;
+    }
+
+    @Override
+    public String toString() {
+        return server + "{roles=" + roles
+                + ", inFlight=" + getInFlightRequests()
+                + ", ewmaLatencyMs=" + TimeUnit.NANOSECONDS.toMillis((long) getEwmaLatencyNanos())
+                + ", consecutiveFailures=" + getConsecutiveFailures() + "}";
+    }
+}
@@ -0,0 +1,180 @@
+package io.searchbox.client.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing preference of an action: the nodes it should preferably be sent to, based on the roles and attributes
+ * discovered for the nodes (see {@link Node#getRoles()}).
+ * <br/>
+ * A preference never makes a request fail, the client falls back to all alive nodes if none of them matches, e.g.:
+ * if discovery is disabled and the metadata of the nodes is unknown.
+ */
+public abstract class NodePreference {
+
+    /**
+     * Ingest nodes or coordinating only nodes, so that bulk requests do not load the data nodes with their
+     * pre-processing and fan-out. Dedicated master nodes are excluded even though they keep the ingest role by
+     * default (e.g.: clusters disabling ingest on their data nodes only).
+     */
+    public static final NodePreference INGEST_OR_COORDINATING =
+            withRole(Node.ROLE_INGEST).and(dedicatedMaster().negate()).or(coordinatingOnly());
+
+    /**
+     * Data nodes or coordinating only nodes, i.e.: never dedicated master or ingest nodes.
+     */
+    public static final NodePreference DATA_OR_COORDINATING = withRole(Node.ROLE_DATA).or(coordinatingOnly());
+
+    /**
+     * @return true if the node matches this preference
+     */
+    public abstract boolean accepts(Node node);
+
+    /**
+     * @return the nodes matching this preference, an empty list if none does
+     */
+    public List<Node> filter(List<Node> nodes) {
+        List<Node> accepted = null;
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            if (accepts(node)) {
+                if (accepted != null) {
+                    accepted.add(node);
+                }
+            } else if (accepted == null) {
+                accepted = new ArrayList<Node>(nodes.subList(0, i));
+            }
+        }
+        return accepted == null ? nodes : accepted;
+    }
+
+    /**
+     * @return a preference for nodes matching both this and the other preference
+     */
+    public NodePreference and(final NodePreference other) {
+        final NodePreference self = this;
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return self.accepts(node) && other.accepts(node);
+            }
+        };
+    }
+
+    /**
+     * @return a preference for nodes matching this or the other preference
+     */
+    public NodePreference or(final NodePreference other) {
+        final NodePreference self = this;
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return self.accepts(node) || other.accepts(node);
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes not matching this preference
+     */
+    public NodePreference negate() {
+        final NodePreference self = this;
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return !self.accepts(node);
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes matching this preference, or if there are none, the fallback
+     */
+    public NodePreference orElse(final NodePreference fallback) {
+        final NodePreference self = this;
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return self.accepts(node) || fallback.accepts(node);
+            }
+
+            @Override
+            public List<Node> filter(List<Node> nodes) {
+                final List<Node> accepted = self.filter(nodes);
+                return accepted.isEmpty() ? fallback.filter(nodes) : accepted;
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes known to have the given role
+     * @see Node#ROLE_MASTER
+     * @see Node#ROLE_DATA
+     * @see Node#ROLE_INGEST
+     */
+    public static NodePreference withRole(final String role) {
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return node.hasRole(role);
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes known to have no role at all
+     */
+    public static NodePreference coordinatingOnly() {
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return node.isCoordinatingOnly();
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the master eligible nodes known not to hold data
+     */
+    public static NodePreference dedicatedMaster() {
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return node.hasRole(Node.ROLE_MASTER) && !node.hasRole(Node.ROLE_DATA);
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes having the given attribute value, e.g.: the zone of the client
+     */
+    public static NodePreference withAttribute(final String name, final String value) {
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                return value.equals(node.getAttribute(name));
+            }
+        };
+    }
+
+    /**
+     * @return a preference for the nodes having all the given attribute values
+     */
+    public static NodePreference withAttributes(Map<String, String> attributes) {
+        final Map<String, String> expected = Collections.unmodifiableMap(new LinkedHashMap<String, String>(attributes));
+        return new NodePreference() {
+            @Override
+            public boolean accepts(Node node) {
+                for (Map.Entry<String, String> attribute : expected.entrySet()) {
+                    if (!attribute.getValue().equals(node.getAttribute(attribute.getKey()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+}
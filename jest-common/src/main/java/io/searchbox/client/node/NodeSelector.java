@@ -0,0 +1,19 @@
+package io.searchbox.client.node;
+
+import java.util.List;
+
+/**
+ * Strategy for choosing the node each request of a client is sent to; implementations must be thread safe.
+ *
+ * @see RoundRobinNodeSelector
+ * @see LeastOutstandingRequestsNodeSelector
+ * @see EwmaNodeSelector
+ */
+public interface NodeSelector {
+
+    /**
+     * @param nodes nodes of the pool of the client, never empty
+     * @return one of the given nodes
+     */
+    Node select(List<Node> nodes);
+}
@@ -0,0 +1,18 @@
+package io.searchbox.client.node;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the requests to each node in turn, regardless of their load; the default.
+ */
+public class RoundRobinNodeSelector implements NodeSelector {
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    @Override
+    public Node select(List<Node> nodes) {
+        // masking the sign bit keeps the index positive once the counter overflowed
+        return nodes.get((nextIndex.getAndIncrement() & Integer.MAX_VALUE) % nodes.size());
+    }
+}
@@ -0,0 +1,192 @@
+package io.searchbox.client.node;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import io.searchbox.action.AbstractAction;
+import io.searchbox.action.Action;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.action.DocumentTargetedAction;
+import io.searchbox.core.Bulk;
+import io.searchbox.params.Parameters;
+import io.searchbox.strings.StringUtils;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the nodes holding the primary shards of the indices of a cluster, built from the
+ * <code>routing_table</code> and <code>metadata</code> parts of the cluster state. Used by the client to send
+ * single document actions directly to the node holding the primary shard of the document, saving the hop through
+ * a coordinating node.
+ * <br/>
+ * The shard of a document is computed like Elasticsearch does: from the murmur3 hash of its routing value (the
+ * <code>routing</code> or <code>parent</code> parameter, or else the id) and the number of (routing) shards of its
+ * index. Indices addressed by an alias and indices using a routing partition size are not routed.
+ */
+public class ShardRoutingTable {
+
+    /**
+     * Filter for the cluster state request limiting the response to what the routing table is built from.
+     */
+    public static final String CLUSTER_STATE_FILTER_PATH = "metadata.indices.*.settings.index.number_of_shards,"
+            + "metadata.indices.*.settings.index.routing_partition_size,"
+            + "metadata.indices.*.routing_num_shards,"
+            + "routing_table.indices.*.shards.*.primary,"
+            + "routing_table.indices.*.shards.*.state,"
+            + "routing_table.indices.*.shards.*.node";
+
+    private final Map<String, IndexRouting> indices;
+
+    private ShardRoutingTable(Map<String, IndexRouting> indices) {
+        this.indices = indices;
+    }
+
+    /**
+     * @param clusterState cluster state with (at least) its <code>routing_table</code> and <code>metadata</code>
+     */
+    public static ShardRoutingTable fromClusterState(JsonNode clusterState) {
+        final ImmutableMap.Builder<String, IndexRouting> indices = ImmutableMap.builder();
+        final Iterator<Map.Entry<String, JsonNode>> indexMetadata = clusterState.path("metadata").path("indices").fields();
+        while (indexMetadata.hasNext()) {
+            final Map.Entry<String, JsonNode> entry = indexMetadata.next();
+            final JsonNode settings = entry.getValue().path("settings").path("index");
+            final int numberOfShards = settings.path("number_of_shards").asInt(0);
+            if (numberOfShards < 1 || settings.path("routing_partition_size").asInt(1) > 1) {
+                continue;
+            }
+            final int routingNumShards = entry.getValue().path("routing_num_shards").asInt(numberOfShards);
+
+            final String[] primaryNodeIds = new String[numberOfShards];
+            final JsonNode shards = clusterState.path("routing_table").path("indices").path(entry.getKey()).path("shards");
+            for (int shard = 0; shard < numberOfShards; shard++) {
+                for (JsonNode copy : shards.path(String.valueOf(shard))) {
+                    final String state = copy.path("state").asText();
+                    if (copy.path("primary").asBoolean() && ("STARTED".equals(state) || "RELOCATING".equals(state))) {
+                        primaryNodeIds[shard] = copy.path("node").textValue();
+                    }
+                }
+            }
+            indices.put(entry.getKey(), new IndexRouting(numberOfShards, routingNumShards, primaryNodeIds));
+        }
+        return new ShardRoutingTable(indices.build());
+    }
+
+    /**
+     * @return the routed indices
+     */
+    public Set<String> getIndices() {
+        return indices.keySet();
+    }
+
+    /**
+     * @return the shard of the document with the given routing value (i.e.: its id unless routed explicitly), -1 if
+     * the index is not known
+     */
+    public int getShard(String index, String routing) {
+        final IndexRouting indexRouting = indices.get(index);
+        if (indexRouting == null) {
+            return -1;
+        }
+        return shardId(routing, indexRouting.numberOfShards, indexRouting.routingNumShards);
+    }
+
+    /**
+     * @return the id of the node holding the primary of the given shard, null if unknown or unassigned
+     */
+    public String getPrimaryNodeId(String index, int shard) {
+        final IndexRouting indexRouting = indices.get(index);
+        if (indexRouting == null || shard < 0 || shard >= indexRouting.primaryNodeIds.length) {
+            return null;
+        }
+        return indexRouting.primaryNodeIds[shard];
+    }
+
+    /**
+     * @return the id of the node holding the primary shard of the document of the given action, null if it does not
+     * target a single document of a known index
+     */
+    public String getPrimaryNodeId(DocumentTargetedAction<?> action, String defaultIndex) {
+        final String routing = getRouting(action);
+        if (routing == null) {
+            return null;
+        }
+        final String index = StringUtils.isBlank(action.getIndex()) ? defaultIndex : action.getIndex();
+        if (index == null) {
+            return null;
+        }
+        return getPrimaryNodeId(index, getShard(index, routing));
+    }
+
+    /**
+     * @return the id of the node holding the primary shard of the document of a single document action, or the
+     * node holding the primaries of all documents of a bulk; null if there is no such node
+     */
+    public String getPrimaryNodeId(Action<?> action) {
+        if (action instanceof DocumentTargetedAction) {
+            return getPrimaryNodeId((DocumentTargetedAction<?>) action, null);
+        }
+        if (action instanceof Bulk) {
+            final Bulk bulk = (Bulk) action;
+            String nodeId = null;
+            for (BulkableAction item : bulk.getActions()) {
+                if (getRouting(item) == null) {
+                    // documents with generated ids may be indexed on any shard
+                    continue;
+                }
+                final String itemNodeId = getPrimaryNodeId(item, bulk.getDefaultIndex());
+                if (itemNodeId == null || (nodeId != null && !nodeId.equals(itemNodeId))) {
+                    return null;
+                }
+                nodeId = itemNodeId;
+            }
+            return nodeId;
+        }
+        return null;
+    }
+
+    /**
+     * @return the value the shard of the document of the action is computed from, null if the action has no id
+     */
+    public static String getRouting(DocumentTargetedAction<?> action) {
+        Collection<Object> routing = null;
+        Collection<Object> parent = null;
+        if (action instanceof AbstractAction) {
+            routing = ((AbstractAction<?>) action).getParameter(Parameters.ROUTING);
+            parent = ((AbstractAction<?>) action).getParameter(Parameters.PARENT);
+        } else if (action instanceof BulkableAction) {
+            routing = ((BulkableAction<?>) action).getParameter(Parameters.ROUTING);
+            parent = ((BulkableAction<?>) action).getParameter(Parameters.PARENT);
+        }
+
+        if (routing != null && !routing.isEmpty()) {
+            return routing.iterator().next().toString();
+        }
+        if (parent != null && !parent.isEmpty()) {
+            return parent.iterator().next().toString();
+        }
+        return StringUtils.isBlank(action.getId()) ? null : action.getId();
+    }
+
+    /**
+     * Same computation as <code>OperationRouting#generateShardId</code> of Elasticsearch; the number of routing
+     * shards equals the number of shards for indices created prior to 6.0.
+     */
+    public static int shardId(String routing, int numberOfShards, int routingNumShards) {
+        final int routingFactor = routingNumShards / numberOfShards;
+        return Math.floorMod(Murmur3HashFunction.hash(routing), routingNumShards) / routingFactor;
+    }
+
+    private static final class IndexRouting {
+        private final int numberOfShards;
+        private final int routingNumShards;
+        private final String[] primaryNodeIds;
+
+        IndexRouting(int numberOfShards, int routingNumShards, String[] primaryNodeIds) {
+            this.numberOfShards = numberOfShards;
+            this.routingNumShards = routingNumShards;
+            this.primaryNodeIds = primaryNodeIds;
+        }
+    }
+}
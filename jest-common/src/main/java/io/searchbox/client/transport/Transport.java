@@ -0,0 +1,27 @@
+package io.searchbox.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the HTTP requests of a {@link TransportJestClient}, so that the client logic (node selection, dead nodes,
+ * metrics, result parsing) does not depend on a particular HTTP library.
+ * <br/>
+ * Implementations must be thread-safe. Failing to connect to a node should be reported with a
+ * {@link java.net.ConnectException} (or a subclass) for the client to mark the node dead.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Sends the request and reads the whole response.
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Sends the request without blocking the calling thread. The returned future completes with the response, or
+     * exceptionally if no response could be read; cancelling it should abort the request if the transport supports
+     * it.
+     */
+    CompletableFuture<TransportResponse> executeAsync(TransportRequest request);
+}
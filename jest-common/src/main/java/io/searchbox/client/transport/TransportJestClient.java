@@ -0,0 +1,239 @@
+package io.searchbox.client.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.action.Action;
+import io.searchbox.client.AbstractJestClient;
+import io.searchbox.client.HedgingPolicy;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.JestRetryHandler;
+import io.searchbox.client.NoopRetryHandler;
+import io.searchbox.client.RetryBudget;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.node.Node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * A client sending its requests through a pluggable {@link Transport}, e.g.: one built on the HTTP client of the
+ * JDK. Sync and async requests go through the same transport (and thus the same connections).
+ * <br/>
+ * The actions are serialized by the client; the payload of streaming actions (e.g.: bulk) is written by the
+ * transport straight into its buffers. Results are parsed from the body read by the transport, from its stream if
+ * response streaming is enabled or the response is in a binary content format; gzip compressed responses are
+ * decompressed while they are parsed.
+ * <br/>
+ * Failed requests are retried on other nodes as decided by the {@link #getRetryHandler() retry handler}, and
+ * hedgeable reads are hedged if a {@link HedgingPolicy} is set, as by the Apache HttpClient based client.
+ */
+public class TransportJestClient extends AbstractJestClient {
+
+    private final Transport transport;
+    private volatile JestRetryHandler<TransportRequest> retryHandler = new NoopRetryHandler<TransportRequest>();
+
+    public TransportJestClient(Transport transport) {
+        this.transport = transport;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public JestRetryHandler<TransportRequest> getRetryHandler() {
+        return retryHandler;
+    }
+
+    /**
+     * Sets the handler deciding which failed requests are retried (each time on another node if possible), none
+     * by default.
+     */
+    public void setRetryHandler(JestRetryHandler<TransportRequest> retryHandler) {
+        this.retryHandler = retryHandler;
+    }
+
+    /**
+     * Failed requests are retried right away, on another node if possible. While a {@link HedgingPolicy} is set,
+     * the reads it can hedge are all executed as async requests (hedged or not, and retried after the retry
+     * backoff), the calling thread waits for the first attempt to answer.
+     */
+    @Override
+    public <T extends JestResult> T execute(Action<T> clientRequest) throws IOException {
+        final HedgingPolicy hedgingPolicy = getHedgingPolicy();
+        if (hedgingPolicy != null && hedgingPolicy.isHedgeable(clientRequest)) {
+            final CompletableFuture<T> future = new CompletableFuture<T>();
+            return executeAndWait(new TransportAsyncExecution<T>(clientRequest, completing(future)), future);
+        }
+
+        final JestRetryHandler<TransportRequest> retryHandler = this.retryHandler;
+        final RetryBudget retryBudget = getRetryBudget();
+        if (retryBudget != null) {
+            retryBudget.onRequest();
+        }
+
+        int executionCount = 0;
+        final List<Node> triedNodes = new ArrayList<Node>(1);
+        while (true) {
+            final Node node = getNextNode(clientRequest, triedNodes);
+            triedNodes.add(node);
+            final TransportRequest request = createRequest(clientRequest, node);
+            final long startNanos = System.nanoTime();
+            node.onRequestStart();
+
+            final TransportResponse response;
+            try {
+                response = transport.execute(request);
+            } catch (IOException | RuntimeException ex) {
+                onFailure(clientRequest, node, startNanos, ex);
+                if (!retryHandler.retryRequest(ex, executionCount++, request) || !acquireRetry(retryBudget, request)) {
+                    throw ex;
+                }
+                getMetricsListener().onRetry(getActionType(clientRequest), node, executionCount);
+                continue;
+            }
+            return onResponse(clientRequest, node, request, response, startNanos);
+        }
+    }
+
+    @Override
+    public <T extends JestResult> void executeAsync(final Action<T> clientRequest, final JestResultHandler<? super T> resultHandler) {
+        try {
+            new TransportAsyncExecution<T>(clientRequest, resultHandler).start();
+        } catch (IOException | RuntimeException e) {
+            resultHandler.failed(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * Completing the future exceptionally (e.g.: cancelling it) cancels the future of the transport. Failed
+     * requests are retried on another node if possible, after a backoff delay.
+     */
+    @Override
+    public <T extends JestResult> CompletableFuture<T> executeAsync(final Action<T> clientRequest) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        return startAsync(new TransportAsyncExecution<T>(clientRequest, completing(future)), future);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        transport.close();
+    }
+
+    private <T extends JestResult> T onResponse(Action<T> clientRequest, Node node, TransportRequest request,
+                                                TransportResponse response, long startNanos) throws IOException {
+        final long latencyNanos = System.nanoTime() - startNanos;
+        if (isNodeUnavailable(response.getStatusCode(), response.getHeader("Content-Type"))) {
+            markNodeDead(node);
+        } else {
+            markNodeAlive(node);
+        }
+
+        final ClientMetricsListener metricsListener = getMetricsListener();
+        final T result;
+        try {
+            final String reasonPhrase = response.getReasonPhrase();
+            result = deserializeResponse(clientRequest, response, request.toString(),
+                    reasonPhrase == null ? String.valueOf(response.getStatusCode()) : response.getStatusCode() + " " + reasonPhrase);
+        } catch (IOException | RuntimeException ex) {
+            node.onRequestEnd(latencyNanos, true);
+            metricsListener.onRequestFailure(getActionType(clientRequest), node, latencyNanos, ex);
+            throw ex;
+        } finally {
+            response.close();
+        }
+        node.onRequestEnd(latencyNanos, false);
+        metricsListener.onRequest(getActionType(clientRequest), node, latencyNanos,
+                request.getBodyLength(), response.getBodyLength(), response.getStatusCode());
+        recordBulkItemFailures(node, result);
+        return result;
+    }
+
+    private void onFailure(Action<?> clientRequest, Node node, long startNanos, Exception failure) {
+        final long latencyNanos = System.nanoTime() - startNanos;
+        node.onRequestEnd(latencyNanos, true);
+        if (isConnectFailure(failure)) {
+            markNodeDead(node);
+        }
+        getMetricsListener().onRequestFailure(getActionType(clientRequest), node, latencyNanos, failure);
+    }
+
+    /**
+     * Sends the attempts of an async execution through the transport.
+     */
+    private class TransportAsyncExecution<T extends JestResult> extends AsyncExecution<T> {
+        private volatile TransportRequest request;
+
+        TransportAsyncExecution(Action<T> clientRequest, JestResultHandler<? super T> resultHandler) {
+            super(clientRequest, resultHandler);
+        }
+
+        @Override
+        protected Future<?> sendAttempt(final Node node) throws IOException {
+            final Action<T> clientRequest = getClientRequest();
+            final TransportRequest attemptRequest = createRequest(clientRequest, node);
+            request = attemptRequest;
+            final long startNanos = System.nanoTime();
+            node.onRequestStart();
+            final CompletableFuture<TransportResponse> responseFuture = transport.executeAsync(attemptRequest);
+            responseFuture.whenComplete(new BiConsumer<TransportResponse, Throwable>() {
+                @Override
+                public void accept(TransportResponse response, Throwable failure) {
+                    if (failure != null) {
+                        onAttemptFailure(node, startNanos, failure);
+                        return;
+                    }
+                    final T result;
+                    try {
+                        result = onResponse(clientRequest, node, attemptRequest, response, startNanos);
+                    } catch (Exception e) {
+                        // like sync requests, failures reading the response are not retried
+                        if (!onAttemptFailed(e, node, false)) {
+                            getAttemptHandler().failed(e);
+                        }
+                        return;
+                    }
+                    getAttemptHandler().completed(result);
+                }
+            });
+            return responseFuture;
+        }
+
+        private void onAttemptFailure(Node node, long startNanos, Throwable failure) {
+            final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            final Exception exception = cause instanceof Exception ? (Exception) cause : new IOException(cause);
+            final boolean aborted = exception instanceof CancellationException;
+            if (aborted) {
+                // aborted by the client (e.g.: the loser of a hedged request), not a failure of the node
+                node.onRequestCancelled();
+            } else {
+                onFailure(getClientRequest(), node, startNanos, exception);
+            }
+            if (!onAttemptFailed(exception, node, !aborted)) {
+                getAttemptHandler().failed(aborted && isClosed() ? new IOException("client closed") : exception);
+            }
+        }
+
+        @Override
+        protected boolean retryRequest(Exception failure, int executionCount) {
+            return retryHandler.retryRequest(failure, executionCount, request);
+        }
+    }
+}
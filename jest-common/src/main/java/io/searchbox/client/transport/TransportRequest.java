@@ -0,0 +1,114 @@
+package io.searchbox.client.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An HTTP request built by a {@link TransportJestClient} for its {@link Transport}.
+ * <br/>
+ * The body is either an array of bytes or a {@link Payload} written by the transport straight into its own buffers
+ * (see {@link #writeBody(OutputStream)}), e.g.: for bulk requests.
+ */
+public class TransportRequest {
+
+    /**
+     * A request body written on demand; may be written more than once (e.g.: if the request is retried).
+     */
+    public interface Payload {
+
+        /**
+         * Writes the encoded body to the given stream, without closing it.
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
+    private final String method;
+    private final String url;
+    private final Payload payload;
+    private final Map<String, String> headers;
+    private volatile byte[] body;
+
+    /**
+     * @param body    the encoded request body (gzip compressed if the Content-Encoding header says so), may be null
+     * @param headers request headers, including the Content-Type of the body
+     */
+    public TransportRequest(String method, String url, byte[] body, Map<String, String> headers) {
+        this(method, url, null, body, headers);
+    }
+
+    /**
+     * @param payload writes the encoded request body (gzip compressed if the Content-Encoding header says so)
+     * @param headers request headers, including the Content-Type of the body
+     */
+    public static TransportRequest withPayload(String method, String url, Payload payload, Map<String, String> headers) {
+        return new TransportRequest(method, url, payload, null, headers);
+    }
+
+    private TransportRequest(String method, String url, Payload payload, byte[] body, Map<String, String> headers) {
+        this.method = method;
+        this.url = url;
+        this.payload = payload;
+        this.body = body;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<String, String>(headers));
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public boolean hasBody() {
+        return body != null || payload != null;
+    }
+
+    /**
+     * Writes the request body (if any) to the given stream, without buffering a payload first.
+     */
+    public void writeBody(OutputStream outputStream) throws IOException {
+        final byte[] bytes = body;
+        if (bytes != null) {
+            outputStream.write(bytes);
+        } else if (payload != null) {
+            payload.writeTo(outputStream);
+        }
+    }
+
+    /**
+     * @return the request body, null if there is none; a payload is written into an array (once) to return it
+     */
+    public byte[] getBody() throws IOException {
+        if (body == null && payload != null) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            payload.writeTo(bytes);
+            body = bytes.toByteArray();
+        }
+        return body;
+    }
+
+    /**
+     * @return the size of the request body, 0 if there is none and -1 if unknown (i.e.: a payload not written yet)
+     */
+    public long getBodyLength() {
+        final byte[] bytes = body;
+        if (bytes != null) {
+            return bytes.length;
+        }
+        return payload == null ? 0 : -1;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
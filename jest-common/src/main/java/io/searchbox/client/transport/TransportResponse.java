@@ -0,0 +1,123 @@
+package io.searchbox.client.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An HTTP response read by a {@link Transport}, with its body fully read and decoded (i.e.: no longer compressed).
+ * <br/>
+ * The body is either an array of bytes or a stream over the buffers of the transport, which the client parses from
+ * directly when possible; closing the response releases these buffers.
+ */
+public class TransportResponse implements Closeable {
+
+    private final int statusCode;
+    private final String reasonPhrase;
+    private final Map<String, String> headers;
+    private final long contentLength;
+    private InputStream content;
+    private byte[] body;
+
+    /**
+     * @param headers response headers, the first value of each; looked up case insensitively
+     * @param body    the response body, may be null
+     */
+    public TransportResponse(int statusCode, String reasonPhrase, Map<String, String> headers, byte[] body) {
+        this(statusCode, reasonPhrase, headers, null, body == null ? 0 : body.length);
+        this.body = body;
+    }
+
+    /**
+     * @param headers       response headers, the first value of each; looked up case insensitively
+     * @param content       stream of the response body, may be null; closed by {@link #close()}
+     * @param contentLength size of the response body, -1 if unknown
+     */
+    public TransportResponse(int statusCode, String reasonPhrase, Map<String, String> headers, InputStream content,
+                             long contentLength) {
+        this.statusCode = statusCode;
+        this.reasonPhrase = reasonPhrase;
+        final Map<String, String> caseInsensitiveHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        caseInsensitiveHeaders.putAll(headers);
+        this.headers = Collections.unmodifiableMap(caseInsensitiveHeaders);
+        this.content = content;
+        this.contentLength = contentLength;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return the reason phrase of the status line, null if the protocol has none (e.g.: HTTP/2)
+     */
+    public String getReasonPhrase() {
+        return reasonPhrase;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return a stream of the response body, null if there is none; can only be consumed once
+     */
+    public synchronized InputStream getContent() {
+        if (body != null) {
+            return new ByteArrayInputStream(body);
+        }
+        final InputStream stream = content;
+        content = null;
+        return stream;
+    }
+
+    /**
+     * @return the response body, null if there is none; a stream is read into an array (once) to return it
+     */
+    public synchronized byte[] getBody() throws IOException {
+        if (body == null && content != null) {
+            final InputStream stream = content;
+            content = null;
+            try {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                        contentLength > 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : 1024);
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                body = bytes.size() == 0 ? null : bytes.toByteArray();
+            } finally {
+                stream.close();
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return the size of the response body, -1 if unknown
+     */
+    public long getBodyLength() {
+        return contentLength;
+    }
+
+    /**
+     * Releases the body stream if it was not consumed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (content != null) {
+            content.close();
+            content = null;
+        }
+    }
+}
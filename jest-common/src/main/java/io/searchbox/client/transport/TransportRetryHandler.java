@@ -0,0 +1,55 @@
+package io.searchbox.client.transport;
+
+import com.google.common.base.Preconditions;
+import io.searchbox.client.JestRetryHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Retries the requests of a {@link TransportJestClient} failing with one of the given exceptions, by default the
+ * failures to connect, i.e.: requests that were not sent.
+ */
+public class TransportRetryHandler implements JestRetryHandler<TransportRequest> {
+    private static final Logger log = LoggerFactory.getLogger(TransportRetryHandler.class);
+
+    private final int retryCount;
+    private final Collection<Class<? extends Exception>> exceptionClasses;
+
+    public TransportRetryHandler(int retryCount) {
+        this(retryCount, Arrays.asList(UnknownHostException.class,
+                ConnectException.class,
+                NoRouteToHostException.class));
+    }
+
+    public TransportRetryHandler(int retryCount, Collection<Class<? extends Exception>> exceptionClasses) {
+        Preconditions.checkArgument(retryCount >= 0, "retryCount must be positive");
+        Preconditions.checkArgument(!exceptionClasses.isEmpty(), "exceptionClasses must not be empty");
+
+        this.retryCount = retryCount;
+        this.exceptionClasses = exceptionClasses;
+    }
+
+    @Override
+    public boolean retryRequest(Exception exception, int executionCount, TransportRequest request) {
+        if (executionCount >= retryCount) {
+            log.debug("Maximum number of retries ({}) for request {} reached (executed {} times)",
+                    retryCount, request, executionCount, exception);
+            return false;
+        }
+        for (Class<? extends Exception> exceptionClass : exceptionClasses) {
+            if (exceptionClass.isInstance(exception)) {
+                log.debug("Retrying request {}", request, exception);
+                return true;
+            }
+        }
+
+        log.debug("Not retrying request {} due to unsupported exception", request, exception);
+        return false;
+    }
+}
@@ -1,22 +1,34 @@
 package io.searchbox.core;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.searchbox.action.AbstractAction;
 import io.searchbox.action.BulkableAction;
+import io.searchbox.action.FramedPayloadAction;
 import io.searchbox.action.GenericResultAbstractAction;
+import io.searchbox.action.StreamingPayloadAction;
+import io.searchbox.action.StreamingResultAction;
+import io.searchbox.client.config.ContentFormat;
+import io.searchbox.client.node.NodePreference;
 import io.searchbox.params.Parameters;
 import io.searchbox.strings.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The bulk API makes it possible to perform many index/delete operations in a
@@ -31,7 +43,8 @@ import java.util.Map;
  * @author Dogukan Sonmez
  * @author cihat keser
  */
-public class Bulk extends AbstractAction<BulkResult> {
+public class Bulk extends AbstractAction<BulkResult> implements StreamingResultAction<BulkResult>, StreamingPayloadAction<BulkResult>,
+        FramedPayloadAction<BulkResult> {
 
     final static Logger log = LoggerFactory.getLogger(Bulk.class);
     protected Collection<BulkableAction> bulkableActions;
@@ -45,12 +58,37 @@ public class Bulk extends AbstractAction<BulkResult> {
         setURI(buildURI());
     }
 
-    private Object getJson(ObjectMapper objectMapper, Object source) throws JsonProcessingException {
-        if (source instanceof String) {
-            return source;
-        } else {
-            return objectMapper.writeValueAsString(source);
-        }
+    protected Bulk(Bulk source, Collection<? extends BulkableAction> actions) {
+        super(source);
+        bulkableActions = new LinkedList<BulkableAction>(actions);
+    }
+
+    /**
+     * @return the actions of this bulk, in the same order as the items of its result
+     */
+    public List<BulkableAction> getActions() {
+        return new ArrayList<BulkableAction>(bulkableActions);
+    }
+
+    /**
+     * @return the index of the actions that do not specify one, may be null
+     */
+    public String getDefaultIndex() {
+        return indexName;
+    }
+
+    /**
+     * @return the type of the actions that do not specify one, may be null
+     */
+    public String getDefaultType() {
+        return typeName;
+    }
+
+    /**
+     * @return a new bulk with the same default index, type, parameters and headers as this one but with the given actions
+     */
+    public Bulk withActions(Collection<? extends BulkableAction> actions) {
+        return new Bulk(this, actions);
     }
 
     @Override
@@ -58,59 +96,130 @@ public class Bulk extends AbstractAction<BulkResult> {
         return "POST";
     }
 
+    /**
+     * Prefers ingest nodes or coordinating only nodes unless another node preference is set.
+     */
+    @Override
+    public NodePreference getNodePreference() {
+        return nodePreference != null ? nodePreference : NodePreference.INGEST_OR_COORDINATING;
+    }
+
     @Override
     public String getData(ObjectMapper objectMapper) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeData(outputStream, objectMapper);
+        return outputStream.toString(StandardCharsets.UTF_8.name());
+    }
+
+    @Override
+    public void writeData(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
         /*
         { "index" : { "_index" : "test", "_type" : "type1", "_id" : "1" } }
         { "field1" : "value1" }
         { "delete" : { "_index" : "test", "_type" : "type1", "_id" : "2" } }
          */
-        StringBuilder sb = new StringBuilder();
+        final ObjectWriter sourceWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // lines are separated explicitly, not by the generator
+        generator.setRootValueSeparator(null);
+
         for (BulkableAction action : bulkableActions) {
             // write out the action-meta-data line
             // e.g.: { "index" : { "_index" : "test", "_type" : "type1", "_id" : "1" } }
-            Map<String, Map<String, String>> opMap = new LinkedHashMap<String, Map<String, String>>(1);
+            writeMetadata(generator, action);
+            generator.writeRaw('\n');
 
-            Map<String, String> opDetails = new LinkedHashMap<String, String>(3);
-            if (!StringUtils.isBlank(action.getId())) {
-                opDetails.put("_id", action.getId());
-            }
-            if (!StringUtils.isBlank(action.getIndex())) {
-                opDetails.put("_index", action.getIndex());
-            }
-            if (!StringUtils.isBlank(action.getType())) {
-                opDetails.put("_type", action.getType());
-            }
-
-            for (String parameter : Parameters.ACCEPTED_IN_BULK) {
-                try {
-                    Collection<Object> values = action.getParameter(parameter);
-                    if (values != null) {
-                        if (values.size() == 1) {
-                            opDetails.put("_" + parameter, values.iterator().next().toString());
-                        } else if (values.size() > 1) {
-                            throw new IllegalArgumentException("Expecting a single value for '" + parameter + "' parameter, you provided: " + values.size());
-                        }
-                    }
-                } catch (NullPointerException e) {
-                    log.debug("Could not retrieve '" + parameter + "' parameter from action.", e);
+            // write out the action source/document line
+            // e.g.: { "field1" : "value1" }
+            Object source = getSource(action, objectMapper);
+            if (source != null) {
+                if (source instanceof String) {
+                    generator.writeRaw((String) source);
+                } else {
+                    sourceWriter.writeValue(generator, source);
                 }
+                generator.writeRaw('\n');
             }
+        }
+        generator.close();
+    }
+
+    /**
+     * Writes each action-meta-data line and source in its own document of the given format, e.g.: a Smile document
+     * starting with the Smile header.
+     */
+    @Override
+    public void writeData(OutputStream outputStream, ObjectMapper objectMapper, ContentFormat contentFormat) throws IOException {
+        if (!contentFormat.isBinary()) {
+            writeData(outputStream, objectMapper);
+            return;
+        }
 
-            opMap.put(action.getBulkMethodName(), opDetails);
-            sb.append(objectMapper.writeValueAsString(opMap));
-            sb.append("\n");
+        final byte separator = contentFormat.getStreamSeparator();
+        for (BulkableAction action : bulkableActions) {
+            JsonGenerator generator = createGenerator(outputStream, contentFormat);
+            writeMetadata(generator, action);
+            generator.close();
+            outputStream.write(separator);
 
-            // write out the action source/document line
-            // e.g.: { "field1" : "value1" }
-            Object source = action.getData(objectMapper);
+            Object source = getSource(action, objectMapper);
             if (source != null) {
-                sb.append(getJson(objectMapper, source));
-                sb.append("\n");
+                generator = createGenerator(outputStream, contentFormat);
+                contentFormat.writeValue(source, objectMapper, generator);
+                generator.close();
+                outputStream.write(separator);
             }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * @return the source of the action as given to its builder (e.g.: an object written straight into the generator
+     * by the caller), or its data if the source is a JSON string or the action is not an {@link AbstractAction}
+     */
+    private static Object getSource(BulkableAction action, ObjectMapper objectMapper) throws IOException {
+        return action instanceof AbstractAction
+                ? ((AbstractAction<?>) action).getBody(objectMapper)
+                : action.getData(objectMapper);
+    }
 
+    private static JsonGenerator createGenerator(OutputStream outputStream, ContentFormat contentFormat) throws IOException {
+        final JsonGenerator generator = contentFormat.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeMetadata(JsonGenerator generator, BulkableAction action) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectFieldStart(action.getBulkMethodName());
+        if (!StringUtils.isBlank(action.getId())) {
+            generator.writeStringField("_id", action.getId());
+        }
+        if (!StringUtils.isBlank(action.getIndex())) {
+            generator.writeStringField("_index", action.getIndex());
+        }
+        if (!StringUtils.isBlank(action.getType())) {
+            generator.writeStringField("_type", action.getType());
         }
-        return sb.toString();
+
+        for (String parameter : Parameters.ACCEPTED_IN_BULK) {
+            try {
+                Collection<Object> values = action.getParameter(parameter);
+                if (values != null) {
+                    if (values.size() == 1) {
+                        generator.writeStringField("_" + parameter, values.iterator().next().toString());
+                    } else if (values.size() > 1) {
+                        throw new IllegalArgumentException("Expecting a single value for '" + parameter + "' parameter, you provided: " + values.size());
+                    }
+                }
+            } catch (NullPointerException e) {
+                log.debug("Could not retrieve '" + parameter + "' parameter from action.", e);
+            }
+        }
+
+        generator.writeEndObject();
+        generator.writeEndObject();
     }
 
     @Override
@@ -129,15 +238,32 @@ public class Bulk extends AbstractAction<BulkResult> {
     }
 
     @Override
-    protected BulkResult createNewElasticSearchResult(BulkResult result, String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
-        ObjectNode jsonMap = parseResponseBody(responseBody, objectMapper);
+    public BulkResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        // parsed once off the stream; lazy response parsing retains the raw response instead, for its items to be
+        // scanned without building the tree
+        return createNewElasticSearchResult(new BulkResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public BulkResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new BulkResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public BulkResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new BulkResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    protected BulkResult createNewElasticSearchResult(BulkResult result, ObjectNode jsonMap, int statusCode, String reasonPhrase) {
         result.setResponseCode(statusCode);
-        result.setJsonString(responseBody);
-        result.setJsonObject(jsonMap);
+        if (jsonMap != null) {
+            result.setJsonObject(jsonMap);
+        }
         result.setPathToResult(getPathToResult());
 
         if (isHttpSuccessful(statusCode)) {
-            if(jsonMap.has("errors") && jsonMap.get("errors").asBoolean())
+            if(result.hasErrors())
             {
                 result.setSucceeded(false);
                 result.setErrorMessage("One or more of the items in the Bulk request failed, check BulkResult.getItems() for more information.");
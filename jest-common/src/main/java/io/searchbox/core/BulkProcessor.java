@@ -0,0 +1,493 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Utf8;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.action.AbstractAction;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe processor that collects {@link BulkableAction}s and executes them as {@link Bulk} requests once the
+ * number of collected actions or their estimated size reaches a limit, or the flush interval elapses.
+ * <br/>
+ * Up to {@link Builder#concurrentRequests(int)} bulks are executed asynchronously at the same time; once that
+ * many are in flight, threads flushing the next bulk (i.e.: threads adding actions) block until one of them
+ * completes. With zero concurrent requests each bulk is executed synchronously by the thread that flushes it.
+ *
+ * @see Listener
+ */
+public class BulkProcessor implements Closeable {
+
+    final static Logger log = LoggerFactory.getLogger(BulkProcessor.class);
+
+    /**
+     * One out of how many non String sources of a class is serialized to sample their size.
+     */
+    static final int SOURCE_SIZE_SAMPLE_INTERVAL = 100;
+    /**
+     * Weight of the last sampled size in the moving average of a source class.
+     */
+    private static final double SOURCE_SIZE_WEIGHT = 0.2;
+
+    /**
+     * Callbacks for each executed bulk; the after callbacks are called on the I/O thread of the client for
+     * asynchronously executed bulks and must not block.
+     */
+    public interface Listener {
+
+        void beforeBulk(long executionId, Bulk bulk);
+
+        /**
+         * Called when the bulk request completed, the result might still contain failed items.
+         */
+        void afterBulk(long executionId, Bulk bulk, BulkResult result);
+
+        /**
+         * Called when the bulk request could not be executed at all.
+         */
+        void afterBulk(long executionId, Bulk bulk, Throwable failure);
+    }
+
+    private final JestClient client;
+    private final Listener listener;
+    private final int bulkActions;
+    private final long bulkSize;
+    private final int concurrentRequests;
+    private final String defaultIndex;
+    private final String defaultType;
+    private final ObjectMapper objectMapper;
+    private final BulkRetryPolicy retryPolicy;
+    private final Semaphore semaphore;
+    private final ScheduledExecutorService flushScheduler;
+    private final ScheduledExecutorService retryScheduler;
+    private final ScheduledFuture<?> scheduledFlush;
+    private final AtomicLong executionIdGenerator = new AtomicLong();
+    private final AtomicInteger bulksInFlight = new AtomicInteger();
+    private final ConcurrentMap<Class<?>, SourceSizeStats> sourceSizes = new ConcurrentHashMap<Class<?>, SourceSizeStats>();
+
+    private List<BulkableAction> actions = new ArrayList<BulkableAction>();
+    private long estimatedSize;
+    private volatile boolean closed;
+
+    protected BulkProcessor(Builder builder) {
+        this.client = builder.client;
+        this.listener = builder.listener;
+        this.bulkActions = builder.bulkActions;
+        this.bulkSize = builder.bulkSize;
+        this.concurrentRequests = builder.concurrentRequests;
+        this.defaultIndex = builder.defaultIndex;
+        this.defaultType = builder.defaultType;
+        this.objectMapper = builder.objectMapper;
+        this.retryPolicy = builder.retryPolicy;
+        this.semaphore = new Semaphore(Math.max(1, concurrentRequests));
+
+        // retries get their own thread: the flush thread blocks while the bulks waiting for them hold all permits
+        if (retryPolicy != null && concurrentRequests > 0) {
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("jest-bulk-retry-%d")
+                            .build());
+        } else {
+            retryScheduler = null;
+        }
+
+        if (builder.flushInterval > 0) {
+            flushScheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("jest-bulk-processor-%d")
+                            .build());
+            scheduledFlush = flushScheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush();
+                    } catch (RuntimeException e) {
+                        log.error("Exception occurred while flushing the bulk processor.", e);
+                    }
+                }
+            }, builder.flushInterval, builder.flushInterval, builder.flushIntervalTimeUnit);
+        } else {
+            flushScheduler = null;
+            scheduledFlush = null;
+        }
+    }
+
+    /**
+     * Adds an action to the next bulk, executing the bulk if one of the limits is reached; blocks while
+     * the maximum number of concurrent bulks are in flight.
+     *
+     * @throws IllegalStateException if the processor is closed
+     */
+    public BulkProcessor add(BulkableAction action) {
+        // computed outside of the lock since it may serialize the source
+        final long actionSize = bulkSize > 0 ? estimateSize(action) : 0;
+
+        List<BulkableAction> bulkToExecute = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Bulk processor is already closed");
+            }
+            actions.add(action);
+            estimatedSize += actionSize;
+            if ((bulkActions > 0 && actions.size() >= bulkActions) || (bulkSize > 0 && estimatedSize >= bulkSize)) {
+                bulkToExecute = takeActions();
+            }
+        }
+
+        if (bulkToExecute != null) {
+            execute(bulkToExecute);
+        }
+        return this;
+    }
+
+    /**
+     * Executes the collected actions (if any) regardless of the limits.
+     */
+    public void flush() {
+        List<BulkableAction> bulkToExecute;
+        synchronized (this) {
+            bulkToExecute = takeActions();
+        }
+
+        if (bulkToExecute != null) {
+            execute(bulkToExecute);
+        }
+    }
+
+    /**
+     * Flushes the collected actions and waits up to the given time for all bulks in flight to complete;
+     * no more actions can be added afterwards. Bulks still in flight after the timeout keep being retried until
+     * they complete.
+     *
+     * @return true if all bulks completed in time
+     */
+    public boolean awaitClose(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (this) {
+            if (closed) {
+                return true;
+            }
+            closed = true;
+        }
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        flush();
+
+        try {
+            if (concurrentRequests > 0) {
+                if (semaphore.tryAcquire(concurrentRequests, timeout, unit)) {
+                    semaphore.release(concurrentRequests);
+                    return true;
+                }
+                return false;
+            }
+            return true;
+        } finally {
+            if (flushScheduler != null) {
+                flushScheduler.shutdown();
+            }
+            if (bulksInFlight.get() == 0) {
+                shutdownRetryScheduler();
+            }
+        }
+    }
+
+    /**
+     * Flushes the collected actions without waiting for the bulks in flight to complete.
+     */
+    @Override
+    public void close() {
+        try {
+            awaitClose(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void bulkCompleted() {
+        semaphore.release();
+        decrementBulksInFlight();
+    }
+
+    /**
+     * The last bulk in flight after closing stops the retry thread.
+     */
+    private void decrementBulksInFlight() {
+        if (bulksInFlight.decrementAndGet() == 0 && closed) {
+            shutdownRetryScheduler();
+        }
+    }
+
+    private void shutdownRetryScheduler() {
+        if (retryScheduler != null) {
+            retryScheduler.shutdown();
+        }
+    }
+
+    private List<BulkableAction> takeActions() {
+        if (actions.isEmpty()) {
+            return null;
+        }
+        List<BulkableAction> taken = actions;
+        actions = new ArrayList<BulkableAction>();
+        estimatedSize = 0;
+        return taken;
+    }
+
+    protected void execute(List<BulkableAction> actionsToExecute) {
+        final long executionId = executionIdGenerator.incrementAndGet();
+        final Bulk bulk = new Bulk.Builder()
+                .defaultIndex(defaultIndex)
+                .defaultType(defaultType)
+                .addAction(actionsToExecute)
+                .build();
+
+        if (concurrentRequests == 0) {
+            listener.beforeBulk(executionId, bulk);
+            try {
+                BulkResult result = retryPolicy != null ? retryPolicy.execute(client, bulk) : client.execute(bulk);
+                listener.afterBulk(executionId, bulk, result);
+            } catch (Exception e) {
+                listener.afterBulk(executionId, bulk, e);
+            }
+            return;
+        }
+
+        // counted before waiting for a permit, so that closing meanwhile does not stop the retries of this bulk
+        bulksInFlight.incrementAndGet();
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Bulk request {} has been cancelled.", executionId);
+            decrementBulksInFlight();
+            listener.afterBulk(executionId, bulk, e);
+            return;
+        }
+
+        boolean submitted = false;
+        try {
+            listener.beforeBulk(executionId, bulk);
+            JestResultHandler<BulkResult> resultHandler = new JestResultHandler<BulkResult>() {
+                @Override
+                public void completed(BulkResult result) {
+                    try {
+                        listener.afterBulk(executionId, bulk, result);
+                    } finally {
+                        bulkCompleted();
+                    }
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    try {
+                        listener.afterBulk(executionId, bulk, ex);
+                    } finally {
+                        bulkCompleted();
+                    }
+                }
+            };
+            if (retryPolicy != null) {
+                retryPolicy.executeAsync(client, bulk, retryScheduler, resultHandler);
+            } else {
+                client.executeAsync(bulk, resultHandler);
+            }
+            submitted = true;
+        } catch (Exception e) {
+            listener.afterBulk(executionId, bulk, e);
+        } finally {
+            if (!submitted) {
+                bulkCompleted();
+            }
+        }
+    }
+
+    /**
+     * Estimates the size in bytes of the bulk lines of the given action: the metadata line is approximated, a
+     * String source is counted exactly as UTF-8. Source objects (see {@link AbstractAction#getPayload()}) are not
+     * serialized for this on every add, as the bulk serializes them again: their size is the moving average of the
+     * serialized size of sources of the same class, measured on the first ones and then on one out of every
+     * {@link #SOURCE_SIZE_SAMPLE_INTERVAL}.
+     */
+    protected long estimateSize(BulkableAction action) {
+        long size = 64;
+        size += utf8Length(action.getId());
+        size += utf8Length(action.getIndex());
+        size += utf8Length(action.getType());
+
+        try {
+            Object source = action instanceof AbstractAction ? ((AbstractAction<?>) action).getPayload() : null;
+            if (source == null) {
+                source = action.getData(objectMapper);
+            }
+            if (source instanceof String) {
+                size += Utf8.encodedLength((String) source) + 1;
+            } else if (source != null) {
+                size += getSourceSizeStats(source.getClass()).estimate(source) + 1;
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not serialize the source of the action", e);
+        }
+        return size;
+    }
+
+    private SourceSizeStats getSourceSizeStats(Class<?> sourceType) {
+        SourceSizeStats stats = sourceSizes.get(sourceType);
+        if (stats == null) {
+            final SourceSizeStats newStats = new SourceSizeStats();
+            stats = sourceSizes.putIfAbsent(sourceType, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : Utf8.encodedLength(value);
+    }
+
+    private final class SourceSizeStats {
+        private double size = Double.NaN;
+        private int skipped;
+
+        long estimate(Object source) throws IOException {
+            if (shouldSample()) {
+                CountingOutputStream countingOutputStream = new CountingOutputStream(ByteStreams.nullOutputStream());
+                objectMapper.writeValue(countingOutputStream, source);
+                record(countingOutputStream.getCount());
+                return countingOutputStream.getCount();
+            }
+            return Math.round(getSize());
+        }
+
+        private synchronized boolean shouldSample() {
+            if (Double.isNaN(size) || ++skipped >= SOURCE_SIZE_SAMPLE_INTERVAL) {
+                skipped = 0;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized void record(long lastSize) {
+            size = Double.isNaN(size) ? lastSize : size + SOURCE_SIZE_WEIGHT * (lastSize - size);
+        }
+
+        private synchronized double getSize() {
+            return size;
+        }
+    }
+
+    public static class Builder {
+        private final JestClient client;
+        private final Listener listener;
+        private int bulkActions = 1000;
+        private long bulkSize = 5 * 1024 * 1024;
+        private int concurrentRequests = 1;
+        private long flushInterval = -1;
+        private TimeUnit flushIntervalTimeUnit = TimeUnit.SECONDS;
+        private String defaultIndex;
+        private String defaultType;
+        private ObjectMapper objectMapper = new ObjectMapper();
+        private BulkRetryPolicy retryPolicy;
+
+        public Builder(JestClient client, Listener listener) {
+            this.client = client;
+            this.listener = listener;
+        }
+
+        /**
+         * Number of actions after which the bulk is executed, defaults to 1000; -1 to disable.
+         */
+        public Builder bulkActions(int bulkActions) {
+            this.bulkActions = bulkActions;
+            return this;
+        }
+
+        /**
+         * Estimated size of the bulk in bytes after which the bulk is executed, defaults to 5MB; -1 to disable.
+         */
+        public Builder bulkSize(long bulkSize) {
+            this.bulkSize = bulkSize;
+            return this;
+        }
+
+        /**
+         * Number of bulks allowed to be in flight at the same time, defaults to 1;
+         * 0 to execute each bulk synchronously by the thread flushing it.
+         */
+        public Builder concurrentRequests(int concurrentRequests) {
+            this.concurrentRequests = concurrentRequests;
+            return this;
+        }
+
+        /**
+         * Interval after which the collected actions are executed regardless of the limits, disabled by default.
+         */
+        public Builder flushInterval(long flushInterval, TimeUnit flushIntervalTimeUnit) {
+            this.flushInterval = flushInterval;
+            this.flushIntervalTimeUnit = flushIntervalTimeUnit;
+            return this;
+        }
+
+        public Builder defaultIndex(String defaultIndex) {
+            this.defaultIndex = defaultIndex;
+            return this;
+        }
+
+        public Builder defaultType(String defaultType) {
+            this.defaultType = defaultType;
+            return this;
+        }
+
+        /**
+         * Mapper used to estimate the size of the action sources, should be the same as the one of the client.
+         */
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * Policy for retrying the items of a bulk rejected by the cluster, no items are retried by default.
+         * The listener is only notified after the last retry of a bulk.
+         */
+        public Builder retryPolicy(BulkRetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public BulkProcessor build() {
+            if (client == null || listener == null) {
+                throw new IllegalArgumentException("Client and listener are required");
+            }
+            if (concurrentRequests < 0) {
+                throw new IllegalArgumentException("Concurrent requests can not be negative");
+            }
+            return new BulkProcessor(this);
+        }
+    }
+}
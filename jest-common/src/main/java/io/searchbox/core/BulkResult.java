@@ -1,19 +1,39 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.searchbox.client.JestResult;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * @author cihat.keser
  */
 public class BulkResult extends JestResult {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    /**
+     * Status of each item followed by the positions (and start offsets in the retained response) of the failed
+     * items only; built by a single parser pass over the response on first access.
+     */
+    private int[] statuses;
+    private int[] failedPositions;
+    private long[] failedOffsets;
+
     public BulkResult(JestResult source) {
         super(source);
     }
@@ -22,6 +42,34 @@ public class BulkResult extends JestResult {
         super(objectMapper);
     }
 
+    /**
+     * Reads the top level <code>errors</code> flag of the response; when only the raw response is retained it is
+     * scanned with a parser instead of building the whole tree of the (potentially huge) items array.
+     */
+    boolean hasErrors() {
+        if (jsonObject == null && jsonBytes != null) {
+            try (JsonParser parser = objectMapper.getFactory().createParser(jsonBytes)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fieldName = parser.getCurrentName();
+                    final JsonToken valueToken = parser.nextToken();
+                    if ("errors".equals(fieldName)) {
+                        return valueToken == JsonToken.VALUE_TRUE;
+                    }
+                    parser.skipChildren();
+                }
+                return false;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not parse the retained response", e);
+            }
+        }
+
+        final JsonNode jsonObject = getJsonObject();
+        return jsonObject != null && jsonObject.has("errors") && jsonObject.get("errors").asBoolean();
+    }
+
     /**
      *
      * @return empty list if Bulk action failed on HTTP level, otherwise all individual action items in the response
@@ -29,6 +77,7 @@ public class BulkResult extends JestResult {
     public List<BulkResultItem> getItems() {
         List<BulkResultItem> items = new LinkedList<BulkResultItem>();
 
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null && jsonObject.has("items")) {
             for (JsonNode jsonElement : jsonObject.get("items")) {
                 final Iterator<Map.Entry<String, JsonNode>> it = jsonElement.fields();
@@ -48,24 +97,236 @@ public class BulkResult extends JestResult {
      * @return empty list if Bulk action failed on HTTP level, otherwise individual failed action items in the response
      */
     public List<BulkResultItem> getFailedItems() {
-        List<BulkResultItem> items = new LinkedList<BulkResultItem>();
+        scanItems();
+        List<BulkResultItem> items = new ArrayList<BulkResultItem>(failedPositions.length);
+        if (failedPositions.length == 0) {
+            return items;
+        }
 
-        if (jsonObject != null && jsonObject.has("items")) {
-            for (JsonNode jsonElement : jsonObject.get("items")) {
-                final Iterator<Map.Entry<String, JsonNode>> it = jsonElement.fields();
-                while (it.hasNext()) {
-                    final Map.Entry<String, JsonNode> entry = it.next();
-                    final JsonNode values = entry.getValue();
-                    if (values.has("error")) {
-                        items.add(new BulkResultItem(entry.getKey(), values));
+        try {
+            if (failedOffsets != null) {
+                // only the failed items are parsed from the retained response
+                for (long offset : failedOffsets) {
+                    try (JsonParser parser = objectMapper.getFactory().createParser(
+                            jsonBytes, (int) offset, jsonBytes.length - (int) offset)) {
+                        parser.nextToken();
+                        addItems(items, objectMapper.<JsonNode>readTree(parser));
                     }
                 }
+            } else {
+                final JsonNode itemsArray = getJsonObject().get("items");
+                for (int position : failedPositions) {
+                    addItems(items, itemsArray.get(position));
+                }
             }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse the retained response", e);
         }
-
         return items;
     }
 
+    private void addItems(List<BulkResultItem> items, JsonNode jsonElement) {
+        final Iterator<Map.Entry<String, JsonNode>> it = jsonElement.fields();
+        while (it.hasNext()) {
+            final Map.Entry<String, JsonNode> entry = it.next();
+            items.add(new BulkResultItem(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * @return number of items in the response, 0 if Bulk action failed on HTTP level
+     */
+    public int getItemCount() {
+        scanItems();
+        return statuses.length;
+    }
+
+    /**
+     * @return HTTP status of the item at the given position (same as the position of its action in the Bulk)
+     */
+    public int getItemStatus(int position) {
+        scanItems();
+        return statuses[position];
+    }
+
+    /**
+     * @return positions of the failed items in the response (same as the positions of their actions in the Bulk),
+     * in the same order as {@link #getFailedItems()}
+     */
+    public int[] getFailedItemPositions() {
+        scanItems();
+        return failedPositions.clone();
+    }
+
+    @Override
+    public void setJsonObject(JsonNode jsonObject) {
+        super.setJsonObject(jsonObject);
+        statuses = null;
+    }
+
+    @Override
+    public void setJsonBytes(byte[] jsonBytes) {
+        super.setJsonBytes(jsonBytes);
+        statuses = null;
+    }
+
+    /**
+     * Reads the status of every item and notes the failed ones with a single parser pass, without building
+     * the tree of the response if only the raw response is retained.
+     */
+    private void scanItems() {
+        if (statuses != null) {
+            return;
+        }
+
+        int[] itemStatuses = new int[16];
+        int[] failed = NO_POSITIONS;
+        long[] offsets = null;
+        int itemCount = 0;
+        int failedCount = 0;
+
+        final boolean fromBytes = jsonObject == null && jsonBytes != null;
+        try (JsonParser parser = createItemsParser(fromBytes)) {
+            if (parser != null && parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fieldName = parser.getCurrentName();
+                    if (parser.nextToken() != JsonToken.START_ARRAY || !"items".equals(fieldName)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                        if (token != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            continue;
+                        }
+                        final long itemOffset = parser.getTokenLocation().getByteOffset();
+                        int status = 0;
+                        boolean hasError = false;
+                        // { "index" : { ..., "status" : 400, "error" : { ... } } }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                                parser.skipChildren();
+                                continue;
+                            }
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                final String itemField = parser.getCurrentName();
+                                final JsonToken valueToken = parser.nextToken();
+                                if ("status".equals(itemField)) {
+                                    status = parser.getValueAsInt();
+                                } else if ("error".equals(itemField)) {
+                                    hasError = true;
+                                }
+                                if (valueToken.isStructStart()) {
+                                    parser.skipChildren();
+                                }
+                            }
+                        }
+
+                        if (itemCount == itemStatuses.length) {
+                            itemStatuses = Arrays.copyOf(itemStatuses, itemCount * 2);
+                        }
+                        if (hasError) {
+                            if (failedCount == failed.length) {
+                                failed = Arrays.copyOf(failed, Math.max(4, failedCount * 2));
+                                if (fromBytes) {
+                                    offsets = Arrays.copyOf(offsets == null ? new long[0] : offsets, failed.length);
+                                }
+                            }
+                            failed[failedCount] = itemCount;
+                            if (fromBytes) {
+                                offsets[failedCount] = itemOffset;
+                            }
+                            failedCount++;
+                        }
+                        itemStatuses[itemCount++] = status;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not parse the retained response", e);
+        }
+
+        failedPositions = Arrays.copyOf(failed, failedCount);
+        failedOffsets = fromBytes ? Arrays.copyOf(offsets == null ? new long[0] : offsets, failedCount) : null;
+        statuses = Arrays.copyOf(itemStatuses, itemCount);
+    }
+
+    private JsonParser createItemsParser(boolean fromBytes) throws IOException {
+        if (fromBytes) {
+            return objectMapper.getFactory().createParser(jsonBytes);
+        }
+        final JsonNode jsonObject = getJsonObject();
+        return jsonObject == null ? null : jsonObject.traverse(objectMapper);
+    }
+
+    /**
+     * Replaces, in place, the items at the given positions with the items of the result of their retry, in order.
+     * Only the replaced slots are touched: the tree of this result is built at most once (if only the raw response
+     * was retained) and never copied, and the status summary is updated from the one of the retried result. This
+     * result must thus not have been handed out yet.
+     *
+     * @param positions positions of the retried items in this result
+     * @return this result
+     */
+    BulkResult mergeRetried(int[] positions, BulkResult retried) {
+        // building the tree resets the summary, which still holds for the items
+        scanItems();
+        final int[] itemStatuses = statuses;
+        final int[] failed = failedPositions;
+
+        final JsonNode jsonObject = getJsonObject();
+        final JsonNode retriedJsonObject = retried.getJsonObject();
+        if (jsonObject == null || !jsonObject.path("items").isArray()
+                || retriedJsonObject == null || !retriedJsonObject.path("items").isArray()) {
+            return this;
+        }
+        retried.scanItems();
+
+        final ArrayNode items = (ArrayNode) jsonObject.get("items");
+        final JsonNode retriedItems = retriedJsonObject.get("items");
+        final int mergedCount = Math.min(positions.length, retried.statuses.length);
+        final Set<Integer> replaced = new HashSet<Integer>();
+        for (int i = 0; i < mergedCount; i++) {
+            items.set(positions[i], retriedItems.get(i));
+            itemStatuses[positions[i]] = retried.statuses[i];
+            replaced.add(positions[i]);
+        }
+
+        int[] mergedFailed = new int[failed.length + retried.failedPositions.length];
+        int failedCount = 0;
+        for (int position : failed) {
+            if (!replaced.contains(position)) {
+                mergedFailed[failedCount++] = position;
+            }
+        }
+        for (int retriedPosition : retried.failedPositions) {
+            if (retriedPosition < mergedCount) {
+                mergedFailed[failedCount++] = positions[retriedPosition];
+            }
+        }
+        mergedFailed = Arrays.copyOf(mergedFailed, failedCount);
+        Arrays.sort(mergedFailed);
+
+        final boolean errors = failedCount > 0;
+        ((ObjectNode) jsonObject).put("errors", errors);
+        ((ObjectNode) jsonObject).put("took", jsonObject.path("took").asLong() + retriedJsonObject.path("took").asLong());
+        // the retained response no longer matches the merged items
+        jsonBytes = null;
+        jsonString = null;
+        jsonStringDeferred = true;
+
+        statuses = itemStatuses;
+        failedPositions = mergedFailed;
+        failedOffsets = null;
+        setSucceeded(!errors);
+        if (!errors) {
+            setErrorMessage(null);
+        }
+        return this;
+    }
+
     public class BulkResultItem {
         public final String operation;
         public final String index;
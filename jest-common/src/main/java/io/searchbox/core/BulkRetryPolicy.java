@@ -0,0 +1,267 @@
+package io.searchbox.core;
+
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.RetryBackoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-submits only the items of a {@link Bulk} that were rejected because the cluster was overloaded
+ * (i.e.: 429 / <code>es_rejected_execution_exception</code> or 503), waiting the exponentially growing, jittered
+ * delay of a {@link RetryBackoff} between attempts. Items failing for any other reason (e.g.: mapping errors) are never retried.
+ * <br/>
+ * The final result contains the items of the original bulk in their original order, each with the outcome of
+ * its last attempt.
+ */
+public class BulkRetryPolicy {
+
+    final static Logger log = LoggerFactory.getLogger(BulkRetryPolicy.class);
+
+    public static final String REJECTED_EXECUTION_ERROR_TYPE = "es_rejected_execution_exception";
+
+    private final int maxRetries;
+    private final RetryBackoff backoff;
+
+    protected BulkRetryPolicy(Builder builder) {
+        this.maxRetries = builder.maxRetries;
+        this.backoff = builder.backoff != null ? builder.backoff : builder.backoffBuilder.build();
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return true if the item failed only because the cluster could not take it at the time
+     */
+    public boolean isRetryable(BulkResult.BulkResultItem item) {
+        if (item.error == null) {
+            return false;
+        }
+        return item.status == 429
+                || item.status == 503
+                || REJECTED_EXECUTION_ERROR_TYPE.equals(item.errorType)
+                || item.error.contains("EsRejectedExecutionException");
+    }
+
+    public RetryBackoff getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * @param retryCount number of retries done so far
+     * @return delay before the next retry
+     * @see RetryBackoff#getDelayMillis(int)
+     */
+    public long getDelayMillis(int retryCount) {
+        return backoff.getDelayMillis(retryCount);
+    }
+
+    /**
+     * Executes the bulk, retrying the rejected items synchronously (the calling thread sleeps between attempts).
+     */
+    public BulkResult execute(JestClient client, Bulk bulk) throws IOException {
+        Execution execution = new Execution(bulk);
+        Bulk next = bulk;
+        while (next != null) {
+            next = execution.onResult(client.execute(next));
+            if (next != null) {
+                try {
+                    Thread.sleep(getDelayMillis(execution.retryCount - 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to retry the bulk");
+                }
+            }
+        }
+        return execution.result;
+    }
+
+    /**
+     * Executes the bulk asynchronously, scheduling the retries of the rejected items on the given scheduler;
+     * the handler is notified once with the merged result of all attempts (or of the attempts done so far if the
+     * scheduler is shut down).
+     */
+    public void executeAsync(final JestClient client, final Bulk bulk, final ScheduledExecutorService scheduler,
+                             final JestResultHandler<? super BulkResult> resultHandler) throws IOException {
+        final Execution execution = new Execution(bulk);
+        client.executeAsync(bulk, new JestResultHandler<BulkResult>() {
+            @Override
+            public void completed(BulkResult result) {
+                final Bulk next;
+                try {
+                    next = execution.onResult(result);
+                } catch (RuntimeException e) {
+                    resultHandler.failed(e);
+                    return;
+                }
+                if (next == null) {
+                    resultHandler.completed(execution.result);
+                    return;
+                }
+
+                final JestResultHandler<BulkResult> self = this;
+                try {
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                client.executeAsync(next, self);
+                            } catch (Exception e) {
+                                // the items could not be retried, report them as they were after the last attempt
+                                log.warn("Could not retry the rejected items of the bulk.", e);
+                                resultHandler.completed(execution.result);
+                            }
+                        }
+                    }, getDelayMillis(execution.retryCount - 1), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is shut down, report the items as they were after the last attempt
+                    log.warn("Could not schedule the retry of the rejected items of the bulk.", e);
+                    resultHandler.completed(execution.result);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                if (execution.result == null) {
+                    resultHandler.failed(ex);
+                } else {
+                    log.warn("Retrying the rejected items of the bulk failed.", ex);
+                    resultHandler.completed(execution.result);
+                }
+            }
+        });
+    }
+
+    /**
+     * State of the attempts of a single bulk.
+     */
+    private class Execution {
+        private final Bulk bulk;
+        /**
+         * Actions of the last attempt.
+         */
+        private List<BulkableAction> actions;
+        /**
+         * Positions of the actions of the last attempt in the original bulk, null if all were attempted.
+         */
+        private int[] positions;
+        /**
+         * Merged result of all attempts so far.
+         */
+        private BulkResult result;
+        private int retryCount;
+
+        Execution(Bulk bulk) {
+            this.bulk = bulk;
+            this.actions = bulk.getActions();
+        }
+
+        /**
+         * @return the bulk of the items to retry, or null if there is nothing (left) to retry
+         */
+        Bulk onResult(BulkResult attemptResult) {
+            final boolean rejected = isRejected(attemptResult);
+            if (result == null || positions == null) {
+                result = attemptResult;
+            } else if (!rejected) {
+                result = result.mergeRetried(positions, attemptResult);
+            }
+
+            if (retryCount >= maxRetries) {
+                return null;
+            }
+            if (rejected) {
+                // the whole attempt was rejected, the merged result still holds the last outcome of its items
+                return nextAttempt(actions, positions);
+            }
+
+            final List<BulkResult.BulkResultItem> failedItems = attemptResult.getFailedItems();
+            final int[] failedPositions = attemptResult.getFailedItemPositions();
+            final List<BulkableAction> retryActions = new ArrayList<BulkableAction>();
+            final int[] retryPositions = new int[failedPositions.length];
+            for (int i = 0; i < failedPositions.length; i++) {
+                final int position = failedPositions[i];
+                if (position < actions.size() && isRetryable(failedItems.get(i))) {
+                    retryPositions[retryActions.size()] = positions == null ? position : positions[position];
+                    retryActions.add(actions.get(position));
+                }
+            }
+            if (retryActions.isEmpty()) {
+                return null;
+            }
+            return nextAttempt(retryActions, Arrays.copyOf(retryPositions, retryActions.size()));
+        }
+
+        private Bulk nextAttempt(List<BulkableAction> retryActions, int[] retryPositions) {
+            actions = retryActions;
+            positions = retryPositions;
+            retryCount++;
+            log.debug("Retrying {} rejected items of the bulk, attempt {}", retryActions.size(), retryCount);
+            return bulk.withActions(retryActions);
+        }
+    }
+
+    private boolean isRejected(BulkResult result) {
+        return result.getResponseCode() == 429 || result.getResponseCode() == 503;
+    }
+
+    public static class Builder {
+        private int maxRetries = 3;
+        private final RetryBackoff.Builder backoffBuilder = new RetryBackoff.Builder();
+        private RetryBackoff backoff;
+
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @see RetryBackoff.Builder#initialDelay(long, TimeUnit)
+         */
+        public Builder initialDelay(long initialDelay, TimeUnit timeUnit) {
+            backoffBuilder.initialDelay(initialDelay, timeUnit);
+            return this;
+        }
+
+        /**
+         * @see RetryBackoff.Builder#maxDelay(long, TimeUnit)
+         */
+        public Builder maxDelay(long maxDelay, TimeUnit timeUnit) {
+            backoffBuilder.maxDelay(maxDelay, timeUnit);
+            return this;
+        }
+
+        /**
+         * @see RetryBackoff.Builder#jitter(double)
+         */
+        public Builder jitter(double jitter) {
+            backoffBuilder.jitter(jitter);
+            return this;
+        }
+
+        /**
+         * Delays between the attempts, e.g.: the backoff of the client; overrides the initial delay, max delay and
+         * jitter set on this builder.
+         */
+        public Builder backoff(RetryBackoff backoff) {
+            this.backoff = backoff;
+            return this;
+        }
+
+        public BulkRetryPolicy build() {
+            return new BulkRetryPolicy(this);
+        }
+    }
+}
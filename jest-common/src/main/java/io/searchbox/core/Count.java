@@ -1,16 +1,19 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.action.AbstractAction;
 import io.searchbox.action.AbstractMultiTypeActionBuilder;
+import io.searchbox.action.StreamingResultAction;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author Dogukan Sonmez
  * @author cihat keser
  */
-public class Count extends AbstractAction<CountResult> {
+public class Count extends AbstractAction<CountResult> implements StreamingResultAction<CountResult> {
 
     protected Count(Builder builder) {
         super(builder);
@@ -34,6 +37,21 @@ public class Count extends AbstractAction<CountResult> {
         return createNewElasticSearchResult(new CountResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
     }
 
+    @Override
+    public CountResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new CountResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public CountResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new CountResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public CountResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new CountResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
+
     @Override
     public String getRestMethodName() {
         return "POST";
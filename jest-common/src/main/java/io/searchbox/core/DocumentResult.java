@@ -13,19 +13,19 @@ public class DocumentResult extends JestResult {
     }
 
     public String getIndex() {
-        return getAsString(jsonObject.get("_index"));
+        return getAsString(getJsonObject().get("_index"));
     }
 
     public String getType() {
-        return getAsString(jsonObject.get("_type"));
+        return getAsString(getJsonObject().get("_type"));
     }
 
     public String getId() {
-        return getAsString(jsonObject.get("_id"));
+        return getAsString(getJsonObject().get("_id"));
     }
 
     public Long getVersion() {
-        return getAsLong(jsonObject.get("_version"));
+        return getAsLong(getJsonObject().get("_version"));
     }
 
     private String getAsString(JsonNode jsonElement) {
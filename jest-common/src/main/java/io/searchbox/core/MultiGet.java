@@ -6,6 +6,8 @@ import com.google.common.collect.Lists;
 import io.searchbox.action.AbstractAction;
 import io.searchbox.action.AbstractMultiTypeActionBuilder;
 import io.searchbox.action.GenericResultAbstractAction;
+import io.searchbox.action.StreamingResultAction;
+import io.searchbox.client.JestResult;
 
 import java.util.Collection;
 import java.util.LinkedList;
@@ -15,7 +17,7 @@ import java.util.List;
  * @author Dogukan Sonmez
  * @author cihat keser
  */
-public class MultiGet extends GenericResultAbstractAction {
+public class MultiGet extends GenericResultAbstractAction implements StreamingResultAction<JestResult> {
 
     protected MultiGet(AbstractAction.Builder builder) {
         super(builder);
@@ -1,12 +1,21 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.CharMatcher;
 import io.searchbox.action.AbstractAction;
+import io.searchbox.action.FramedPayloadAction;
 import io.searchbox.action.GenericResultAbstractAction;
+import io.searchbox.action.StreamingResultAction;
+import io.searchbox.client.config.ContentFormat;
+import io.searchbox.client.node.NodePreference;
 import io.searchbox.strings.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -16,8 +25,10 @@ import java.util.Objects;
  * @author Dogukan Sonmez
  * @author cihat keser
  */
-public class MultiSearch extends AbstractAction<MultiSearchResult> {
+public class MultiSearch extends AbstractAction<MultiSearchResult> implements StreamingResultAction<MultiSearchResult>,
+        FramedPayloadAction<MultiSearchResult> {
     private static final CharMatcher NEWLINE_MATCHER = CharMatcher.anyOf("\r\n").precomputed();
+    private static final String[] HEADER_PARAMETERS = {"ignore_unavailable", "allow_no_indices", "expand_wildcards"};
 
     private Collection<Search> searches;
 
@@ -33,11 +44,34 @@ public class MultiSearch extends AbstractAction<MultiSearchResult> {
         return createNewElasticSearchResult(new MultiSearchResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
     }
 
+    @Override
+    public MultiSearchResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new MultiSearchResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public MultiSearchResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new MultiSearchResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public MultiSearchResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new MultiSearchResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
+
     @Override
     public String getRestMethodName() {
         return "POST";
     }
 
+    /**
+     * Prefers data nodes or coordinating only nodes unless another node preference is set.
+     */
+    @Override
+    public NodePreference getNodePreference() {
+        return nodePreference != null ? nodePreference : NodePreference.DATA_OR_COORDINATING;
+    }
+
     @Override
     public String getData(ObjectMapper objectMapper) throws IOException {
         /*
@@ -54,9 +88,9 @@ public class MultiSearch extends AbstractAction<MultiSearchResult> {
             if (!StringUtils.isBlank(search.getType())) {
                 sb.append("\", \"type\" : \"").append(search.getType());
             }
-            sb.append(getParameter(search, "ignore_unavailable"));
-            sb.append(getParameter(search, "allow_no_indices"));
-            sb.append(getParameter(search, "expand_wildcards"));
+            for (String parameter : HEADER_PARAMETERS) {
+                sb.append(getParameter(search, parameter));
+            }
             final String query = NEWLINE_MATCHER.removeFrom(search.getData(objectMapper));
             sb.append("\"}\n")
                     .append(query)
@@ -65,18 +99,66 @@ public class MultiSearch extends AbstractAction<MultiSearchResult> {
         return sb.toString();
     }
 
+    /**
+     * Writes the header and the body of each search in its own document of the given format.
+     */
+    @Override
+    public void writeData(OutputStream outputStream, ObjectMapper objectMapper, ContentFormat contentFormat) throws IOException {
+        if (!contentFormat.isBinary()) {
+            outputStream.write(getData(objectMapper).getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+            return;
+        }
+
+        final byte separator = contentFormat.getStreamSeparator();
+        for (Search search : searches) {
+            JsonGenerator generator = createGenerator(outputStream, contentFormat);
+            generator.writeStartObject();
+            generator.writeStringField("index", search.getIndex());
+            if (!StringUtils.isBlank(search.getType())) {
+                generator.writeStringField("type", search.getType());
+            }
+            for (String parameter : HEADER_PARAMETERS) {
+                final String value = getSingleParameter(search, parameter);
+                if (value != null) {
+                    generator.writeStringField(parameter, value);
+                }
+            }
+            generator.writeEndObject();
+            generator.close();
+            outputStream.write(separator);
+
+            generator = createGenerator(outputStream, contentFormat);
+            contentFormat.writeValue(search.getBody(objectMapper), objectMapper, generator);
+            generator.close();
+            outputStream.write(separator);
+        }
+        outputStream.flush();
+    }
+
+    private static JsonGenerator createGenerator(OutputStream outputStream, ContentFormat contentFormat) throws IOException {
+        final JsonGenerator generator = contentFormat.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
     private String getParameter(Search search, String parameter) {
+        final String value = getSingleParameter(search, parameter);
+        return value == null ? "" : "\", \"" + parameter + "\" : \"" + value;
+    }
+
+    private String getSingleParameter(Search search, String parameter) {
         final Collection<Object> searchParameter = search.getParameter(parameter);
         if (searchParameter != null) {
             final int parameters = searchParameter.size();
             if (parameters == 1) {
-                return "\", \"" + parameter + "\" : \"" + searchParameter.iterator().next();
+                return searchParameter.iterator().next().toString();
             } else if (parameters > 1) {
                 throw new IllegalArgumentException("Expecting a single value for '" + parameter + "' parameter, you provided: " + parameters);
             }
         }
 
-        return "";
+        return null;
     }
 
     @Override
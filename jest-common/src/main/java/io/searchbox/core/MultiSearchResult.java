@@ -26,6 +26,7 @@ public class MultiSearchResult extends JestResult {
     public List<MultiSearchResponse> getResponses() {
         List<MultiSearchResponse> multiSearchResponses = new ArrayList<MultiSearchResponse>();
 
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null && jsonObject.has(RESPONSES_KEY)) {
             JsonNode responsesArray = jsonObject.get(RESPONSES_KEY);
             for (JsonNode responseElement : responsesArray) {
@@ -59,7 +60,7 @@ public class MultiSearchResult extends JestResult {
                 this.searchResult.setSucceeded(true);
                 this.searchResult.setResponseCode(responseCode);
                 this.searchResult.setJsonObject(jsonObject);
-                this.searchResult.setJsonString(jsonObject.toString());
+                this.searchResult.setJsonStringDeferred(true);
                 this.searchResult.setPathToResult("hits/hits/_source");
             }
         }
@@ -0,0 +1,344 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.AbstractJestClient;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.node.ShardRoutingTable;
+import io.searchbox.strings.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Splits a {@link Bulk} by the primary shards of its items and submits one bulk per node holding some of these
+ * primaries, concurrently, so that no single coordinating node has to fan out (and parse) the whole bulk. With
+ * shard aware routing enabled on the client, each partition is sent directly to its node.
+ * <br/>
+ * Items are grouped by (index, shard) using the {@link ShardRoutingTable} of the client (or the one set on the
+ * builder); items that can not be routed (generated ids, aliases, unknown indices) form a partition of their own.
+ * The results of all partitions are merged into one {@link BulkResult} whose items are in the order of the
+ * original bulk. A partition that fails as a whole (no response or an HTTP level error) is reported as failed
+ * items with the status of the response (503 if there is none), so that the other partitions are not lost.
+ */
+public class PartitioningBulkExecutor {
+
+    final static Logger log = LoggerFactory.getLogger(PartitioningBulkExecutor.class);
+
+    public static final String PARTITION_FAILURE_ERROR_TYPE = "bulk_partition_failure";
+
+    private final JestClient client;
+    private final ShardRoutingTable routingTable;
+    private final ObjectMapper objectMapper;
+
+    protected PartitioningBulkExecutor(Builder builder) {
+        this.client = builder.client;
+        this.routingTable = builder.routingTable;
+        this.objectMapper = builder.objectMapper;
+    }
+
+    /**
+     * @return the positions of the items of the bulk in each partition, in the order of the bulk; a single
+     * partition if the items can not be split
+     */
+    public List<int[]> partition(Bulk bulk) {
+        final List<BulkableAction> actions = bulk.getActions();
+        final ShardRoutingTable table = getRoutingTable();
+        if (table == null || actions.size() < 2) {
+            return Arrays.asList(allPositions(actions.size()));
+        }
+
+        // items are grouped by (index, shard) first, then the shards held by the same node are merged
+        final Map<String, List<Integer>> shards = new LinkedHashMap<String, List<Integer>>();
+        final Map<String, String> shardNodes = new LinkedHashMap<String, String>();
+        final List<Integer> unrouted = new ArrayList<Integer>();
+        for (int i = 0; i < actions.size(); i++) {
+            final BulkableAction action = actions.get(i);
+            final String routing = ShardRoutingTable.getRouting(action);
+            final String index = StringUtils.isBlank(action.getIndex()) ? bulk.getDefaultIndex() : action.getIndex();
+            final int shard = routing == null || index == null ? -1 : table.getShard(index, routing);
+            final String nodeId = shard < 0 ? null : table.getPrimaryNodeId(index, shard);
+            if (nodeId == null) {
+                unrouted.add(i);
+                continue;
+            }
+
+            final String shardKey = index + '/' + shard;
+            List<Integer> positions = shards.get(shardKey);
+            if (positions == null) {
+                positions = new ArrayList<Integer>();
+                shards.put(shardKey, positions);
+                shardNodes.put(shardKey, nodeId);
+            }
+            positions.add(i);
+        }
+
+        final Map<String, List<Integer>> nodes = new LinkedHashMap<String, List<Integer>>();
+        for (Map.Entry<String, List<Integer>> shard : shards.entrySet()) {
+            final String nodeId = shardNodes.get(shard.getKey());
+            List<Integer> positions = nodes.get(nodeId);
+            if (positions == null) {
+                positions = new ArrayList<Integer>();
+                nodes.put(nodeId, positions);
+            }
+            positions.addAll(shard.getValue());
+        }
+
+        final List<int[]> partitions = new ArrayList<int[]>(nodes.size() + 1);
+        for (List<Integer> positions : nodes.values()) {
+            partitions.add(toSortedArray(positions));
+        }
+        if (!unrouted.isEmpty()) {
+            partitions.add(toSortedArray(unrouted));
+        }
+        return partitions;
+    }
+
+    /**
+     * Executes the partitions of the bulk concurrently and waits for all of them.
+     */
+    public BulkResult execute(Bulk bulk) throws IOException {
+        final CompletableFuture<BulkResult> future = new CompletableFuture<BulkResult>();
+        executeAsync(bulk, new JestResultHandler<BulkResult>() {
+            @Override
+            public void completed(BulkResult result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the partitions of the bulk");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Bulk failed", cause);
+        }
+    }
+
+    /**
+     * Executes the partitions of the bulk concurrently; the handler is notified once with the merged result of
+     * all partitions. If the bulk is not split, it is executed as is and its own outcome is reported.
+     */
+    public void executeAsync(Bulk bulk, JestResultHandler<? super BulkResult> resultHandler) throws IOException {
+        final List<int[]> partitions = partition(bulk);
+        if (partitions.size() == 1) {
+            client.executeAsync(bulk, resultHandler);
+            return;
+        }
+
+        log.debug("Executing bulk of {} items as {} partitions", bulk.getActions().size(), partitions.size());
+        final Execution execution = new Execution(bulk, partitions, resultHandler);
+        for (int i = 0; i < partitions.size(); i++) {
+            final int partition = i;
+            try {
+                client.executeAsync(execution.getPartitionBulk(partition), new JestResultHandler<BulkResult>() {
+                    @Override
+                    public void completed(BulkResult result) {
+                        execution.onResult(partition, result, null);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        execution.onResult(partition, null, ex);
+                    }
+                });
+            } catch (Exception e) {
+                execution.onResult(partition, null, e);
+            }
+        }
+    }
+
+    private ShardRoutingTable getRoutingTable() {
+        if (routingTable != null) {
+            return routingTable;
+        }
+        return client instanceof AbstractJestClient ? ((AbstractJestClient) client).getShardRoutingTable() : null;
+    }
+
+    private static int[] allPositions(int size) {
+        final int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    private static int[] toSortedArray(List<Integer> positions) {
+        final int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Outcome of the partitions of one bulk, merged by the last partition to complete.
+     */
+    private class Execution {
+        private final Bulk bulk;
+        private final List<BulkableAction> actions;
+        private final List<int[]> partitions;
+        private final BulkResult[] results;
+        private final Exception[] failures;
+        private final JestResultHandler<? super BulkResult> resultHandler;
+        private int remainingPartitions;
+
+        Execution(Bulk bulk, List<int[]> partitions, JestResultHandler<? super BulkResult> resultHandler) {
+            this.bulk = bulk;
+            this.actions = bulk.getActions();
+            this.partitions = partitions;
+            this.results = new BulkResult[partitions.size()];
+            this.failures = new Exception[partitions.size()];
+            this.resultHandler = resultHandler;
+            this.remainingPartitions = partitions.size();
+        }
+
+        Bulk getPartitionBulk(int partition) {
+            final int[] positions = partitions.get(partition);
+            final List<BulkableAction> partitionActions = new ArrayList<BulkableAction>(positions.length);
+            for (int position : positions) {
+                partitionActions.add(actions.get(position));
+            }
+            return bulk.withActions(partitionActions);
+        }
+
+        void onResult(int partition, BulkResult result, Exception failure) {
+            synchronized (this) {
+                results[partition] = result;
+                failures[partition] = failure;
+                if (--remainingPartitions > 0) {
+                    return;
+                }
+            }
+
+            final BulkResult merged;
+            try {
+                merged = merge();
+            } catch (RuntimeException e) {
+                resultHandler.failed(e);
+                return;
+            }
+            resultHandler.completed(merged);
+        }
+
+        private BulkResult merge() {
+            final ObjectNode[] items = new ObjectNode[actions.size()];
+            long took = 0;
+            int responseCode = 0;
+            for (int partition = 0; partition < partitions.size(); partition++) {
+                final int[] positions = partitions.get(partition);
+                final BulkResult result = results[partition];
+                final JsonNode jsonObject = result == null ? null : result.getJsonObject();
+                final JsonNode partitionItems = jsonObject == null ? null : jsonObject.get("items");
+
+                if (partitionItems != null && partitionItems.size() == positions.length) {
+                    for (int i = 0; i < positions.length; i++) {
+                        items[positions[i]] = (ObjectNode) partitionItems.get(i);
+                    }
+                    // partitions run in parallel
+                    took = Math.max(took, jsonObject.path("took").asLong());
+                    responseCode = result.getResponseCode();
+                } else {
+                    final int status = result == null || result.getResponseCode() < 400 ? 503 : result.getResponseCode();
+                    final String reason = failures[partition] != null
+                            ? String.valueOf(failures[partition].getMessage())
+                            : result == null ? "No response" : result.getErrorMessage();
+                    log.warn("Partition of {} items of the bulk failed: {}", positions.length, reason);
+                    for (int position : positions) {
+                        items[position] = failedItem(actions.get(position), status, reason);
+                    }
+                    if (responseCode == 0) {
+                        responseCode = status;
+                    }
+                }
+            }
+
+            final ObjectNode merged = objectMapper.createObjectNode();
+            merged.put("took", took);
+            final ArrayNode itemsArray = merged.putArray("items");
+            boolean errors = false;
+            for (ObjectNode item : items) {
+                itemsArray.add(item);
+                final JsonNode operation = item.elements().next();
+                errors |= operation.has("error");
+            }
+            merged.put("errors", errors);
+
+            final BulkResult result = new BulkResult(objectMapper);
+            result.setResponseCode(responseCode);
+            result.setPathToResult(bulk.getPathToResult());
+            result.setJsonObject(merged);
+            result.setJsonStringDeferred(true);
+            result.setSucceeded(!errors);
+            if (errors) {
+                result.setErrorMessage("One or more of the items in the Bulk request failed, check BulkResult.getItems() for more information.");
+            }
+            return result;
+        }
+
+        private ObjectNode failedItem(BulkableAction action, int status, String reason) {
+            final ObjectNode item = objectMapper.createObjectNode();
+            final ObjectNode operation = item.putObject(action.getBulkMethodName());
+            operation.put("_index", StringUtils.isBlank(action.getIndex()) ? bulk.getDefaultIndex() : action.getIndex());
+            operation.put("_type", StringUtils.isBlank(action.getType()) ? bulk.getDefaultType() : action.getType());
+            operation.put("_id", action.getId());
+            operation.put("status", status);
+            final ObjectNode error = operation.putObject("error");
+            error.put("type", PARTITION_FAILURE_ERROR_TYPE);
+            error.put("reason", reason);
+            return item;
+        }
+    }
+
+    public static class Builder {
+        private final JestClient client;
+        private ShardRoutingTable routingTable;
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        public Builder(JestClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Routing table to partition the bulks with, defaults to the current one of the client (see
+         * {@link io.searchbox.client.config.ClientConfig.AbstractBuilder#shardAwareRoutingEnabled(boolean)}).
+         */
+        public Builder routingTable(ShardRoutingTable routingTable) {
+            this.routingTable = routingTable;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        public PartitioningBulkExecutor build() {
+            return new PartitioningBulkExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.params.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over all pages of the results of a {@link Search}, either by scrolling (the search must have the
+ * {@link Parameters#SCROLL} parameter) or by <code>search_after</code> (the search must be sorted, preferably on a
+ * unique tiebreaker field; requires Elasticsearch 5.0 or later).
+ * <br/>
+ * Unless disabled, the next page is requested asynchronously as soon as a page is returned, so that it is
+ * transferred while the current one is consumed. The scroll context is released with a {@link ClearScroll} once
+ * the last page is reached or the iterator is closed.
+ * <br/>
+ * Not thread safe; failures of the underlying requests are thrown as {@link UncheckedIOException}s.
+ */
+public class ScrollIterator implements Iterator<SearchResult>, Closeable {
+
+    final static Logger log = LoggerFactory.getLogger(ScrollIterator.class);
+
+    private final JestClient client;
+    private final Search search;
+    private final boolean searchAfter;
+    private final boolean prefetch;
+    private final ObjectMapper objectMapper;
+    private final String scroll;
+    private final ObjectNode searchAfterBody;
+    private final Set<String> scrollIds = new LinkedHashSet<String>();
+
+    private SearchResult lastPage;
+    private SearchResult nextPage;
+    private CompletableFuture<? extends JestResult> prefetchedPage;
+    private boolean finished;
+    private boolean scrollCleared;
+
+    protected ScrollIterator(Builder builder) throws IOException {
+        this.client = builder.client;
+        this.search = builder.search;
+        this.searchAfter = builder.searchAfter;
+        this.prefetch = builder.prefetch;
+        this.objectMapper = builder.objectMapper;
+
+        if (searchAfter) {
+            this.scroll = null;
+            JsonNode body = objectMapper.readTree(search.getData(objectMapper));
+            this.searchAfterBody = body instanceof ObjectNode ? (ObjectNode) body : objectMapper.createObjectNode();
+            this.searchAfterBody.remove("from");
+        } else {
+            Collection<Object> scrollParameter = search.getParameter(Parameters.SCROLL);
+            if (scrollParameter == null || scrollParameter.isEmpty()) {
+                throw new IllegalArgumentException("Search must have the '" + Parameters.SCROLL + "' parameter to be scrolled");
+            }
+            this.scroll = scrollParameter.iterator().next().toString();
+            this.searchAfterBody = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPage != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+
+        SearchResult page;
+        if (lastPage == null) {
+            page = execute(search);
+        } else if (prefetchedPage != null) {
+            page = toSearchResult(await(prefetchedPage));
+            prefetchedPage = null;
+        } else {
+            page = toSearchResult(execute(nextAction(lastPage)));
+        }
+
+        final JsonNode scrollId = page.getJsonObject().get("_scroll_id");
+        if (scrollId != null) {
+            scrollIds.add(scrollId.asText());
+        }
+
+        if (getHits(page).size() == 0) {
+            finished = true;
+            clearScroll();
+            return false;
+        }
+
+        lastPage = page;
+        nextPage = page;
+        if (prefetch) {
+            prefetchedPage = client.executeAsync(nextAction(page));
+        }
+        return true;
+    }
+
+    @Override
+    public SearchResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SearchResult page = nextPage;
+        nextPage = null;
+        return page;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the pages as a sequential stream, closing the stream closes this iterator
+     */
+    public Stream<SearchResult> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @return the hits of all pages as a sequential stream, closing the stream closes this iterator
+     * @see SearchResult#streamHits(Class)
+     */
+    public <T> Stream<SearchResult.Hit<T, Void>> streamHits(final Class<T> sourceType) {
+        return stream().flatMap(new Function<SearchResult, Stream<SearchResult.Hit<T, Void>>>() {
+            @Override
+            public Stream<SearchResult.Hit<T, Void>> apply(SearchResult page) {
+                return page.streamHits(sourceType);
+            }
+        });
+    }
+
+    /**
+     * Stops the iteration and releases the scroll context (if any); the request of a page being prefetched is
+     * aborted if the client supports it.
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        nextPage = null;
+        if (prefetchedPage != null) {
+            prefetchedPage.cancel(true);
+            prefetchedPage = null;
+        }
+        clearScroll();
+    }
+
+    private Action<? extends JestResult> nextAction(SearchResult page) {
+        if (searchAfter) {
+            final JsonNode hits = getHits(page);
+            final JsonNode sort = hits.get(hits.size() - 1).get(SearchResult.SORT_KEY);
+            if (sort == null) {
+                throw new IllegalStateException("Hits must be sorted to page through them with search_after");
+            }
+            searchAfterBody.set("search_after", sort);
+            try {
+                return search.withQuery(objectMapper.writeValueAsString(searchAfterBody));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        final JsonNode scrollId = page.getJsonObject().get("_scroll_id");
+        if (scrollId == null) {
+            throw new IllegalStateException("Search result did not contain a scroll id");
+        }
+        return new SearchScroll.Builder(scrollId.asText(), scroll).build();
+    }
+
+    private JsonNode getHits(SearchResult page) {
+        if (!page.isSucceeded()) {
+            throw new IllegalStateException("Search request failed: " + page.getErrorMessage());
+        }
+        return page.getJsonObject().path("hits").path("hits");
+    }
+
+    private void clearScroll() {
+        if (scrollCleared || scrollIds.isEmpty()) {
+            return;
+        }
+        scrollCleared = true;
+        try {
+            JestResult result = client.execute(new ClearScroll.Builder().addScrollIds(scrollIds).build());
+            if (!result.isSucceeded()) {
+                log.warn("Could not clear scroll: {}", result.getErrorMessage());
+            }
+        } catch (IOException e) {
+            log.warn("Could not clear scroll.", e);
+        }
+    }
+
+    private SearchResult execute(Action<? extends JestResult> action) {
+        try {
+            return toSearchResult(client.execute(action));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JestResult await(CompletableFuture<? extends JestResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the next page"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw new UncheckedIOException(new IOException("Could not fetch the next page", cause));
+        }
+    }
+
+    private static SearchResult toSearchResult(JestResult result) {
+        return result instanceof SearchResult ? (SearchResult) result : new SearchResult(result);
+    }
+
+    public static class Builder {
+        private final JestClient client;
+        private final Search search;
+        private boolean searchAfter;
+        private boolean prefetch = true;
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        public Builder(JestClient client, Search search) {
+            this.client = client;
+            this.search = search;
+        }
+
+        /**
+         * Page with <code>search_after</code> (using the sort values of the last hit of each page) instead of
+         * scrolling; the search must be sorted.
+         */
+        public Builder searchAfter(boolean searchAfter) {
+            this.searchAfter = searchAfter;
+            return this;
+        }
+
+        /**
+         * Whether to request the next page asynchronously while the current one is consumed, defaults to true.
+         */
+        public Builder prefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * @throws IOException if the search query can not be parsed (search_after mode)
+         */
+        public ScrollIterator build() throws IOException {
+            return new ScrollIterator(this);
+        }
+    }
+}
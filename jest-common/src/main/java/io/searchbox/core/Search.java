@@ -1,17 +1,21 @@
 package io.searchbox.core;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import io.searchbox.action.AbstractAction;
 import io.searchbox.action.AbstractMultiTypeActionBuilder;
+import io.searchbox.action.StreamingResultAction;
+import io.searchbox.client.node.NodePreference;
 import io.searchbox.core.search.sort.Sort;
 import io.searchbox.params.Parameters;
 import io.searchbox.params.SearchType;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -22,7 +26,7 @@ import java.util.Objects;
  * @author Dogukan Sonmez
  * @author cihat keser
  */
-public class Search extends AbstractAction<SearchResult> {
+public class Search extends AbstractAction<SearchResult> implements StreamingResultAction<SearchResult> {
 
     private String query;
     private List<Sort> sortList = new LinkedList<Sort>();
@@ -50,11 +54,39 @@ public class Search extends AbstractAction<SearchResult> {
         setURI(buildURI() + "/template");
     }
 
+    /**
+     * Copy of the source search with a new request body; sort and source filtering added through the builder
+     * of the source are expected to be part of the new body already.
+     */
+    protected Search(Search source, String query) {
+        super(source);
+        this.query = query;
+    }
+
+    Search withQuery(String query) {
+        return new Search(this, query);
+    }
+
     @Override
     public SearchResult createNewElasticSearchResult(String responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
         return createNewElasticSearchResult(new SearchResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
     }
 
+    @Override
+    public SearchResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SearchResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public SearchResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SearchResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public SearchResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SearchResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
+
     public String getIndex() {
         return this.indexName;
     }
@@ -78,9 +110,26 @@ public class Search extends AbstractAction<SearchResult> {
         return "POST";
     }
 
+    /**
+     * Prefers data nodes or coordinating only nodes unless another node preference is set.
+     */
+    @Override
+    public NodePreference getNodePreference() {
+        return nodePreference != null ? nodePreference : NodePreference.DATA_OR_COORDINATING;
+    }
+
     @Override
     public String getData(ObjectMapper objectMapper) throws IOException {
-        String data;
+        final Object body = getBody(objectMapper);
+        return body == null || body instanceof String ? (String) body : objectMapper.writeValueAsString(body);
+    }
+
+    /**
+     * @return the query, or its JSON tree if the sort or source clauses of the builder are added to it
+     */
+    @Override
+    public Object getBody(ObjectMapper objectMapper) throws IOException {
+        Object data;
         if (sortList.isEmpty() && includePatternList.isEmpty() && excludePatternList.isEmpty()) {
             data = query;
         } else {
@@ -105,7 +154,7 @@ public class Search extends AbstractAction<SearchResult> {
                 addPatternListToSource(sourceObject, "exclude", excludePatternList, objectMapper);
             }
 
-            data = objectMapper.writeValueAsString(queryObject);
+            data = queryObject;
         }
         return data;
     }
@@ -1,25 +1,42 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Sets;
 import io.searchbox.client.JestResult;
 import io.searchbox.core.search.aggregation.MetricAggregation;
 import io.searchbox.core.search.aggregation.RootAggregation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author cihat keser
  */
 public class SearchResult extends JestResult {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchResult.class);
+
     public static final String EXPLANATION_KEY = "_explanation";
     public static final String HIGHLIGHT_KEY = "highlight";
     public static final String SORT_KEY = "sort";
@@ -30,6 +47,13 @@ public class SearchResult extends JestResult {
         super(searchResult);
     }
 
+    /**
+     * E.g.: to read the result of a {@link SearchScroll} as a search result.
+     */
+    public SearchResult(JestResult source) {
+        super(source);
+    }
+
     public SearchResult(ObjectMapper objectMapper) {
         super(objectMapper);
     }
@@ -80,6 +104,7 @@ public class SearchResult extends JestResult {
     protected <T, K> List<Hit<T, K>> getHits(Class<T> sourceType, Class<K> explanationType, boolean returnSingle, boolean addEsMetadataFields) {
         List<Hit<T, K>> sourceList = new ArrayList<Hit<T, K>>();
 
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null) {
             String[] keys = getKeys();
             if (keys != null) { // keys would never be null in a standard search scenario (i.e.: unless search class is overwritten)
@@ -159,6 +184,43 @@ public class SearchResult extends JestResult {
         return hit;
     }
 
+    public <T> HitIterator<T, Void> iterateHits(Class<T> sourceType) {
+        return iterateHits(sourceType, Void.class, true);
+    }
+
+    /**
+     * Iterates over the same hits as {@link #getHits(Class, Class, boolean)} but binds the source of each hit
+     * straight from the response into the source type, one hit at a time. If the result retains only the raw
+     * response (see {@link io.searchbox.client.config.ClientConfig#isLazyResponseParsingEnabled()}) the hits are
+     * never built as a JSON tree.
+     * <br/>
+     * Like {@link #getHits(Class, Class, boolean)}, a source that cannot be bound to the source type is logged and
+     * returned as a hit with a null source; malformed JSON throws an {@link IllegalStateException}.
+     * <br/>
+     * The returned iterator should be closed if it is not exhausted.
+     */
+    public <T, K> HitIterator<T, K> iterateHits(Class<T> sourceType, Class<K> explanationType, boolean addEsMetadataFields) {
+        return new HitIterator<T, K>(sourceType, explanationType, addEsMetadataFields);
+    }
+
+    public <T> Stream<Hit<T, Void>> streamHits(Class<T> sourceType) {
+        return streamHits(sourceType, Void.class, true);
+    }
+
+    /**
+     * @see #iterateHits(Class, Class, boolean)
+     */
+    public <T, K> Stream<Hit<T, K>> streamHits(Class<T> sourceType, Class<K> explanationType, boolean addEsMetadataFields) {
+        final HitIterator<T, K> iterator = iterateHits(sourceType, explanationType, addEsMetadataFields);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        iterator.close();
+                    }
+                });
+    }
+
     protected List<String> extractSort(JsonNode sort) {
         if (sort == null) {
             return null;
@@ -206,6 +268,7 @@ public class SearchResult extends JestResult {
 
     protected JsonNode getPath(String[] path) {
         JsonNode retval = null;
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null) {
             JsonNode obj = jsonObject;
             for (String component : path) {
@@ -219,6 +282,7 @@ public class SearchResult extends JestResult {
 
     public MetricAggregation getAggregations() {
         final String rootAggrgationName = "aggs";
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject == null) return new RootAggregation(rootAggrgationName, objectMapper.createObjectNode());
         if (jsonObject.has("aggregations"))
             return new RootAggregation(rootAggrgationName, jsonObject.get("aggregations"));
@@ -227,6 +291,270 @@ public class SearchResult extends JestResult {
         return new RootAggregation(rootAggrgationName, objectMapper.createObjectNode());
     }
 
+    /**
+     * Iterator reading the hits of this result with a JSON parser, see {@link #iterateHits(Class, Class, boolean)}.
+     *
+     * @param <T> type of source
+     * @param <K> type of explanation
+     */
+    public class HitIterator<T, K> implements Iterator<Hit<T, K>>, Closeable {
+
+        private final Class<T> sourceType;
+        private final Class<K> explanationType;
+        private final boolean addEsMetadataFields;
+        private final ObjectReader sourceReader;
+        private String sourceKey;
+        private JsonParser parser;
+        private boolean singleHit;
+        private boolean hasNext;
+        private Hit<T, K> next;
+
+        protected HitIterator(Class<T> sourceType, Class<K> explanationType, boolean addEsMetadataFields) {
+            this.sourceType = sourceType;
+            this.explanationType = explanationType;
+            this.addEsMetadataFields = addEsMetadataFields;
+            this.sourceReader = objectMapper.readerFor(sourceType);
+
+            String[] keys = getKeys();
+            // keys would never be null in a standard search scenario (i.e.: unless search class is overwritten)
+            if (keys != null && keys.length > 1) {
+                sourceKey = keys[keys.length - 1];
+                try {
+                    parser = createParser();
+                    if (parser != null && !moveToHits(keys)) {
+                        close();
+                    }
+                } catch (IOException e) {
+                    close();
+                    throw new IllegalStateException("Could not parse the hits of the search result", e);
+                }
+            }
+        }
+
+        private JsonParser createParser() throws IOException {
+            if (jsonObject == null && jsonBytes != null) {
+                return objectMapper.getFactory().createParser(jsonBytes);
+            }
+            final JsonNode jsonObject = getJsonObject();
+            return jsonObject == null ? null : jsonObject.traverse(objectMapper);
+        }
+
+        /**
+         * Positions the parser at the start of the hits array (or of the single hit object).
+         */
+        private boolean moveToHits(String[] keys) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            for (int i = 0; i < keys.length - 1; i++) {
+                if (!moveToField(keys[i])) {
+                    return false;
+                }
+                JsonToken token = parser.getCurrentToken();
+                if (i < keys.length - 2) {
+                    if (token != JsonToken.START_OBJECT) {
+                        return false;
+                    }
+                } else if (token == JsonToken.START_OBJECT) {
+                    singleHit = true;
+                } else if (token != JsonToken.START_ARRAY) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean moveToField(String fieldName) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String currentName = parser.getCurrentName();
+                parser.nextToken();
+                if (fieldName.equals(currentName)) {
+                    return true;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!hasNext && parser != null) {
+                try {
+                    if (singleHit) {
+                        next = readHit();
+                        hasNext = true;
+                        close();
+                    } else {
+                        JsonToken token;
+                        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                            if (token == JsonToken.START_OBJECT) {
+                                next = readHit();
+                                hasNext = true;
+                                break;
+                            }
+                            parser.skipChildren();
+                        }
+                        if (!hasNext) {
+                            close();
+                        }
+                    }
+                } catch (IOException e) {
+                    close();
+                    throw new IllegalStateException("Could not parse the hits of the search result", e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public Hit<T, K> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Hit<T, K> hit = next;
+            next = null;
+            hasNext = false;
+            return hit;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Reads the hit object the parser is positioned at; only its source is bound without building a tree,
+         * the remaining (small) fields are collected into a tree just as {@link #extractHit} expects them.
+         */
+        private Hit<T, K> readHit() throws IOException {
+            ObjectNode hitObject = objectMapper.createObjectNode();
+            T source = null;
+            boolean hasSource = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (fieldName.equals(sourceKey)) {
+                    if (token == JsonToken.START_OBJECT) {
+                        source = readSource();
+                        hasSource = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if (token.isScalarValue() || EXPLANATION_KEY.equals(fieldName)
+                        || HIGHLIGHT_KEY.equals(fieldName) || SORT_KEY.equals(fieldName)) {
+                    hitObject.set(fieldName, objectMapper.<JsonNode>readTree(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (!hasSource) {
+                return null;
+            }
+
+            if (addEsMetadataFields && source != null) {
+                injectMetaFields(source, hitObject);
+            }
+
+            Double score = null;
+            if (hitObject.has("_score") && !hitObject.get("_score").isNull()) {
+                score = hitObject.get("_score").asDouble();
+            }
+
+            JsonNode explanation = hitObject.get(EXPLANATION_KEY);
+            JsonNode highlight = hitObject.get(HIGHLIGHT_KEY);
+
+            return new Hit<T, K>(
+                    source,
+                    explanation == null ? null : createSourceObject(explanation, explanationType),
+                    extractHighlight(highlight != null && highlight.isObject() ? (ObjectNode) highlight : null),
+                    extractSort(hitObject.get(SORT_KEY)),
+                    textOf(hitObject.get("_index")),
+                    textOf(hitObject.get("_type")),
+                    textOf(hitObject.get("_id")),
+                    score
+            );
+        }
+
+        /**
+         * Binds the source object the parser is positioned at; if it does not fit the source type the error is
+         * logged and the rest of the source is skipped.
+         */
+        private T readSource() throws IOException {
+            final JsonStreamContext context = parser.getParsingContext();
+            // a parser over a tree only enters the source object on its next token
+            final JsonStreamContext hitContext = sourceKey.equals(context.getCurrentName()) ? context : context.getParent();
+            try {
+                return sourceReader.readValue(parser);
+            } catch (JsonMappingException e) {
+                log.error("Unhandled exception occurred while converting source to the object. " + sourceType.getCanonicalName(), e);
+                if (parser.getParsingContext() == hitContext && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                } else {
+                    while (parser.getParsingContext() != hitContext && parser.nextToken() != null) {
+                        // skip to the end of the source
+                    }
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Adds the metadata of the hit to its already bound source, where {@link #extractHit} would add them to
+         * the source tree before binding it.
+         */
+        @SuppressWarnings("unchecked")
+        private void injectMetaFields(T source, ObjectNode hitObject) {
+            ObjectNode metaFields = null;
+            for (MetaField metaField : META_FIELDS) {
+                JsonNode metaElement = hitObject.get(metaField.esFieldName);
+                if (metaElement != null) {
+                    if (metaFields == null) {
+                        metaFields = objectMapper.createObjectNode();
+                    }
+                    metaFields.set(metaField.internalFieldName, metaElement);
+                }
+            }
+            if (metaFields == null) {
+                return;
+            }
+
+            try {
+                if (source instanceof ObjectNode) {
+                    ((ObjectNode) source).setAll(metaFields);
+                } else if (source instanceof Map) {
+                    Map<String, Object> sourceMap = (Map<String, Object>) source;
+                    Iterator<Map.Entry<String, JsonNode>> it = metaFields.fields();
+                    while (it.hasNext()) {
+                        Map.Entry<String, JsonNode> entry = it.next();
+                        sourceMap.put(entry.getKey(), objectMapper.treeToValue(entry.getValue(), Object.class));
+                    }
+                } else {
+                    assignMetaFields(source, metaFields, sourceType);
+                }
+            } catch (Exception e) {
+                log.error("Unhandled exception occurred while converting source to the object. " + sourceType.getCanonicalName(), e);
+            }
+        }
+
+        private String textOf(JsonNode node) {
+            return node == null ? null : node.asText();
+        }
+
+        @Override
+        public void close() {
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    log.debug("Exception occurred while closing the hit parser", e);
+                }
+                parser = null;
+            }
+        }
+    }
+
     /**
      * Immutable class representing a search hit.
      *
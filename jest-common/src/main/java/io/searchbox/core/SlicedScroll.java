@@ -0,0 +1,308 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.client.JestClient;
+import io.searchbox.params.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splits a scrolled {@link Search} into a number of slices (using the <code>slice</code> clause, requires
+ * Elasticsearch 5.0 or later) and scrolls each of them with a {@link ScrollIterator} on its own worker thread,
+ * so that the shards of the index are read in parallel.
+ * <br/>
+ * The pages of all slices are merged into one bounded queue and returned in the order they arrive; workers block
+ * while the queue is full. The first failure of any slice is thrown to the consumer (as an
+ * {@link UncheckedIOException}) and stops all other slices. Closing releases the scroll contexts of all slices.
+ * <br/>
+ * Not thread safe on the consumer side, i.e.: pages must be consumed by a single thread (or through
+ * {@link #stream()}, which may be made parallel).
+ */
+public class SlicedScroll implements Iterator<SearchResult>, Closeable {
+
+    final static Logger log = LoggerFactory.getLogger(SlicedScroll.class);
+
+    /**
+     * Queued by a worker once its slice is exhausted.
+     */
+    private static final Object SLICE_DONE = new Object();
+
+    /**
+     * How long a worker waits for room in the full queue before it checks whether the scroll was closed.
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<Object> queue;
+    private final ExecutorService executor;
+    private final int slices;
+
+    private int remainingSlices;
+    private SearchResult nextPage;
+    private volatile boolean closed;
+
+    protected SlicedScroll(Builder builder) throws IOException {
+        this.slices = builder.slices;
+        this.remainingSlices = slices;
+        this.queue = new ArrayBlockingQueue<Object>(builder.queueCapacity);
+        this.executor = Executors.newFixedThreadPool(slices, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("jest-sliced-scroll-%d")
+                .build());
+
+        try {
+            final JsonNode body = builder.objectMapper.readTree(builder.search.getData(builder.objectMapper));
+            for (int i = 0; i < slices; i++) {
+                final ObjectNode sliceBody = body instanceof ObjectNode ? ((ObjectNode) body).deepCopy() : builder.objectMapper.createObjectNode();
+                if (slices > 1) {
+                    sliceBody.putObject("slice").put("id", i).put("max", slices);
+                }
+                final Search sliceSearch = builder.search.withQuery(builder.objectMapper.writeValueAsString(sliceBody));
+                final ScrollIterator.Builder iteratorBuilder = new ScrollIterator.Builder(builder.client, sliceSearch)
+                        .prefetch(builder.prefetch)
+                        .objectMapper(builder.objectMapper);
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        scrollSlice(iteratorBuilder);
+                    }
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            // stops the slices already started
+            closeQuietly();
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Workers are never interrupted: a slice stops once the consumer closed the scroll, and then clears its scroll
+     * context, which an interrupted thread could not send.
+     */
+    private void scrollSlice(ScrollIterator.Builder iteratorBuilder) {
+        ScrollIterator iterator = null;
+        Object last = SLICE_DONE;
+        try {
+            iterator = iteratorBuilder.build();
+            while (!closed && iterator.hasNext()) {
+                if (!enqueue(iterator.next())) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            last = new InterruptedIOException("Interrupted while scrolling a slice");
+        } catch (Exception e) {
+            last = e;
+        } finally {
+            if (iterator != null) {
+                try {
+                    iterator.close();
+                } catch (IOException e) {
+                    log.warn("Could not close the scroll of a slice.", e);
+                }
+            }
+        }
+
+        try {
+            enqueue(last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for room in the queue as long as the scroll is not closed.
+     *
+     * @return false if the scroll was closed
+     */
+    private boolean enqueue(Object element) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getSlices() {
+        return slices;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextPage == null && remainingSlices > 0 && !closed) {
+            final Object element;
+            try {
+                element = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the next page"));
+            }
+
+            if (element == SLICE_DONE) {
+                remainingSlices--;
+            } else if (element instanceof Exception) {
+                closeQuietly();
+                final Exception e = (Exception) element;
+                if (e instanceof UncheckedIOException) {
+                    throw (UncheckedIOException) e;
+                } else if (e instanceof IOException) {
+                    throw new UncheckedIOException((IOException) e);
+                }
+                throw new UncheckedIOException(new IOException("Scrolling a slice failed", e));
+            } else {
+                nextPage = (SearchResult) element;
+            }
+        }
+        return nextPage != null;
+    }
+
+    @Override
+    public SearchResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SearchResult page = nextPage;
+        nextPage = null;
+        return page;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return the pages of all slices as a stream, closing the stream closes this scroll
+     */
+    public Stream<SearchResult> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        closeQuietly();
+                    }
+                });
+    }
+
+    /**
+     * @return the hits of all slices as a stream, closing the stream closes this scroll
+     * @see SearchResult#streamHits(Class)
+     */
+    public <T> Stream<SearchResult.Hit<T, Void>> streamHits(final Class<T> sourceType) {
+        return stream().flatMap(new Function<SearchResult, Stream<SearchResult.Hit<T, Void>>>() {
+            @Override
+            public Stream<SearchResult.Hit<T, Void>> apply(SearchResult page) {
+                return page.streamHits(sourceType);
+            }
+        });
+    }
+
+    /**
+     * Stops all slices; the workers release the scroll contexts of their slices before they terminate.
+     */
+    @Override
+    public void close() throws IOException {
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextPage = null;
+        // the workers see the flag within the offer timeout, or once their pending request answered
+        executor.shutdown();
+        queue.clear();
+    }
+
+    public static class Builder {
+        private final JestClient client;
+        private final Search search;
+        private int slices = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = -1;
+        private boolean prefetch = true;
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        /**
+         * @param search search with the {@link Parameters#SCROLL} parameter; must not have a slice clause
+         */
+        public Builder(JestClient client, Search search) {
+            this.client = client;
+            this.search = search;
+        }
+
+        /**
+         * Number of slices (and worker threads), defaults to the number of available processors; ideally
+         * the number of shards of the index or a divisor of it.
+         */
+        public Builder slices(int slices) {
+            this.slices = slices;
+            return this;
+        }
+
+        /**
+         * Maximum number of pages waiting to be consumed, defaults to twice the number of slices.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @see ScrollIterator.Builder#prefetch(boolean)
+         */
+        public Builder prefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            return this;
+        }
+
+        /**
+         * Starts scrolling all slices.
+         *
+         * @throws IOException if the search query can not be parsed
+         */
+        public SlicedScroll build() throws IOException {
+            if (slices < 1) {
+                throw new IllegalArgumentException("At least one slice is required");
+            }
+            Collection<Object> scroll = search.getParameter(Parameters.SCROLL);
+            if (scroll == null || scroll.isEmpty()) {
+                throw new IllegalArgumentException("Search must have the '" + Parameters.SCROLL + "' parameter to be scrolled");
+            }
+            if (queueCapacity < 1) {
+                queueCapacity = 2 * slices;
+            }
+            return new SlicedScroll(this);
+        }
+    }
+}
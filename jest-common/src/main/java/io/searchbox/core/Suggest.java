@@ -1,12 +1,15 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.action.AbstractAction;
 import io.searchbox.action.AbstractMultiTypeActionBuilder;
+import io.searchbox.action.StreamingResultAction;
 
 import java.io.IOException;
+import java.io.InputStream;
 
-public class Suggest extends AbstractAction<SuggestResult> {
+public class Suggest extends AbstractAction<SuggestResult> implements StreamingResultAction<SuggestResult> {
 
     protected Suggest(final Builder builder) {
         super(builder);
@@ -20,6 +23,21 @@ public class Suggest extends AbstractAction<SuggestResult> {
         return this.createNewElasticSearchResult(new SuggestResult(objectMapper), json, statusCode, reasonPhrase, objectMapper);
     }
 
+    @Override
+    public SuggestResult createNewElasticSearchResult(InputStream responseStream, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SuggestResult(objectMapper), responseStream, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public SuggestResult createNewElasticSearchResult(byte[] responseBody, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SuggestResult(objectMapper), responseBody, statusCode, reasonPhrase, objectMapper);
+    }
+
+    @Override
+    public SuggestResult createNewElasticSearchResult(JsonParser responseParser, int statusCode, String reasonPhrase, ObjectMapper objectMapper) throws IOException {
+        return createNewElasticSearchResult(new SuggestResult(objectMapper), responseParser, statusCode, reasonPhrase, objectMapper);
+    }
+
     @Override
     public String getRestMethodName() {
         return "POST";
@@ -25,6 +25,7 @@ public class SuggestResult extends JestResult {
     public List<Suggestion> getSuggestions(String suggestionName) {
         List<Suggestion> suggestions = new ArrayList<Suggestion>();
 
+        final JsonNode jsonObject = getJsonObject();
         if (jsonObject != null && jsonObject.has(suggestionName)) {
             for (JsonNode suggestionElement : jsonObject.get(suggestionName)) {
                 final Suggestion suggestion = objectMapper.convertValue(suggestionElement, Suggestion.class);
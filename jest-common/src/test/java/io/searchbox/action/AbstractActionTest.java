@@ -12,7 +12,9 @@ import io.searchbox.core.Update;
 import io.searchbox.indices.Flush;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -261,6 +263,87 @@ public class AbstractActionTest {
         assertTrue(result.getErrorMessage(), result.isSucceeded());
     }
 
+    @Test
+    public void convertJsonStreamToMapObject() throws IOException {
+        String json = "{\"ok\" : true, \"_index\" : \"twitter\", \"_type\" : \"tweet\", \"_id\" : \"1\"}";
+        JsonNode jsonMap = new DummyAction.Builder().build()
+                .parseResponseStream(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new ObjectMapper());
+        assertNotNull(jsonMap);
+        assertEquals(4, jsonMap.size());
+        assertEquals("twitter", jsonMap.get("_index").asText());
+    }
+
+    @Test
+    public void convertEmptyJsonStreamToMapObject() throws IOException {
+        DummyAction action = new DummyAction.Builder().build();
+        assertEquals(0, action.parseResponseStream(new ByteArrayInputStream(new byte[0]), new ObjectMapper()).size());
+        assertEquals(0, action.parseResponseStream(null, new ObjectMapper()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void propagateExceptionWhenTheResponseStreamIsNotJsonObject() throws IOException {
+        new DummyAction.Builder().build()
+                .parseResponseStream(new ByteArrayInputStream("[1, 2]".getBytes(StandardCharsets.UTF_8)), new ObjectMapper());
+    }
+
+    @Test
+    public void getSuccessGetResultFromStream() throws IOException {
+        String jsonString = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"found\":true}";
+        Get get = new Get.Builder("test", "1").build();
+        JestResult result = get.createNewElasticSearchResult(
+                new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)), 200, null, new ObjectMapper());
+        assertTrue(result.getErrorMessage(), result.isSucceeded());
+        assertEquals("twitter", result.getJsonObject().get("_index").asText());
+        assertEquals(jsonString, result.getJsonString());
+    }
+
+    @Test
+    public void getFailedIndexResultFromStream() throws IOException {
+        String jsonString = "{\"error\":\"Invalid index\",\"status\":400}";
+        Index index = new Index.Builder("{\"abc\":\"dce\"}").index("test").build();
+        JestResult result = index.createNewElasticSearchResult(
+                new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)), 400, null, new ObjectMapper());
+        assertFalse(result.isSucceeded());
+        assertEquals("\"Invalid index\"", result.getErrorMessage());
+    }
+
+    @Test
+    public void getSuccessGetResultFromBytes() throws IOException {
+        String jsonString = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"found\":true}";
+        Get get = new Get.Builder("test", "1").build();
+        JestResult result = get.createNewElasticSearchResult(
+                jsonString.getBytes(StandardCharsets.UTF_8), 200, null, new ObjectMapper());
+        assertTrue(result.getErrorMessage(), result.isSucceeded());
+        assertEquals(jsonString, result.getJsonString());
+        assertEquals("twitter", result.getJsonObject().get("_index").asText());
+        assertEquals("twitter", result.getValue("_index"));
+    }
+
+    @Test
+    public void getFailedIndexResultFromBytes() throws IOException {
+        String jsonString = "{\"error\":\"Invalid index\",\"status\":400}";
+        Index index = new Index.Builder("{\"abc\":\"dce\"}").index("test").build();
+        JestResult result = index.createNewElasticSearchResult(
+                jsonString.getBytes(StandardCharsets.UTF_8), 400, null, new ObjectMapper());
+        assertFalse(result.isSucceeded());
+        assertEquals("\"Invalid index\"", result.getErrorMessage());
+    }
+
+    @Test
+    public void getEmptyResultFromBytes() throws IOException {
+        Get get = new Get.Builder("test", "1").build();
+        JestResult result = get.createNewElasticSearchResult((byte[]) null, 404, "Not Found", new ObjectMapper());
+        assertFalse(result.isSucceeded());
+        assertEquals("404 Not Found", result.getErrorMessage());
+        assertEquals(0, result.getJsonObject().size());
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void propagateExceptionWhenTheResponseBytesAreNotJson() throws IOException {
+        new Get.Builder("test", "1").build().createNewElasticSearchResult(
+                "<html><body>Bad Gateway</body></html>".getBytes(StandardCharsets.UTF_8), 502, null, new ObjectMapper());
+    }
+
     class Source {
 
         @JestId
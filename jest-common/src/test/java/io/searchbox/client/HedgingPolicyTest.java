@@ -0,0 +1,88 @@
+package io.searchbox.client;
+
+import io.searchbox.core.Count;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
+import io.searchbox.core.MultiSearch;
+import io.searchbox.core.Search;
+import io.searchbox.params.Parameters;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgingPolicyTest {
+
+    @Test
+    public void onlyIdempotentReadsAreHedgeable() {
+        HedgingPolicy policy = new HedgingPolicy.Builder().build();
+        Search search = new Search.Builder("{}").build();
+
+        assertTrue(policy.isHedgeable(search));
+        assertTrue(policy.isHedgeable(new Get.Builder("twitter", "1").build()));
+        assertTrue(policy.isHedgeable(new Count.Builder().build()));
+        assertTrue(policy.isHedgeable(new MultiSearch.Builder(search).build()));
+        assertFalse(policy.isHedgeable(new Index.Builder(Collections.singletonMap("user", "kimchy")).index("twitter").build()));
+        assertFalse("scrolled searches open a search context",
+                policy.isHedgeable(new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build()));
+    }
+
+    @Test
+    public void delayIsThePercentileOfTheRecentLatencies() {
+        HedgingPolicy policy = new HedgingPolicy.Builder()
+                .percentile(0.9)
+                .windowSize(10)
+                .minSamples(10)
+                .minDelay(0, TimeUnit.MILLISECONDS)
+                .build();
+
+        for (int i = 1; i < 10; i++) {
+            policy.onLatency("search", i);
+        }
+        assertEquals("not enough samples", -1, policy.getDelayNanos("search"));
+
+        policy.onLatency("search", 10);
+        assertEquals(9, policy.getDelayNanos("search"));
+        assertEquals("tracked per action type", -1, policy.getDelayNanos("get"));
+    }
+
+    @Test
+    public void delayIsNotShorterThanTheMinDelay() {
+        HedgingPolicy policy = new HedgingPolicy.Builder().minSamples(1).minDelay(5, TimeUnit.MILLISECONDS).build();
+
+        policy.onLatency("search", TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), policy.getDelayNanos("search"));
+    }
+
+    @Test
+    public void hedgesAreCappedByTheBudget() {
+        HedgingPolicy policy = new HedgingPolicy.Builder()
+                .budget(new RetryBudget.Builder().retryRatio(0.5).maxRetries(1).build())
+                .build();
+
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+        policy.onRequest();
+        policy.onRequest();
+        assertTrue(policy.tryAcquireHedge());
+    }
+
+    @Test
+    public void invalidSettingsAreRejected() {
+        try {
+            new HedgingPolicy.Builder().percentile(1).build();
+            fail("percentile must be under 1");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new HedgingPolicy.Builder().windowSize(10).minSamples(20).build();
+            fail("min samples must fit in the window");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -4,12 +4,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.searchbox.annotations.JestId;
 import org.json.JSONException;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -611,6 +613,44 @@ public class JestResultTest {
         assertNull(result.getKeys());
     }
 
+    @Test
+    public void getJsonMapReturnsACopy() throws IOException {
+        result.setJsonObject(objectMapper.readTree("{\"took\":36,\"errors\":false}"));
+
+        Map<String, Map> jsonMap = result.getJsonMap();
+        jsonMap.remove("took");
+
+        assertEquals(36, result.getValue("took"));
+        assertEquals(36, result.getJsonMap().get("took"));
+    }
+
+    @Test
+    public void getJsonMapOfRetainedBytesReturnsACopy() {
+        result.setJsonBytes("{\"took\":36,\"errors\":false}".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Map> jsonMap = result.getJsonMap();
+        jsonMap.remove("took");
+
+        assertEquals(36, result.getValue("took"));
+        assertEquals(36, result.getJsonMap().get("took"));
+    }
+
+    @Test
+    public void getJsonMapWithoutJson() {
+        assertNull(result.getJsonMap());
+    }
+
+    @Test
+    public void getJsonMapReflectsChangesOfJsonObject() {
+        result.setJsonBytes("{\"took\":36,\"errors\":false}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(36, result.getValue("took"));
+
+        ((ObjectNode) result.getJsonObject()).put("took", 42);
+
+        assertEquals(42, result.getValue("took"));
+        assertEquals(42, result.getJsonMap().get("took"));
+    }
+
     private static class Twitter {
         String user;
 
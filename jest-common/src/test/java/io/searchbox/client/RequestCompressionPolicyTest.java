@@ -0,0 +1,114 @@
+package io.searchbox.client;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequestCompressionPolicyTest {
+
+    @Test
+    public void bodiesUnderTheThresholdAreNotCompressed() {
+        RequestCompressionPolicy policy = new RequestCompressionPolicy.Builder().threshold(100).build();
+
+        assertFalse(policy.shouldCompress("Index", 99));
+        assertTrue(policy.shouldCompress("Index", 100));
+        assertTrue(policy.shouldCompress("Bulk", -1));
+    }
+
+    @Test
+    public void actionTypesCompressingPoorlyAreNotCompressedExceptForProbes() {
+        RequestCompressionPolicy policy = new RequestCompressionPolicy.Builder()
+                .threshold(0)
+                .maxRatio(0.8)
+                .probeInterval(3)
+                .build();
+
+        policy.onCompressed("Index", 1000, 950);
+        policy.onCompressed("Search", 1000, 100);
+
+        assertEquals(0.95, policy.getCompressionRatio("Index"), 0.001);
+        assertFalse(policy.shouldCompress("Index", 1000));
+        assertFalse(policy.shouldCompress("Index", 1000));
+        assertTrue("every third request is a probe", policy.shouldCompress("Index", 1000));
+        assertTrue(policy.shouldCompress("Search", 1000));
+        assertTrue(Double.isNaN(policy.getCompressionRatio("Get")));
+        assertTrue(policy.shouldCompress("Get", 1000));
+    }
+
+    @Test
+    public void ratioIsAMovingAverage() {
+        RequestCompressionPolicy policy = new RequestCompressionPolicy.Builder().build();
+
+        policy.onCompressed("Index", 2000, 1800);
+        for (int i = 0; i < 20; i++) {
+            policy.onCompressed("Index", 2000, 200);
+        }
+        policy.onCompressed("Index", 100, 120);
+
+        assertTrue(policy.getCompressionRatio("Index") < 0.8);
+        assertTrue(policy.shouldCompress("Index", 2000));
+    }
+
+    @Test
+    public void compressedBodyIsRecorded() throws IOException {
+        RequestCompressionPolicy policy = new RequestCompressionPolicy.Builder().build();
+        byte[] body = new byte[4096];
+
+        byte[] compressed = policy.compress("Index", body);
+
+        assertArrayEquals(body, gunzip(compressed));
+        assertEquals((double) compressed.length / body.length, policy.getCompressionRatio("Index"), 0.0001);
+    }
+
+    @Test
+    public void compressingStreamLeavesTheTargetOpen() throws IOException {
+        RequestCompressionPolicy policy = new RequestCompressionPolicy.Builder().build();
+        byte[] body = new byte[4096];
+        new Random(42).nextBytes(body);
+        final boolean[] closed = new boolean[1];
+        ByteArrayOutputStream target = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        OutputStream outputStream = policy.compress("Bulk", target);
+        outputStream.write(body, 0, 1000);
+        outputStream.write(body[1000]);
+        outputStream.write(body, 1001, body.length - 1001);
+        outputStream.close();
+        outputStream.close();
+
+        assertFalse(closed[0]);
+        assertArrayEquals(body, gunzip(target.toByteArray()));
+        assertTrue("random bytes do not compress", policy.getCompressionRatio("Bulk") > 1);
+        assertFalse(policy.shouldCompress("Bulk", -1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void probeIntervalMustBePositive() {
+        new RequestCompressionPolicy.Builder().probeInterval(0).build();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,38 @@
+package io.searchbox.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBackoffTest {
+
+    @Test
+    public void delayGrowsExponentiallyUpToMaxDelay() {
+        RetryBackoff backoff = new RetryBackoff.Builder()
+                .initialDelay(10, TimeUnit.MILLISECONDS)
+                .maxDelay(50, TimeUnit.MILLISECONDS)
+                .jitter(0)
+                .build();
+        assertEquals(10, backoff.getDelayMillis(0));
+        assertEquals(40, backoff.getDelayMillis(2));
+        assertEquals(50, backoff.getDelayMillis(3));
+        assertEquals(50, backoff.getDelayMillis(64));
+    }
+
+    @Test
+    public void delayIsReducedByJitter() {
+        RetryBackoff backoff = new RetryBackoff.Builder().initialDelay(100, TimeUnit.MILLISECONDS).jitter(0.5).build();
+        for (int i = 0; i < 20; i++) {
+            long delay = backoff.getDelayMillis(0);
+            assertTrue(delay >= 50 && delay <= 100);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jitterMustBeAFraction() {
+        new RetryBackoff.Builder().jitter(1.5).build();
+    }
+}
@@ -0,0 +1,30 @@
+package io.searchbox.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+
+    @Test
+    public void retriesAreCappedByRequests() {
+        RetryBudget budget = new RetryBudget.Builder().retryRatio(0.5).maxRetries(2).build();
+        assertEquals("starts full", 2, budget.getAvailableRetries());
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        budget.onRequest();
+        assertFalse("half a retry per request", budget.tryAcquireRetry());
+        budget.onRequest();
+        assertTrue(budget.tryAcquireRetry());
+
+        for (int i = 0; i < 10; i++) {
+            budget.onRequest();
+        }
+        assertEquals("capped at max retries", 2, budget.getAvailableRetries());
+    }
+}
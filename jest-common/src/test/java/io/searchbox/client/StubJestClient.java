@@ -0,0 +1,281 @@
+package io.searchbox.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.action.Action;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.ClearScroll;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client answering each request with the response of its {@link Responder} and recording the requests, for the tests
+ * of the helpers built on {@link JestClient}.
+ * <br/>
+ * Async requests are answered on the calling thread by default, on a separate thread like the I/O thread of a real
+ * client after {@link #answerOnIoThread()}, or only once completed by the test after {@link #holdAsyncRequests()}.
+ */
+public class StubJestClient extends AbstractJestClient {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public interface Responder {
+
+        /**
+         * @throws IOException to fail the request
+         */
+        Response respond(Action<?> request) throws IOException;
+    }
+
+    public static class Response {
+        private final int statusCode;
+        private final String body;
+
+        public Response(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+    }
+
+    private final Responder responder;
+    private final List<Action<?>> requests = new CopyOnWriteArrayList<Action<?>>();
+    private final AtomicInteger asyncRequests = new AtomicInteger();
+    private final List<HeldRequest<?>> heldRequests = new ArrayList<HeldRequest<?>>();
+    private volatile boolean holdAsyncRequests;
+    private ExecutorService ioThread;
+
+    public StubJestClient(Responder responder) {
+        this.responder = responder;
+    }
+
+    public static Response ok(String body) {
+        return new Response(200, body);
+    }
+
+    /**
+     * @return a responder answering the requests with the given bodies in order, and acknowledging the clear scroll
+     * requests
+     */
+    public static Responder scripted(String... bodies) {
+        final Deque<String> remaining = new ArrayDeque<String>(Arrays.asList(bodies));
+        return new Responder() {
+            @Override
+            public Response respond(Action<?> request) {
+                if (request instanceof ClearScroll) {
+                    return ok("{\"succeeded\":true}");
+                }
+                synchronized (remaining) {
+                    return ok(remaining.removeFirst());
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a responder acknowledging every item of the bulks
+     */
+    public static Responder acknowledgingBulks() {
+        return new Responder() {
+            @Override
+            public Response respond(Action<?> request) {
+                return ok(acknowledge((Bulk) request));
+            }
+        };
+    }
+
+    /**
+     * @return a bulk response with the given items, e.g.: <code>{"index":{"_id":"1","status":201}}</code>
+     */
+    public static String bulkResponse(String... items) {
+        boolean errors = false;
+        for (String item : items) {
+            errors |= item.contains("\"error\"");
+        }
+        StringBuilder sb = new StringBuilder("{\"took\":3,\"errors\":").append(errors).append(",\"items\":[");
+        for (int i = 0; i < items.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(items[i]);
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * @return a bulk response acknowledging every item of the bulk with a 201
+     */
+    public static String acknowledge(Bulk bulk) {
+        List<String> items = new ArrayList<String>();
+        for (BulkableAction action : bulk.getActions()) {
+            items.add("{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"" + action.getId() + "\",\"status\":201}}");
+        }
+        return bulkResponse(items.toArray(new String[items.size()]));
+    }
+
+    /**
+     * Answers the async requests on a separate thread.
+     */
+    public synchronized StubJestClient answerOnIoThread() {
+        if (ioThread == null) {
+            ioThread = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("stub-io-%d").build());
+        }
+        return this;
+    }
+
+    /**
+     * Holds the async requests until {@link #completeNext()} or {@link #failNext(Exception)}.
+     */
+    public StubJestClient holdAsyncRequests() {
+        holdAsyncRequests = true;
+        return this;
+    }
+
+    /**
+     * @return the requests executed so far, sync and async
+     */
+    public List<Action<?>> getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the requests of the given type executed so far
+     */
+    public <A extends Action<?>> List<A> getRequests(Class<A> type) {
+        List<A> matching = new ArrayList<A>();
+        for (Action<?> request : requests) {
+            if (type.isInstance(request)) {
+                matching.add(type.cast(request));
+            }
+        }
+        return matching;
+    }
+
+    public int getAsyncRequests() {
+        return asyncRequests.get();
+    }
+
+    /**
+     * @return the async requests held so far and not completed yet
+     */
+    public List<Action<?>> getHeldRequests() {
+        List<Action<?>> held = new ArrayList<Action<?>>();
+        synchronized (heldRequests) {
+            for (HeldRequest<?> heldRequest : heldRequests) {
+                held.add(heldRequest.request);
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Answers the oldest held request on the calling thread.
+     */
+    public void completeNext() {
+        takeNext().answer();
+    }
+
+    /**
+     * Fails the oldest held request on the calling thread.
+     */
+    public void failNext(Exception failure) {
+        takeNext().handler.failed(failure);
+    }
+
+    /**
+     * Answers all held requests on the calling thread.
+     */
+    public void completeAll() {
+        List<HeldRequest<?>> held;
+        synchronized (heldRequests) {
+            held = new ArrayList<HeldRequest<?>>(heldRequests);
+            heldRequests.clear();
+        }
+        for (HeldRequest<?> heldRequest : held) {
+            heldRequest.answer();
+        }
+    }
+
+    private HeldRequest<?> takeNext() {
+        synchronized (heldRequests) {
+            return heldRequests.remove(0);
+        }
+    }
+
+    @Override
+    public <T extends JestResult> T execute(Action<T> clientRequest) throws IOException {
+        requests.add(clientRequest);
+        return answer(clientRequest);
+    }
+
+    @Override
+    public <T extends JestResult> void executeAsync(Action<T> clientRequest, JestResultHandler<? super T> jestResultHandler) {
+        requests.add(clientRequest);
+        asyncRequests.incrementAndGet();
+        final HeldRequest<T> request = new HeldRequest<T>(clientRequest, jestResultHandler);
+        if (holdAsyncRequests) {
+            synchronized (heldRequests) {
+                heldRequests.add(request);
+            }
+            return;
+        }
+
+        final ExecutorService ioThread;
+        synchronized (this) {
+            ioThread = this.ioThread;
+        }
+        if (ioThread == null) {
+            request.answer();
+        } else {
+            ioThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    request.answer();
+                }
+            });
+        }
+    }
+
+    private <T extends JestResult> T answer(Action<T> request) throws IOException {
+        Response response = responder.respond(request);
+        return request.createNewElasticSearchResult(response.body, response.statusCode, null, MAPPER);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        synchronized (this) {
+            if (ioThread != null) {
+                ioThread.shutdownNow();
+            }
+        }
+    }
+
+    private class HeldRequest<T extends JestResult> {
+        private final Action<T> request;
+        private final JestResultHandler<? super T> handler;
+
+        HeldRequest(Action<T> request, JestResultHandler<? super T> handler) {
+            this.request = request;
+            this.handler = handler;
+        }
+
+        void answer() {
+            final T result;
+            try {
+                result = StubJestClient.this.answer(request);
+            } catch (IOException e) {
+                handler.failed(e);
+                return;
+            }
+            handler.completed(result);
+        }
+    }
+}
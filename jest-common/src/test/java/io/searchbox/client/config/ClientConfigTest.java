@@ -5,6 +5,8 @@ import org.junit.Test;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -44,4 +46,25 @@ public class ClientConfigTest {
         assertEquals(30L, config.getMaxConnectionIdleTime());
         assertEquals(TimeUnit.MINUTES, config.getMaxConnectionIdleTimeDurationTimeUnit());
     }
+
+    @Test
+    public void testResponseStreamingSetting() {
+        ClientConfig config = new ClientConfig.Builder("someUri").build();
+        assertFalse(config.isResponseStreamingEnabled());
+
+        config = new ClientConfig.Builder("someUri").responseStreamingEnabled(true).build();
+        assertTrue(config.isResponseStreamingEnabled());
+        assertTrue(new ClientConfig.Builder(config).build().isResponseStreamingEnabled());
+    }
+
+    @Test
+    public void testLazyResponseParsingSetting() {
+        ClientConfig config = new ClientConfig.Builder("someUri").build();
+        assertFalse(config.isLazyResponseParsingEnabled());
+
+        config = new ClientConfig.Builder("someUri").lazyResponseParsingEnabled(true).build();
+        assertTrue(config.isLazyResponseParsingEnabled());
+        assertTrue(new ClientConfig.Builder(config).build().isLazyResponseParsingEnabled());
+        assertNotEquals(config, new ClientConfig.Builder("someUri").build());
+    }
 }
@@ -0,0 +1,82 @@
+package io.searchbox.client.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void formatIsResolvedFromMediaType() {
+        assertEquals(ContentFormat.SMILE, ContentFormat.fromMediaType("application/smile"));
+        assertEquals(ContentFormat.CBOR, ContentFormat.fromMediaType("Application/CBOR"));
+        assertEquals(ContentFormat.JSON, ContentFormat.fromMediaType("application/json; charset=UTF-8"));
+        assertEquals(ContentFormat.JSON, ContentFormat.fromMediaType("text/html"));
+        assertEquals(ContentFormat.JSON, ContentFormat.fromMediaType(null));
+    }
+
+    @Test
+    public void onlyCborDoesNotSupportStreams() {
+        assertTrue(ContentFormat.JSON.isStreamSupported());
+        assertTrue(ContentFormat.SMILE.isStreamSupported());
+        assertFalse(ContentFormat.CBOR.isStreamSupported());
+        assertEquals('\n', ContentFormat.JSON.getStreamSeparator());
+        assertEquals((byte) 0xFF, ContentFormat.SMILE.getStreamSeparator());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cborHasNoStreamSeparator() {
+        ContentFormat.CBOR.getStreamSeparator();
+    }
+
+    @Test
+    public void jsonIsEncodedAsIs() throws IOException {
+        assertFalse(ContentFormat.JSON.isBinary());
+        assertArrayEquals("{\"user\":\"kimchy\"}".getBytes("UTF-8"),
+                ContentFormat.JSON.fromJson("{\"user\":\"kimchy\"}", objectMapper));
+    }
+
+    @Test
+    public void jsonIsEncodedInBinaryFormats() throws IOException {
+        String json = "{\"user\":\"kimchy\",\"tags\":[\"a\",\"b\"],\"retweets\":12}";
+        for (ContentFormat format : new ContentFormat[]{ContentFormat.SMILE, ContentFormat.CBOR}) {
+            assertTrue(format.isBinary());
+            byte[] encoded = format.fromJson(json, objectMapper);
+            try (JsonParser parser = format.getFactory().createParser(encoded)) {
+                JsonNode decoded = objectMapper.readTree(parser);
+                assertEquals(objectMapper.readTree(json), decoded);
+            }
+        }
+    }
+
+    @Test
+    public void objectsAreEncodedInBinaryFormatsWithoutJsonString() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) {
+                throw new AssertionError("the object was serialized to a string first: " + value);
+            }
+        };
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("user", "kimchy");
+        source.put("retweets", 12);
+        for (ContentFormat format : new ContentFormat[]{ContentFormat.SMILE, ContentFormat.CBOR}) {
+            byte[] encoded = format.encode(source, objectMapper);
+            try (JsonParser parser = format.getFactory().createParser(encoded)) {
+                assertEquals(this.objectMapper.valueToTree(source), this.objectMapper.readTree(parser));
+            }
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package io.searchbox.client.config.discovery;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.searchbox.action.Action;
+import io.searchbox.client.AbstractJestClient;
 import io.searchbox.client.JestClient;
 import io.searchbox.client.JestResult;
+import io.searchbox.client.JestResultHandler;
 import io.searchbox.client.config.ClientConfig;
 import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.node.Node;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -19,6 +24,8 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -356,4 +363,64 @@ public class NodeCheckerTest {
         Set servers = argument.getValue();
         assertEquals("http://192.168.2.10:9200", servers.iterator().next());
     }
+
+    @Test
+    public void testNodeRolesAndAttributesAreKept() throws Exception {
+        final JestResult result = new JestResult(new ObjectMapper());
+        result.setJsonMap(ImmutableMap.<String, Object>of(
+            "nodes", ImmutableMap.of(
+                "node1", ImmutableMap.of(
+                    "http", ImmutableMap.of("publish_address", "192.168.2.10:9200"),
+                    "roles", ImmutableList.of("master", "data", "ingest"),
+                    "attributes", ImmutableMap.of("zone", "us-east-1a", "rack", "r1")
+                ),
+                "node2", ImmutableMap.of(
+                    "http", ImmutableMap.of("publish_address", "192.168.2.11:9200"),
+                    "roles", ImmutableList.of()
+                ),
+                "node3", ImmutableMap.of(
+                    "http_address", "inet[/192.168.2.12:9200]",
+                    "attributes", ImmutableMap.of("master", "false", "zone", "us-east-1b")
+                ),
+                "node4", ImmutableMap.of(
+                    "http_address", "inet[/192.168.2.13:9200]",
+                    "attributes", ImmutableMap.of("client", "true")
+                )
+            )
+        ));
+        result.setSucceeded(true);
+
+        AbstractJestClient client = new AbstractJestClient() {
+            @Override
+            public <T extends JestResult> T execute(Action<T> clientRequest) throws IOException {
+                return (T) result;
+            }
+
+            @Override
+            public <T extends JestResult> void executeAsync(Action<T> clientRequest, JestResultHandler<? super T> jestResultHandler) {
+            }
+        };
+        client.setServers(clientConfig.getServerList());
+
+        new NodeChecker(client, clientConfig).runOneIteration();
+
+        assertEquals(4, client.getNodes().size());
+        Node node1 = client.getNodes().get(0);
+        assertEquals("http://192.168.2.10:9200", node1.getServer());
+        assertEquals("node1", node1.getId());
+        assertEquals(ImmutableSet.of("master", "data", "ingest"), node1.getRoles());
+        assertEquals("us-east-1a", node1.getAttribute("zone"));
+
+        Node node2 = client.getNodes().get(1);
+        assertTrue(node2.isCoordinatingOnly());
+        assertTrue(node2.getAttributes().isEmpty());
+
+        Node node3 = client.getNodes().get(2);
+        assertEquals("roles are derived from attributes prior to 5.0", ImmutableSet.of("data"), node3.getRoles());
+        assertEquals("us-east-1b", node3.getAttribute("zone"));
+
+        Node node4 = client.getNodes().get(3);
+        assertTrue(node4.isCoordinatingOnly());
+        assertNull(node4.getAttribute("zone"));
+    }
 }
@@ -0,0 +1,81 @@
+package io.searchbox.client.node;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NodePreferenceTest {
+
+    private final Node master = node("http://master:9200", ImmutableSet.of(Node.ROLE_MASTER), "zone-a");
+    private final Node dataA = node("http://data-a:9200", ImmutableSet.of(Node.ROLE_DATA, Node.ROLE_INGEST), "zone-a");
+    private final Node dataB = node("http://data-b:9200", ImmutableSet.of(Node.ROLE_DATA), "zone-b");
+    private final Node coordinating = node("http://coordinating:9200", Collections.<String>emptySet(), "zone-b");
+    private final Node unknown = new Node("http://unknown:9200");
+    private final List<Node> nodes = Arrays.asList(master, dataA, dataB, coordinating, unknown);
+
+    @Test
+    public void filterByRole() {
+        assertEquals(Arrays.asList(dataA, dataB), NodePreference.withRole(Node.ROLE_DATA).filter(nodes));
+        assertEquals(Arrays.asList(coordinating), NodePreference.coordinatingOnly().filter(nodes));
+        assertEquals(Arrays.asList(dataA, coordinating), NodePreference.INGEST_OR_COORDINATING.filter(nodes));
+        assertEquals(Arrays.asList(dataA, dataB, coordinating), NodePreference.DATA_OR_COORDINATING.filter(nodes));
+    }
+
+    @Test
+    public void ingestOrCoordinatingExcludesDedicatedMasters() {
+        Node ingestMaster = node("http://master-b:9200", ImmutableSet.of(Node.ROLE_MASTER, Node.ROLE_INGEST), "zone-b");
+        Node ingestDataMaster = node("http://master-c:9200",
+                ImmutableSet.of(Node.ROLE_MASTER, Node.ROLE_DATA, Node.ROLE_INGEST), "zone-b");
+        assertEquals(Arrays.asList(ingestDataMaster, coordinating), NodePreference.INGEST_OR_COORDINATING
+                .filter(Arrays.asList(ingestMaster, ingestDataMaster, dataB, coordinating)));
+        assertEquals(Arrays.asList(master, ingestMaster), NodePreference.dedicatedMaster()
+                .filter(Arrays.asList(master, ingestMaster, ingestDataMaster, dataA)));
+    }
+
+    @Test
+    public void unknownRolesMatchNoRole() {
+        assertFalse(NodePreference.withRole(Node.ROLE_DATA).accepts(unknown));
+        assertFalse(NodePreference.coordinatingOnly().accepts(unknown));
+        assertTrue(NodePreference.DATA_OR_COORDINATING.filter(Arrays.asList(unknown)).isEmpty());
+    }
+
+    @Test
+    public void filterByAttributes() {
+        NodePreference zoneB = NodePreference.withAttribute("zone", "zone-b");
+        assertEquals(Arrays.asList(dataB, coordinating), zoneB.filter(nodes));
+        assertEquals(Arrays.asList(dataB), NodePreference.withRole(Node.ROLE_DATA).and(zoneB).filter(nodes));
+        assertEquals(Arrays.asList(dataA), NodePreference.withAttributes(ImmutableMap.of("zone", "zone-a", "rack", "r1"))
+                .and(NodePreference.withRole(Node.ROLE_DATA)).filter(nodes));
+    }
+
+    @Test
+    public void orElseFallsBackOnlyIfNothingMatches() {
+        NodePreference zoneC = NodePreference.withAttribute("zone", "zone-c");
+        NodePreference preference = NodePreference.withRole(Node.ROLE_DATA).and(zoneC).orElse(NodePreference.withRole(Node.ROLE_DATA));
+        assertEquals(Arrays.asList(dataA, dataB), preference.filter(nodes));
+
+        preference = NodePreference.withRole(Node.ROLE_MASTER).orElse(NodePreference.withRole(Node.ROLE_DATA));
+        assertEquals(Arrays.asList(master), preference.filter(nodes));
+    }
+
+    @Test
+    public void filterReturnsSameListIfAllMatch() {
+        List<Node> dataNodes = Arrays.asList(dataA, dataB);
+        assertTrue(dataNodes == NodePreference.withRole(Node.ROLE_DATA).filter(dataNodes));
+    }
+
+    private static Node node(String server, Set<String> roles, String zone) {
+        Node node = new Node(server);
+        node.setMetadata(null, roles, ImmutableMap.of("zone", zone, "rack", "r1"));
+        return node;
+    }
+}
@@ -0,0 +1,138 @@
+package io.searchbox.client.node;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NodeSelectorTest {
+
+    private final Node node1 = new Node("http://localhost:9200");
+    private final Node node2 = new Node("http://localhost:9201");
+    private final Node node3 = new Node("http://localhost:9202");
+    private final List<Node> nodes = Arrays.asList(node1, node2, node3);
+
+    @Test
+    public void roundRobin() {
+        NodeSelector selector = new RoundRobinNodeSelector();
+        assertSame(node1, selector.select(nodes));
+        assertSame(node2, selector.select(nodes));
+        assertSame(node3, selector.select(nodes));
+        assertSame(node1, selector.select(nodes));
+    }
+
+    @Test
+    public void leastOutstandingRequests() {
+        node1.onRequestStart();
+        node1.onRequestStart();
+        node3.onRequestStart();
+
+        NodeSelector selector = new LeastOutstandingRequestsNodeSelector();
+        for (int i = 0; i < 5; i++) {
+            assertSame(node2, selector.select(nodes));
+        }
+
+        node2.onRequestStart();
+        node2.onRequestStart();
+        assertSame(node3, selector.select(nodes));
+    }
+
+    @Test
+    public void ewmaAvoidsSlowNode() {
+        for (int i = 0; i < 10; i++) {
+            record(node1, 2);
+            record(node2, 3);
+            record(node3, 500);
+        }
+
+        NodeSelector selector = new EwmaNodeSelector(1, TimeUnit.HOURS);
+        Map<Node, Integer> selections = new HashMap<Node, Integer>();
+        for (int i = 0; i < 300; i++) {
+            Node node = selector.select(nodes);
+            selections.put(node, selections.containsKey(node) ? selections.get(node) + 1 : 1);
+        }
+
+        assertEquals("slowest node should never win a choice of two", null, selections.get(node3));
+        assertTrue(selections.get(node1) > selections.get(node2));
+    }
+
+    @Test
+    public void ewmaProbesIdleNodeAgain() {
+        record(node1, 2);
+        record(node2, 500);
+
+        EwmaNodeSelector selector = new EwmaNodeSelector(1, TimeUnit.MILLISECONDS);
+        long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        assertTrue(selector.getCost(node2, later) < 1);
+    }
+
+    @Test
+    public void nodeStatistics() {
+        node1.onRequestStart();
+        assertEquals(1, node1.getInFlightRequests());
+        node1.onRequestEnd(TimeUnit.MILLISECONDS.toNanos(10), false);
+        node1.onRequestStart();
+        node1.onRequestEnd(TimeUnit.MILLISECONDS.toNanos(20), true);
+
+        assertEquals(0, node1.getInFlightRequests());
+        assertEquals(2, node1.getRequestCount());
+        assertEquals(1, node1.getFailureCount());
+        assertEquals("failed request is not part of the latency", TimeUnit.MILLISECONDS.toNanos(10), node1.getEwmaLatencyNanos(), 1);
+    }
+
+    @Test
+    public void ewmaAvoidsFastFailingNode() {
+        for (int i = 0; i < 10; i++) {
+            record(node1, 2);
+            record(node2, 3);
+            record(node3, 500);
+            node3.onRequestStart();
+            node3.onRequestEnd(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        NodeSelector selector = new EwmaNodeSelector(1, TimeUnit.HOURS);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(selector.select(nodes) != node3);
+        }
+    }
+
+    @Test
+    public void ewmaCountsRequestsInFlightOnNewNode() {
+        for (int i = 0; i < 10; i++) {
+            record(node1, 10);
+            record(node2, 10);
+        }
+        for (int i = 0; i < 5; i++) {
+            node3.onRequestStart();
+        }
+
+        NodeSelector selector = new EwmaNodeSelector(1, TimeUnit.HOURS);
+        for (int i = 0; i < 100; i++) {
+            assertTrue("new node with requests in flight should not win", selector.select(nodes) != node3);
+        }
+    }
+
+    @Test
+    public void ewmaDecaysIdleNodeTowardsAverage() {
+        record(node1, 10);
+        record(node2, 10);
+        record(node3, 500);
+
+        EwmaNodeSelector selector = new EwmaNodeSelector(1, TimeUnit.MILLISECONDS);
+        long later = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        double averageLatency = TimeUnit.MILLISECONDS.toNanos(520) / 3.0;
+        assertEquals(averageLatency, selector.getCost(node3, later, averageLatency), 1);
+    }
+
+    private static void record(Node node, long latencyMillis) {
+        node.onRequestStart();
+        node.onRequestEnd(TimeUnit.MILLISECONDS.toNanos(latencyMillis), false);
+    }
+}
@@ -0,0 +1,99 @@
+package io.searchbox.client.node;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.Delete;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
+import io.searchbox.core.Search;
+import io.searchbox.params.Parameters;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ShardRoutingTableTest {
+
+    private static final String CLUSTER_STATE = "{" +
+            "\"metadata\":{\"indices\":{" +
+            "\"twitter\":{\"settings\":{\"index\":{\"number_of_shards\":\"2\"}},\"routing_num_shards\":1024}," +
+            "\"logs\":{\"settings\":{\"index\":{\"number_of_shards\":\"1\"}}}," +
+            "\"partitioned\":{\"settings\":{\"index\":{\"number_of_shards\":\"4\",\"routing_partition_size\":\"2\"}}}}}," +
+            "\"routing_table\":{\"indices\":{" +
+            "\"twitter\":{\"shards\":{" +
+            "\"0\":[{\"primary\":true,\"state\":\"STARTED\",\"node\":\"node-a\"},{\"primary\":false,\"state\":\"STARTED\",\"node\":\"node-b\"}]," +
+            "\"1\":[{\"primary\":false,\"state\":\"STARTED\",\"node\":\"node-a\"},{\"primary\":true,\"state\":\"RELOCATING\",\"node\":\"node-b\"}]}}," +
+            "\"logs\":{\"shards\":{\"0\":[{\"primary\":true,\"state\":\"UNASSIGNED\",\"node\":null}]}}," +
+            "\"partitioned\":{\"shards\":{}}}}}";
+
+    @Test
+    public void murmur3HashMatchesElasticsearch() {
+        assertEquals(0x5a0cb7c3, Murmur3HashFunction.hash("hell"));
+        assertEquals(0xd7c31989, Murmur3HashFunction.hash("hello"));
+        assertEquals(0x22ab2984, Murmur3HashFunction.hash("hello w"));
+        assertEquals(0xe07db09c, Murmur3HashFunction.hash("The quick brown fox jumps over the lazy dog"));
+    }
+
+    @Test
+    public void shardIdUsesRoutingNumShards() {
+        for (String id : new String[]{"1", "2", "kimchy", "tweet-42"}) {
+            final int hash = Murmur3HashFunction.hash(id);
+            assertEquals(Math.floorMod(hash, 5), ShardRoutingTable.shardId(id, 5, 5));
+            assertEquals(Math.floorMod(hash, 640) / 128, ShardRoutingTable.shardId(id, 5, 640));
+        }
+    }
+
+    @Test
+    public void primaryNodesFromClusterState() throws IOException {
+        ShardRoutingTable table = ShardRoutingTable.fromClusterState(new ObjectMapper().readTree(CLUSTER_STATE));
+
+        assertEquals(2, table.getIndices().size());
+        assertEquals("node-a", table.getPrimaryNodeId("twitter", 0));
+        assertEquals("node-b", table.getPrimaryNodeId("twitter", 1));
+        assertNull("unassigned primary", table.getPrimaryNodeId("logs", 0));
+        assertEquals("routing partition size is not supported", -1, table.getShard("partitioned", "1"));
+        assertEquals(-1, table.getShard("unknown", "1"));
+    }
+
+    @Test
+    public void primaryNodeOfActions() throws IOException {
+        ShardRoutingTable table = ShardRoutingTable.fromClusterState(new ObjectMapper().readTree(CLUSTER_STATE));
+        String id = "1";
+        String node = table.getPrimaryNodeId("twitter", table.getShard("twitter", id));
+        String otherNode = node.equals("node-a") ? "node-b" : "node-a";
+        String otherId = firstIdOn(table, otherNode);
+
+        assertEquals(node, table.getPrimaryNodeId(new Get.Builder("twitter", id).build()));
+        assertEquals(node, table.getPrimaryNodeId(new Index.Builder(Collections.emptyMap()).index("twitter").type("tweet").id(id).build()));
+        assertEquals("routed by the routing parameter", otherNode, table.getPrimaryNodeId(new Delete.Builder(id)
+                .index("twitter").type("tweet").setParameter(Parameters.ROUTING, otherId).build()));
+        assertNull("generated id", table.getPrimaryNodeId(new Index.Builder(Collections.emptyMap()).index("twitter").build()));
+        assertNull(table.getPrimaryNodeId(new Get.Builder("alias", id).build()));
+        assertNull(table.getPrimaryNodeId(new Search.Builder("{}").addIndex("twitter").build()));
+
+        Bulk sameNode = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(new Index.Builder(Collections.emptyMap()).id(id).build())
+                .addAction(new Index.Builder(Collections.emptyMap()).build())
+                .addAction(new Delete.Builder(id).build())
+                .build();
+        assertEquals(node, table.getPrimaryNodeId(sameNode));
+
+        Bulk twoNodes = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(new Index.Builder(Collections.emptyMap()).id(id).build())
+                .addAction(new Index.Builder(Collections.emptyMap()).id(otherId).build())
+                .build();
+        assertNull(table.getPrimaryNodeId(twoNodes));
+    }
+
+    private static String firstIdOn(ShardRoutingTable table, String nodeId) {
+        for (int i = 0; ; i++) {
+            String id = String.valueOf(i);
+            if (nodeId.equals(table.getPrimaryNodeId("twitter", table.getShard("twitter", id)))) {
+                return id;
+            }
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package io.searchbox.client.transport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.searchbox.client.RequestCompressionPolicy;
+import io.searchbox.client.RetryBackoff;
+import io.searchbox.client.config.ContentFormat;
+import io.searchbox.client.node.Node;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.DocumentResult;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TransportJestClientTest {
+
+    private static final String GET_RESPONSE = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"found\":true,\"_source\":{}}";
+
+    private final FakeTransport transport = new FakeTransport();
+    private final TransportJestClient client = new TransportJestClient(transport);
+
+    @Test
+    public void requestIsSentThroughTheTransport() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        transport.responses.add(response(200, GET_RESPONSE));
+
+        DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet")
+                .setHeader("X-Opaque-Id", "request-1").build());
+
+        assertTrue(result.isSucceeded());
+        assertEquals("1", result.getId());
+        TransportRequest request = transport.requests.get(0);
+        assertEquals("GET", request.getMethod());
+        assertEquals("http://localhost:9200/twitter/tweet/1", request.getUrl());
+        assertNull(request.getBody());
+        assertEquals("request-1", request.getHeaders().get("X-Opaque-Id"));
+        assertFalse(request.getHeaders().containsKey("Content-Type"));
+    }
+
+    @Test
+    public void requestBodyIsCompressedIfEnabled() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setRequestCompressionEnabled(true);
+        client.setRequestCompressionPolicy(new RequestCompressionPolicy.Builder().threshold(0).build());
+        transport.responses.add(response(201, "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"created\":true}"));
+
+        client.execute(new Index.Builder(ImmutableMap.of("user", "kimchy")).index("twitter").type("tweet").id("1").build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertEquals("PUT", request.getMethod());
+        assertEquals(TransportJestClient.JSON_CONTENT_TYPE, request.getHeaders().get("Content-Type"));
+        assertEquals("gzip", request.getHeaders().get("Content-Encoding"));
+        assertArrayEquals("{\"user\":\"kimchy\"}".getBytes(StandardCharsets.UTF_8), gunzip(request.getBody()));
+    }
+
+    @Test
+    public void requestBodyUnderTheThresholdIsNotCompressed() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setRequestCompressionEnabled(true);
+        transport.responses.add(response(201, "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"created\":true}"));
+
+        client.execute(new Index.Builder(ImmutableMap.of("user", "kimchy")).index("twitter").type("tweet").id("1").build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertFalse(request.getHeaders().containsKey("Content-Encoding"));
+        assertArrayEquals("{\"user\":\"kimchy\"}".getBytes(StandardCharsets.UTF_8), request.getBody());
+    }
+
+    @Test
+    public void compressedBulkPayloadIsWrittenByTheTransport() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setRequestCompressionEnabled(true);
+        transport.responses.add(response(200, "{\"took\":1,\"errors\":false,\"items\":[]}"));
+
+        client.execute(new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(new Index.Builder(ImmutableMap.of("user", "kimchy")).id("1").build()).build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertEquals("gzip", request.getHeaders().get("Content-Encoding"));
+        assertEquals("{\"index\":{\"_id\":\"1\"}}\n{\"user\":\"kimchy\"}\n",
+                new String(gunzip(request.getBody()), StandardCharsets.UTF_8));
+        assertTrue("ratios of bodies under the threshold are not recorded",
+                Double.isNaN(client.getRequestCompressionPolicy().getCompressionRatio("Bulk")));
+    }
+
+    @Test
+    public void compressedResponseIsDecompressed() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setResponseCompressionEnabled(true);
+        transport.responses.add(new TransportResponse(200, null, ImmutableMap.of("Content-Encoding", "gzip"),
+                gzip(GET_RESPONSE.getBytes(StandardCharsets.UTF_8))));
+
+        DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertEquals("gzip", transport.requests.get(0).getHeaders().get("Accept-Encoding"));
+        assertTrue(result.isSucceeded());
+        assertEquals("1", result.getId());
+    }
+
+    @Test
+    public void bulkPayloadIsWrittenByTheTransport() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        transport.responses.add(response(200, "{\"took\":1,\"errors\":false,\"items\":[]}"));
+
+        client.execute(new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(new Index.Builder(ImmutableMap.of("user", "kimchy")).id("1").build()).build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertEquals(-1, request.getBodyLength());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        request.writeBody(body);
+        assertEquals("{\"index\":{\"_id\":\"1\"}}\n{\"user\":\"kimchy\"}\n", body.toString("UTF-8"));
+        assertEquals(TransportJestClient.JSON_CONTENT_TYPE, request.getHeaders().get("Content-Type"));
+    }
+
+    @Test
+    public void responseIsParsedFromTheStreamIfEnabled() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setResponseStreamingEnabled(true);
+        final byte[] body = GET_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        final AtomicBoolean closed = new AtomicBoolean();
+        transport.responses.add(new TransportResponse(200, "OK", Collections.<String, String>emptyMap(),
+                new ByteArrayInputStream(body) {
+                    @Override
+                    public void close() throws IOException {
+                        closed.set(true);
+                    }
+                }, body.length));
+
+        DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertEquals("1", result.getId());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void nodeIsMarkedDeadOnConnectFailure() {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setDeadNodeTimeout(1, 10, TimeUnit.MINUTES);
+        transport.failure = new ConnectException("Connection refused");
+
+        try {
+            client.execute(new Get.Builder("twitter", "1").build());
+            fail("Expected the connect failure");
+        } catch (IOException e) {
+            assertTrue(e instanceof ConnectException);
+        }
+        Node node = client.getNodes().get(0);
+        assertFalse(node.isAlive(System.nanoTime()));
+        assertEquals(1, node.getConsecutiveFailures());
+    }
+
+    @Test
+    public void connectFailureIsRetriedOnAnotherNode() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200", "http://localhost:9201"));
+        client.setRetryHandler(new TransportRetryHandler(1));
+        transport.failures.add(new ConnectException("Connection refused"));
+        transport.responses.add(response(200, GET_RESPONSE));
+
+        DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertEquals("1", result.getId());
+        assertEquals(2, transport.requests.size());
+        assertNotEquals(transport.requests.get(0).getUrl(), transport.requests.get(1).getUrl());
+    }
+
+    @Test
+    public void asyncConnectFailureIsRetriedOnAnotherNode() throws Exception {
+        client.setServers(ImmutableSet.of("http://localhost:9200", "http://localhost:9201"));
+        client.setRetryHandler(new TransportRetryHandler(1));
+        client.setRetryBackoff(new RetryBackoff.Builder().initialDelay(1, TimeUnit.MILLISECONDS).build());
+        transport.failures.add(new ConnectException("Connection refused"));
+        transport.responses.add(response(200, GET_RESPONSE));
+
+        CompletableFuture<DocumentResult> future = client.executeAsync(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertEquals("1", future.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(2, transport.requests.size());
+        assertNotEquals(transport.requests.get(0).getUrl(), transport.requests.get(1).getUrl());
+        client.close();
+    }
+
+    @Test
+    public void nodeIsMarkedDeadIfUnavailable() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setDeadNodeTimeout(1, 10, TimeUnit.MINUTES);
+        transport.responses.add(new TransportResponse(503, null, Collections.singletonMap("Content-Type", "text/html"),
+                "<html><body>Service Unavailable</body></html>".getBytes(StandardCharsets.UTF_8)));
+
+        try {
+            client.execute(new Get.Builder("twitter", "1").build());
+            fail("Expected the proxy response to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("text/html"));
+        }
+        assertFalse(client.getNodes().get(0).isAlive(System.nanoTime()));
+    }
+
+    @Test
+    public void nodeStaysAliveOnElasticsearchUnavailableError() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setDeadNodeTimeout(1, 10, TimeUnit.MINUTES);
+        transport.responses.add(new TransportResponse(503, null, Collections.singletonMap("Content-Type", "application/json; charset=UTF-8"),
+                "{\"error\":{\"type\":\"master_not_discovered_exception\"},\"status\":503}".getBytes(StandardCharsets.UTF_8)));
+
+        assertFalse(client.execute(new Get.Builder("twitter", "1").build()).isSucceeded());
+        assertTrue(client.getNodes().get(0).isAlive(System.nanoTime()));
+    }
+
+    @Test
+    public void asyncRequestCompletesWithTheResponse() throws Exception {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        transport.responses.add(response(200, GET_RESPONSE));
+
+        CompletableFuture<DocumentResult> future = client.executeAsync(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertEquals("1", future.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    public void asyncRequestFailsWithTheTransportFailure() throws Exception {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        transport.failure = new ConnectException("Connection refused");
+
+        try {
+            client.executeAsync(new Get.Builder("twitter", "1").build()).get(5, TimeUnit.SECONDS);
+            fail("Expected the connect failure");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConnectException);
+        }
+    }
+
+    @Test
+    public void cancellingTheFutureCancelsTheTransportRequest() {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        transport.pending = true;
+
+        CompletableFuture<DocumentResult> future = client.executeAsync(new Get.Builder("twitter", "1").build());
+        future.cancel(true);
+
+        assertTrue(transport.futures.get(0).isCancelled());
+    }
+
+    @Test
+    public void requestIsSentInTheBinaryContentFormat() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setContentFormat(ContentFormat.SMILE);
+        transport.responses.add(response(201, "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"created\":true}"));
+
+        client.execute(new Index.Builder(ImmutableMap.of("user", "kimchy")).index("twitter").type("tweet").id("1").build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertEquals("application/smile", request.getHeaders().get("Content-Type"));
+        assertEquals("application/smile", request.getHeaders().get("Accept"));
+        try (JsonParser parser = ContentFormat.SMILE.getFactory().createParser(request.getBody())) {
+            JsonNode source = new ObjectMapper().readTree(parser);
+            assertEquals("kimchy", source.path("user").asText());
+        }
+    }
+
+    @Test
+    public void bulkIsSentInJsonIfTheContentFormatDoesNotSupportStreams() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        client.setContentFormat(ContentFormat.CBOR);
+        transport.responses.add(response(200, "{\"took\":1,\"errors\":false,\"items\":[]}"));
+
+        client.execute(new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(new Index.Builder(ImmutableMap.of("user", "kimchy")).id("1").build()).build());
+
+        TransportRequest request = transport.requests.get(0);
+        assertEquals(TransportJestClient.JSON_CONTENT_TYPE, request.getHeaders().get("Content-Type"));
+        assertEquals("application/cbor", request.getHeaders().get("Accept"));
+        assertEquals("{\"index\":{\"_id\":\"1\"}}\n{\"user\":\"kimchy\"}\n",
+                new String(request.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void binaryResponseIsParsed() throws IOException {
+        client.setServers(ImmutableSet.of("http://localhost:9200"));
+        byte[] body = ContentFormat.SMILE.fromJson(GET_RESPONSE, new ObjectMapper());
+        transport.responses.add(new TransportResponse(200, null, ImmutableMap.of("Content-Type", "application/smile"), body));
+
+        DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+
+        assertTrue(result.isSucceeded());
+        assertEquals("1", result.getId());
+        assertEquals(new ObjectMapper().readTree(GET_RESPONSE), new ObjectMapper().readTree(result.getJsonString()));
+    }
+
+    @Test
+    public void responseHeadersAreCaseInsensitive() {
+        TransportResponse response = new TransportResponse(200, "OK",
+                ImmutableMap.of("content-type", "application/json"), null);
+        assertEquals("application/json", response.getHeader("Content-Type"));
+        assertNull(response.getHeader("Content-Encoding"));
+    }
+
+    private static TransportResponse response(int statusCode, String body) {
+        return new TransportResponse(statusCode, null, Collections.<String, String>emptyMap(),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out);
+        gzipOutputStream.write(bytes);
+        gzipOutputStream.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static class FakeTransport implements Transport {
+        final List<TransportRequest> requests = new ArrayList<TransportRequest>();
+        final List<TransportResponse> responses = new ArrayList<TransportResponse>();
+        final List<CompletableFuture<TransportResponse>> futures = new ArrayList<CompletableFuture<TransportResponse>>();
+        final List<IOException> failures = new ArrayList<IOException>();
+        IOException failure;
+        boolean pending;
+
+        @Override
+        public synchronized TransportResponse execute(TransportRequest request) throws IOException {
+            requests.add(request);
+            if (!failures.isEmpty()) {
+                throw failures.remove(0);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return responses.remove(0);
+        }
+
+        @Override
+        public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+            final CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>();
+            futures.add(future);
+            if (pending) {
+                requests.add(request);
+            } else {
+                try {
+                    future.complete(execute(request));
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+            return future;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
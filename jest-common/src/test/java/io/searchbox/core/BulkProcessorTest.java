@@ -0,0 +1,260 @@
+package io.searchbox.core;
+
+import io.searchbox.action.Action;
+import io.searchbox.client.StubJestClient;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.searchbox.client.StubJestClient.acknowledge;
+import static io.searchbox.client.StubJestClient.acknowledgingBulks;
+import static io.searchbox.client.StubJestClient.bulkResponse;
+import static io.searchbox.client.StubJestClient.ok;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkProcessorTest {
+
+    @Test
+    public void flushOnActionCount() throws InterruptedException {
+        StubJestClient client = new StubJestClient(acknowledgingBulks());
+        RecordingListener listener = new RecordingListener();
+        BulkProcessor processor = new BulkProcessor.Builder(client, listener)
+                .bulkActions(2)
+                .bulkSize(-1)
+                .build();
+
+        processor.add(index("1")).add(index("2")).add(index("3"));
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        assertEquals(2, client.getRequests(Bulk.class).get(0).bulkableActions.size());
+
+        assertTrue(processor.awaitClose(1, TimeUnit.SECONDS));
+        assertEquals(2, client.getRequests(Bulk.class).size());
+        assertEquals(1, client.getRequests(Bulk.class).get(1).bulkableActions.size());
+        assertEquals(2, listener.results.size());
+    }
+
+    @Test
+    public void flushOnBulkSize() {
+        StubJestClient client = new StubJestClient(acknowledgingBulks());
+        BulkProcessor processor = new BulkProcessor.Builder(client, new RecordingListener())
+                .bulkActions(-1)
+                .bulkSize(150)
+                .build();
+
+        processor.add(index("1"));
+        assertEquals(0, client.getRequests(Bulk.class).size());
+        processor.add(index("2"));
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        processor.close();
+    }
+
+    @Test
+    public void estimateSizeInUtf8Bytes() {
+        BulkProcessor processor = new BulkProcessor.Builder(new StubJestClient(acknowledgingBulks()), new RecordingListener())
+                .build();
+        Index ascii = new Index.Builder("{\"user\":\"kimchy\"}").index("twitter").type("tweet").id("1").build();
+        Index multiByte = new Index.Builder("{\"user\":\"k\u00efmch\u00ff\"}").index("twitter").type("tweet").id("1").build();
+
+        assertEquals(processor.estimateSize(ascii) + 2, processor.estimateSize(multiByte));
+        processor.close();
+    }
+
+    @Test
+    public void estimateSizeOfObjectSourcesBySampling() {
+        BulkProcessor processor = new BulkProcessor.Builder(new StubJestClient(acknowledgingBulks()), new RecordingListener())
+                .build();
+        CountingSource source = new CountingSource();
+        Index index = new Index.Builder(source).index("twitter").type("tweet").id("1").build();
+        Index sameSize = new Index.Builder("{\"user\":\"kimchy\"}").index("twitter").type("tweet").id("1").build();
+
+        for (int i = 0; i <= 2 * BulkProcessor.SOURCE_SIZE_SAMPLE_INTERVAL; i++) {
+            assertEquals(processor.estimateSize(sameSize), processor.estimateSize(index));
+        }
+        // the first source, then one out of every sample interval
+        assertEquals(3, source.serializations.get());
+        processor.close();
+    }
+
+    @Test
+    public void flushOnInterval() throws InterruptedException {
+        StubJestClient client = new StubJestClient(acknowledgingBulks());
+        RecordingListener listener = new RecordingListener();
+        BulkProcessor processor = new BulkProcessor.Builder(client, listener)
+                .flushInterval(10, TimeUnit.MILLISECONDS)
+                .build();
+
+        processor.add(index("1"));
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        processor.close();
+    }
+
+    @Test
+    public void blockWhenConcurrentRequestsAreInFlight() throws InterruptedException {
+        final StubJestClient client = new StubJestClient(acknowledgingBulks()).holdAsyncRequests();
+        final BulkProcessor processor = new BulkProcessor.Builder(client, new RecordingListener())
+                .bulkActions(1)
+                .concurrentRequests(1)
+                .build();
+
+        processor.add(index("1"));
+        assertEquals(1, client.getRequests(Bulk.class).size());
+
+        final AtomicBoolean added = new AtomicBoolean();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processor.add(index("2"));
+                added.set(true);
+            }
+        });
+        thread.start();
+        thread.join(200);
+        assertFalse("second bulk should wait for the first to complete", added.get());
+
+        client.completeAll();
+        thread.join(5000);
+        assertTrue(added.get());
+        assertEquals(2, client.getRequests(Bulk.class).size());
+
+        client.completeAll();
+        assertTrue(processor.awaitClose(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void flushOnIntervalWhileBulkWaitsForRetry() throws Exception {
+        StubJestClient client = new StubJestClient(rejectFirstItemOnce()).answerOnIoThread();
+        RecordingListener listener = new RecordingListener(2);
+        BulkProcessor processor = new BulkProcessor.Builder(client, listener)
+                .bulkActions(2)
+                .bulkSize(-1)
+                .concurrentRequests(1)
+                .flushInterval(20, TimeUnit.MILLISECONDS)
+                .retryPolicy(new BulkRetryPolicy.Builder().initialDelay(200, TimeUnit.MILLISECONDS).jitter(0).build())
+                .build();
+
+        try {
+            processor.add(index("1")).add(index("2"));
+            // flushed by the timer while the only permit is held by the first bulk until its retry
+            processor.add(index("3"));
+
+            assertTrue("retry must not wait for the flush thread", listener.completed.await(5, TimeUnit.SECONDS));
+            assertEquals(3, client.getRequests(Bulk.class).size());
+            assertTrue(listener.results.get(0).isSucceeded());
+            assertTrue(processor.awaitClose(1, TimeUnit.SECONDS));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void retryBulkInFlightAfterClose() throws Exception {
+        StubJestClient client = new StubJestClient(rejectFirstItemOnce()).answerOnIoThread();
+        RecordingListener listener = new RecordingListener();
+        BulkProcessor processor = new BulkProcessor.Builder(client, listener)
+                .bulkActions(2)
+                .bulkSize(-1)
+                .retryPolicy(new BulkRetryPolicy.Builder().initialDelay(50, TimeUnit.MILLISECONDS).jitter(0).build())
+                .build();
+
+        try {
+            processor.add(index("1")).add(index("2"));
+            processor.close();
+
+            assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+            assertEquals("rejected item is retried after close", 2, client.getRequests(Bulk.class).size());
+            assertTrue(listener.results.get(0).isSucceeded());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void executeSynchronouslyWithoutConcurrentRequests() {
+        StubJestClient client = new StubJestClient(acknowledgingBulks());
+        RecordingListener listener = new RecordingListener();
+        BulkProcessor processor = new BulkProcessor.Builder(client, listener)
+                .bulkActions(1)
+                .concurrentRequests(0)
+                .build();
+
+        processor.add(index("1"));
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        assertEquals(1, listener.results.size());
+        processor.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addAfterClose() {
+        BulkProcessor processor = new BulkProcessor.Builder(new StubJestClient(acknowledgingBulks()), new RecordingListener()).build();
+        processor.close();
+        processor.add(index("1"));
+    }
+
+    /**
+     * Rejects the first item of the first bulk (of items "1" and "2") with a 429 and acknowledges everything else.
+     */
+    private static StubJestClient.Responder rejectFirstItemOnce() {
+        final AtomicBoolean rejected = new AtomicBoolean();
+        return new StubJestClient.Responder() {
+            @Override
+            public StubJestClient.Response respond(Action<?> request) {
+                if (rejected.compareAndSet(false, true)) {
+                    return ok(bulkResponse(
+                            "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"status\":429," +
+                                    "\"error\":{\"type\":\"es_rejected_execution_exception\"}}}",
+                            "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"2\",\"status\":201}}"));
+                }
+                return ok(acknowledge((Bulk) request));
+            }
+        };
+    }
+
+    private static Index index(String id) {
+        return new Index.Builder("{\"user\":\"kimchy\"}").index("twitter").type("tweet").id(id).build();
+    }
+
+    private static class RecordingListener implements BulkProcessor.Listener {
+        final List<BulkResult> results = new CopyOnWriteArrayList<BulkResult>();
+        final CountDownLatch completed;
+
+        RecordingListener() {
+            this(1);
+        }
+
+        RecordingListener(int expectedBulks) {
+            completed = new CountDownLatch(expectedBulks);
+        }
+
+        @Override
+        public void beforeBulk(long executionId, Bulk bulk) {
+        }
+
+        @Override
+        public void afterBulk(long executionId, Bulk bulk, BulkResult result) {
+            results.add(result);
+            completed.countDown();
+        }
+
+        @Override
+        public void afterBulk(long executionId, Bulk bulk, Throwable failure) {
+            throw new AssertionError(failure);
+        }
+    }
+
+    public static class CountingSource {
+        final AtomicInteger serializations = new AtomicInteger();
+
+        public String getUser() {
+            serializations.incrementAndGet();
+            return "kimchy";
+        }
+    }
+}
@@ -4,11 +4,17 @@ package io.searchbox.core;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class BulkResultTest {
 
@@ -119,4 +125,119 @@ public class BulkResultTest {
         assertEquals("type_missing_exception", bulkResult.getItems().get(0).errorType);
         assertEquals("Reason is missing type", bulkResult.getItems().get(0).errorReason);
     }
+
+    @Test
+    public void bulkResultFromRetainedBytesWithFailures() throws IOException {
+        Bulk bulk = new Bulk.Builder().build();
+        BulkResult bulkResult = bulk.createNewElasticSearchResult(
+                indexFailedResult.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        assertFalse(bulkResult.isSucceeded());
+        assertEquals(1, bulkResult.getFailedItems().size());
+        assertEquals(indexFailedResult, bulkResult.getJsonString());
+    }
+
+    @Test
+    public void bulkResultFromRetainedBytesWithSuccess() throws IOException {
+        Bulk bulk = new Bulk.Builder().build();
+        BulkResult bulkResult = bulk.createNewElasticSearchResult(
+                indexSuccessResult.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        assertTrue(bulkResult.isSucceeded());
+        assertEquals(201, bulkResult.getItems().get(0).status);
+        assertEquals(36, bulkResult.getJsonMap().get("took"));
+    }
+
+    @Test
+    public void bulkResultFromStreamWithFailures() throws IOException {
+        Bulk bulk = new Bulk.Builder().build();
+        BulkResult bulkResult = bulk.createNewElasticSearchResult(
+                new ByteArrayInputStream(indexFailedResult.getBytes(StandardCharsets.UTF_8)), 200, null, objectMapper);
+
+        assertFalse(bulkResult.isSucceeded());
+        assertArrayEquals(new int[]{0}, bulkResult.getFailedItemPositions());
+        assertEquals(400, bulkResult.getFailedItems().get(0).status);
+        assertEquals(10, bulkResult.getJsonObject().get("took").asInt());
+    }
+
+    @Test
+    public void scanItemStatusesAndFailedItemsFromRetainedBytes() throws IOException {
+        String json = "{\"took\":5,\"errors\":true,\"items\":[" +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"1\",\"_version\":1,\"_shards\":{\"total\":1},\"status\":201}}," +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"2\",\"status\":400," +
+                "\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}}," +
+                "{\"delete\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"3\",\"status\":404,\"found\":false}}," +
+                "{\"update\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"4\",\"status\":429," +
+                "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}]}";
+        BulkResult bulkResult = new Bulk.Builder().build().createNewElasticSearchResult(
+                json.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        assertEquals(4, bulkResult.getItemCount());
+        assertEquals(201, bulkResult.getItemStatus(0));
+        assertEquals(404, bulkResult.getItemStatus(2));
+        assertArrayEquals(new int[]{1, 3}, bulkResult.getFailedItemPositions());
+
+        List<BulkResult.BulkResultItem> failedItems = bulkResult.getFailedItems();
+        assertEquals(2, failedItems.size());
+        assertEquals("2", failedItems.get(0).id);
+        assertEquals("mapper_parsing_exception", failedItems.get(0).errorType);
+        assertEquals("update", failedItems.get(1).operation);
+        assertEquals(429, failedItems.get(1).status);
+
+        BulkResult treeResult = new BulkResult(objectMapper);
+        treeResult.setJsonObject(objectMapper.readTree(json));
+        assertEquals(failedItems, treeResult.getFailedItems());
+        assertArrayEquals(new int[]{1, 3}, treeResult.getFailedItemPositions());
+    }
+
+    @Test
+    public void mergeRetriedItemsOfRetainedBytes() throws IOException {
+        String json = "{\"took\":5,\"errors\":true,\"items\":[" +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"1\",\"status\":429," +
+                "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}," +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"2\",\"status\":400," +
+                "\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}}," +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"3\",\"status\":429," +
+                "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}]}";
+        String retriedJson = "{\"took\":2,\"errors\":true,\"items\":[" +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"1\",\"status\":201,\"_version\":1}}," +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"3\",\"status\":429," +
+                "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}]}";
+        Bulk bulk = new Bulk.Builder().build();
+        BulkResult bulkResult = bulk.createNewElasticSearchResult(json.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+        BulkResult retried = bulk.createNewElasticSearchResult(retriedJson.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+        assertArrayEquals(new int[]{0, 1, 2}, bulkResult.getFailedItemPositions());
+
+        BulkResult merged = bulkResult.mergeRetried(new int[]{0, 2}, retried);
+
+        assertEquals(201, merged.getItemStatus(0));
+        assertEquals(400, merged.getItemStatus(1));
+        assertEquals(429, merged.getItemStatus(2));
+        assertArrayEquals(new int[]{1, 2}, merged.getFailedItemPositions());
+        assertEquals("2", merged.getFailedItems().get(0).id);
+        assertEquals("3", merged.getFailedItems().get(1).id);
+        assertEquals("1", merged.getItems().get(0).id);
+        assertEquals(Integer.valueOf(1), merged.getItems().get(0).version);
+        assertFalse(merged.isSucceeded());
+        assertEquals(7, objectMapper.readTree(merged.getJsonString()).get("took").asInt());
+        assertEquals(201, objectMapper.readTree(merged.getJsonString()).get("items").get(0).get("index").get("status").asInt());
+
+        String lastRetriedJson = "{\"took\":1,\"errors\":false,\"items\":[" +
+                "{\"index\":{\"_index\":\"foo\",\"_type\":\"FooBar\",\"_id\":\"3\",\"status\":201,\"_version\":1}}]}";
+        merged = merged.mergeRetried(new int[]{2}, bulk.createNewElasticSearchResult(
+                lastRetriedJson.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper));
+
+        assertArrayEquals(new int[]{1}, merged.getFailedItemPositions());
+        assertEquals(201, merged.getItemStatus(2));
+        assertTrue(merged.getJsonObject().get("errors").asBoolean());
+    }
+
+    @Test
+    public void scanItemsOfHttpLevelFailure() throws IOException {
+        BulkResult bulkResult = new Bulk.Builder().build().createNewElasticSearchResult(
+                "{\"error\":\"unavailable\",\"status\":503}".getBytes(StandardCharsets.UTF_8), 503, null, objectMapper);
+
+        assertEquals(0, bulkResult.getItemCount());
+        assertEquals(0, bulkResult.getFailedItems().size());
+    }
 }
@@ -0,0 +1,180 @@
+package io.searchbox.core;
+
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.StubJestClient;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.searchbox.client.StubJestClient.bulkResponse;
+import static io.searchbox.client.StubJestClient.scripted;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BulkRetryPolicyTest {
+
+    private static final String OK_ITEM = "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"%s\",\"status\":201,\"_version\":1}}";
+    private static final String REJECTED_ITEM = "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"%s\",\"status\":429," +
+            "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected execution\"}}}";
+    private static final String MAPPING_ERROR_ITEM = "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"%s\",\"status\":400," +
+            "\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}}";
+
+    private final BulkRetryPolicy policy = new BulkRetryPolicy.Builder()
+            .maxRetries(2)
+            .initialDelay(1, TimeUnit.MILLISECONDS)
+            .build();
+
+    @Test
+    public void retryOnlyRejectedItems() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                bulkResponse(String.format(OK_ITEM, "1"), String.format(REJECTED_ITEM, "2"), String.format(MAPPING_ERROR_ITEM, "3")),
+                bulkResponse(String.format(OK_ITEM, "2"))));
+
+        BulkResult result = policy.execute(client, bulk("1", "2", "3"));
+
+        assertEquals(2, client.getRequests(Bulk.class).size());
+        assertEquals(Arrays.asList("2"), ids(client.getRequests(Bulk.class).get(1)));
+        assertEquals(3, result.getItems().size());
+        assertEquals("2", result.getItems().get(1).id);
+        assertEquals(201, result.getItems().get(1).status);
+        assertEquals(1, result.getFailedItems().size());
+        assertEquals("3", result.getFailedItems().get(0).id);
+        assertFalse(result.isSucceeded());
+    }
+
+    @Test
+    public void succeedWhenAllRejectedItemsAreRetried() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                bulkResponse(String.format(REJECTED_ITEM, "1"), String.format(OK_ITEM, "2"), String.format(REJECTED_ITEM, "3")),
+                bulkResponse(String.format(OK_ITEM, "1"), String.format(REJECTED_ITEM, "3")),
+                bulkResponse(String.format(OK_ITEM, "3"))));
+
+        BulkResult result = policy.execute(client, bulk("1", "2", "3"));
+
+        assertEquals(3, client.getRequests(Bulk.class).size());
+        assertEquals(Arrays.asList("1", "3"), ids(client.getRequests(Bulk.class).get(1)));
+        assertEquals(Arrays.asList("3"), ids(client.getRequests(Bulk.class).get(2)));
+        assertTrue(result.isSucceeded());
+        assertEquals(0, result.getFailedItems().size());
+        assertTrue(result.getJsonString().contains("\"errors\":false"));
+    }
+
+    @Test
+    public void giveUpAfterMaxRetries() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                bulkResponse(String.format(REJECTED_ITEM, "1")),
+                bulkResponse(String.format(REJECTED_ITEM, "1")),
+                bulkResponse(String.format(REJECTED_ITEM, "1")),
+                bulkResponse(String.format(OK_ITEM, "1"))));
+
+        BulkResult result = policy.execute(client, bulk("1"));
+
+        assertEquals(3, client.getRequests(Bulk.class).size());
+        assertEquals(1, result.getFailedItems().size());
+        assertEquals(429, result.getFailedItems().get(0).status);
+    }
+
+    @Test
+    public void retryAsynchronously() throws Exception {
+        StubJestClient client = new StubJestClient(scripted(
+                bulkResponse(String.format(REJECTED_ITEM, "1"), String.format(OK_ITEM, "2")),
+                bulkResponse(String.format(OK_ITEM, "1")))).answerOnIoThread();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final AtomicReference<BulkResult> result = new AtomicReference<BulkResult>();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        try {
+            policy.executeAsync(client, bulk("1", "2"), scheduler, new JestResultHandler<BulkResult>() {
+                @Override
+                public void completed(BulkResult bulkResult) {
+                    result.set(bulkResult);
+                    completed.countDown();
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    completed.countDown();
+                }
+            });
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdownNow();
+            client.close();
+        }
+
+        assertEquals(2, client.getRequests(Bulk.class).size());
+        assertTrue(result.get().isSucceeded());
+    }
+
+    @Test
+    public void reportLastAttemptWhenSchedulerIsShutDown() throws Exception {
+        StubJestClient client = new StubJestClient(scripted(
+                bulkResponse(String.format(REJECTED_ITEM, "1"), String.format(OK_ITEM, "2"))));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.shutdown();
+        final AtomicReference<BulkResult> result = new AtomicReference<BulkResult>();
+
+        policy.executeAsync(client, bulk("1", "2"), scheduler, new JestResultHandler<BulkResult>() {
+            @Override
+            public void completed(BulkResult bulkResult) {
+                result.set(bulkResult);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                throw new AssertionError(ex);
+            }
+        });
+
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        assertEquals(1, result.get().getFailedItems().size());
+        assertEquals(429, result.get().getFailedItems().get(0).status);
+    }
+
+    @Test
+    public void delayGrowsExponentiallyUpToMaxDelay() {
+        BulkRetryPolicy policy = new BulkRetryPolicy.Builder()
+                .initialDelay(50, TimeUnit.MILLISECONDS)
+                .maxDelay(300, TimeUnit.MILLISECONDS)
+                .jitter(0)
+                .build();
+
+        assertEquals(50, policy.getDelayMillis(0));
+        assertEquals(100, policy.getDelayMillis(1));
+        assertEquals(200, policy.getDelayMillis(2));
+        assertEquals(300, policy.getDelayMillis(3));
+        assertEquals(300, policy.getDelayMillis(64));
+
+        BulkRetryPolicy jittered = new BulkRetryPolicy.Builder()
+                .initialDelay(100, TimeUnit.MILLISECONDS)
+                .jitter(0.5)
+                .build();
+        long delay = jittered.getDelayMillis(0);
+        assertTrue(delay >= 50 && delay <= 100);
+    }
+
+    private static Bulk bulk(String... ids) {
+        Bulk.Builder builder = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet");
+        for (String id : ids) {
+            builder.addAction(new Index.Builder("{\"user\":\"kimchy\"}").id(id).build());
+        }
+        return builder.build();
+    }
+
+    private static List<String> ids(Bulk bulk) {
+        List<String> ids = new ArrayList<String>();
+        for (io.searchbox.action.BulkableAction action : bulk.getActions()) {
+            ids.add(action.getId());
+        }
+        return ids;
+    }
+}
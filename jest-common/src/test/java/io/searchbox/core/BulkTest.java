@@ -1,12 +1,18 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.config.ContentFormat;
 import org.json.JSONException;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -99,6 +105,68 @@ public class BulkTest {
         JSONAssert.assertEquals(expectedData, bulk.getData(new ObjectMapper()), false);
     }
 
+    @Test
+    public void bulkOperationWritesSourceObjectsStraightIntoTheGenerator() throws JSONException, IOException {
+        ObjectMapper objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) {
+                throw new AssertionError("the source was serialized to a string first: " + value);
+            }
+        };
+
+        Bulk bulk = new Bulk.Builder()
+                .addAction(new Index.Builder(new Tweet("value")).index("twitter").type("tweet").id("1").build())
+                .addAction(new Index.Builder("{\"field\":\"json\"}").index("twitter").type("tweet").id("2").build())
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bulk.writeData(outputStream, objectMapper);
+
+        String expectedData = "{\"index\":{\"_id\":\"1\",\"_index\":\"twitter\",\"_type\":\"tweet\"}}\n" +
+                "{\"field\":\"value\"}\n" +
+                "{\"index\":{\"_id\":\"2\",\"_index\":\"twitter\",\"_type\":\"tweet\"}}\n" +
+                "{\"field\":\"json\"}\n";
+        assertEquals(expectedData, outputStream.toString("UTF-8"));
+    }
+
+    @Test
+    public void bulkOperationInSmileIsFramedPerDocument() throws IOException {
+        Map<String, String> source = new HashMap<>();
+        source.put("field", "value");
+
+        Bulk bulk = new Bulk.Builder()
+                .addAction(new Index.Builder(source).index("twitter").type("tweet").id("1").build())
+                .addAction(new Delete.Builder("2").index("twitter").type("tweet").build())
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bulk.writeData(outputStream, new ObjectMapper(), ContentFormat.SMILE);
+
+        List<JsonNode> documents = readFramedDocuments(outputStream.toByteArray(), ContentFormat.SMILE);
+        assertEquals(3, documents.size());
+        assertEquals("1", documents.get(0).path("index").path("_id").asText());
+        assertEquals("value", documents.get(1).path("field").asText());
+        assertEquals("2", documents.get(2).path("delete").path("_id").asText());
+    }
+
+    @Test
+    public void bulkOperationInSmileWritesSourceObjectsStraightIntoTheGenerator() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) {
+                throw new AssertionError("the source was serialized to a string first: " + value);
+            }
+        };
+
+        Bulk bulk = new Bulk.Builder()
+                .addAction(new Index.Builder(new Tweet("value")).index("twitter").type("tweet").id("1").build())
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bulk.writeData(outputStream, objectMapper, ContentFormat.SMILE);
+
+        List<JsonNode> documents = readFramedDocuments(outputStream.toByteArray(), ContentFormat.SMILE);
+        assertEquals(2, documents.size());
+        assertEquals("value", documents.get(1).path("field").asText());
+    }
+
     @Test
     public void testUris() {
         Bulk bulkWitIndex = new Bulk.Builder().defaultIndex("twitter").build();
@@ -108,8 +176,37 @@ public class BulkTest {
         assertEquals("twitter/tweet/_bulk", bulkWitIndexAndType.getURI());
     }
 
+    private static List<JsonNode> readFramedDocuments(byte[] data, ContentFormat format) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> documents = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] == format.getStreamSeparator()) {
+                try (JsonParser parser = format.getFactory().createParser(data, start, i - start)) {
+                    documents.add(objectMapper.readTree(parser));
+                }
+                start = i + 1;
+            }
+        }
+        assertEquals("the stream ends with a separator", data.length, start);
+        return documents;
+    }
+
     private void executeAsserts(Bulk bulk) {
         assertEquals("POST", bulk.getRestMethodName());
         assertEquals("/_bulk", bulk.getURI());
     }
+
+    public static class Tweet {
+
+        private final String field;
+
+        Tweet(String field) {
+            this.field = field;
+        }
+
+        public String getField() {
+            return field;
+        }
+    }
 }
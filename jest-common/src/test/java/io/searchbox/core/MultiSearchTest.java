@@ -1,10 +1,15 @@
 package io.searchbox.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.config.ContentFormat;
+import io.searchbox.core.search.sort.Sort;
 import org.json.JSONException;
 import org.junit.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
@@ -31,6 +36,57 @@ public class MultiSearchTest {
         assertEquals("application/x-ndjson", multiSearch.getHeader("Content-Type"));
     }
 
+    @Test
+    public void multiSearchInSmileIsFramedPerDocument() throws IOException {
+        Search search = new Search.Builder("{\"query\" : {\"match_all\" : {}}}")
+                .addIndex("twitter")
+                .addType("tweet")
+                .build();
+        MultiSearch multiSearch = new MultiSearch.Builder(search).build();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        multiSearch.writeData(outputStream, new ObjectMapper(), ContentFormat.SMILE);
+        byte[] data = outputStream.toByteArray();
+
+        int separator = indexOf(data, ContentFormat.SMILE.getStreamSeparator(), 0);
+        assertEquals(data.length - 1, indexOf(data, ContentFormat.SMILE.getStreamSeparator(), separator + 1));
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (JsonParser header = ContentFormat.SMILE.getFactory().createParser(data, 0, separator);
+             JsonParser body = ContentFormat.SMILE.getFactory().createParser(data, separator + 1, data.length - separator - 2)) {
+            JsonNode headerNode = objectMapper.readTree(header);
+            JsonNode bodyNode = objectMapper.readTree(body);
+            assertEquals("twitter", headerNode.path("index").asText());
+            assertEquals("tweet", headerNode.path("type").asText());
+            assertTrue(bodyNode.path("query").has("match_all"));
+        }
+    }
+
+    @Test
+    public void multiSearchInSmileWritesSortedSearchBodyWithoutJsonString() throws IOException {
+        Search search = new Search.Builder("{\"query\" : {\"match_all\" : {}}}")
+                .addIndex("twitter")
+                .addSort(new Sort("user"))
+                .build();
+        MultiSearch multiSearch = new MultiSearch.Builder(search).build();
+        ObjectMapper objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) {
+                throw new AssertionError("the search body was serialized to a string first: " + value);
+            }
+        };
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        multiSearch.writeData(outputStream, objectMapper, ContentFormat.SMILE);
+        byte[] data = outputStream.toByteArray();
+
+        int separator = indexOf(data, ContentFormat.SMILE.getStreamSeparator(), 0);
+        try (JsonParser body = ContentFormat.SMILE.getFactory().createParser(data, separator + 1, data.length - separator - 2)) {
+            JsonNode bodyNode = new ObjectMapper().readTree(body);
+            assertTrue(bodyNode.path("query").has("match_all"));
+            assertTrue(bodyNode.path("sort").get(0).has("user"));
+        }
+    }
+
     @Test
     public void singleMultiSearchWithoutIndex() throws JSONException, IOException {
         String expectedData = " {\"index\" : \"_all\"}\n" +
@@ -176,4 +232,13 @@ public class MultiSearchTest {
         assertEquals("There was a \"test\" error", multiSearchResult.getResponses().get(2).errorMessage);
         assertNull(multiSearchResult.getResponses().get(2).searchResult);
     }
+
+    private static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,142 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.action.Action;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.StubJestClient;
+import io.searchbox.client.node.ShardRoutingTable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.searchbox.client.StubJestClient.acknowledge;
+import static io.searchbox.client.StubJestClient.ok;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PartitioningBulkExecutorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StubJestClient client;
+    private ShardRoutingTable table;
+    private volatile String failingId;
+
+    @Before
+    public void setUp() throws IOException {
+        table = ShardRoutingTable.fromClusterState(MAPPER.readTree("{" +
+                "\"metadata\":{\"indices\":{" +
+                "\"twitter\":{\"settings\":{\"index\":{\"number_of_shards\":\"2\"}}}," +
+                "\"logs\":{\"settings\":{\"index\":{\"number_of_shards\":\"1\"}}}}}," +
+                "\"routing_table\":{\"indices\":{" +
+                "\"twitter\":{\"shards\":{" +
+                "\"0\":[{\"primary\":true,\"state\":\"STARTED\",\"node\":\"node-a\"}]," +
+                "\"1\":[{\"primary\":true,\"state\":\"STARTED\",\"node\":\"node-b\"}]}}," +
+                "\"logs\":{\"shards\":{\"0\":[{\"primary\":true,\"state\":\"STARTED\",\"node\":\"node-a\"}]}}}}}"));
+        client = new StubJestClient(new StubJestClient.Responder() {
+            @Override
+            public StubJestClient.Response respond(Action<?> request) throws IOException {
+                for (BulkableAction action : ((Bulk) request).getActions()) {
+                    if (action.getId() != null && action.getId().equals(failingId)) {
+                        throw new IOException("Connection refused");
+                    }
+                }
+                return ok(acknowledge((Bulk) request));
+            }
+        });
+        client.setShardRoutingTable(table);
+    }
+
+    @Test
+    public void partitionByPrimaryNode() {
+        String onA = idOn("node-a");
+        String onB = idOn("node-b");
+        Bulk bulk = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(index(null, onB))
+                .addAction(index(null, onA))
+                .addAction(index("logs", "1"))
+                .addAction(index(null, null))
+                .addAction(index("alias", "1"))
+                .addAction(index(null, onB))
+                .build();
+
+        List<int[]> partitions = new PartitioningBulkExecutor.Builder(client).build().partition(bulk);
+        assertEquals(3, partitions.size());
+        assertTrue(Arrays.equals(new int[]{0, 5}, partitions.get(0)));
+        assertTrue(Arrays.equals(new int[]{1, 2}, partitions.get(1)));
+        assertTrue("unrouted items", Arrays.equals(new int[]{3, 4}, partitions.get(2)));
+    }
+
+    @Test
+    public void mergeResultsInOriginalOrder() throws IOException {
+        List<BulkableAction> actions = new ArrayList<BulkableAction>();
+        for (int i = 0; i < 10; i++) {
+            actions.add(index(null, "doc-" + i));
+        }
+        Bulk bulk = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet").addAction(actions).build();
+
+        BulkResult result = new PartitioningBulkExecutor.Builder(client).build().execute(bulk);
+
+        assertEquals(2, client.getRequests(Bulk.class).size());
+        assertTrue(result.isSucceeded());
+        assertEquals(10, result.getItemCount());
+        List<BulkResult.BulkResultItem> items = result.getItems();
+        for (int i = 0; i < 10; i++) {
+            assertEquals("doc-" + i, items.get(i).id);
+        }
+    }
+
+    @Test
+    public void failedPartitionIsReportedAsFailedItems() throws IOException {
+        String onA = idOn("node-a");
+        String onB = idOn("node-b");
+        failingId = onB;
+        Bulk bulk = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(index(null, onA))
+                .addAction(index(null, onB))
+                .build();
+
+        BulkResult result = new PartitioningBulkExecutor.Builder(client).build().execute(bulk);
+
+        assertFalse(result.isSucceeded());
+        assertEquals(201, result.getItemStatus(0));
+        assertEquals(503, result.getItemStatus(1));
+        List<BulkResult.BulkResultItem> failedItems = result.getFailedItems();
+        assertEquals(1, failedItems.size());
+        assertEquals(onB, failedItems.get(0).id);
+        assertEquals(PartitioningBulkExecutor.PARTITION_FAILURE_ERROR_TYPE, failedItems.get(0).errorType);
+    }
+
+    @Test
+    public void bulkIsNotSplitWithoutRoutingTable() throws IOException {
+        client.setShardRoutingTable(null);
+        Bulk bulk = new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                .addAction(index(null, idOn("node-a")))
+                .addAction(index(null, idOn("node-b")))
+                .build();
+
+        BulkResult result = new PartitioningBulkExecutor.Builder(client).build().execute(bulk);
+        assertEquals(1, client.getRequests(Bulk.class).size());
+        assertTrue(client.getRequests(Bulk.class).get(0) == bulk);
+        assertEquals(2, result.getItemCount());
+    }
+
+    private String idOn(String nodeId) {
+        for (int i = 0; ; i++) {
+            String id = String.valueOf(i);
+            if (nodeId.equals(table.getPrimaryNodeId("twitter", table.getShard("twitter", id)))) {
+                return id;
+            }
+        }
+    }
+
+    private static Index index(String index, String id) {
+        return new Index.Builder(Collections.singletonMap("user", "kimchy")).index(index).id(id).build();
+    }
+}
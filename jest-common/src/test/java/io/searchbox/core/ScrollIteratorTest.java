@@ -0,0 +1,158 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.StubJestClient;
+import io.searchbox.params.Parameters;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static io.searchbox.client.StubJestClient.scripted;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScrollIteratorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void scrollThroughAllPagesAndClearScroll() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                page("scroll1", hit("1", null), hit("2", null)),
+                page("scroll2", hit("3", null)),
+                page("scroll2")));
+        Search search = new Search.Builder("{}").addIndex("twitter").setParameter(Parameters.SCROLL, "1m").build();
+
+        ScrollIterator iterator = new ScrollIterator.Builder(client, search).prefetch(false).build();
+        List<String> ids = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            for (SearchResult.Hit<Map, Void> hit : iterator.next().getHits(Map.class)) {
+                ids.add(hit.id);
+            }
+        }
+
+        assertEquals(Arrays.asList("1", "2", "3"), ids);
+        assertEquals(4, client.getRequests().size());
+        assertTrue(client.getRequests().get(1) instanceof SearchScroll);
+        assertTrue(client.getRequests().get(1).getURI().contains("scroll_id=scroll1"));
+        assertTrue(client.getRequests().get(2).getURI().contains("scroll_id=scroll2"));
+        assertTrue(client.getRequests().get(3) instanceof ClearScroll);
+        assertTrue(client.getRequests().get(3).getData(MAPPER).toString().contains("scroll2"));
+
+        iterator.close();
+        assertEquals("scroll must only be cleared once", 4, client.getRequests().size());
+    }
+
+    @Test
+    public void prefetchNextPage() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                page("scroll1", hit("1", null)),
+                page("scroll1", hit("2", null)),
+                page("scroll1")));
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        ScrollIterator iterator = new ScrollIterator.Builder(client, search).build();
+        assertTrue(iterator.hasNext());
+        assertEquals("next page should be requested along with the first", 2, client.getRequests().size());
+        assertEquals(1, client.getAsyncRequests());
+
+        assertEquals("1", iterator.next().getFirstHit(Map.class).id);
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        assertTrue(client.getRequests().get(client.getRequests().size() - 1) instanceof ClearScroll);
+    }
+
+    @Test
+    public void pageWithSearchAfter() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                page(null, hit("1", "[1,\"a\"]"), hit("2", "[2,\"b\"]")),
+                page(null, hit("3", "[3,\"c\"]")),
+                page(null)));
+        Search search = new Search.Builder("{\"size\":2,\"sort\":[\"date\",\"_id\"]}").build();
+
+        ScrollIterator iterator = new ScrollIterator.Builder(client, search).searchAfter(true).prefetch(false).build();
+        int pages = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            pages++;
+        }
+
+        assertEquals(2, pages);
+        assertEquals("no scroll to clear", 3, client.getRequests().size());
+        JsonNode secondQuery = MAPPER.readTree(client.getRequests().get(1).getData(MAPPER).toString());
+        assertEquals(2, secondQuery.get("size").asInt());
+        assertEquals("[2,\"b\"]", secondQuery.get("search_after").toString());
+        JsonNode thirdQuery = MAPPER.readTree(client.getRequests().get(2).getData(MAPPER).toString());
+        assertEquals("[3,\"c\"]", thirdQuery.get("search_after").toString());
+    }
+
+    @Test
+    public void closeClearsScroll() throws IOException {
+        StubJestClient client = new StubJestClient(scripted(
+                page("scroll1", hit("1", null)),
+                page("scroll1", hit("2", null))));
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        ScrollIterator iterator = new ScrollIterator.Builder(client, search).prefetch(false).build();
+        iterator.next();
+        iterator.close();
+
+        assertFalse(iterator.hasNext());
+        assertTrue(client.getRequests().get(client.getRequests().size() - 1) instanceof ClearScroll);
+    }
+
+    @Test
+    public void closeCancelsPrefetchedPage() throws IOException {
+        final List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+        StubJestClient client = new StubJestClient(scripted(page("scroll1", hit("1", null)))) {
+            @Override
+            public <T extends JestResult> CompletableFuture<T> executeAsync(Action<T> clientRequest) {
+                CompletableFuture<T> future = super.executeAsync(clientRequest);
+                futures.add(future);
+                return future;
+            }
+        }.holdAsyncRequests();
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        ScrollIterator iterator = new ScrollIterator.Builder(client, search).build();
+        iterator.next();
+        assertEquals(1, client.getHeldRequests().size());
+        iterator.close();
+
+        assertEquals(1, futures.size());
+        assertTrue("request of the prefetched page is aborted", futures.get(0).isCancelled());
+        assertTrue(client.getRequests().get(client.getRequests().size() - 1) instanceof ClearScroll);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scrollRequiresScrollParameter() throws IOException {
+        new ScrollIterator.Builder(new StubJestClient(scripted()), new Search.Builder("{}").build()).build();
+    }
+
+    private static String hit(String id, String sort) {
+        return "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"" + id + "\",\"_score\":1.0,\"_source\":{\"user\":\"kimchy\"}"
+                + (sort == null ? "" : ",\"sort\":" + sort) + "}";
+    }
+
+    private static String page(String scrollId, String... hits) {
+        StringBuilder sb = new StringBuilder("{");
+        if (scrollId != null) {
+            sb.append("\"_scroll_id\":\"").append(scrollId).append("\",");
+        }
+        sb.append("\"took\":1,\"hits\":{\"total\":3,\"hits\":[");
+        for (int i = 0; i < hits.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(hits[i]);
+        }
+        return sb.append("]}}").toString();
+    }
+}
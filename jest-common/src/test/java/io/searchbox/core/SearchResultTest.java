@@ -7,8 +7,10 @@ import io.searchbox.annotations.JestVersion;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -331,6 +333,111 @@ public class SearchResultTest {
         assertEquals("Incorrect version", someVersion, hit.source.getVersion());
     }
 
+    @Test
+    public void testIterateHits() throws IOException {
+        SearchResult searchResult = new SearchResult(objectMapper);
+        searchResult.setSucceeded(true);
+        searchResult.setJsonString(json);
+        searchResult.setJsonObject(objectMapper.readTree(json));
+        searchResult.setPathToResult("hits/hits/_source");
+
+        SearchResult.HitIterator<Object, Void> iterator = searchResult.iterateHits(Object.class);
+        assertTrue(iterator.hasNext());
+        SearchResult.Hit<Object, Void> hit = iterator.next();
+        assertFalse(iterator.hasNext());
+        iterator.close();
+
+        assertEquals(searchResult.getFirstHit(Object.class), hit);
+        assertEquals("1", ((Map) hit.source).get(SearchResult.ES_METADATA_ID));
+        assertEquals("twitter", hit.index);
+        assertNotNull(hit.sort);
+    }
+
+    @Test
+    public void testIterateHitsFromRetainedBytes() throws IOException {
+        Search search = new Search.Builder("").build();
+        SearchResult searchResult = search.createNewElasticSearchResult(
+                json.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        SearchResult.HitIterator<Object, Void> iterator = searchResult.iterateHits(Object.class, Void.class, false);
+        SearchResult.Hit<Object, Void> hit = iterator.next();
+        assertFalse(iterator.hasNext());
+        assertFalse(((Map) hit.source).containsKey(SearchResult.ES_METADATA_ID));
+        assertEquals("kimchy", ((Map) hit.source).get("user"));
+    }
+
+    @Test
+    public void testStreamHitsWithMetadata() throws IOException {
+        Long someVersion = Integer.MAX_VALUE + 10L;
+        String jsonWithHits = "{\"hits\":{\"total\":2,\"hits\":[" +
+                "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"_version\":" + someVersion + "," +
+                "\"_score\":1.5,\"_source\":{\"user\":\"kimchy\"},\"highlight\":{\"user\":[\"<em>kimchy</em>\"]}}," +
+                "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_source\":{\"user\":\"olivere\"},\"_id\":\"2\"," +
+                "\"_version\":3,\"_score\":null,\"fields\":{\"user\":[\"olivere\"]}}]}}";
+        Search search = new Search.Builder("").build();
+        SearchResult searchResult = search.createNewElasticSearchResult(
+                jsonWithHits.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        List<SearchResult.Hit<TestObject, Void>> hits = searchResult.streamHits(TestObject.class)
+                .collect(Collectors.<SearchResult.Hit<TestObject, Void>>toList());
+        assertEquals(2, hits.size());
+        assertEquals("1", hits.get(0).source.getId());
+        assertEquals(someVersion, hits.get(0).source.getVersion());
+        assertEquals(Double.valueOf(1.5), hits.get(0).score);
+        assertEquals("<em>kimchy</em>", hits.get(0).highlight.get("user").get(0));
+        assertEquals("2", hits.get(1).source.getId());
+        assertEquals(Long.valueOf(3), hits.get(1).source.getVersion());
+        assertNull(hits.get(1).score);
+        assertEquals(searchResult.getHits(TestObject.class).get(1).id, hits.get(1).id);
+    }
+
+    @Test
+    public void testIterateHitsWithUnboundSource() throws IOException {
+        String jsonWithHits = "{\"hits\":{\"total\":2,\"hits\":[" +
+                "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"_source\":{\"version\":{\"major\":[1]}}}," +
+                "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"2\",\"_source\":{\"version\":2}}]}}";
+        Search search = new Search.Builder("").build();
+        SearchResult searchResult = search.createNewElasticSearchResult(
+                jsonWithHits.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        List<SearchResult.Hit<TestObject, Void>> hits = searchResult.streamHits(TestObject.class)
+                .collect(Collectors.<SearchResult.Hit<TestObject, Void>>toList());
+        List<SearchResult.Hit<TestObject, Void>> expected = searchResult.getHits(TestObject.class);
+        assertEquals(2, hits.size());
+        assertNull(hits.get(0).source);
+        assertNull(expected.get(0).source);
+        assertEquals("1", hits.get(0).id);
+        assertEquals("2", hits.get(1).source.getId());
+        assertEquals(Long.valueOf(2), hits.get(1).source.getVersion());
+
+        searchResult.setJsonObject(objectMapper.readTree(jsonWithHits));
+        SearchResult.HitIterator<TestObject, Void> iterator = searchResult.iterateHits(TestObject.class);
+        assertNull(iterator.next().source);
+        assertEquals("2", iterator.next().source.getId());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testIterateHitsWithSourceOfWrongType() throws IOException {
+        String jsonWithHits = "{\"hits\":{\"total\":2,\"hits\":[" +
+                "{\"_id\":\"1\",\"_source\":{\"user\":{\"name\":\"kimchy\"}},\"_index\":\"twitter\"}," +
+                "{\"_id\":\"2\",\"_source\":{},\"_index\":\"twitter\"}]}}";
+        Search search = new Search.Builder("").build();
+        SearchResult searchResult = search.createNewElasticSearchResult(
+                jsonWithHits.getBytes(StandardCharsets.UTF_8), 200, null, objectMapper);
+
+        for (int i = 0; i < 2; i++) {
+            SearchResult.HitIterator<String, Void> iterator = searchResult.iterateHits(String.class, Void.class, false);
+            SearchResult.Hit<String, Void> hit = iterator.next();
+            assertNull(hit.source);
+            assertEquals("twitter", hit.index);
+            assertEquals("2", iterator.next().id);
+            assertFalse(iterator.hasNext());
+
+            searchResult.setJsonObject(objectMapper.readTree(jsonWithHits));
+        }
+    }
+
     private static class TestObject {
         @JestId
         private String id;
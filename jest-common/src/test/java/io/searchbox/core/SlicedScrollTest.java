@@ -0,0 +1,135 @@
+package io.searchbox.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.action.Action;
+import io.searchbox.client.StubJestClient;
+import io.searchbox.params.Parameters;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.searchbox.client.StubJestClient.ok;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlicedScrollTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void scrollAllSlicesInParallel() throws IOException {
+        SliceResponder slices = new SliceResponder(-1);
+        Search search = new Search.Builder("{\"size\":10}").addIndex("twitter").setParameter(Parameters.SCROLL, "1m").build();
+
+        SlicedScroll scroll = new SlicedScroll.Builder(new StubJestClient(slices), search).slices(3).queueCapacity(1).build();
+        Set<String> ids = new TreeSet<String>();
+        while (scroll.hasNext()) {
+            for (SearchResult.Hit<Map, Void> hit : scroll.next().getHits(Map.class)) {
+                ids.add(hit.id);
+            }
+        }
+        scroll.close();
+
+        assertEquals(6, ids.size());
+        assertTrue(ids.contains("0-1") && ids.contains("1-2") && ids.contains("2-1"));
+        assertEquals(3, slices.searches.size());
+        for (JsonNode query : slices.searches) {
+            assertEquals(10, query.get("size").asInt());
+            assertEquals(3, query.get("slice").get("max").asInt());
+        }
+        assertEquals(3, slices.clearScrolls.size());
+    }
+
+    @Test
+    public void streamHitsOfAllSlices() throws IOException {
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        SlicedScroll scroll = new SlicedScroll.Builder(new StubJestClient(new SliceResponder(-1)), search).slices(2).prefetch(false).build();
+        assertEquals(4, scroll.streamHits(Map.class).count());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void failureOfOneSliceIsThrown() throws IOException {
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        SlicedScroll scroll = new SlicedScroll.Builder(new StubJestClient(new SliceResponder(1)), search).slices(2).build();
+        while (scroll.hasNext()) {
+            scroll.next();
+        }
+    }
+
+    @Test
+    public void closeClearsTheScrollOfEverySlice() throws Exception {
+        SliceResponder slices = new SliceResponder(-1);
+        Search search = new Search.Builder("{}").setParameter(Parameters.SCROLL, "1m").build();
+
+        SlicedScroll scroll = new SlicedScroll.Builder(new StubJestClient(slices), search).slices(3).queueCapacity(1).build();
+        assertTrue(scroll.hasNext());
+        long deadline = System.currentTimeMillis() + 5000;
+        // every slice opened its scroll context, the workers wait for room in the queue
+        while (slices.searches.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        scroll.close();
+
+        while (slices.clearScrolls.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, slices.clearScrolls.size());
+        assertFalse(slices.interruptedClearScroll);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scrollParameterIsRequired() throws IOException {
+        new SlicedScroll.Builder(new StubJestClient(new SliceResponder(-1)), new Search.Builder("{}").build()).build();
+    }
+
+    /**
+     * Returns two pages with one hit each for every slice.
+     */
+    private static class SliceResponder implements StubJestClient.Responder {
+        final List<JsonNode> searches = new CopyOnWriteArrayList<JsonNode>();
+        final List<String> clearScrolls = new CopyOnWriteArrayList<String>();
+        final int failingSlice;
+        volatile boolean interruptedClearScroll;
+
+        SliceResponder(int failingSlice) {
+            this.failingSlice = failingSlice;
+        }
+
+        @Override
+        public StubJestClient.Response respond(Action<?> request) throws IOException {
+            if (request instanceof ClearScroll) {
+                interruptedClearScroll |= Thread.currentThread().isInterrupted();
+                clearScrolls.add(request.getData(MAPPER).toString());
+                return ok("{\"succeeded\":true}");
+            } else if (request instanceof SearchScroll) {
+                String uri = request.getURI();
+                String scrollId = uri.substring(uri.indexOf("scroll_id=") + "scroll_id=".length()).split("&")[0];
+                String slice = scrollId.split("-")[1];
+                if (Integer.parseInt(slice) == failingSlice) {
+                    throw new IOException("Connection reset");
+                }
+                return ok(scrollId.endsWith("-1") ? page(slice, 2) : page(slice, 0));
+            } else {
+                JsonNode query = MAPPER.readTree(request.getData(MAPPER).toString());
+                searches.add(query);
+                return ok(page(query.get("slice").get("id").asText(), 1));
+            }
+        }
+
+        private static String page(String slice, int number) {
+            String hits = number == 0 ? "" : "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"" + slice + "-" + number +
+                    "\",\"_source\":{\"user\":\"kimchy\"}}";
+            return "{\"_scroll_id\":\"slice-" + slice + "-" + Math.max(1, number) + "\",\"hits\":{\"total\":2,\"hits\":[" + hits + "]}}";
+        }
+    }
+}
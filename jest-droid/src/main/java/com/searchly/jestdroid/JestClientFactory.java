@@ -39,6 +39,22 @@ public class JestClientFactory {
             log.debug("Creating HTTP client based on configuration");
             HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
             client.setRequestCompressionEnabled(droidClientConfig.isRequestCompressionEnabled());
+            if (droidClientConfig.getRequestCompressionPolicy() != null) {
+                client.setRequestCompressionPolicy(droidClientConfig.getRequestCompressionPolicy());
+            }
+            client.setResponseCompressionEnabled(droidClientConfig.isResponseCompressionEnabled());
+            client.setResponseStreamingEnabled(droidClientConfig.isResponseStreamingEnabled());
+            client.setLazyResponseParsingEnabled(droidClientConfig.isLazyResponseParsingEnabled());
+            client.setContentFormat(droidClientConfig.getContentFormat());
+            if (droidClientConfig.getNodeSelector() != null) {
+                client.setNodeSelector(droidClientConfig.getNodeSelector());
+            }
+            client.setDeadNodeTimeout(droidClientConfig.getMinDeadNodeTimeout(), droidClientConfig.getMaxDeadNodeTimeout(),
+                    droidClientConfig.getDeadNodeTimeoutTimeUnit());
+            client.setPreferredNodeAttributes(droidClientConfig.getPreferredNodeAttributes());
+            if (droidClientConfig.getMetricsListener() != null) {
+                client.setMetricsListener(droidClientConfig.getMetricsListener());
+            }
             client.setServers(droidClientConfig.getServerList());
             boolean isMultiThreaded = droidClientConfig.isMultiThreaded();
             if (isMultiThreaded) {
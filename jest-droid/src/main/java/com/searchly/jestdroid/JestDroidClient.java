@@ -4,11 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.searchly.jestdroid.http.HttpDeleteWithEntity;
 import com.searchly.jestdroid.http.HttpGetWithEntity;
 import io.searchbox.action.Action;
+import io.searchbox.action.FramedPayloadAction;
+import io.searchbox.action.StreamingResultAction;
 import io.searchbox.client.AbstractJestClient;
 import io.searchbox.client.JestClient;
 import io.searchbox.client.JestResult;
 import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.config.ContentFormat;
 import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.node.Node;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
@@ -26,7 +32,9 @@ import org.apache.http.util.EntityUtilsHC4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -36,6 +44,10 @@ public class JestDroidClient extends AbstractJestClient implements JestClient {
 
     private final static Logger log = LoggerFactory.getLogger(JestDroidClient.class);
 
+    /**
+     * @deprecated only used by {@link #constructHttpMethod(String, String, String, RequestConfig)}
+     */
+    @Deprecated
     protected ContentType requestContentType = ContentType.APPLICATION_JSON.withCharset("utf-8");
 
     private HttpClient httpClient;
@@ -46,21 +58,77 @@ public class JestDroidClient extends AbstractJestClient implements JestClient {
     }
 
     public <T extends JestResult> T execute(Action<T> clientRequest, RequestConfig requestConfig) throws IOException {
-        String elasticSearchRestUrl = getRequestURL(getNextServer(), clientRequest.getURI());
-        HttpUriRequest request = constructHttpMethod(clientRequest.getRestMethodName(), elasticSearchRestUrl, clientRequest.getData(objectMapper), requestConfig);
+        final Node node = getNextNode(clientRequest);
+        String elasticSearchRestUrl = getRequestURL(node.getServer(), clientRequest.getURI());
+        final ContentFormat format = getRequestContentFormat(clientRequest);
+        final HttpUriRequest request = constructHttpMethod(clientRequest.getRestMethodName(), elasticSearchRestUrl, requestConfig);
+        if (format.isBinary()) {
+            if (request instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequest) request).setEntity(createBinaryEntity(clientRequest, format));
+            }
+        } else {
+            final String data = clientRequest.getData(objectMapper);
+            if (data != null && request instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequest) request).setEntity(
+                        createEntity(clientRequest, data.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON));
+            }
+        }
+        if (getContentFormat().isBinary()) {
+            request.addHeader("Accept", getContentFormat().getMediaType());
+        }
+        if (isResponseCompressionEnabled()) {
+            // decompressed by the http client
+            request.addHeader("Accept-Encoding", "gzip");
+        }
 
         // add headers added to action
         if (!clientRequest.getHeaders().isEmpty()) {
             for (Map.Entry<String, Object> header : clientRequest.getHeaders().entrySet()) {
+                if (format.isBinary() && "Content-Type".equalsIgnoreCase(header.getKey())) {
+                    continue;
+                }
                 request.addHeader(header.getKey(), header.getValue().toString());
             }
         }
 
+        final long startNanos = System.nanoTime();
+        HttpResponse response = null;
+        Exception failure = null;
+        node.onRequestStart();
         try {
-            HttpResponse response = httpClient.execute(request);
-            return deserializeResponse(response, clientRequest);
+            response = httpClient.execute(request);
+            final Header contentType = response.getFirstHeader("Content-Type");
+            if (isNodeUnavailable(response.getStatusLine().getStatusCode(), contentType == null ? null : contentType.getValue())) {
+                markNodeDead(node);
+            } else {
+                markNodeAlive(node);
+            }
+            final T result = deserializeResponse(response, clientRequest);
+            recordBulkItemFailures(node, result);
+            return result;
         } catch (HttpHostConnectException ex) {
+            failure = ex;
+            markNodeDead(node);
             throw new CouldNotConnectException(ex.getHost().toURI(), ex);
+        } catch (IOException ex) {
+            failure = ex;
+            if (isConnectFailure(ex)) {
+                markNodeDead(node);
+            }
+            throw ex;
+        } finally {
+            final long latencyNanos = System.nanoTime() - startNanos;
+            node.onRequestEnd(latencyNanos, response == null);
+            if (failure == null && response != null) {
+                final HttpEntity requestEntity = request instanceof HttpEntityEnclosingRequest
+                        ? ((HttpEntityEnclosingRequest) request).getEntity() : null;
+                getMetricsListener().onRequest(getActionType(clientRequest), node, latencyNanos,
+                        requestEntity == null ? 0 : requestEntity.getContentLength(),
+                        response.getEntity() == null ? 0 : response.getEntity().getContentLength(),
+                        response.getStatusLine().getStatusCode());
+            } else if (failure != null) {
+                getMetricsListener().onRequestFailure(getActionType(clientRequest), node, latencyNanos, failure);
+            }
         }
     }
 
@@ -69,7 +137,66 @@ public class JestDroidClient extends AbstractJestClient implements JestClient {
         throw new UnsupportedOperationException("Jest-droid does not yet support async execution, sorry!");
     }
 
+    /**
+     * Creates the entity of the payload of the action in the given binary format, null if the action has none.
+     */
+    protected HttpEntity createBinaryEntity(Action<?> clientRequest, ContentFormat format) throws IOException {
+        final byte[] payload;
+        if (clientRequest instanceof FramedPayloadAction) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ((FramedPayloadAction<?>) clientRequest).writeData(outputStream, objectMapper, format);
+            payload = outputStream.toByteArray();
+        } else {
+            payload = encodePayload(clientRequest, format);
+            if (payload == null) {
+                return null;
+            }
+        }
+
+        return createEntity(clientRequest, payload, ContentType.create(format.getMediaType()));
+    }
+
+    /**
+     * Creates the entity of the given body of the action, gzip compressed if request compression is enabled and the
+     * compression policy deems it worth it.
+     */
+    protected HttpEntity createEntity(Action<?> clientRequest, byte[] body, ContentType contentType) throws IOException {
+        final boolean compress = shouldCompressRequest(clientRequest, body.length);
+        EntityBuilder entityBuilder = EntityBuilder.create()
+                .setBinary(compress ? compressRequest(clientRequest, body) : body)
+                .setContentType(contentType);
+
+        if (compress) {
+            entityBuilder.setContentEncoding("gzip");
+        }
+        return entityBuilder.build();
+    }
+
+    /**
+     * @deprecated request bodies are set by the client once the method is built, use
+     * {@link #constructHttpMethod(String, String, RequestConfig)}; the given payload, if any, is set as a text entity
+     * of {@link #requestContentType}, gzip compressed when request compression is enabled.
+     */
+    @Deprecated
     protected HttpUriRequest constructHttpMethod(String methodName, String url, String payload, RequestConfig requestConfig) {
+        HttpUriRequest httpUriRequest = constructHttpMethod(methodName, url, requestConfig);
+
+        if (httpUriRequest != null && httpUriRequest instanceof HttpEntityEnclosingRequest && payload != null) {
+            EntityBuilder entityBuilder = EntityBuilder.create()
+                    .setText(payload)
+                    .setContentType(requestContentType);
+
+            if (isRequestCompressionEnabled()) {
+                entityBuilder.gzipCompress();
+            }
+
+            ((HttpEntityEnclosingRequest) httpUriRequest).setEntity(entityBuilder.build());
+        }
+
+        return httpUriRequest;
+    }
+
+    protected HttpUriRequest constructHttpMethod(String methodName, String url, RequestConfig requestConfig) {
         HttpUriRequest httpUriRequest = null;
 
         if (methodName.equalsIgnoreCase("POST")) {
@@ -93,23 +220,42 @@ public class JestDroidClient extends AbstractJestClient implements JestClient {
             ((HttpRequestBaseHC4) httpUriRequest).setConfig(requestConfig);
         }
 
-        if (httpUriRequest != null && httpUriRequest instanceof HttpEntityEnclosingRequest && payload != null) {
-            EntityBuilder entityBuilder = EntityBuilder.create()
-                    .setText(payload)
-                    .setContentType(requestContentType);
-
-            if (isRequestCompressionEnabled()) {
-                entityBuilder.gzipCompress();
-            }
-
-            ((HttpEntityEnclosingRequest) httpUriRequest).setEntity(entityBuilder.build());
-        }
-
         return httpUriRequest;
     }
 
+    @SuppressWarnings("unchecked")
     private <T extends JestResult> T deserializeResponse(HttpResponse response, Action<T> clientRequest) throws IOException {
         StatusLine statusLine = response.getStatusLine();
+        final Header contentType = response.getFirstHeader("Content-Type");
+        final ContentFormat responseFormat = ContentFormat.fromMediaType(contentType != null ? contentType.getValue() : null);
+        if (responseFormat.isBinary()) {
+            final HttpEntity entity = response.getEntity();
+            return deserializeBinaryResponse(
+                    clientRequest,
+                    responseFormat,
+                    entity != null ? entity.getContent() : null,
+                    statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase()
+            );
+        }
+        if (isLazyResponseParsingEnabled() && clientRequest instanceof StreamingResultAction) {
+            final HttpEntity entity = response.getEntity();
+            return ((StreamingResultAction<T>) clientRequest).createNewElasticSearchResult(
+                    entity != null ? EntityUtilsHC4.toByteArray(entity) : null,
+                    statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase(),
+                    objectMapper
+            );
+        }
+        if (isResponseStreamingEnabled() && clientRequest instanceof StreamingResultAction) {
+            final HttpEntity entity = response.getEntity();
+            return ((StreamingResultAction<T>) clientRequest).createNewElasticSearchResult(
+                    entity != null ? entity.getContent() : null,
+                    statusLine.getStatusCode(),
+                    statusLine.getReasonPhrase(),
+                    objectMapper
+            );
+        }
         return clientRequest.createNewElasticSearchResult(
                 response.getEntity() != null ? EntityUtilsHC4.toString(response.getEntity()) : null,
                 statusLine.getStatusCode(),
@@ -0,0 +1,147 @@
+package io.searchbox.client.transport.jdk;
+
+import io.searchbox.client.JestRetryHandler;
+import io.searchbox.client.config.ClientConfig;
+import io.searchbox.client.transport.TransportRequest;
+
+import javax.net.ssl.SSLContext;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of a client using the {@link JdkHttpTransport}. The connect timeout and read timeout of the
+ * client config are used as the connect timeout of the HTTP client and the timeout of each request.
+ */
+public class JdkHttpClientConfig extends ClientConfig {
+
+    private final HttpClient.Version version;
+    private final SSLContext sslContext;
+    private final ProxySelector proxySelector;
+    private final Executor executor;
+    private final Map<String, String> defaultHeaders;
+    private final JestRetryHandler<TransportRequest> retryHandler;
+
+    public JdkHttpClientConfig(Builder builder) {
+        super(builder);
+        this.version = builder.version;
+        this.sslContext = builder.sslContext;
+        this.proxySelector = builder.proxySelector;
+        this.executor = builder.executor;
+        this.defaultHeaders = builder.defaultHeaders;
+        this.retryHandler = builder.retryHandler;
+    }
+
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    public ProxySelector getProxySelector() {
+        return proxySelector;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Map<String, String> getDefaultHeaders() {
+        return defaultHeaders;
+    }
+
+    public JestRetryHandler<TransportRequest> getRetryHandler() {
+        return retryHandler;
+    }
+
+    public static class Builder extends ClientConfig.AbstractBuilder<JdkHttpClientConfig, Builder> {
+
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private SSLContext sslContext;
+        private ProxySelector proxySelector;
+        private Executor executor;
+        private Map<String, String> defaultHeaders = new LinkedHashMap<String, String>();
+        private JestRetryHandler<TransportRequest> retryHandler;
+
+        public Builder(JdkHttpClientConfig jdkHttpClientConfig) {
+            super(jdkHttpClientConfig);
+            this.version = jdkHttpClientConfig.version;
+            this.sslContext = jdkHttpClientConfig.sslContext;
+            this.proxySelector = jdkHttpClientConfig.proxySelector;
+            this.executor = jdkHttpClientConfig.executor;
+            this.defaultHeaders = new LinkedHashMap<String, String>(jdkHttpClientConfig.defaultHeaders);
+            this.retryHandler = jdkHttpClientConfig.retryHandler;
+        }
+
+        public Builder(Collection<String> serverUris) {
+            super(serverUris);
+        }
+
+        public Builder(String serverUri) {
+            super(serverUri);
+        }
+
+        /**
+         * Preferred HTTP version, HTTP/2 by default (falling back to HTTP/1.1 if the server does not support it).
+         */
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder sslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        public Builder proxySelector(ProxySelector proxySelector) {
+            this.proxySelector = proxySelector;
+            return this;
+        }
+
+        /**
+         * Executor of the async tasks of the HTTP client (e.g.: completing the futures of async requests), a cached
+         * thread pool by default.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder defaultHeader(String name, String value) {
+            this.defaultHeaders.put(name, value);
+            return this;
+        }
+
+        /**
+         * Sends the given credentials with each request (preemptive basic authentication).
+         */
+        public Builder defaultCredentials(String username, String password) {
+            final String credentials = username + ':' + password;
+            return defaultHeader("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        /**
+         * Handler deciding which failed requests are retried (each time on another node if possible), none by
+         * default.
+         *
+         * @see io.searchbox.client.transport.TransportRetryHandler
+         */
+        public Builder retryHandler(JestRetryHandler<TransportRequest> retryHandler) {
+            this.retryHandler = retryHandler;
+            return this;
+        }
+
+        public JdkHttpClientConfig build() {
+            return new JdkHttpClientConfig(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.searchbox.client.transport.jdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.config.discovery.NodeChecker;
+import io.searchbox.client.transport.TransportJestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@link TransportJestClient}s sending their requests with the HTTP client of the JDK.
+ */
+public class JdkHttpClientFactory {
+
+    final static Logger log = LoggerFactory.getLogger(JdkHttpClientFactory.class);
+    private JdkHttpClientConfig jdkHttpClientConfig;
+
+    public JestClient getObject() {
+        if (jdkHttpClientConfig == null) {
+            log.debug("There is no configuration to create http client. Going to create simple client with default values");
+            jdkHttpClientConfig = new JdkHttpClientConfig.Builder("http://localhost:9200").build();
+        }
+
+        final TransportJestClient client = new TransportJestClient(new JdkHttpTransport(createHttpClient(),
+                jdkHttpClientConfig.getReadTimeout() > 0 ? Duration.ofMillis(jdkHttpClientConfig.getReadTimeout()) : null,
+                jdkHttpClientConfig.getDefaultHeaders()));
+
+        client.setRequestCompressionEnabled(jdkHttpClientConfig.isRequestCompressionEnabled());
+        if (jdkHttpClientConfig.getRequestCompressionPolicy() != null) {
+            client.setRequestCompressionPolicy(jdkHttpClientConfig.getRequestCompressionPolicy());
+        }
+        client.setResponseCompressionEnabled(jdkHttpClientConfig.isResponseCompressionEnabled());
+        client.setResponseStreamingEnabled(jdkHttpClientConfig.isResponseStreamingEnabled());
+        client.setLazyResponseParsingEnabled(jdkHttpClientConfig.isLazyResponseParsingEnabled());
+        client.setContentFormat(jdkHttpClientConfig.getContentFormat());
+        if (jdkHttpClientConfig.getNodeSelector() != null) {
+            client.setNodeSelector(jdkHttpClientConfig.getNodeSelector());
+        }
+        client.setDeadNodeTimeout(jdkHttpClientConfig.getMinDeadNodeTimeout(), jdkHttpClientConfig.getMaxDeadNodeTimeout(),
+                jdkHttpClientConfig.getDeadNodeTimeoutTimeUnit());
+        client.setPreferredNodeAttributes(jdkHttpClientConfig.getPreferredNodeAttributes());
+        if (jdkHttpClientConfig.getMetricsListener() != null) {
+            client.setMetricsListener(jdkHttpClientConfig.getMetricsListener());
+        }
+        client.setServers(jdkHttpClientConfig.getServerList());
+
+        if (jdkHttpClientConfig.getRetryHandler() != null) {
+            client.setRetryHandler(jdkHttpClientConfig.getRetryHandler());
+        }
+        if (jdkHttpClientConfig.getRetryBackoff() != null) {
+            client.setRetryBackoff(jdkHttpClientConfig.getRetryBackoff());
+        }
+        client.setRetryBudget(jdkHttpClientConfig.getRetryBudget());
+        client.setHedgingPolicy(jdkHttpClientConfig.getHedgingPolicy());
+        if (jdkHttpClientConfig.getConnTimeout() > 0 && jdkHttpClientConfig.getReadTimeout() > 0) {
+            client.setAttemptTimeout(jdkHttpClientConfig.getConnTimeout() + jdkHttpClientConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        // set custom ObjectMapper instance
+        ObjectMapper objectMapper = jdkHttpClientConfig.getObjectMapper();
+        if (objectMapper != null) {
+            client.setObjectMapper(objectMapper);
+        }
+
+        // set discovery (should be set after setting the transport of the client)
+        if (jdkHttpClientConfig.isDiscoveryEnabled()) {
+            log.info("Node Discovery enabled...");
+            NodeChecker nodeChecker = new NodeChecker(client, jdkHttpClientConfig);
+            client.setNodeChecker(nodeChecker);
+            nodeChecker.startAsync();
+            nodeChecker.awaitRunning();
+        } else {
+            log.info("Node Discovery disabled...");
+        }
+
+        return client;
+    }
+
+    public void setJdkHttpClientConfig(JdkHttpClientConfig jdkHttpClientConfig) {
+        this.jdkHttpClientConfig = jdkHttpClientConfig;
+    }
+
+    /**
+     * Extension point to customize the HTTP client further.
+     */
+    protected HttpClient.Builder configureHttpClient(HttpClient.Builder builder) {
+        return builder;
+    }
+
+    private HttpClient createHttpClient() {
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(jdkHttpClientConfig.getVersion())
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (jdkHttpClientConfig.getConnTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(jdkHttpClientConfig.getConnTimeout()));
+        }
+        if (jdkHttpClientConfig.getSslContext() != null) {
+            builder.sslContext(jdkHttpClientConfig.getSslContext());
+        }
+        if (jdkHttpClientConfig.getProxySelector() != null) {
+            builder.proxy(jdkHttpClientConfig.getProxySelector());
+        }
+        if (jdkHttpClientConfig.getExecutor() != null) {
+            builder.executor(jdkHttpClientConfig.getExecutor());
+        }
+        return configureHttpClient(builder).build();
+    }
+}
@@ -0,0 +1,289 @@
+package io.searchbox.client.transport.jdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.client.transport.Transport;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link Transport} built on the HTTP client of the JDK, which negotiates HTTP/2 (multiplexing all requests to a
+ * node over one connection) when the node or the proxy in front of it supports it, and falls back to HTTP/1.1
+ * otherwise. Sync and async requests share the connections of the client.
+ * <br/>
+ * Streamed payloads (e.g.: bulk) are written into a pipe read by the HTTP client, and response bodies are parsed
+ * straight from the stream of the HTTP client: neither is buffered whole. The payloads are written, and the async
+ * responses read, by daemon threads of the transport rather than by the executor of the HTTP client, which delivers
+ * the bodies.
+ * <br/>
+ * Cancelling the future of an async request aborts the exchange on Java 16+ only; on older versions the response
+ * is read and discarded.
+ */
+public class JdkHttpTransport implements Transport {
+
+    /**
+     * Headers set by the HTTP client itself, which it does not allow to set.
+     */
+    private static final Set<String> RESTRICTED_HEADERS;
+
+    static {
+        final Set<String> restrictedHeaders = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        Collections.addAll(restrictedHeaders, "Connection", "Content-Length", "Expect", "Host", "Upgrade");
+        RESTRICTED_HEADERS = Collections.unmodifiableSet(restrictedHeaders);
+    }
+
+    private static final int PAYLOAD_PIPE_SIZE = 64 * 1024;
+
+    /**
+     * Writes the streamed payloads of the requests and reads the bodies of the async responses.
+     */
+    private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("jest-jdk-http-stream-%d").build());
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Map<String, String> defaultHeaders;
+
+    /**
+     * @param requestTimeout time to wait for the response of each request, null to wait indefinitely
+     * @param defaultHeaders headers sent with each request (e.g.: Authorization), unless set by the request
+     */
+    public JdkHttpTransport(HttpClient httpClient, Duration requestTimeout, Map<String, String> defaultHeaders) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        this.defaultHeaders = new LinkedHashMap<String, String>(defaultHeaders);
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        try {
+            return toTransportResponse(request, httpClient.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (HttpConnectTimeoutException e) {
+            throw connectFailure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response to " + request);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(TransportRequest request) {
+        final CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>();
+        final CompletableFuture<HttpResponse<InputStream>> responseFuture;
+        try {
+            responseFuture = httpClient.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // completed off the executor of the HTTP client, as the response is then read by the callers of the future
+        responseFuture.whenCompleteAsync(new BiConsumer<HttpResponse<InputStream>, Throwable>() {
+            @Override
+            public void accept(HttpResponse<InputStream> response, Throwable failure) {
+                if (failure == null) {
+                    if (!future.complete(toTransportResponse(request, response))) {
+                        closeQuietly(response.body());
+                    }
+                    return;
+                }
+                final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                future.completeExceptionally(cause instanceof HttpConnectTimeoutException
+                        ? connectFailure((HttpConnectTimeoutException) cause) : cause);
+            }
+        }, STREAM_EXECUTOR);
+        future.whenComplete(new BiConsumer<TransportResponse, Throwable>() {
+            @Override
+            public void accept(TransportResponse response, Throwable failure) {
+                if (failure != null) {
+                    responseFuture.cancel(true);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Closes the HTTP client on Java 21+, where it can be closed; it is otherwise released once unreachable.
+     */
+    @Override
+    public void close() throws IOException {
+        final Object client = httpClient;
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    protected HttpRequest toHttpRequest(TransportRequest request) throws IOException {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+                .method(request.getMethod(), toBodyPublisher(request));
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        for (Map.Entry<String, String> header : defaultHeaders.entrySet()) {
+            if (!request.getHeaders().containsKey(header.getKey())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the body of the request: an array as is, a streamed payload through a pipe it is written into as the
+     * HTTP client reads it (once per attempt of the HTTP client, e.g.: after a redirect)
+     */
+    private static HttpRequest.BodyPublisher toBodyPublisher(final TransportRequest request) throws IOException {
+        if (!request.hasBody()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (request.getBodyLength() >= 0) {
+            return HttpRequest.BodyPublishers.ofByteArray(request.getBody());
+        }
+        return HttpRequest.BodyPublishers.ofInputStream(new Supplier<InputStream>() {
+            @Override
+            public InputStream get() {
+                final PayloadInputStream inputStream = new PayloadInputStream();
+                final PipedOutputStream outputStream;
+                try {
+                    outputStream = new PipedOutputStream(inputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                STREAM_EXECUTOR.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            request.writeBody(outputStream);
+                        } catch (IOException | RuntimeException e) {
+                            // before closing the pipe, for the HTTP client not to read it as the end of the body
+                            inputStream.fail(e);
+                        } finally {
+                            try {
+                                outputStream.close();
+                            } catch (IOException e) {
+                                // the pipe was closed by the HTTP client
+                            }
+                        }
+                    }
+                });
+                return inputStream;
+            }
+        });
+    }
+
+    /**
+     * @return the response with its body read from the stream of the HTTP client; none for a HEAD request, whose
+     * Content-Length is the one of the GET response
+     */
+    private static TransportResponse toTransportResponse(TransportRequest request, HttpResponse<InputStream> response) {
+        final Map<String, String> headers = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        final long contentLength = "HEAD".equalsIgnoreCase(request.getMethod())
+                ? 0 : response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        final InputStream content = response.body();
+        if (contentLength == 0) {
+            closeQuietly(content);
+            return new TransportResponse(response.statusCode(), null, headers, null, 0);
+        }
+        return new TransportResponse(response.statusCode(), null, headers, content, contentLength);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // the response is discarded
+        }
+    }
+
+    /**
+     * @return the connect timeout as a {@link ConnectException}, for the client to mark the node dead
+     */
+    private static ConnectException connectFailure(HttpConnectTimeoutException e) {
+        final ConnectException connectException = new ConnectException(e.getMessage());
+        connectException.initCause(e);
+        return connectException;
+    }
+
+    /**
+     * Pipe the payload of a request is written into; fails the request if the payload could not be written entirely,
+     * rather than letting the HTTP client send a truncated body.
+     */
+    private static final class PayloadInputStream extends PipedInputStream {
+        private volatile Exception failure;
+
+        PayloadInputStream() {
+            super(PAYLOAD_PIPE_SIZE);
+        }
+
+        void fail(Exception failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            final int read = super.read();
+            checkFailure(read);
+            return read;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            checkFailure(read);
+            return read;
+        }
+
+        private void checkFailure(int read) throws IOException {
+            final Exception exception = failure;
+            if (read == -1 && exception != null) {
+                throw new IOException("Could not write the request payload", exception);
+            }
+        }
+    }
+}
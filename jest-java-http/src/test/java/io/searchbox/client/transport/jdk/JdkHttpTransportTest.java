@@ -0,0 +1,236 @@
+package io.searchbox.client.transport.jdk;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
+import io.searchbox.core.DocumentResult;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JdkHttpTransportTest {
+
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<RecordedRequest>();
+    private HttpServer server;
+    private String serverUri;
+    private volatile int statusCode = 200;
+    private volatile String responseBody = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"found\":true,\"_source\":{}}";
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.add(new RecordedRequest(exchange));
+                final byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+                exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+                final OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        serverUri = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void requestIsSentWithBodyAndHeaders() throws IOException {
+        final JdkHttpTransport transport = new JdkHttpTransport(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                ImmutableMap.of("Authorization", "Basic dXNlcjpwYXNz", "X-Opaque-Id", "default"));
+        final byte[] body = "{\"user\":\"kimchy\"}".getBytes(StandardCharsets.UTF_8);
+
+        final TransportResponse response = transport.execute(new TransportRequest("PUT", serverUri + "/twitter/tweet/1",
+                body, ImmutableMap.of("Content-Type", "application/json", "X-Opaque-Id", "request-1", "Content-Length", "1")));
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("application/json; charset=UTF-8", response.getHeader("content-type"));
+        assertEquals(responseBody, new String(response.getBody(), StandardCharsets.UTF_8));
+        final RecordedRequest request = requests.get(0);
+        assertEquals("PUT", request.method);
+        assertEquals("/twitter/tweet/1", request.path);
+        assertArrayEquals(body, request.body);
+        assertEquals("Basic dXNlcjpwYXNz", request.headers.getFirst("Authorization"));
+        assertEquals("request-1", request.headers.getFirst("X-opaque-id"));
+    }
+
+    @Test
+    public void payloadIsStreamedAndResponseIsReadFromStream() throws Exception {
+        final byte[] line = "{\"delete\":{\"_id\":\"1\"}}\n".getBytes(StandardCharsets.UTF_8);
+        final JdkHttpTransport transport = new JdkHttpTransport(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                Collections.<String, String>emptyMap());
+        final TransportRequest request = TransportRequest.withPayload("POST", serverUri + "/_bulk",
+                new TransportRequest.Payload() {
+                    @Override
+                    public void writeTo(OutputStream outputStream) throws IOException {
+                        for (int i = 0; i < 10000; i++) {
+                            outputStream.write(line);
+                        }
+                    }
+                }, ImmutableMap.of("Content-Type", "application/x-ndjson"));
+
+        try (TransportResponse response = transport.execute(request)) {
+            assertEquals(responseBody.length(), response.getBodyLength());
+            assertEquals(responseBody, new String(readFully(response.getContent()), StandardCharsets.UTF_8));
+        }
+        assertEquals(10000 * line.length, requests.get(0).body.length);
+
+        try (TransportResponse response = transport.executeAsync(request).get(5, TimeUnit.SECONDS)) {
+            assertEquals(responseBody, new String(readFully(response.getContent()), StandardCharsets.UTF_8));
+        }
+        assertEquals(10000 * line.length, requests.get(1).body.length);
+    }
+
+    @Test
+    public void failedPayloadFailsRequest() {
+        final JdkHttpTransport transport = new JdkHttpTransport(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                Collections.<String, String>emptyMap());
+        final TransportRequest request = TransportRequest.withPayload("POST", serverUri + "/_bulk",
+                new TransportRequest.Payload() {
+                    @Override
+                    public void writeTo(OutputStream outputStream) throws IOException {
+                        outputStream.write("{\"delete\":{\"_id\":\"1\"}}\n".getBytes(StandardCharsets.UTF_8));
+                        throw new IOException("source not serializable");
+                    }
+                }, ImmutableMap.of("Content-Type", "application/x-ndjson"));
+
+        try {
+            transport.execute(request);
+            fail("Expected the request to fail rather than send a truncated payload");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    public void emptyResponseBodyIsNull() throws IOException {
+        responseBody = "";
+        final JdkHttpTransport transport = new JdkHttpTransport(HttpClient.newHttpClient(), null,
+                Collections.<String, String>emptyMap());
+
+        final TransportResponse response = transport.execute(new TransportRequest("GET", serverUri + "/twitter",
+                null, Collections.<String, String>emptyMap()));
+
+        assertEquals(200, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void clientExecutesActions() throws Exception {
+        final JdkHttpClientFactory factory = new JdkHttpClientFactory();
+        factory.setJdkHttpClientConfig(new JdkHttpClientConfig.Builder(serverUri)
+                .defaultCredentials("user", "pass")
+                .build());
+        final JestClient client = factory.getObject();
+        try {
+            final DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+            assertTrue(result.isSucceeded());
+            assertEquals("1", result.getId());
+
+            responseBody = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"2\",\"created\":true}";
+            statusCode = 201;
+            final CompletableFuture<DocumentResult> future = client.executeAsync(new Index.Builder(ImmutableMap.of("user", "kimchy"))
+                    .index("twitter").type("tweet").id("2").build());
+            assertEquals("2", future.get(5, TimeUnit.SECONDS).getId());
+
+            final RecordedRequest request = requests.get(1);
+            assertEquals("PUT", request.method);
+            assertEquals("{\"user\":\"kimchy\"}", new String(request.body, StandardCharsets.UTF_8));
+            assertEquals("Basic dXNlcjpwYXNz", request.headers.getFirst("Authorization"));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void refusedConnectionFailsAsConnectException() throws Exception {
+        final int port;
+        final ServerSocket socket = new ServerSocket(0);
+        port = socket.getLocalPort();
+        socket.close();
+        final JdkHttpTransport transport = new JdkHttpTransport(HttpClient.newHttpClient(), Duration.ofSeconds(5),
+                Collections.<String, String>emptyMap());
+        final TransportRequest request = new TransportRequest("GET", "http://127.0.0.1:" + port + "/",
+                null, Collections.<String, String>emptyMap());
+
+        try {
+            transport.execute(request);
+            fail("Expected the connection to be refused");
+        } catch (ConnectException e) {
+            // expected
+        }
+        try {
+            transport.executeAsync(request).get(5, TimeUnit.SECONDS);
+            fail("Expected the connection to be refused");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConnectException);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static class RecordedRequest {
+        final String method;
+        final String path;
+        final com.sun.net.httpserver.Headers headers;
+        final byte[] body;
+
+        RecordedRequest(HttpExchange exchange) throws IOException {
+            this.method = exchange.getRequestMethod();
+            this.path = exchange.getRequestURI().getPath();
+            this.headers = exchange.getRequestHeaders();
+            final InputStream in = exchange.getRequestBody();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[256];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            this.body = out.toByteArray();
+        }
+    }
+}
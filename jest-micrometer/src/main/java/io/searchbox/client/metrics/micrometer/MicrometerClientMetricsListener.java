@@ -0,0 +1,176 @@
+package io.searchbox.client.metrics.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.searchbox.client.metrics.ClientGauges;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.node.Node;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the metrics of a client to a Micrometer {@link MeterRegistry}, with the meters below (prefixed with
+ * <code>jest.client</code> by default):
+ * <ul>
+ * <li><code>requests</code>: timer of the requests, tagged by action, node, status and exception</li>
+ * <li><code>request.size</code> and <code>response.size</code>: distribution of the body sizes, when known</li>
+ * <li><code>retries</code>: counter of the retried requests by action and node</li>
+ * <li><code>bulk.item.failures</code>: counter of the failed bulk items by node</li>
+ * <li><code>async.pending</code>, <code>connections.leased</code>, <code>connections.available</code> and
+ * <code>connections.pending</code>: gauges of the client</li>
+ * </ul>
+ * Nodes are tagged by their <code>host:port</code>.
+ * <p>
+ * Example:
+ * </p>
+ * <pre>
+ * new HttpClientConfig.Builder("http://localhost:9200")
+ *         .metricsListener(new MicrometerClientMetricsListener(registry))
+ *         .build();
+ * </pre>
+ */
+public class MicrometerClientMetricsListener implements ClientMetricsListener {
+
+    public static final String DEFAULT_PREFIX = "jest.client";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final String prefix;
+    private final Iterable<Tag> tags;
+    private final ConcurrentMap<String, String> nodeTags = new ConcurrentHashMap<String, String>();
+    // gauges only hold weak references to the object they read, the bound gauges must not be collected
+    private final List<ClientGauges> boundGauges = new CopyOnWriteArrayList<ClientGauges>();
+
+    public MicrometerClientMetricsListener(MeterRegistry registry) {
+        this(registry, DEFAULT_PREFIX, Tags.empty());
+    }
+
+    /**
+     * @param tags common tags of all meters, e.g.: to tell several clients apart
+     */
+    public MicrometerClientMetricsListener(MeterRegistry registry, String prefix, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.prefix = prefix;
+        this.tags = tags;
+    }
+
+    @Override
+    public void bindGauges(ClientGauges gauges) {
+        boundGauges.add(gauges);
+        registerGauge("async.pending", gauges, new ToDoubleFunction<ClientGauges>() {
+            @Override
+            public double applyAsDouble(ClientGauges value) {
+                return value.getPendingAsyncRequests();
+            }
+        });
+        registerGauge("connections.leased", gauges, new ToDoubleFunction<ClientGauges>() {
+            @Override
+            public double applyAsDouble(ClientGauges value) {
+                return value.getLeasedConnections();
+            }
+        });
+        registerGauge("connections.available", gauges, new ToDoubleFunction<ClientGauges>() {
+            @Override
+            public double applyAsDouble(ClientGauges value) {
+                return value.getAvailableConnections();
+            }
+        });
+        registerGauge("connections.pending", gauges, new ToDoubleFunction<ClientGauges>() {
+            @Override
+            public double applyAsDouble(ClientGauges value) {
+                return value.getPendingConnections();
+            }
+        });
+    }
+
+    @Override
+    public void onRequest(String actionType, Node node, long latencyNanos, long requestBytes, long responseBytes, int statusCode) {
+        final String nodeTag = getNodeTag(node);
+        requestTimer(actionType, nodeTag, String.valueOf(statusCode), NONE).record(latencyNanos, TimeUnit.NANOSECONDS);
+        if (requestBytes >= 0) {
+            sizeSummary("request.size", actionType, nodeTag).record(requestBytes);
+        }
+        if (responseBytes >= 0) {
+            sizeSummary("response.size", actionType, nodeTag).record(responseBytes);
+        }
+    }
+
+    @Override
+    public void onRequestFailure(String actionType, Node node, long latencyNanos, Exception failure) {
+        requestTimer(actionType, getNodeTag(node), NONE, failure.getClass().getSimpleName())
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRetry(String actionType, Node node, int executionCount) {
+        Counter.builder(prefix + ".retries")
+                .tags(tags)
+                .tag("action", actionType)
+                .tag("node", getNodeTag(node))
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void onBulkItemFailures(Node node, int failedItems, int totalItems) {
+        Counter.builder(prefix + ".bulk.item.failures")
+                .tags(tags)
+                .tag("node", getNodeTag(node))
+                .register(registry)
+                .increment(failedItems);
+    }
+
+    private Timer requestTimer(String actionType, String nodeTag, String status, String exception) {
+        return Timer.builder(prefix + ".requests")
+                .tags(tags)
+                .tag("action", actionType)
+                .tag("node", nodeTag)
+                .tag("status", status)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary sizeSummary(String name, String actionType, String nodeTag) {
+        return DistributionSummary.builder(prefix + "." + name)
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("action", actionType)
+                .tag("node", nodeTag)
+                .register(registry);
+    }
+
+    private void registerGauge(String name, ClientGauges gauges, ToDoubleFunction<ClientGauges> value) {
+        Gauge.builder(prefix + "." + name, gauges, value)
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * @return the host and port of the node, without the user info its server URI may contain
+     */
+    private String getNodeTag(Node node) {
+        if (node == null) {
+            return NONE;
+        }
+        String nodeTag = nodeTags.get(node.getServer());
+        if (nodeTag == null) {
+            final URI uri = URI.create(node.getServer());
+            nodeTag = uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ':' + uri.getPort();
+            nodeTags.put(node.getServer(), nodeTag);
+        }
+        return nodeTag;
+    }
+}
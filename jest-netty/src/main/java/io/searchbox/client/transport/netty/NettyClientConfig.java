@@ -0,0 +1,185 @@
+package io.searchbox.client.transport.netty;
+
+import io.netty.handler.ssl.SslContext;
+import io.searchbox.client.JestRetryHandler;
+import io.searchbox.client.config.ClientConfig;
+import io.searchbox.client.transport.TransportRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of a client using the {@link NettyTransport}. The connect timeout and read timeout of the client
+ * config are used as the connect timeout of the channels and the timeout of each request, the default max total
+ * connection per route as the size of the connection pool of each node (10 by default) and the max connection idle
+ * time to close idle connections.
+ * <br/>
+ * Response streaming is enabled by default, so that results are parsed straight from the buffers of the transport.
+ */
+public class NettyClientConfig extends ClientConfig {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    private final int ioThreads;
+    private final boolean epollEnabled;
+    private final SslContext sslContext;
+    private final int maxContentLength;
+    private final int maxConnectionsPerRoute;
+    private final Executor callbackExecutor;
+    private final Map<String, String> defaultHeaders;
+    private final JestRetryHandler<TransportRequest> retryHandler;
+
+    public NettyClientConfig(Builder builder) {
+        super(builder);
+        this.ioThreads = builder.ioThreads;
+        this.epollEnabled = builder.epollEnabled;
+        this.sslContext = builder.sslContext;
+        this.maxContentLength = builder.maxContentLength;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.defaultHeaders = builder.defaultHeaders;
+        this.retryHandler = builder.retryHandler;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public boolean isEpollEnabled() {
+        return epollEnabled;
+    }
+
+    public SslContext getSslContext() {
+        return sslContext;
+    }
+
+    public int getMaxContentLength() {
+        return maxContentLength;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public Map<String, String> getDefaultHeaders() {
+        return defaultHeaders;
+    }
+
+    public JestRetryHandler<TransportRequest> getRetryHandler() {
+        return retryHandler;
+    }
+
+    public static class Builder extends ClientConfig.AbstractBuilder<NettyClientConfig, Builder> {
+
+        private int ioThreads;
+        private boolean epollEnabled = true;
+        private SslContext sslContext;
+        private int maxContentLength = 100 * 1024 * 1024;
+        private int maxConnectionsPerRoute;
+        private Executor callbackExecutor;
+        private Map<String, String> defaultHeaders = new LinkedHashMap<String, String>();
+        private JestRetryHandler<TransportRequest> retryHandler;
+
+        public Builder(NettyClientConfig nettyClientConfig) {
+            super(nettyClientConfig);
+            this.ioThreads = nettyClientConfig.ioThreads;
+            this.epollEnabled = nettyClientConfig.epollEnabled;
+            this.sslContext = nettyClientConfig.sslContext;
+            this.maxContentLength = nettyClientConfig.maxContentLength;
+            this.defaultMaxTotalConnectionPerRoute = nettyClientConfig.maxConnectionsPerRoute;
+            this.callbackExecutor = nettyClientConfig.callbackExecutor;
+            this.defaultHeaders = new LinkedHashMap<String, String>(nettyClientConfig.defaultHeaders);
+            this.retryHandler = nettyClientConfig.retryHandler;
+        }
+
+        public Builder(Collection<String> serverUris) {
+            super(serverUris);
+            this.isResponseStreamingEnabled = true;
+        }
+
+        public Builder(String serverUri) {
+            super(serverUri);
+            this.isResponseStreamingEnabled = true;
+        }
+
+        /**
+         * Number of event loop threads, twice the number of cores by default.
+         */
+        public Builder ioThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        /**
+         * Uses the native epoll transport when available (i.e.: on Linux), enabled by default.
+         */
+        public Builder epollEnabled(boolean epollEnabled) {
+            this.epollEnabled = epollEnabled;
+            return this;
+        }
+
+        /**
+         * SSL context of the connections to https nodes, one trusting the default trust store of the JDK by default.
+         */
+        public Builder sslContext(SslContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * Max size of a response body, 100 MB by default; larger responses fail the request.
+         */
+        public Builder maxContentLength(int maxContentLength) {
+            this.maxContentLength = maxContentLength;
+            return this;
+        }
+
+        /**
+         * Executor completing the futures of async requests (and thus parsing their results), the event loop
+         * by default; parsing large results on the event loop delays the IO of the other requests.
+         */
+        public Builder callbackExecutor(Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        public Builder defaultHeader(String name, String value) {
+            this.defaultHeaders.put(name, value);
+            return this;
+        }
+
+        /**
+         * Sends the given credentials with each request (preemptive basic authentication).
+         */
+        public Builder defaultCredentials(String username, String password) {
+            final String credentials = username + ':' + password;
+            return defaultHeader("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        /**
+         * Handler deciding which failed requests are retried (each time on another node if possible), none by
+         * default.
+         *
+         * @see io.searchbox.client.transport.TransportRetryHandler
+         */
+        public Builder retryHandler(JestRetryHandler<TransportRequest> retryHandler) {
+            this.retryHandler = retryHandler;
+            return this;
+        }
+
+        public NettyClientConfig build() {
+            this.maxConnectionsPerRoute = defaultMaxTotalConnectionPerRoute != null
+                    ? defaultMaxTotalConnectionPerRoute : DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+            return new NettyClientConfig(this);
+        }
+    }
+}
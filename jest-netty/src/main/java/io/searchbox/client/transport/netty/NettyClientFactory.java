@@ -0,0 +1,89 @@
+package io.searchbox.client.transport.netty;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.config.discovery.NodeChecker;
+import io.searchbox.client.transport.TransportJestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@link TransportJestClient}s sending their requests with a {@link NettyTransport}.
+ */
+public class NettyClientFactory {
+
+    final static Logger log = LoggerFactory.getLogger(NettyClientFactory.class);
+    private NettyClientConfig nettyClientConfig;
+
+    public JestClient getObject() {
+        if (nettyClientConfig == null) {
+            log.debug("There is no configuration to create http client. Going to create simple client with default values");
+            nettyClientConfig = new NettyClientConfig.Builder("http://localhost:9200").build();
+        }
+
+        final TransportJestClient client = new TransportJestClient(createTransport());
+
+        client.setRequestCompressionEnabled(nettyClientConfig.isRequestCompressionEnabled());
+        if (nettyClientConfig.getRequestCompressionPolicy() != null) {
+            client.setRequestCompressionPolicy(nettyClientConfig.getRequestCompressionPolicy());
+        }
+        client.setResponseCompressionEnabled(nettyClientConfig.isResponseCompressionEnabled());
+        client.setResponseStreamingEnabled(nettyClientConfig.isResponseStreamingEnabled());
+        client.setLazyResponseParsingEnabled(nettyClientConfig.isLazyResponseParsingEnabled());
+        client.setContentFormat(nettyClientConfig.getContentFormat());
+        if (nettyClientConfig.getNodeSelector() != null) {
+            client.setNodeSelector(nettyClientConfig.getNodeSelector());
+        }
+        client.setDeadNodeTimeout(nettyClientConfig.getMinDeadNodeTimeout(), nettyClientConfig.getMaxDeadNodeTimeout(),
+                nettyClientConfig.getDeadNodeTimeoutTimeUnit());
+        client.setPreferredNodeAttributes(nettyClientConfig.getPreferredNodeAttributes());
+        if (nettyClientConfig.getMetricsListener() != null) {
+            client.setMetricsListener(nettyClientConfig.getMetricsListener());
+        }
+        client.setServers(nettyClientConfig.getServerList());
+
+        if (nettyClientConfig.getRetryHandler() != null) {
+            client.setRetryHandler(nettyClientConfig.getRetryHandler());
+        }
+        if (nettyClientConfig.getRetryBackoff() != null) {
+            client.setRetryBackoff(nettyClientConfig.getRetryBackoff());
+        }
+        client.setRetryBudget(nettyClientConfig.getRetryBudget());
+        client.setHedgingPolicy(nettyClientConfig.getHedgingPolicy());
+        if (nettyClientConfig.getConnTimeout() > 0 && nettyClientConfig.getReadTimeout() > 0) {
+            client.setAttemptTimeout(nettyClientConfig.getConnTimeout() + nettyClientConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        // set custom ObjectMapper instance
+        ObjectMapper objectMapper = nettyClientConfig.getObjectMapper();
+        if (objectMapper != null) {
+            client.setObjectMapper(objectMapper);
+        }
+
+        // set discovery (should be set after setting the transport of the client)
+        if (nettyClientConfig.isDiscoveryEnabled()) {
+            log.info("Node Discovery enabled...");
+            NodeChecker nodeChecker = new NodeChecker(client, nettyClientConfig);
+            client.setNodeChecker(nodeChecker);
+            nodeChecker.startAsync();
+            nodeChecker.awaitRunning();
+        } else {
+            log.info("Node Discovery disabled...");
+        }
+
+        return client;
+    }
+
+    public void setNettyClientConfig(NettyClientConfig nettyClientConfig) {
+        this.nettyClientConfig = nettyClientConfig;
+    }
+
+    /**
+     * Extension point to create the transport differently, e.g.: sharing the event loop group of the application.
+     */
+    protected NettyTransport createTransport() {
+        return new NettyTransport(nettyClientConfig);
+    }
+}
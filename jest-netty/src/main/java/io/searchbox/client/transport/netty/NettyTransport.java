@@ -0,0 +1,474 @@
+package io.searchbox.client.transport.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.searchbox.client.transport.Transport;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link Transport} built on Netty, keeping a fixed size pool of HTTP/1.1 connections per node.
+ * <br/>
+ * Request bodies (including the payload of bulk requests) are written straight into pooled direct buffers, and
+ * responses are aggregated into pooled buffers the client parses from (if response streaming is enabled) before
+ * releasing them; bodies are thus not copied through heap arrays and Strings. The native epoll transport is used
+ * when available.
+ */
+public class NettyTransport implements Transport {
+
+    final static Logger log = LoggerFactory.getLogger(NettyTransport.class);
+
+    private static final AttributeKey<Exchange> EXCHANGE = AttributeKey.valueOf(NettyTransport.class, "exchange");
+
+    private final EventLoopGroup eventLoopGroup;
+    private final boolean ownsEventLoopGroup;
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+    private final AbstractChannelPoolMap<URI, FixedChannelPool> pools;
+    private final ResponseHandler responseHandler = new ResponseHandler();
+    private final SslContext sslContext;
+    private final int maxContentLength;
+    private final long requestTimeoutMillis;
+    private final long maxIdleTimeMillis;
+    private final Executor callbackExecutor;
+    private final Map<String, String> defaultHeaders;
+
+    /**
+     * Creates a transport with its own event loop group (epoll if enabled and available, NIO otherwise), shut down
+     * once the transport is closed.
+     */
+    public NettyTransport(NettyClientConfig config) {
+        this(config, createEventLoopGroup(config), isEpollEnabled(config) ? EpollSocketChannel.class : NioSocketChannel.class, true);
+    }
+
+    /**
+     * Creates a transport sharing the given event loop group, which is not shut down once the transport is closed.
+     *
+     * @param channelClass class of the channels, matching the event loop group
+     */
+    public NettyTransport(NettyClientConfig config, EventLoopGroup eventLoopGroup, Class<? extends SocketChannel> channelClass) {
+        this(config, eventLoopGroup, channelClass, false);
+    }
+
+    private NettyTransport(NettyClientConfig config, EventLoopGroup eventLoopGroup, Class<? extends SocketChannel> channelClass,
+                           boolean ownsEventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.ownsEventLoopGroup = ownsEventLoopGroup;
+        this.sslContext = config.getSslContext();
+        this.maxContentLength = config.getMaxContentLength();
+        this.requestTimeoutMillis = config.getReadTimeout();
+        this.maxIdleTimeMillis = config.getMaxConnectionIdleTime() > 0
+                ? config.getMaxConnectionIdleTimeDurationTimeUnit().toMillis(config.getMaxConnectionIdleTime()) : 0;
+        this.callbackExecutor = config.getCallbackExecutor();
+        this.defaultHeaders = new LinkedHashMap<String, String>(config.getDefaultHeaders());
+
+        final Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(channelClass)
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true);
+        if (config.getConnTimeout() > 0) {
+            bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getConnTimeout());
+        }
+        final int maxConnectionsPerRoute = config.getMaxConnectionsPerRoute();
+        this.pools = new AbstractChannelPoolMap<URI, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(URI origin) {
+                return new FixedChannelPool(bootstrap.clone().remoteAddress(origin.getHost(), origin.getPort()),
+                        new PoolHandler(origin), maxConnectionsPerRoute);
+            }
+        };
+    }
+
+    /**
+     * @return true if the native epoll transport is enabled by the config and available on this platform
+     */
+    public static boolean isEpollEnabled(NettyClientConfig config) {
+        return config.isEpollEnabled() && Epoll.isAvailable();
+    }
+
+    private static EventLoopGroup createEventLoopGroup(NettyClientConfig config) {
+        final DefaultThreadFactory threadFactory = new DefaultThreadFactory("jest-netty", true);
+        return isEpollEnabled(config)
+                ? new EpollEventLoopGroup(config.getIoThreads(), threadFactory)
+                : new NioEventLoopGroup(config.getIoThreads(), threadFactory);
+    }
+
+    public EventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        final CompletableFuture<TransportResponse> future = executeAsync(request);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response to " + request);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * Completing the future exceptionally (e.g.: cancelling it) closes the connection of the request.
+     */
+    @Override
+    public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request) {
+        final CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>();
+        final URI uri;
+        final FullHttpRequest httpRequest;
+        try {
+            uri = URI.create(request.getUrl());
+            httpRequest = toHttpRequest(request, uri);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        final URI origin = URI.create(uri.getScheme() + "://" + uri.getHost() + ':' + getPort(uri));
+        final Exchange exchange = new Exchange(pools.get(origin), httpRequest, future);
+        final ScheduledFuture<?> timeout = requestTimeoutMillis <= 0 ? null : eventLoopGroup.next().schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.completeExceptionally(new SocketTimeoutException("Timed out waiting for the response to " + request));
+            }
+        }, requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete(new BiConsumer<TransportResponse, Throwable>() {
+            @Override
+            public void accept(TransportResponse response, Throwable failure) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                if (failure != null) {
+                    exchange.releaseChannel(false);
+                }
+            }
+        });
+        exchange.pool.acquire().addListener(exchange);
+        return future;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pools.close();
+        if (ownsEventLoopGroup) {
+            eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Writes the request body into a pooled direct buffer.
+     */
+    protected FullHttpRequest toHttpRequest(TransportRequest request, URI uri) throws IOException {
+        ByteBuf content = Unpooled.EMPTY_BUFFER;
+        if (request.hasBody()) {
+            final long bodyLength = request.getBodyLength();
+            content = allocator.directBuffer(bodyLength > 0 && bodyLength < Integer.MAX_VALUE ? (int) bodyLength : 8192);
+            try {
+                request.writeBody(new ByteBufOutputStream(content));
+            } catch (IOException | RuntimeException e) {
+                content.release();
+                throw e;
+            }
+        }
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += '?' + uri.getRawQuery();
+        }
+        final FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+                HttpMethod.valueOf(request.getMethod()), path, content);
+        final HttpHeaders headers = httpRequest.headers();
+        headers.set(HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ':' + uri.getPort());
+        for (Map.Entry<String, String> header : defaultHeaders.entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+        if (request.hasBody()) {
+            headers.setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        }
+        return httpRequest;
+    }
+
+    private static int getPort(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private SslContext getSslContext() throws SSLException {
+        return sslContext != null ? sslContext : SslContextBuilder.forClient().build();
+    }
+
+    /**
+     * Sets up the pipeline of the channels to a node.
+     */
+    private final class PoolHandler extends AbstractChannelPoolHandler {
+        private final URI origin;
+        private SslContext originSslContext;
+
+        PoolHandler(URI origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public void channelCreated(Channel channel) throws Exception {
+            final ChannelPipeline pipeline = channel.pipeline();
+            if ("https".equalsIgnoreCase(origin.getScheme())) {
+                if (originSslContext == null) {
+                    originSslContext = getSslContext();
+                }
+                final SslHandler sslHandler = originSslContext.newHandler(channel.alloc(), origin.getHost(), origin.getPort());
+                final SSLParameters sslParameters = sslHandler.engine().getSSLParameters();
+                sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslHandler.engine().setSSLParameters(sslParameters);
+                pipeline.addLast("ssl", sslHandler);
+            }
+            pipeline.addLast("codec", new HttpClientCodec());
+            pipeline.addLast("decompressor", new HttpContentDecompressor());
+            pipeline.addLast("aggregator", new HttpObjectAggregator(maxContentLength));
+            if (maxIdleTimeMillis > 0) {
+                pipeline.addLast("idle", new IdleStateHandler(0, 0, maxIdleTimeMillis, TimeUnit.MILLISECONDS));
+            }
+            pipeline.addLast("handler", responseHandler);
+        }
+    }
+
+    /**
+     * A request waiting for its connection or its response. Its connection is released once, back to the pool if it
+     * can be reused for the next request or closed otherwise.
+     */
+    private final class Exchange implements FutureListener<Channel> {
+        final FixedChannelPool pool;
+        final FullHttpRequest httpRequest;
+        final CompletableFuture<TransportResponse> future;
+
+        private Channel channel;
+        private boolean released;
+
+        Exchange(FixedChannelPool pool, FullHttpRequest httpRequest, CompletableFuture<TransportResponse> future) {
+            this.pool = pool;
+            this.httpRequest = httpRequest;
+            this.future = future;
+        }
+
+        @Override
+        public void operationComplete(Future<Channel> acquired) {
+            if (!acquired.isSuccess()) {
+                httpRequest.release();
+                future.completeExceptionally(acquired.cause());
+                return;
+            }
+
+            final Channel acquiredChannel = acquired.getNow();
+            synchronized (this) {
+                if (future.isDone()) {
+                    // timed out or cancelled while waiting for the connection
+                    httpRequest.release();
+                    pool.release(acquiredChannel);
+                    return;
+                }
+                channel = acquiredChannel;
+            }
+            acquiredChannel.attr(EXCHANGE).set(this);
+            acquiredChannel.writeAndFlush(httpRequest).addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture written) {
+                    if (!written.isSuccess()) {
+                        future.completeExceptionally(written.cause());
+                    }
+                }
+            });
+        }
+
+        void onResponse(FullHttpResponse response) {
+            final ByteBuf content = response.content();
+            final Map<String, String> headers = new LinkedHashMap<String, String>();
+            for (Map.Entry<String, String> header : response.headers()) {
+                if (!headers.containsKey(header.getKey())) {
+                    headers.put(header.getKey(), header.getValue());
+                }
+            }
+            final int contentLength = content.readableBytes();
+            final TransportResponse transportResponse;
+            if (contentLength == 0) {
+                response.release();
+                transportResponse = new TransportResponse(response.status().code(), response.status().reasonPhrase(),
+                        headers, null, 0);
+            } else {
+                // released once the response is closed
+                transportResponse = new TransportResponse(response.status().code(), response.status().reasonPhrase(),
+                        headers, new ByteBufInputStream(content, true), contentLength);
+            }
+
+            releaseChannel(HttpUtil.isKeepAlive(response));
+            if (callbackExecutor == null) {
+                complete(transportResponse);
+            } else {
+                try {
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            complete(transportResponse);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    complete(transportResponse);
+                }
+            }
+        }
+
+        void onFailure(Throwable failure) {
+            future.completeExceptionally(failure);
+        }
+
+        void releaseChannel(boolean reuse) {
+            final Channel releasedChannel;
+            synchronized (this) {
+                if (channel == null || released) {
+                    return;
+                }
+                released = true;
+                releasedChannel = channel;
+            }
+            releasedChannel.attr(EXCHANGE).set(null);
+            if (!reuse) {
+                releasedChannel.close();
+            }
+            pool.release(releasedChannel);
+        }
+
+        private void complete(TransportResponse transportResponse) {
+            if (!future.complete(transportResponse)) {
+                try {
+                    transportResponse.close();
+                } catch (IOException e) {
+                    log.debug("Could not release the response.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the aggregated responses over to the exchanges of their channels.
+     */
+    @ChannelHandler.Sharable
+    private static final class ResponseHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            final Exchange exchange = ctx.channel().attr(EXCHANGE).get();
+            if (exchange == null || !(msg instanceof FullHttpResponse)) {
+                ReferenceCountUtil.release(msg);
+                return;
+            }
+            exchange.onResponse((FullHttpResponse) msg);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            final Exchange exchange = ctx.channel().attr(EXCHANGE).get();
+            if (exchange != null) {
+                exchange.onFailure(new IOException("Connection closed before the response was received"));
+            }
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            final Exchange exchange = ctx.channel().attr(EXCHANGE).get();
+            if (exchange != null) {
+                exchange.onFailure(cause);
+            } else {
+                log.debug("Closing idle connection after failure", cause);
+                ctx.close();
+            }
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent && ctx.channel().attr(EXCHANGE).get() == null) {
+                ctx.close();
+            } else {
+                super.userEventTriggered(ctx, evt);
+            }
+        }
+    }
+}
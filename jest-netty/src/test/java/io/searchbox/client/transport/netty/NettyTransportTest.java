@@ -0,0 +1,192 @@
+package io.searchbox.client.transport.netty;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.DocumentResult;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NettyTransportTest {
+
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<RecordedRequest>();
+    private HttpServer server;
+    private String serverUri;
+    private volatile long responseDelayMillis;
+    private volatile String responseBody = "{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"1\",\"found\":true,\"_source\":{}}";
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.add(new RecordedRequest(exchange));
+                if (responseDelayMillis > 0) {
+                    try {
+                        Thread.sleep(responseDelayMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                final byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                final OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+        serverUri = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void requestIsSentWithBodyAndHeaders() throws IOException {
+        final NettyTransport transport = new NettyTransport(new NettyClientConfig.Builder(serverUri)
+                .defaultCredentials("user", "pass")
+                .build());
+        try {
+            final byte[] body = "{\"user\":\"kimchy\"}".getBytes(StandardCharsets.UTF_8);
+            final TransportResponse response = transport.execute(new TransportRequest("PUT", serverUri + "/twitter/tweet/1?refresh=true",
+                    body, ImmutableMap.of("Content-Type", "application/json", "X-Opaque-Id", "request-1")));
+
+            assertEquals(200, response.getStatusCode());
+            assertEquals("OK", response.getReasonPhrase());
+            assertEquals("application/json; charset=UTF-8", response.getHeader("content-type"));
+            assertEquals(responseBody, new String(response.getBody(), StandardCharsets.UTF_8));
+            final RecordedRequest request = requests.get(0);
+            assertEquals("PUT", request.method);
+            assertEquals("/twitter/tweet/1?refresh=true", request.uri);
+            assertArrayEquals(body, request.body);
+            assertEquals("Basic dXNlcjpwYXNz", request.headers.getFirst("Authorization"));
+            assertEquals("request-1", request.headers.getFirst("X-Opaque-Id"));
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Test
+    public void clientExecutesActions() throws Exception {
+        final NettyClientFactory factory = new NettyClientFactory();
+        factory.setNettyClientConfig(new NettyClientConfig.Builder(serverUri).build());
+        final JestClient client = factory.getObject();
+        try {
+            final DocumentResult result = client.execute(new Get.Builder("twitter", "1").type("tweet").build());
+            assertTrue(result.isSucceeded());
+            assertEquals("1", result.getId());
+
+            responseBody = "{\"took\":1,\"errors\":false,\"items\":[{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"2\",\"status\":201}}]}";
+            final BulkResult bulkResult = client.executeAsync(new Bulk.Builder().defaultIndex("twitter").defaultType("tweet")
+                    .addAction(new Index.Builder(ImmutableMap.of("user", "kimchy")).id("2").build())
+                    .build()).get(5, TimeUnit.SECONDS);
+            assertTrue(bulkResult.isSucceeded());
+            assertEquals(1, bulkResult.getItems().size());
+
+            final RecordedRequest request = requests.get(1);
+            assertEquals("POST", request.method);
+            assertEquals("{\"index\":{\"_id\":\"2\"}}\n{\"user\":\"kimchy\"}\n", new String(request.body, StandardCharsets.UTF_8));
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void refusedConnectionFailsAsConnectException() throws Exception {
+        final ServerSocket socket = new ServerSocket(0);
+        final int port = socket.getLocalPort();
+        socket.close();
+        final NettyTransport transport = new NettyTransport(new NettyClientConfig.Builder(serverUri).build());
+        final TransportRequest request = new TransportRequest("GET", "http://127.0.0.1:" + port + "/",
+                (byte[]) null, Collections.<String, String>emptyMap());
+        try {
+            transport.executeAsync(request).get(5, TimeUnit.SECONDS);
+            fail("Expected the connection to be refused");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConnectException);
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Test
+    public void requestTimesOut() throws Exception {
+        responseDelayMillis = 2000;
+        final NettyTransport transport = new NettyTransport(new NettyClientConfig.Builder(serverUri)
+                .readTimeout(200)
+                .build());
+        try {
+            transport.execute(new TransportRequest("GET", serverUri + "/", (byte[]) null, Collections.<String, String>emptyMap()));
+            fail("Expected the request to time out");
+        } catch (SocketTimeoutException e) {
+            // expected
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Test
+    public void responseStreamingIsEnabledByDefault() {
+        assertTrue(new NettyClientConfig.Builder(serverUri).build().isResponseStreamingEnabled());
+        assertFalse(new NettyClientConfig.Builder(serverUri).responseStreamingEnabled(false).build().isResponseStreamingEnabled());
+        assertEquals(NettyClientConfig.DEFAULT_MAX_CONNECTIONS_PER_ROUTE,
+                new NettyClientConfig.Builder(serverUri).build().getMaxConnectionsPerRoute());
+    }
+
+    private static class RecordedRequest {
+        final String method;
+        final String uri;
+        final Headers headers;
+        final byte[] body;
+
+        RecordedRequest(HttpExchange exchange) throws IOException {
+            this.method = exchange.getRequestMethod();
+            this.uri = exchange.getRequestURI().toString();
+            this.headers = exchange.getRequestHeaders();
+            final InputStream in = exchange.getRequestBody();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[256];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            this.body = out.toByteArray();
+        }
+    }
+}
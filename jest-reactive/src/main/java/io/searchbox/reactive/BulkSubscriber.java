@@ -0,0 +1,324 @@
+package io.searchbox.reactive;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Indexes the actions of a publisher with bulks executed by the async client. At most
+ * <code>bulkSize * maxConcurrentBulks</code> actions are requested upfront and more are only requested as bulks
+ * complete, so that a fast publisher is slowed down to the pace of the cluster instead of piling up requests.
+ * <br/>
+ * Bulks are sent once full; the remaining actions are sent when the publisher completes, or once the flush interval
+ * elapses if one is set (e.g.: for a publisher of sporadic actions that never completes). Partial bulks are not sent
+ * while <code>maxConcurrentBulks</code> are in flight. Failed items do not stop
+ * the subscriber (they are reported to the result handler), but a bulk that fails as a whole cancels the
+ * subscription and completes {@link #getCompletion()} exceptionally. Actions buffered when the publisher fails are
+ * dropped.
+ */
+public class BulkSubscriber implements Subscriber<BulkableAction> {
+
+    final static Logger log = LoggerFactory.getLogger(BulkSubscriber.class);
+
+    private final JestClient client;
+    private final int bulkSize;
+    private final int maxConcurrentBulks;
+    private final String defaultIndex;
+    private final String defaultType;
+    private final JestResultHandler<? super BulkResult> resultHandler;
+    private final long flushInterval;
+    private final TimeUnit flushIntervalTimeUnit;
+    private final CompletableFuture<Void> completion = new CompletableFuture<Void>();
+
+    private final Object lock = new Object();
+    private Subscription subscription;
+    private List<BulkableAction> buffer;
+    private int inFlightBulks;
+    private boolean upstreamDone;
+
+    protected BulkSubscriber(Builder builder) {
+        this.client = builder.client;
+        this.bulkSize = builder.bulkSize;
+        this.maxConcurrentBulks = builder.maxConcurrentBulks;
+        this.defaultIndex = builder.defaultIndex;
+        this.defaultType = builder.defaultType;
+        this.resultHandler = builder.resultHandler;
+        this.flushInterval = builder.flushInterval;
+        this.flushIntervalTimeUnit = builder.flushIntervalTimeUnit;
+        this.buffer = new ArrayList<BulkableAction>(bulkSize);
+    }
+
+    /**
+     * @return a future completed once all actions were sent and their bulks completed, or exceptionally if the
+     * publisher or a bulk failed
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("subscription");
+        }
+        synchronized (lock) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        }
+        if (flushInterval > 0) {
+            scheduleFlush();
+        }
+        subscription.request((long) bulkSize * maxConcurrentBulks);
+    }
+
+    private void scheduleFlush() {
+        final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("jest-bulk-subscriber-%d")
+                        .build());
+        flushScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (RuntimeException e) {
+                    log.error("Exception occurred while flushing the bulk subscriber.", e);
+                }
+            }
+        }, flushInterval, flushInterval, flushIntervalTimeUnit);
+        completion.whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable failure) {
+                flushScheduler.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Sends the buffered actions, unless there are none or <code>maxConcurrentBulks</code> are in flight.
+     */
+    private void flush() {
+        final List<BulkableAction> batch;
+        synchronized (lock) {
+            if (completion.isDone() || buffer.isEmpty() || inFlightBulks >= maxConcurrentBulks) {
+                return;
+            }
+            batch = takeBuffer();
+        }
+        send(batch);
+    }
+
+    @Override
+    public void onNext(BulkableAction action) {
+        if (action == null) {
+            throw new NullPointerException("action");
+        }
+        final List<BulkableAction> batch;
+        synchronized (lock) {
+            if (completion.isDone()) {
+                return;
+            }
+            buffer.add(action);
+            // after partial bulks, a full one waits for a bulk in flight to complete
+            if (buffer.size() < bulkSize || inFlightBulks >= maxConcurrentBulks) {
+                return;
+            }
+            batch = takeBuffer();
+        }
+        send(batch);
+    }
+
+    @Override
+    public void onError(Throwable failure) {
+        if (failure == null) {
+            throw new NullPointerException("failure");
+        }
+        synchronized (lock) {
+            upstreamDone = true;
+            buffer.clear();
+        }
+        completion.completeExceptionally(failure);
+    }
+
+    @Override
+    public void onComplete() {
+        final List<BulkableAction> batch;
+        synchronized (lock) {
+            upstreamDone = true;
+            // otherwise sent once a bulk in flight completes
+            batch = buffer.isEmpty() || inFlightBulks >= maxConcurrentBulks ? null : takeBuffer();
+            if (batch == null && buffer.isEmpty() && inFlightBulks == 0) {
+                completion.complete(null);
+                return;
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Takes at most a bulk of buffered actions. Must be called while holding the lock.
+     */
+    private List<BulkableAction> takeBuffer() {
+        final List<BulkableAction> batch;
+        if (buffer.size() <= bulkSize) {
+            batch = buffer;
+            buffer = new ArrayList<BulkableAction>(bulkSize);
+        } else {
+            final List<BulkableAction> head = buffer.subList(0, bulkSize);
+            batch = new ArrayList<BulkableAction>(head);
+            head.clear();
+        }
+        inFlightBulks++;
+        return batch;
+    }
+
+    private void send(final List<BulkableAction> batch) {
+        final Bulk bulk = new Bulk.Builder()
+                .defaultIndex(defaultIndex)
+                .defaultType(defaultType)
+                .addAction(batch)
+                .build();
+        log.debug("Sending bulk of {} actions", batch.size());
+        client.executeAsync(bulk).whenComplete(new BiConsumer<BulkResult, Throwable>() {
+            @Override
+            public void accept(BulkResult result, Throwable failure) {
+                onBulkComplete(batch.size(), result, failure);
+            }
+        });
+    }
+
+    private void onBulkComplete(int size, BulkResult result, Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure == null && !result.isSucceeded() && result.getItemCount() == 0) {
+            failure = new IOException("Bulk failed: " + result.getErrorMessage());
+        }
+
+        if (resultHandler != null) {
+            if (failure == null) {
+                resultHandler.completed(result);
+            } else {
+                resultHandler.failed(failure instanceof Exception ? (Exception) failure : new IOException(failure));
+            }
+        }
+
+        final List<BulkableAction> batch;
+        final boolean requestMore;
+        final boolean done;
+        synchronized (lock) {
+            inFlightBulks--;
+            // a full bulk held back by partial ones, or the remaining actions once the publisher completed
+            batch = failure == null && !completion.isDone()
+                    && (buffer.size() >= bulkSize || upstreamDone && !buffer.isEmpty()) ? takeBuffer() : null;
+            requestMore = failure == null && !upstreamDone && !completion.isDone();
+            done = failure == null && upstreamDone && inFlightBulks == 0 && buffer.isEmpty();
+        }
+
+        if (failure != null) {
+            log.warn("Bulk of {} actions failed, cancelling the subscription", size, failure);
+            subscription.cancel();
+            completion.completeExceptionally(failure);
+        } else if (done) {
+            completion.complete(null);
+        } else {
+            if (batch != null) {
+                send(batch);
+            }
+            if (requestMore) {
+                subscription.request(size);
+            }
+        }
+    }
+
+    public static class Builder {
+        private final JestClient client;
+        private int bulkSize = 1000;
+        private int maxConcurrentBulks = 1;
+        private String defaultIndex;
+        private String defaultType;
+        private JestResultHandler<? super BulkResult> resultHandler;
+        private long flushInterval = -1;
+        private TimeUnit flushIntervalTimeUnit = TimeUnit.SECONDS;
+
+        public Builder(JestClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Number of actions per bulk, defaults to 1000.
+         */
+        public Builder bulkSize(int bulkSize) {
+            if (bulkSize < 1) {
+                throw new IllegalArgumentException("bulkSize must be positive");
+            }
+            this.bulkSize = bulkSize;
+            return this;
+        }
+
+        /**
+         * Number of bulks executed concurrently, defaults to 1.
+         */
+        public Builder maxConcurrentBulks(int maxConcurrentBulks) {
+            if (maxConcurrentBulks < 1) {
+                throw new IllegalArgumentException("maxConcurrentBulks must be positive");
+            }
+            this.maxConcurrentBulks = maxConcurrentBulks;
+            return this;
+        }
+
+        /**
+         * Interval after which the buffered actions are sent even though the bulk is not full, disabled by default.
+         */
+        public Builder flushInterval(long flushInterval, TimeUnit flushIntervalTimeUnit) {
+            this.flushInterval = flushInterval;
+            this.flushIntervalTimeUnit = flushIntervalTimeUnit;
+            return this;
+        }
+
+        public Builder defaultIndex(String defaultIndex) {
+            this.defaultIndex = defaultIndex;
+            return this;
+        }
+
+        public Builder defaultType(String defaultType) {
+            this.defaultType = defaultType;
+            return this;
+        }
+
+        /**
+         * Handler notified of the outcome of each bulk, e.g.: to inspect its failed items.
+         */
+        public Builder resultHandler(JestResultHandler<? super BulkResult> resultHandler) {
+            this.resultHandler = resultHandler;
+            return this;
+        }
+
+        public BulkSubscriber build() {
+            return new BulkSubscriber(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package io.searchbox.reactive;
+
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.core.ClearScroll;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult;
+import io.searchbox.core.SearchResult.Hit;
+import io.searchbox.core.SearchScroll;
+import io.searchbox.params.Parameters;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Publishes the hits of a scrolled search, fetching the next page with the async client only once all hits of the
+ * current page were requested by the subscriber, so that a slow subscriber slows down the scroll instead of
+ * buffering the whole result set.
+ * <br/>
+ * Each subscription runs its own scroll, starting with the given search which must have the
+ * {@link Parameters#SCROLL scroll} parameter (its keep alive is used for the subsequent pages too). The scroll is
+ * cleared once the subscription completes, fails or is cancelled.
+ */
+public class ScrollPublisher<T> implements Publisher<Hit<T, Void>> {
+
+    final static Logger log = LoggerFactory.getLogger(ScrollPublisher.class);
+
+    private final JestClient client;
+    private final Search search;
+    private final Class<T> sourceType;
+    private final String scroll;
+
+    public ScrollPublisher(JestClient client, Search search, Class<T> sourceType) {
+        final Collection<Object> scroll = search.getParameter(Parameters.SCROLL);
+        if (scroll == null || scroll.isEmpty()) {
+            throw new IllegalArgumentException("The search must have the scroll parameter");
+        }
+        this.client = client;
+        this.search = search;
+        this.sourceType = sourceType;
+        this.scroll = scroll.iterator().next().toString();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Hit<T, Void>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        subscriber.onSubscribe(new ScrollSubscription(subscriber));
+    }
+
+    /**
+     * All state is only accessed by the thread running {@link #drain()}, which serializes the requests of the
+     * subscriber and the pages received from the client.
+     */
+    private class ScrollSubscription implements Subscription {
+        private final Subscriber<? super Hit<T, Void>> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Queue<Hit<T, Void>> hits = new ArrayDeque<Hit<T, Void>>();
+
+        private volatile boolean cancelled;
+        private volatile Throwable requestError;
+        private volatile JestResult page;
+        private volatile Throwable pageFailure;
+
+        private String scrollId;
+        private boolean fetching;
+        private boolean lastPage;
+        private boolean terminated;
+
+        ScrollSubscription(Subscriber<? super Hit<T, Void>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (fetching && (page != null || pageFailure != null)) {
+                    onPage();
+                }
+
+                if (!terminated) {
+                    if (cancelled) {
+                        terminated = true;
+                        hits.clear();
+                    } else if (requestError != null || pageFailure != null) {
+                        terminated = true;
+                        hits.clear();
+                        subscriber.onError(requestError != null ? requestError : pageFailure);
+                    } else {
+                        emit();
+                    }
+                }
+
+                if (terminated && !fetching && scrollId != null) {
+                    clearScroll(scrollId);
+                    scrollId = null;
+                }
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            final long r = requested.get();
+            long emitted = 0;
+            while (emitted != r && !cancelled) {
+                final Hit<T, Void> hit = hits.poll();
+                if (hit == null) {
+                    break;
+                }
+                subscriber.onNext(hit);
+                emitted++;
+            }
+            if (emitted != 0 && r != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+
+            if (!cancelled && hits.isEmpty()) {
+                if (lastPage) {
+                    terminated = true;
+                    subscriber.onComplete();
+                } else if (!fetching && requested.get() > 0) {
+                    fetchNextPage();
+                }
+            }
+        }
+
+        private void fetchNextPage() {
+            fetching = true;
+            final CompletableFuture<? extends JestResult> future = scrollId == null
+                    ? client.executeAsync(search)
+                    : client.executeAsync(new SearchScroll.Builder(scrollId, scroll).build());
+            future.whenComplete(new BiConsumer<JestResult, Throwable>() {
+                @Override
+                public void accept(JestResult result, Throwable failure) {
+                    if (failure != null) {
+                        pageFailure = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                    } else {
+                        page = result;
+                    }
+                    drain();
+                }
+            });
+        }
+
+        private void onPage() {
+            final JestResult result = page;
+            page = null;
+            fetching = false;
+            if (result == null) {
+                return;
+            }
+
+            final String nextScrollId = result.getJsonObject() == null
+                    ? null : result.getJsonObject().path("_scroll_id").asText(null);
+            if (nextScrollId != null) {
+                scrollId = nextScrollId;
+            }
+            if (!result.isSucceeded()) {
+                pageFailure = new IOException("Scroll failed: " + result.getErrorMessage());
+                return;
+            }
+
+            final int size = hits.size();
+            hits.addAll(new SearchResult(result).getHits(sourceType));
+            lastPage = hits.size() == size;
+        }
+
+        private void clearScroll(String scrollId) {
+            client.executeAsync(new ClearScroll.Builder().addScrollId(scrollId).build())
+                    .whenComplete(new BiConsumer<JestResult, Throwable>() {
+                        @Override
+                        public void accept(JestResult result, Throwable failure) {
+                            if (failure != null) {
+                                log.debug("Could not clear scroll; it expires after its keep alive.", failure);
+                            }
+                        }
+                    });
+        }
+    }
+}
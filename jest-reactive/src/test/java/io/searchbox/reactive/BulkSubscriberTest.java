@@ -0,0 +1,141 @@
+package io.searchbox.reactive;
+
+import io.searchbox.action.BulkableAction;
+import io.searchbox.client.StubJestClient;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.Index;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static io.searchbox.client.StubJestClient.acknowledgingBulks;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkSubscriberTest {
+
+    @Test
+    public void demandFollowsCompletedBulks() throws IOException {
+        StubJestClient client = new StubJestClient(acknowledgingBulks()).holdAsyncRequests();
+        BulkSubscriber subscriber = new BulkSubscriber.Builder(client)
+                .bulkSize(2)
+                .maxConcurrentBulks(2)
+                .defaultIndex("twitter")
+                .defaultType("tweet")
+                .build();
+        TestSubscription subscription = new TestSubscription();
+
+        subscriber.onSubscribe(subscription);
+        assertEquals(4, subscription.requested);
+
+        subscriber.onNext(index("1"));
+        assertEquals(0, client.getHeldRequests().size());
+        subscriber.onNext(index("2"));
+        subscriber.onNext(index("3"));
+        subscriber.onNext(index("4"));
+        assertEquals(2, client.getHeldRequests().size());
+        assertEquals("no demand until a bulk completes", 4, subscription.requested);
+
+        client.completeNext();
+        assertEquals(6, subscription.requested);
+
+        subscriber.onNext(index("5"));
+        subscriber.onComplete();
+        assertEquals("partial bulk is sent on completion", 2, client.getHeldRequests().size());
+        assertEquals("twitter", ((Bulk) client.getHeldRequests().get(1)).getDefaultIndex());
+        assertEquals(1, ((Bulk) client.getHeldRequests().get(1)).getActions().size());
+
+        client.completeNext();
+        assertTrue(!subscriber.getCompletion().isDone());
+        client.completeNext();
+        assertTrue(subscriber.getCompletion().isDone());
+        assertTrue(!subscriber.getCompletion().isCompletedExceptionally());
+    }
+
+    @Test
+    public void failedBulkCancelsSubscription() {
+        StubJestClient client = new StubJestClient(acknowledgingBulks()).holdAsyncRequests();
+        BulkSubscriber subscriber = new BulkSubscriber.Builder(client).bulkSize(1).build();
+        TestSubscription subscription = new TestSubscription();
+
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(index("1"));
+        client.failNext(new IOException("Connection refused"));
+
+        assertTrue(subscription.cancelled);
+        assertTrue(subscriber.getCompletion().isCompletedExceptionally());
+        assertEquals(1, subscription.requested);
+    }
+
+    @Test
+    public void secondSubscriptionIsCancelled() {
+        BulkSubscriber subscriber = new BulkSubscriber.Builder(new StubJestClient(acknowledgingBulks())).build();
+        subscriber.onSubscribe(new TestSubscription());
+        TestSubscription second = new TestSubscription();
+        subscriber.onSubscribe(second);
+        assertTrue(second.cancelled);
+        assertEquals(0, second.requested);
+    }
+
+    @Test
+    public void partialBulkIsSentAfterFlushInterval() throws Exception {
+        StubJestClient client = new StubJestClient(acknowledgingBulks()).holdAsyncRequests();
+        BulkSubscriber subscriber = new BulkSubscriber.Builder(client)
+                .bulkSize(10)
+                .flushInterval(50, TimeUnit.MILLISECONDS)
+                .build();
+        TestSubscription subscription = new TestSubscription();
+
+        // a publisher of fewer actions than a bulk, which does not complete
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(index("1"));
+        subscriber.onNext(index("2"));
+        subscriber.onNext(index("3"));
+        awaitHeldRequests(client, 1);
+        assertEquals(3, ((Bulk) client.getHeldRequests().get(0)).getActions().size());
+
+        subscriber.onNext(index("4"));
+        Thread.sleep(200);
+        assertEquals("no partial bulk while maxConcurrentBulks are in flight", 1, client.getHeldRequests().size());
+
+        client.completeNext();
+        assertEquals(13, subscription.requested);
+        awaitHeldRequests(client, 1);
+        assertEquals(1, ((Bulk) client.getHeldRequests().get(0)).getActions().size());
+
+        subscriber.onComplete();
+        client.completeNext();
+        assertTrue(subscriber.getCompletion().isDone());
+        assertTrue(!subscriber.getCompletion().isCompletedExceptionally());
+    }
+
+    private static void awaitHeldRequests(StubJestClient client, int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.getHeldRequests().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, client.getHeldRequests().size());
+    }
+
+    private static BulkableAction index(String id) {
+        return new Index.Builder(Collections.singletonMap("user", "kimchy")).id(id).build();
+    }
+
+    private static class TestSubscription implements Subscription {
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
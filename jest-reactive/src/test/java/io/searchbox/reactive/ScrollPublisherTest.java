@@ -0,0 +1,164 @@
+package io.searchbox.reactive;
+
+import io.searchbox.action.Action;
+import io.searchbox.client.StubJestClient;
+import io.searchbox.core.ClearScroll;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult.Hit;
+import io.searchbox.core.SearchScroll;
+import io.searchbox.params.Parameters;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.searchbox.client.StubJestClient.ok;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScrollPublisherTest {
+
+    @Test
+    public void pagesAreFetchedOnDemand() {
+        StubJestClient client = new StubJestClient(new ScrollResponder(3, 2));
+        TestSubscriber subscriber = new TestSubscriber();
+        new ScrollPublisher<Map>(client, search(), Map.class).subscribe(subscriber);
+
+        assertEquals("nothing fetched without demand", 0, client.getRequests().size());
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.hits.size());
+        assertEquals(1, client.getRequests().size());
+
+        subscriber.subscription.request(1);
+        assertEquals(2, subscriber.hits.size());
+        assertEquals("page is not prefetched", 1, client.getRequests().size());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(6, subscriber.hits.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.failure);
+        assertEquals("doc-5", subscriber.hits.get(5).id);
+
+        assertTrue(client.getRequests().get(1) instanceof SearchScroll);
+        assertTrue(client.getRequests().get(client.getRequests().size() - 1) instanceof ClearScroll);
+    }
+
+    @Test
+    public void cancelClearsScroll() {
+        StubJestClient client = new StubJestClient(new ScrollResponder(3, 2));
+        TestSubscriber subscriber = new TestSubscriber();
+        new ScrollPublisher<Map>(client, search(), Map.class).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+
+        assertEquals(1, subscriber.hits.size());
+        assertFalse(subscriber.completed);
+        assertEquals(2, client.getRequests().size());
+        assertTrue(client.getRequests().get(1) instanceof ClearScroll);
+    }
+
+    @Test
+    public void failedPageIsSignalled() {
+        ScrollResponder pages = new ScrollResponder(3, 2);
+        pages.failScroll = true;
+        StubJestClient client = new StubJestClient(pages);
+        TestSubscriber subscriber = new TestSubscriber();
+        new ScrollPublisher<Map>(client, search(), Map.class).subscribe(subscriber);
+
+        subscriber.subscription.request(10);
+
+        assertEquals(2, subscriber.hits.size());
+        assertTrue(subscriber.failure instanceof IOException);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void nonPositiveRequestIsSignalled() {
+        TestSubscriber subscriber = new TestSubscriber();
+        new ScrollPublisher<Map>(new StubJestClient(new ScrollResponder(1, 1)), search(), Map.class).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.failure instanceof IllegalArgumentException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void searchWithoutScrollIsRejected() {
+        new ScrollPublisher<Map>(new StubJestClient(new ScrollResponder(1, 1)), new Search.Builder("{}").build(), Map.class);
+    }
+
+    private static Search search() {
+        return new Search.Builder("{}").addIndex("twitter").setParameter(Parameters.SCROLL, "1m").build();
+    }
+
+    /**
+     * Answers the search and scroll requests with pages of the given size.
+     */
+    private static class ScrollResponder implements StubJestClient.Responder {
+        final int pages;
+        final int pageSize;
+        volatile boolean failScroll;
+        int page;
+
+        ScrollResponder(int pages, int pageSize) {
+            this.pages = pages;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public StubJestClient.Response respond(Action<?> request) {
+            if (request instanceof ClearScroll) {
+                return ok("{\"succeeded\":true}");
+            }
+            if (request instanceof SearchScroll && failScroll) {
+                return new StubJestClient.Response(404, "{\"error\":\"No search context found\"}");
+            }
+
+            StringBuilder response = new StringBuilder("{\"_scroll_id\":\"scroll-" + page + "\",\"hits\":{\"hits\":[");
+            if (page < pages) {
+                for (int i = 0; i < pageSize; i++) {
+                    response.append(i == 0 ? "" : ",")
+                            .append("{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"doc-")
+                            .append(page * pageSize + i).append("\",\"_source\":{\"user\":\"kimchy\"}}");
+                }
+            }
+            page++;
+            return ok(response.append("]}}").toString());
+        }
+    }
+
+    private static class TestSubscriber implements Subscriber<Hit<Map, Void>> {
+        final List<Hit<Map, Void>> hits = new CopyOnWriteArrayList<Hit<Map, Void>>();
+        volatile Subscription subscription;
+        volatile Throwable failure;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Hit<Map, Void> hit) {
+            hits.add(hit);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -3,9 +3,13 @@ package io.searchbox.client;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import io.searchbox.client.config.HttpClientConfig;
+import io.searchbox.client.config.discovery.AsyncNodeChecker;
 import io.searchbox.client.config.discovery.NodeChecker;
 import io.searchbox.client.config.idle.HttpReapableConnectionManager;
 import io.searchbox.client.config.idle.IdleConnectionReaper;
+import io.searchbox.client.config.pool.ConnectionPoolMonitor;
+import io.searchbox.client.config.pool.MonitoredHttpClientConnectionManager;
+import io.searchbox.client.config.pool.MonitoredNHttpClientConnectionManager;
 import io.searchbox.client.http.JestHttpClient;
 import org.apache.http.HttpHost;
 import org.apache.http.client.AuthCache;
@@ -33,11 +37,13 @@ import org.apache.http.impl.nio.reactor.IOReactorConfig;
 import org.apache.http.nio.conn.NHttpClientConnectionManager;
 import org.apache.http.nio.conn.SchemeIOSessionStrategy;
 import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Dogukan Sonmez
@@ -56,13 +62,39 @@ public class JestClientFactory {
         }
 
         client.setRequestCompressionEnabled(httpClientConfig.isRequestCompressionEnabled());
+        if (httpClientConfig.getRequestCompressionPolicy() != null) {
+            client.setRequestCompressionPolicy(httpClientConfig.getRequestCompressionPolicy());
+        }
+        client.setResponseCompressionEnabled(httpClientConfig.isResponseCompressionEnabled());
+        client.setResponseStreamingEnabled(httpClientConfig.isResponseStreamingEnabled());
+        client.setLazyResponseParsingEnabled(httpClientConfig.isLazyResponseParsingEnabled());
+        client.setContentFormat(httpClientConfig.getContentFormat());
+        if (httpClientConfig.getNodeSelector() != null) {
+            client.setNodeSelector(httpClientConfig.getNodeSelector());
+        }
+        client.setDeadNodeTimeout(httpClientConfig.getMinDeadNodeTimeout(), httpClientConfig.getMaxDeadNodeTimeout(),
+                httpClientConfig.getDeadNodeTimeoutTimeUnit());
+        client.setPreferredNodeAttributes(httpClientConfig.getPreferredNodeAttributes());
         client.setServers(httpClientConfig.getServerList());
-        final HttpClientConnectionManager connectionManager = getConnectionManager();
-        final NHttpClientConnectionManager asyncConnectionManager = getAsyncConnectionManager();
+        final HttpClientConnectionManager connectionManager = monitorConnectionManager(getConnectionManager());
+        final NHttpClientConnectionManager asyncConnectionManager = monitorAsyncConnectionManager(getAsyncConnectionManager());
         client.setHttpClient(createHttpClient(connectionManager));
         client.setAsyncClient(createAsyncHttpClient(asyncConnectionManager));
+        client.setConnectionManager(connectionManager);
+        client.setAsyncConnectionManager(asyncConnectionManager);
+        if (httpClientConfig.getMetricsListener() != null) {
+            client.setMetricsListener(httpClientConfig.getMetricsListener());
+        }
 
         client.setRetryHandler(httpClientConfig.getRetryHandler());
+        if (httpClientConfig.getRetryBackoff() != null) {
+            client.setRetryBackoff(httpClientConfig.getRetryBackoff());
+        }
+        client.setRetryBudget(httpClientConfig.getRetryBudget());
+        client.setHedgingPolicy(httpClientConfig.getHedgingPolicy());
+        if (httpClientConfig.getConnTimeout() > 0 && httpClientConfig.getReadTimeout() > 0) {
+            client.setAttemptTimeout(httpClientConfig.getConnTimeout() + httpClientConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+        }
 
         // set custom ObjectMapper instance
         ObjectMapper objectMapper = httpClientConfig.getObjectMapper();
@@ -245,8 +277,40 @@ public class JestClientFactory {
         return retval;
     }
 
+    /**
+     * Wraps the connection manager to record the time waited for connections if it is pooling.
+     */
+    @SuppressWarnings("unchecked")
+    private HttpClientConnectionManager monitorConnectionManager(HttpClientConnectionManager connectionManager) {
+        if (!(connectionManager instanceof ConnPoolControl)) {
+            return connectionManager;
+        }
+        return new MonitoredHttpClientConnectionManager(connectionManager,
+                createConnectionPoolMonitor((ConnPoolControl<HttpRoute>) connectionManager));
+    }
+
+    /**
+     * Wraps the async connection manager to record the time waited for connections if it is pooling.
+     */
+    @SuppressWarnings("unchecked")
+    private NHttpClientConnectionManager monitorAsyncConnectionManager(NHttpClientConnectionManager connectionManager) {
+        if (!(connectionManager instanceof ConnPoolControl)) {
+            return connectionManager;
+        }
+        return new MonitoredNHttpClientConnectionManager(connectionManager,
+                createConnectionPoolMonitor((ConnPoolControl<HttpRoute>) connectionManager));
+    }
+
+    private ConnectionPoolMonitor createConnectionPoolMonitor(ConnPoolControl<HttpRoute> pool) {
+        return new ConnectionPoolMonitor(pool, httpClientConfig.getLeaseWaitThreshold(),
+                httpClientConfig.getLeaseWaitThresholdTimeUnit(), httpClientConfig.getLeaseWaitListener());
+    }
+
     // Extension point
     protected NodeChecker createNodeChecker(JestHttpClient client, HttpClientConfig httpClientConfig) {
+        if (httpClientConfig.getDiscoveryParallelProbes() > 0) {
+            return new AsyncNodeChecker(client, httpClientConfig);
+        }
         return new NodeChecker(client, httpClientConfig);
     }
 
@@ -1,7 +1,9 @@
 package io.searchbox.client.config;
 
+import io.searchbox.client.HedgingPolicy;
 import io.searchbox.client.JestRetryHandler;
 import io.searchbox.client.NoopRetryHandler;
+import io.searchbox.client.config.pool.LeaseWaitListener;
 import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -28,6 +30,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Dogukan Sonmez
@@ -47,6 +50,12 @@ public class HttpClientConfig extends ClientConfig {
     private final SchemeIOSessionStrategy httpsIOSessionStrategy;
     private final JestRetryHandler<HttpUriRequest> retryHandler;
     private Set<HttpHost> preemptiveAuthTargetHosts;
+    private final int discoveryParallelProbes;
+    private final long discoveryProbeTimeout;
+    private final TimeUnit discoveryProbeTimeoutTimeUnit;
+    private final long leaseWaitThreshold;
+    private final TimeUnit leaseWaitThresholdTimeUnit;
+    private final LeaseWaitListener leaseWaitListener;
 
     public HttpClientConfig(Builder builder) {
         super(builder);
@@ -62,6 +71,12 @@ public class HttpClientConfig extends ClientConfig {
         this.httpsIOSessionStrategy = builder.httpsIOSessionStrategy;
         this.retryHandler = builder.retryHandler;
         this.preemptiveAuthTargetHosts = builder.preemptiveAuthTargetHosts;
+        this.discoveryParallelProbes = builder.discoveryParallelProbes;
+        this.discoveryProbeTimeout = builder.discoveryProbeTimeout;
+        this.discoveryProbeTimeoutTimeUnit = builder.discoveryProbeTimeoutTimeUnit;
+        this.leaseWaitThreshold = builder.leaseWaitThreshold;
+        this.leaseWaitThresholdTimeUnit = builder.leaseWaitThresholdTimeUnit;
+        this.leaseWaitListener = builder.leaseWaitListener;
     }
 
     public Map<HttpRoute, Integer> getMaxTotalConnectionPerRoute() {
@@ -112,6 +127,30 @@ public class HttpClientConfig extends ClientConfig {
         return preemptiveAuthTargetHosts;
     }
 
+    public int getDiscoveryParallelProbes() {
+        return discoveryParallelProbes;
+    }
+
+    public long getDiscoveryProbeTimeout() {
+        return discoveryProbeTimeout;
+    }
+
+    public TimeUnit getDiscoveryProbeTimeoutTimeUnit() {
+        return discoveryProbeTimeoutTimeUnit;
+    }
+
+    public long getLeaseWaitThreshold() {
+        return leaseWaitThreshold;
+    }
+
+    public TimeUnit getLeaseWaitThresholdTimeUnit() {
+        return leaseWaitThresholdTimeUnit;
+    }
+
+    public LeaseWaitListener getLeaseWaitListener() {
+        return leaseWaitListener;
+    }
+
     public static class Builder extends ClientConfig.AbstractBuilder<HttpClientConfig, Builder> {
 
         private Integer maxTotalConnection;
@@ -126,12 +165,24 @@ public class HttpClientConfig extends ClientConfig {
         private SchemeIOSessionStrategy httpsIOSessionStrategy;
         private JestRetryHandler<HttpUriRequest> retryHandler;
         private Set<HttpHost> preemptiveAuthTargetHosts = Collections.emptySet();
+        private int discoveryParallelProbes;
+        private long discoveryProbeTimeout = 2L;
+        private TimeUnit discoveryProbeTimeoutTimeUnit = TimeUnit.SECONDS;
+        private long leaseWaitThreshold;
+        private TimeUnit leaseWaitThresholdTimeUnit = TimeUnit.MILLISECONDS;
+        private LeaseWaitListener leaseWaitListener;
 
         public Builder(HttpClientConfig httpClientConfig) {
             super(httpClientConfig);
             this.maxTotalConnection = httpClientConfig.maxTotalConnection;
             this.defaultMaxTotalConnectionPerRoute = httpClientConfig.defaultMaxTotalConnectionPerRoute;
             this.maxTotalConnectionPerRoute = httpClientConfig.maxTotalConnectionPerRoute;
+            this.discoveryParallelProbes = httpClientConfig.discoveryParallelProbes;
+            this.discoveryProbeTimeout = httpClientConfig.discoveryProbeTimeout;
+            this.discoveryProbeTimeoutTimeUnit = httpClientConfig.discoveryProbeTimeoutTimeUnit;
+            this.leaseWaitThreshold = httpClientConfig.leaseWaitThreshold;
+            this.leaseWaitThresholdTimeUnit = httpClientConfig.leaseWaitThresholdTimeUnit;
+            this.leaseWaitListener = httpClientConfig.leaseWaitListener;
         }
 
         public Builder(Collection<String> serverUris) {
@@ -256,6 +307,18 @@ public class HttpClientConfig extends ClientConfig {
             return this;
         }
 
+        /**
+         * {@inheritDoc}
+         * <br/>
+         * The sync reads the policy can hedge are then all sent by the async client, hedged or not: they use the
+         * connection pool of the async client, are retried after the retry backoff, and the caller waits at most the
+         * connect timeout plus the read timeout after their last attempt started.
+         */
+        @Override
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            return super.hedgingPolicy(hedgingPolicy);
+        }
+
         /**
          * Sets preemptive authentication for the specified <b>target host</b> by pre-populating an authentication data cache.
          * <p>
@@ -284,6 +347,34 @@ public class HttpClientConfig extends ClientConfig {
             return this;
         }
 
+        /**
+         * Runs node discovery over the async client instead of blocking the discovery thread: each round queries
+         * up to the given number of nodes in parallel, each probe timing out after the given time, and merges the
+         * nodes they report. Disabled (i.e.: one blocking NodesInfo call per round) by default.
+         *
+         * @see io.searchbox.client.config.discovery.AsyncNodeChecker
+         */
+        public Builder asyncDiscovery(int parallelProbes, long probeTimeout, TimeUnit probeTimeoutTimeUnit) {
+            this.discoveryParallelProbes = parallelProbes;
+            this.discoveryProbeTimeout = probeTimeout;
+            this.discoveryProbeTimeoutTimeUnit = probeTimeoutTimeUnit;
+            return this;
+        }
+
+        /**
+         * Notifies the given listener whenever a request waits longer than the threshold for a connection of the
+         * sync or async pool (e.g.: to log pool exhaustion along with the stats of the route). The time waited for
+         * connections is recorded regardless.
+         *
+         * @see io.searchbox.client.http.JestHttpClient#getConnectionPoolStats()
+         */
+        public Builder leaseWaitListener(long threshold, TimeUnit thresholdTimeUnit, LeaseWaitListener leaseWaitListener) {
+            this.leaseWaitThreshold = threshold;
+            this.leaseWaitThresholdTimeUnit = thresholdTimeUnit;
+            this.leaseWaitListener = leaseWaitListener;
+            return this;
+        }
+
         public Builder proxy(HttpHost proxy) {
             return proxy(proxy, null);
         }
@@ -0,0 +1,202 @@
+package io.searchbox.client.config.discovery;
+
+import com.google.common.base.Joiner;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.config.HttpClientConfig;
+import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.http.JestHttpClient;
+import io.searchbox.client.node.Node;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Discovers nodes like {@link NodeChecker}, but sends the NodesInfo requests with the async client so that the
+ * discovery thread never blocks: each round probes up to a number of nodes of the pool in parallel, each with its
+ * own timeout, and updates the server pool once all probes completed.
+ * <br/>
+ * The nodes reported by all successful probes are merged; nodes that could not be connected to are removed from the
+ * pool. A new round is not started while the previous one is still running.
+ */
+public class AsyncNodeChecker extends NodeChecker {
+
+    private final static Logger log = LoggerFactory.getLogger(AsyncNodeChecker.class);
+
+    private final JestHttpClient httpClient;
+    private final int parallelProbes;
+    private final RequestConfig probeRequestConfig;
+    private final AtomicBoolean roundInProgress = new AtomicBoolean();
+
+    public AsyncNodeChecker(JestHttpClient jestClient, HttpClientConfig httpClientConfig) {
+        super(jestClient, httpClientConfig);
+        this.httpClient = jestClient;
+        this.parallelProbes = Math.max(1, httpClientConfig.getDiscoveryParallelProbes());
+
+        final int probeTimeout = (int) httpClientConfig.getDiscoveryProbeTimeoutTimeUnit()
+                .toMillis(httpClientConfig.getDiscoveryProbeTimeout());
+        this.probeRequestConfig = RequestConfig.custom()
+                .setConnectTimeout(probeTimeout)
+                .setSocketTimeout(probeTimeout)
+                .setConnectionRequestTimeout(probeTimeout)
+                .build();
+    }
+
+    @Override
+    protected void runOneIteration() throws Exception {
+        if (!roundInProgress.compareAndSet(false, true)) {
+            log.debug("Previous discovery round is still running, skipping this one");
+            return;
+        }
+
+        final List<Node> nodes = getNodesToProbe();
+        final Round round = new Round(nodes.size());
+        for (final Node node : nodes) {
+            try {
+                httpClient.executeAsync(action, new JestResultHandler<JestResult>() {
+                    @Override
+                    public void completed(JestResult result) {
+                        round.completed(node, result);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        round.failed(node, ex);
+                    }
+                }, probeRequestConfig, node);
+            } catch (Exception e) {
+                round.failed(node, e);
+            }
+        }
+    }
+
+    /**
+     * Fetches the cluster state with the async client, as this is called from the I/O thread completing a round.
+     */
+    @Override
+    protected void updateShardRoutingTable() {
+        try {
+            httpClient.executeAsync(clusterStateAction, new JestResultHandler<JestResult>() {
+                @Override
+                public void completed(JestResult result) {
+                    applyClusterState(result);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    log.warn("Error executing cluster state request for shard aware routing!", ex);
+                }
+            }, probeRequestConfig);
+        } catch (Exception e) {
+            log.warn("Error executing cluster state request for shard aware routing!", e);
+        }
+    }
+
+    /**
+     * @return up to the number of parallel probes nodes of the pool in random order, preferring the alive ones
+     */
+    protected List<Node> getNodesToProbe() {
+        final long now = System.nanoTime();
+        final List<Node> aliveNodes = new ArrayList<Node>();
+        final List<Node> deadNodes = new ArrayList<Node>();
+        for (Node node : httpClient.getNodes()) {
+            if (node.isAlive(now)) {
+                aliveNodes.add(node);
+            } else {
+                deadNodes.add(node);
+            }
+        }
+        Collections.shuffle(aliveNodes);
+        Collections.shuffle(deadNodes);
+        aliveNodes.addAll(deadNodes);
+        return aliveNodes.subList(0, Math.min(parallelProbes, aliveNodes.size()));
+    }
+
+    /**
+     * Outcome of the probes of one discovery round, applied to the pool by the last probe to complete.
+     */
+    private class Round {
+        private final Set<String> discoveredHosts = new LinkedHashSet<String>();
+        private final Set<String> unreachableHosts = new LinkedHashSet<String>();
+        private final List<JestResult> results = new ArrayList<JestResult>();
+        private int remainingProbes;
+        private boolean succeeded;
+
+        Round(int probes) {
+            this.remainingProbes = probes;
+            if (probes == 0) {
+                finish();
+            }
+        }
+
+        void completed(Node node, JestResult result) {
+            synchronized (this) {
+                if (result.isSucceeded()) {
+                    succeeded = true;
+                    discoveredHosts.addAll(getHttpHosts(result));
+                    results.add(result);
+                } else {
+                    log.warn("NodesInfo request to {} resulted in error: {}", node.getServer(), result.getErrorMessage());
+                }
+            }
+            probeDone();
+        }
+
+        void failed(Node node, Exception ex) {
+            synchronized (this) {
+                if (ex instanceof CouldNotConnectException || ex instanceof ConnectTimeoutException) {
+                    log.error("Connect exception executing NodesInfo on {}", node.getServer(), ex);
+                    unreachableHosts.add(node.getServer());
+                } else {
+                    log.error("Error executing NodesInfo on {}", node.getServer(), ex);
+                }
+            }
+            probeDone();
+        }
+
+        private void probeDone() {
+            synchronized (this) {
+                if (--remainingProbes > 0) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        private void finish() {
+            try {
+                if (succeeded) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Discovered {} HTTP hosts: {}", discoveredHosts.size(), Joiner.on(',').join(discoveredHosts));
+                    }
+                    discoveredServerList = new LinkedHashSet<String>(discoveredHosts);
+                    client.setServers(discoveredServerList);
+                    for (JestResult result : results) {
+                        updateNodeMetadata(result);
+                    }
+                    if (shardAwareRoutingEnabled) {
+                        updateShardRoutingTable();
+                    }
+                } else if (!unreachableHosts.isEmpty()) {
+                    for (String host : unreachableHosts) {
+                        removeNodeAndUpdateServers(host);
+                    }
+                } else {
+                    client.setServers(bootstrapServerList);
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not update the server pool", e);
+            } finally {
+                roundInProgress.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.searchbox.client.config.pool;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the connection requests of a pool, as seen by the connection manager wrapping it, and notifies the lease
+ * wait listener (if any) of the requests waiting longer than the threshold.
+ */
+public class ConnectionPoolMonitor {
+
+    private final ConnPoolControl<HttpRoute> pool;
+    private final long leaseWaitThresholdNanos;
+    private final LeaseWaitListener leaseWaitListener;
+    private final Set<HttpRoute> routes = Collections.newSetFromMap(new ConcurrentHashMap<HttpRoute, Boolean>());
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong failedLeaseCount = new AtomicLong();
+    private final AtomicLong totalLeaseWaitNanos = new AtomicLong();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+
+    /**
+     * @param leaseWaitListener may be null
+     */
+    public ConnectionPoolMonitor(ConnPoolControl<HttpRoute> pool, long leaseWaitThreshold, TimeUnit timeUnit,
+                                 LeaseWaitListener leaseWaitListener) {
+        this.pool = pool;
+        this.leaseWaitThresholdNanos = timeUnit.toNanos(leaseWaitThreshold);
+        this.leaseWaitListener = leaseWaitListener;
+    }
+
+    public ConnPoolControl<HttpRoute> getPool() {
+        return pool;
+    }
+
+    void onLeaseRequested(HttpRoute route) {
+        if (!routes.contains(route)) {
+            routes.add(route);
+        }
+    }
+
+    /**
+     * @param leased whether the request got a connection
+     */
+    void onLeaseEnd(HttpRoute route, long waitNanos, boolean leased) {
+        (leased ? leaseCount : failedLeaseCount).incrementAndGet();
+        totalLeaseWaitNanos.addAndGet(waitNanos);
+        long max = maxLeaseWaitNanos.get();
+        while (waitNanos > max && !maxLeaseWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxLeaseWaitNanos.get();
+        }
+
+        if (leaseWaitListener != null && waitNanos >= leaseWaitThresholdNanos) {
+            leaseWaitListener.onLeaseWaitExceeded(route, waitNanos, pool.getStats(route));
+        }
+    }
+
+    /**
+     * Routes left without any leased, pending or available connection (e.g. of nodes removed by discovery) are dropped
+     * from the route stats until they get a lease request again.
+     */
+    public ConnectionPoolStats getStats() {
+        final ImmutableMap.Builder<HttpRoute, PoolStats> routeStats = ImmutableMap.builder();
+        for (HttpRoute route : routes) {
+            final PoolStats stats = pool.getStats(route);
+            if (stats.getLeased() == 0 && stats.getPending() == 0 && stats.getAvailable() == 0) {
+                routes.remove(route);
+            } else {
+                routeStats.put(route, stats);
+            }
+        }
+        return new ConnectionPoolStats(pool.getTotalStats(), routeStats.build(), leaseCount.get(),
+                failedLeaseCount.get(), totalLeaseWaitNanos.get(), maxLeaseWaitNanos.get());
+    }
+}
@@ -0,0 +1,84 @@
+package io.searchbox.client.config.pool;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of a connection pool of the client: its leased, pending and available connections in total and per
+ * route, and the time requests spent waiting to lease a connection since the client was created.
+ */
+public class ConnectionPoolStats {
+
+    private final PoolStats totalStats;
+    private final Map<HttpRoute, PoolStats> routeStats;
+    private final long leaseCount;
+    private final long failedLeaseCount;
+    private final long totalLeaseWaitNanos;
+    private final long maxLeaseWaitNanos;
+
+    public ConnectionPoolStats(PoolStats totalStats, Map<HttpRoute, PoolStats> routeStats, long leaseCount,
+                               long failedLeaseCount, long totalLeaseWaitNanos, long maxLeaseWaitNanos) {
+        this.totalStats = totalStats;
+        this.routeStats = routeStats;
+        this.leaseCount = leaseCount;
+        this.failedLeaseCount = failedLeaseCount;
+        this.totalLeaseWaitNanos = totalLeaseWaitNanos;
+        this.maxLeaseWaitNanos = maxLeaseWaitNanos;
+    }
+
+    public PoolStats getTotalStats() {
+        return totalStats;
+    }
+
+    /**
+     * @return the stats of each route a connection was requested for
+     */
+    public Map<HttpRoute, PoolStats> getRouteStats() {
+        return routeStats;
+    }
+
+    /**
+     * @return the number of connections leased
+     */
+    public long getLeaseCount() {
+        return leaseCount;
+    }
+
+    /**
+     * @return the number of connection requests that timed out, failed or were cancelled
+     */
+    public long getFailedLeaseCount() {
+        return failedLeaseCount;
+    }
+
+    /**
+     * @return the time spent waiting for connections, by leased and failed requests
+     */
+    public long getTotalLeaseWaitTime(TimeUnit timeUnit) {
+        return timeUnit.convert(totalLeaseWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLeaseWaitTime(TimeUnit timeUnit) {
+        return timeUnit.convert(maxLeaseWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the mean time waited per connection request, 0 if there was none
+     */
+    public long getMeanLeaseWaitTime(TimeUnit timeUnit) {
+        final long requests = leaseCount + failedLeaseCount;
+        return requests == 0 ? 0 : timeUnit.convert(totalLeaseWaitNanos / requests, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "[total: " + totalStats
+                + "; leases: " + leaseCount
+                + "; failed leases: " + failedLeaseCount
+                + "; mean lease wait ms: " + getMeanLeaseWaitTime(TimeUnit.MILLISECONDS)
+                + "; max lease wait ms: " + getMaxLeaseWaitTime(TimeUnit.MILLISECONDS) + "]";
+    }
+}
@@ -0,0 +1,21 @@
+package io.searchbox.client.config.pool;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Notified when a request waited longer than the configured threshold for a connection of a pool, i.e.: when the
+ * pool (or the route) is exhausted. Called on the thread leasing the connection, which is an I/O thread of the
+ * async client for its pool; implementations must not block.
+ *
+ * @see io.searchbox.client.config.HttpClientConfig.Builder#leaseWaitListener(long, java.util.concurrent.TimeUnit, LeaseWaitListener)
+ */
+public interface LeaseWaitListener {
+
+    /**
+     * @param route      route of the requested connection
+     * @param waitNanos  time waited for the connection, whether it was eventually leased or not
+     * @param routeStats stats of the route once the wait is over
+     */
+    void onLeaseWaitExceeded(HttpRoute route, long waitNanos, PoolStats routeStats);
+}
@@ -0,0 +1,139 @@
+package io.searchbox.client.config.pool;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooling connection manager of the sync client recording the time each request waits for a connection.
+ */
+public class MonitoredHttpClientConnectionManager implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    private final HttpClientConnectionManager delegate;
+    private final ConnectionPoolMonitor monitor;
+
+    /**
+     * @param monitor monitor of the pool of the delegate
+     */
+    public MonitoredHttpClientConnectionManager(HttpClientConnectionManager delegate, ConnectionPoolMonitor monitor) {
+        this.delegate = delegate;
+        this.monitor = monitor;
+    }
+
+    public HttpClientConnectionManager getDelegate() {
+        return delegate;
+    }
+
+    public ConnectionPoolMonitor getMonitor() {
+        return monitor;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, Object state) {
+        monitor.onLeaseRequested(route);
+        final long startNanos = System.nanoTime();
+        final ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                boolean leased = false;
+                try {
+                    final HttpClientConnection connection = request.get(timeout, tunit);
+                    leased = true;
+                    return connection;
+                } finally {
+                    monitor.onLeaseEnd(route, System.nanoTime() - startNanos, leased);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(HttpClientConnection conn, Object newState, long validDuration, TimeUnit timeUnit) {
+        delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(HttpClientConnection conn, HttpRoute route, int connectTimeout, HttpContext context) throws IOException {
+        delegate.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(HttpClientConnection conn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        monitor.getPool().setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return monitor.getPool().getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        monitor.getPool().setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return monitor.getPool().getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        monitor.getPool().setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return monitor.getPool().getMaxPerRoute(route);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return monitor.getPool().getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return monitor.getPool().getStats(route);
+    }
+}
@@ -0,0 +1,158 @@
+package io.searchbox.client.config.pool;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooling connection manager of the async client recording the time each request waits for a connection. As the
+ * async pool only hands out connected connections, the wait includes connecting when a new connection is opened.
+ */
+public class MonitoredNHttpClientConnectionManager implements NHttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+    private final NHttpClientConnectionManager delegate;
+    private final ConnectionPoolMonitor monitor;
+
+    /**
+     * @param monitor monitor of the pool of the delegate
+     */
+    public MonitoredNHttpClientConnectionManager(NHttpClientConnectionManager delegate, ConnectionPoolMonitor monitor) {
+        this.delegate = delegate;
+        this.monitor = monitor;
+    }
+
+    public NHttpClientConnectionManager getDelegate() {
+        return delegate;
+    }
+
+    public ConnectionPoolMonitor getMonitor() {
+        return monitor;
+    }
+
+    @Override
+    public Future<NHttpClientConnection> requestConnection(final HttpRoute route, Object state, long connectTimeout,
+                                                           long leaseTimeout, TimeUnit tunit,
+                                                           final FutureCallback<NHttpClientConnection> callback) {
+        monitor.onLeaseRequested(route);
+        final long startNanos = System.nanoTime();
+        return delegate.requestConnection(route, state, connectTimeout, leaseTimeout, tunit, new FutureCallback<NHttpClientConnection>() {
+            @Override
+            public void completed(NHttpClientConnection result) {
+                monitor.onLeaseEnd(route, System.nanoTime() - startNanos, true);
+                if (callback != null) {
+                    callback.completed(result);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                monitor.onLeaseEnd(route, System.nanoTime() - startNanos, false);
+                if (callback != null) {
+                    callback.failed(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                monitor.onLeaseEnd(route, System.nanoTime() - startNanos, false);
+                if (callback != null) {
+                    callback.cancelled();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void releaseConnection(NHttpClientConnection managedConn, Object state, long keepalive, TimeUnit tunit) {
+        delegate.releaseConnection(managedConn, state, keepalive, tunit);
+    }
+
+    @Override
+    public void startRoute(NHttpClientConnection managedConn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.startRoute(managedConn, route, context);
+    }
+
+    @Override
+    public void upgrade(NHttpClientConnection managedConn, HttpRoute route, HttpContext context) throws IOException {
+        delegate.upgrade(managedConn, route, context);
+    }
+
+    @Override
+    public void routeComplete(NHttpClientConnection managedConn, HttpRoute route, HttpContext context) {
+        delegate.routeComplete(managedConn, route, context);
+    }
+
+    @Override
+    public boolean isRouteComplete(NHttpClientConnection managedConn) {
+        return delegate.isRouteComplete(managedConn);
+    }
+
+    @Override
+    public void closeIdleConnections(long idletime, TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void execute(IOEventDispatch eventDispatch) throws IOException {
+        delegate.execute(eventDispatch);
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        delegate.shutdown();
+    }
+
+    @Override
+    public void setMaxTotal(int max) {
+        monitor.getPool().setMaxTotal(max);
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return monitor.getPool().getMaxTotal();
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        monitor.getPool().setDefaultMaxPerRoute(max);
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return monitor.getPool().getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        monitor.getPool().setMaxPerRoute(route, max);
+    }
+
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return monitor.getPool().getMaxPerRoute(route);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return monitor.getPool().getTotalStats();
+    }
+
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return monitor.getPool().getStats(route);
+    }
+}
@@ -1,16 +1,27 @@
 package io.searchbox.client.http;
 
-import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.searchbox.action.Action;
 import io.searchbox.client.AbstractJestClient;
+import io.searchbox.client.HedgingPolicy;
 import io.searchbox.client.JestResult;
 import io.searchbox.client.JestResultHandler;
 import io.searchbox.client.JestRetryHandler;
+import io.searchbox.client.RetryBackoff;
+import io.searchbox.client.RetryBudget;
 import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.config.pool.ConnectionPoolStats;
+import io.searchbox.client.config.pool.MonitoredHttpClientConnectionManager;
+import io.searchbox.client.config.pool.MonitoredNHttpClientConnectionManager;
+import io.searchbox.client.metrics.ClientGauges;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.node.Node;
+import io.searchbox.client.transport.TransportRequest;
+import io.searchbox.client.transport.TransportResponse;
 import io.searchbox.client.http.apache.HttpDeleteWithEntity;
 import io.searchbox.client.http.apache.HttpGetWithEntity;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
@@ -25,18 +36,34 @@ import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.HttpHostConnectException;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentProducer;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.ConnectException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Dogukan Sonmez
@@ -46,15 +73,62 @@ public class JestHttpClient extends AbstractJestClient {
 
     private final static Logger log = LoggerFactory.getLogger(JestHttpClient.class);
 
+    /**
+     * @deprecated only used by {@link #constructHttpMethod(String, String, String, RequestConfig)}
+     */
+    @Deprecated
     protected ContentType requestContentType = ContentType.APPLICATION_JSON.withCharset("utf-8");
 
     private CloseableHttpClient httpClient;
     private CloseableHttpAsyncClient asyncClient;
+    private HttpClientConnectionManager connectionManager;
+    private NHttpClientConnectionManager asyncConnectionManager;
+    private final AtomicInteger pendingAsyncRequests = new AtomicInteger();
+    private final ClientGauges gauges = new ClientGauges() {
+        @Override
+        public int getPendingAsyncRequests() {
+            return pendingAsyncRequests.get();
+        }
+
+        @Override
+        public int getLeasedConnections() {
+            final PoolStats[] stats = getTotalPoolStats();
+            int leased = stats.length == 0 ? -1 : 0;
+            for (PoolStats poolStats : stats) {
+                leased += poolStats.getLeased();
+            }
+            return leased;
+        }
+
+        @Override
+        public int getAvailableConnections() {
+            final PoolStats[] stats = getTotalPoolStats();
+            int available = stats.length == 0 ? -1 : 0;
+            for (PoolStats poolStats : stats) {
+                available += poolStats.getAvailable();
+            }
+            return available;
+        }
+
+        @Override
+        public int getPendingConnections() {
+            final PoolStats[] stats = getTotalPoolStats();
+            int pending = stats.length == 0 ? -1 : 0;
+            for (PoolStats poolStats : stats) {
+                pending += poolStats.getPending();
+            }
+            return pending;
+        }
+    };
 
     private HttpClientContext httpClientContextTemplate;
     private JestRetryHandler<HttpUriRequest> retryHandler;
 
     /**
+     * While a {@link HedgingPolicy} is set, the reads it can hedge are executed by the async client rather than the
+     * sync one (with the connection pool and the timeouts of the async client), see
+     * {@link #setHedgingPolicy(HedgingPolicy)}.
+     *
      * @throws IOException              in case of a problem or the connection was aborted during request,
      *                                  or in case of a problem while reading the response stream
      * @throws CouldNotConnectException if an {@link HttpHostConnectException} is encountered
@@ -65,28 +139,78 @@ public class JestHttpClient extends AbstractJestClient {
     }
 
     public <T extends JestResult> T execute(Action<T> clientRequest, RequestConfig requestConfig) throws IOException {
+        final HedgingPolicy hedgingPolicy = getHedgingPolicy();
+        if (hedgingPolicy != null && hedgingPolicy.isHedgeable(clientRequest)) {
+            return executeHedged(clientRequest, requestConfig);
+        }
+
         final JestRetryHandler<HttpUriRequest> retryHandler = getRetryHandler();
+        final ClientMetricsListener metricsListener = getMetricsListener();
+        final String actionType = getActionType(clientRequest);
+
+        final RetryBudget retryBudget = getRetryBudget();
+        if (retryBudget != null) {
+            retryBudget.onRequest();
+        }
 
         int executionCount = 0;
+        final List<Node> triedNodes = new ArrayList<Node>(1);
         CloseableHttpResponse response = null;
+        HttpUriRequest request = null;
+        Node node = null;
+        long startNanos = 0;
+        Exception readFailure = null;
         try {
-            HttpUriRequest request;
             do {
-                request = prepareRequest(clientRequest, requestConfig);
+                final Node selectedNode = getNextNode(clientRequest, triedNodes);
+                triedNodes.add(selectedNode);
+                request = prepareRequest(clientRequest, requestConfig, selectedNode);
+                startNanos = System.nanoTime();
+                selectedNode.onRequestStart();
+                node = selectedNode;
                 try {
                     response = executeRequest(request);
+                    onResponse(node, response);
                 } catch (HttpHostConnectException ex) {
-                    if (!retryHandler.retryRequest(ex, executionCount++, request)) {
+                    markNodeDead(node);
+                    onRequestFailure(actionType, node, startNanos, ex);
+                    node = null;
+                    if (!retryHandler.retryRequest(ex, executionCount++, request) || !acquireRetry(retryBudget, request)) {
                         throw new CouldNotConnectException(ex.getHost().toURI(), ex);
                     }
+                    metricsListener.onRetry(actionType, selectedNode, executionCount);
                 } catch (Exception ex) {
-                    if (!retryHandler.retryRequest(ex, executionCount++, request)) {
+                    if (isConnectFailure(ex)) {
+                        markNodeDead(node);
+                    }
+                    onRequestFailure(actionType, node, startNanos, ex);
+                    node = null;
+                    if (!retryHandler.retryRequest(ex, executionCount++, request) || !acquireRetry(retryBudget, request)) {
                         throw ex;
                     }
+                    metricsListener.onRetry(actionType, selectedNode, executionCount);
                 }
             } while (response == null);
-            return deserializeResponse(response, request, clientRequest);
+            final T result;
+            try {
+                result = deserializeResponse(response, request, clientRequest);
+            } catch (IOException | RuntimeException ex) {
+                readFailure = ex;
+                throw ex;
+            }
+            recordBulkItemFailures(node, result);
+            return result;
         } finally {
+            if (node != null) {
+                final long latencyNanos = System.nanoTime() - startNanos;
+                node.onRequestEnd(latencyNanos, readFailure != null);
+                if (readFailure != null) {
+                    metricsListener.onRequestFailure(actionType, node, latencyNanos, readFailure);
+                } else {
+                    metricsListener.onRequest(actionType, node, latencyNanos, getContentLength(request),
+                            getContentLength(response), response.getStatusLine().getStatusCode());
+                }
+            }
             if (response != null) {
                 try {
                     response.close();
@@ -97,20 +221,65 @@ public class JestHttpClient extends AbstractJestClient {
         }
     }
 
+    /**
+     * Hedged reads are executed by the async client, which can abort the attempt that loses; the calling thread
+     * waits for the winner, at most for the {@link #setAttemptTimeout(long, TimeUnit) attempt timeout} after the
+     * last attempt (or retry) started.
+     *
+     * @throws SocketTimeoutException if no attempt answered in time
+     */
+    private <T extends JestResult> T executeHedged(Action<T> clientRequest, RequestConfig requestConfig) throws IOException {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        return executeAndWait(new HttpAsyncExecution<T>(clientRequest, completing(future), requestConfig), future);
+    }
+
     @Override
     public <T extends JestResult> void executeAsync(final Action<T> clientRequest, final JestResultHandler<? super T> resultHandler) throws IOException {
         executeAsync(clientRequest, resultHandler, null);
     }
 
+    /**
+     * Failed requests are retried as decided by the {@link #getRetryHandler() retry handler}, each time on another
+     * node if possible, after a {@link RetryBackoff backoff} delay scheduled without blocking any thread.
+     */
     public <T extends JestResult> void executeAsync(final Action<T> clientRequest, final JestResultHandler<? super T> resultHandler, final RequestConfig requestConfig) throws IOException {
-        synchronized (this) {
-            if (!asyncClient.isRunning()) {
-                asyncClient.start();
-            }
-        }
+        new HttpAsyncExecution<T>(clientRequest, resultHandler, requestConfig).start();
+    }
 
-        HttpUriRequest request = prepareRequest(clientRequest, requestConfig);
-        executeAsyncRequest(clientRequest, resultHandler, request);
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * The request (or its pending retry) is aborted as soon as the future is cancelled or completed exceptionally
+     * by the caller, e.g.: by <code>orTimeout</code> on Java 9+ or a scheduled <code>completeExceptionally</code>.
+     * Failed requests are retried as by {@link #executeAsync(Action, JestResultHandler, RequestConfig)}.
+     */
+    @Override
+    public <T extends JestResult> CompletableFuture<T> executeAsync(Action<T> clientRequest) {
+        return executeAsync(clientRequest, (RequestConfig) null);
+    }
+
+    /**
+     * Same as {@link #executeAsync(Action)} with the given request config (e.g.: with a shorter socket timeout).
+     */
+    public <T extends JestResult> CompletableFuture<T> executeAsync(final Action<T> clientRequest, final RequestConfig requestConfig) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        return startAsync(new HttpAsyncExecution<T>(clientRequest, completing(future), requestConfig), future);
+    }
+
+    /**
+     * Executes the action asynchronously on the given node (e.g.: one of {@link #getNodes()}) instead of the one
+     * chosen by the node selector.
+     */
+    public <T extends JestResult> Future<HttpResponse> executeAsync(final Action<T> clientRequest, final JestResultHandler<? super T> resultHandler, final RequestConfig requestConfig, final Node node) throws IOException {
+        startAsyncClient();
+        HttpUriRequest request = prepareAsyncRequest(clientRequest, requestConfig, node);
+        return executeAsyncRequest(clientRequest, resultHandler, request, node);
+    }
+
+    private synchronized void startAsyncClient() {
+        if (!asyncClient.isRunning()) {
+            asyncClient.start();
+        }
     }
 
     @Override
@@ -122,6 +291,11 @@ public class JestHttpClient extends AbstractJestClient {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <br/>
+     * Async executions still pending (e.g.: waiting for a retry) are failed with an {@link IOException}.
+     */
     @Override
     public void close() throws IOException {
         super.close();
@@ -129,15 +303,66 @@ public class JestHttpClient extends AbstractJestClient {
         httpClient.close();
     }
 
+    /**
+     * @deprecated the client prepares its requests for the node it selected, through
+     * {@link #prepareRequest(Action, RequestConfig, Node, boolean)}: override that one instead
+     */
+    @Deprecated
     protected <T extends JestResult> HttpUriRequest prepareRequest(final Action<T> clientRequest, final RequestConfig requestConfig) throws IOException {
-        String elasticSearchRestUrl = getRequestURL(getNextServer(), clientRequest.getURI());
-        HttpUriRequest request = constructHttpMethod(clientRequest.getRestMethodName(), elasticSearchRestUrl, clientRequest.getData(objectMapper), requestConfig);
+        return prepareRequest(clientRequest, requestConfig, getNextNode(clientRequest), true);
+    }
 
-        log.debug("Request method={} url={}", clientRequest.getRestMethodName(), elasticSearchRestUrl);
+    protected <T extends JestResult> HttpUriRequest prepareRequest(final Action<T> clientRequest, final RequestConfig requestConfig, final Node node) throws IOException {
+        return prepareRequest(clientRequest, requestConfig, node, true);
+    }
 
-        // add headers added to action
-        for (Entry<String, Object> header : clientRequest.getHeaders().entrySet()) {
-            request.addHeader(header.getKey(), header.getValue().toString());
+    /**
+     * Same as {@link #prepareRequest(Action, RequestConfig, Node)} for the async client, which reads the request
+     * entity through {@link HttpEntity#getContent()} instead of writing it to the request stream: streamed payloads
+     * (e.g.: bulk) are thus written once to a buffer rather than straight to the request stream.
+     */
+    protected <T extends JestResult> HttpUriRequest prepareAsyncRequest(final Action<T> clientRequest, final RequestConfig requestConfig, final Node node) throws IOException {
+        return prepareRequest(clientRequest, requestConfig, node, false);
+    }
+
+    /**
+     * Every request of the client is prepared through this method, overrides (e.g.: adding signing headers) thus
+     * apply to all of them. Wraps the request built by {@link #createRequest(Action, Node, boolean)}: a streamed
+     * payload (e.g.: bulk) is written straight to the request stream, as a chunked entity.
+     *
+     * @param node      node the request is sent to
+     * @param streaming false to write streamed payloads once to a buffer, e.g.: for the async client
+     */
+    protected <T extends JestResult> HttpUriRequest prepareRequest(final Action<T> clientRequest, final RequestConfig requestConfig, final Node node, final boolean streaming) throws IOException {
+        final TransportRequest transportRequest = createRequest(clientRequest, node, !streaming);
+        final HttpUriRequest request = constructHttpMethod(transportRequest.getMethod(), transportRequest.getUrl(), requestConfig);
+        final String contentType = transportRequest.getHeaders().get("Content-Type");
+        final String contentEncoding = transportRequest.getHeaders().get("Content-Encoding");
+        if (transportRequest.hasBody() && request instanceof HttpEntityEnclosingRequest) {
+            final AbstractHttpEntity entity;
+            final byte[] body = transportRequest.getBodyLength() < 0 ? null : transportRequest.getBody();
+            if (body != null) {
+                entity = new ByteArrayEntity(body);
+            } else {
+                entity = new EntityTemplate(new ContentProducer() {
+                    @Override
+                    public void writeTo(OutputStream outputStream) throws IOException {
+                        transportRequest.writeBody(outputStream);
+                    }
+                });
+                entity.setChunked(true);
+            }
+            entity.setContentType(contentType);
+            entity.setContentEncoding(contentEncoding);
+            ((HttpEntityEnclosingRequest) request).setEntity(entity);
+        }
+
+        for (Entry<String, String> header : transportRequest.getHeaders().entrySet()) {
+            // carried by the entity
+            if ("Content-Type".equalsIgnoreCase(header.getKey()) || "Content-Encoding".equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            request.addHeader(header.getKey(), header.getValue());
         }
 
         return request;
@@ -151,12 +376,70 @@ public class JestHttpClient extends AbstractJestClient {
         return httpClient.execute(request);
     }
 
+    /**
+     * @deprecated the client sends its async requests through
+     * {@link #executeAsyncRequest(Action, JestResultHandler, HttpUriRequest, Node, AsyncExecution)}, which records
+     * them on their node: override that one instead
+     */
+    @Deprecated
     protected <T extends JestResult> Future<HttpResponse> executeAsyncRequest(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, HttpUriRequest request) {
+        return executeAsyncRequest(clientRequest, resultHandler, request, null, null);
+    }
+
+    /**
+     * @param node node the request is sent to, the request is recorded on it unless null
+     */
+    protected <T extends JestResult> Future<HttpResponse> executeAsyncRequest(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, HttpUriRequest request, Node node) {
+        return executeAsyncRequest(clientRequest, resultHandler, request, node, null);
+    }
+
+    /**
+     * Every async request of the client is sent through this method, overrides (e.g.: wrapping the request or the
+     * handler) thus apply to all of them.
+     *
+     * @param node      node the request is sent to, the request is recorded on it unless null
+     * @param execution execution the request is an attempt of, which retries its failures, null if none
+     */
+    protected <T extends JestResult> Future<HttpResponse> executeAsyncRequest(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, HttpUriRequest request, Node node, AsyncExecution<T> execution) {
+        final DefaultCallback<T> callback = new DefaultCallback<T>(clientRequest, request, resultHandler, node, execution);
         if (httpClientContextTemplate != null) {
-            return asyncClient.execute(request, createContextInstance(), new DefaultCallback<T>(clientRequest, request, resultHandler));
+            return asyncClient.execute(request, createContextInstance(), callback);
         }
 
-        return asyncClient.execute(request, new DefaultCallback<T>(clientRequest, request, resultHandler));
+        return asyncClient.execute(request, callback);
+    }
+
+    @Override
+    protected boolean isConnectFailure(Throwable throwable) {
+        return super.isConnectFailure(throwable) || throwable instanceof ConnectTimeoutException;
+    }
+
+    private void onRequestFailure(String actionType, Node node, long startNanos, Exception failure) {
+        final long latencyNanos = System.nanoTime() - startNanos;
+        node.onRequestEnd(latencyNanos, true);
+        getMetricsListener().onRequestFailure(actionType, node, latencyNanos, failure);
+    }
+
+    private static long getContentLength(HttpRequest request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null ? 0 : entity.getContentLength();
+        }
+        return 0;
+    }
+
+    private static long getContentLength(HttpResponse response) {
+        final HttpEntity entity = response.getEntity();
+        return entity == null ? 0 : entity.getContentLength();
+    }
+
+    private void onResponse(Node node, HttpResponse response) {
+        final Header contentType = response.getFirstHeader("Content-Type");
+        if (isNodeUnavailable(response.getStatusLine().getStatusCode(), contentType == null ? null : contentType.getValue())) {
+            markNodeDead(node);
+        } else {
+            markNodeAlive(node);
+        }
     }
 
     protected HttpClientContext createContextInstance() {
@@ -167,7 +450,31 @@ public class JestHttpClient extends AbstractJestClient {
         return context;
     }
 
+    /**
+     * @deprecated request bodies are set by the client once the method is built, use
+     * {@link #constructHttpMethod(String, String, RequestConfig)}; the given payload, if any, is set as a text entity
+     * of {@link #requestContentType}, gzip compressed when request compression is enabled.
+     */
+    @Deprecated
     protected HttpUriRequest constructHttpMethod(String methodName, String url, String payload, RequestConfig requestConfig) {
+        HttpUriRequest httpUriRequest = constructHttpMethod(methodName, url, requestConfig);
+
+        if (httpUriRequest != null && httpUriRequest instanceof HttpEntityEnclosingRequest && payload != null) {
+            EntityBuilder entityBuilder = EntityBuilder.create()
+                    .setText(payload)
+                    .setContentType(requestContentType);
+
+            if (isRequestCompressionEnabled()) {
+                entityBuilder.gzipCompress();
+            }
+
+            ((HttpEntityEnclosingRequest) httpUriRequest).setEntity(entityBuilder.build());
+        }
+
+        return httpUriRequest;
+    }
+
+    protected HttpUriRequest constructHttpMethod(String methodName, String url, RequestConfig requestConfig) {
         HttpUriRequest httpUriRequest = null;
 
         if (methodName.equalsIgnoreCase("POST")) {
@@ -191,41 +498,35 @@ public class JestHttpClient extends AbstractJestClient {
             ((HttpRequestBase) httpUriRequest).setConfig(requestConfig);
         }
 
-        if (httpUriRequest != null && httpUriRequest instanceof HttpEntityEnclosingRequest && payload != null) {
-            EntityBuilder entityBuilder = EntityBuilder.create()
-                    .setText(payload)
-                    .setContentType(requestContentType);
-
-            if (isRequestCompressionEnabled()) {
-                entityBuilder.gzipCompress();
-            }
-
-            ((HttpEntityEnclosingRequest) httpUriRequest).setEntity(entityBuilder.build());
-        }
-
         return httpUriRequest;
     }
 
+    /**
+     * Parses the response with {@link #deserializeResponse(Action, TransportResponse, String, String)}; the sync
+     * client decompresses responses itself, the async one does not.
+     */
     private <T extends JestResult> T deserializeResponse(HttpResponse response, final HttpRequest httpRequest, Action<T> clientRequest) throws IOException {
-        StatusLine statusLine = response.getStatusLine();
+        final StatusLine statusLine = response.getStatusLine();
+        final HttpEntity entity = response.getEntity();
+        final Map<String, String> headers = new LinkedHashMap<String, String>();
+        putHeader(headers, "Content-Type", response.getFirstHeader("Content-Type"), entity == null ? null : entity.getContentType());
+        putHeader(headers, "Content-Encoding", response.getFirstHeader("Content-Encoding"), entity == null ? null : entity.getContentEncoding());
+        final TransportResponse transportResponse = new TransportResponse(statusLine.getStatusCode(),
+                statusLine.getReasonPhrase(), headers, entity == null ? null : entity.getContent(),
+                entity == null ? 0 : entity.getContentLength());
         try {
-            return clientRequest.createNewElasticSearchResult(
-                    response.getEntity() == null ? null : EntityUtils.toString(response.getEntity()),
-                    statusLine.getStatusCode(),
-                    statusLine.getReasonPhrase(),
-                    objectMapper
-            );
-        } catch (JsonParseException e) {
-            for (Header header : response.getHeaders("Content-Type")) {
-                final String mimeType = header.getValue();
-                if (!mimeType.startsWith("application/json")) {
-                    // probably a proxy that responded in text/html
-                    final String message = "Request " + httpRequest.toString() + " yielded " + mimeType
-                            + ", should be json: " + statusLine.toString();
-                    throw new IOException(message, e);
-                }
-            }
-            throw e;
+            return deserializeResponse(clientRequest, transportResponse, httpRequest.toString(), statusLine.toString());
+        } finally {
+            transportResponse.close();
+        }
+    }
+
+    private static void putHeader(Map<String, String> headers, String name, Header header, Header entityHeader) {
+        if (header == null) {
+            header = entityHeader;
+        }
+        if (header != null) {
+            headers.put(name, header.getValue());
         }
     }
 
@@ -245,6 +546,78 @@ public class JestHttpClient extends AbstractJestClient {
         this.asyncClient = asyncClient;
     }
 
+    public HttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    /**
+     * Sets the connection manager of the sync client, for the client to report the state of its pool.
+     */
+    public void setConnectionManager(HttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    public NHttpClientConnectionManager getAsyncConnectionManager() {
+        return asyncConnectionManager;
+    }
+
+    /**
+     * Sets the connection manager of the async client, for the client to report the state of its pool.
+     */
+    public void setAsyncConnectionManager(NHttpClientConnectionManager asyncConnectionManager) {
+        this.asyncConnectionManager = asyncConnectionManager;
+    }
+
+    /**
+     * @return the current stats of the connection pool of the sync client, null if it does not pool connections
+     * (or was not set by {@link io.searchbox.client.JestClientFactory})
+     */
+    public ConnectionPoolStats getConnectionPoolStats() {
+        if (connectionManager instanceof MonitoredHttpClientConnectionManager) {
+            return ((MonitoredHttpClientConnectionManager) connectionManager).getMonitor().getStats();
+        }
+        return null;
+    }
+
+    /**
+     * @return the current stats of the connection pool of the async client, null if it does not pool connections
+     * (or was not set by {@link io.searchbox.client.JestClientFactory})
+     */
+    public ConnectionPoolStats getAsyncConnectionPoolStats() {
+        if (asyncConnectionManager instanceof MonitoredNHttpClientConnectionManager) {
+            return ((MonitoredNHttpClientConnectionManager) asyncConnectionManager).getMonitor().getStats();
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of async requests sent and not yet completed
+     */
+    public int getPendingAsyncRequests() {
+        return pendingAsyncRequests.get();
+    }
+
+    @Override
+    protected ClientGauges getGauges() {
+        return gauges;
+    }
+
+    /**
+     * @return the total stats of the pooling connection managers of the client
+     */
+    private PoolStats[] getTotalPoolStats() {
+        final boolean syncPool = connectionManager instanceof ConnPoolControl;
+        final boolean asyncPool = asyncConnectionManager instanceof ConnPoolControl;
+        final PoolStats[] stats = new PoolStats[(syncPool ? 1 : 0) + (asyncPool ? 1 : 0)];
+        if (syncPool) {
+            stats[0] = ((ConnPoolControl<?>) connectionManager).getTotalStats();
+        }
+        if (asyncPool) {
+            stats[stats.length - 1] = ((ConnPoolControl<?>) asyncConnectionManager).getTotalStats();
+        }
+        return stats;
+    }
+
     public ObjectMapper getObjectMapper() {
         return objectMapper;
     }
@@ -270,22 +643,88 @@ public class JestHttpClient extends AbstractJestClient {
         return this;
     }
 
+    /**
+     * @return the connect timeout plus the socket timeout of the given request config if it has both, the attempt
+     * timeout of the client otherwise
+     */
+    private long getAttemptTimeoutNanos(RequestConfig requestConfig) {
+        if (requestConfig != null && requestConfig.getConnectTimeout() > 0 && requestConfig.getSocketTimeout() > 0) {
+            return TimeUnit.MILLISECONDS.toNanos(requestConfig.getConnectTimeout() + requestConfig.getSocketTimeout());
+        }
+        return getAttemptTimeout(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sends the attempts of an async execution through the async client.
+     */
+    private class HttpAsyncExecution<T extends JestResult> extends AsyncExecution<T> {
+        private final RequestConfig requestConfig;
+        private volatile HttpUriRequest request;
+
+        HttpAsyncExecution(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, RequestConfig requestConfig) {
+            super(clientRequest, resultHandler, JestHttpClient.this.getAttemptTimeoutNanos(requestConfig));
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        protected Future<?> sendAttempt(Node node) throws IOException {
+            startAsyncClient();
+            final HttpUriRequest attemptRequest = prepareAsyncRequest(getClientRequest(), requestConfig, node);
+            request = attemptRequest;
+            return executeAsyncRequest(getClientRequest(), getAttemptHandler(), attemptRequest, node, this);
+        }
+
+        @Override
+        protected boolean retryRequest(Exception failure, int executionCount) {
+            final JestRetryHandler<HttpUriRequest> retryHandler = getRetryHandler();
+            return retryHandler != null && retryHandler.retryRequest(failure, executionCount, request);
+        }
+    }
+
     protected class DefaultCallback<T extends JestResult> implements FutureCallback<HttpResponse> {
         private final Action<T> clientRequest;
         private final HttpRequest request;
         private final JestResultHandler<? super T> resultHandler;
+        private final Node node;
+        private final String actionType;
+        private final long startNanos;
+        private final AsyncExecution<T> execution;
+        private boolean requestEndRecorded;
+        private boolean responseReceived;
 
         public DefaultCallback(Action<T> clientRequest, final HttpRequest request, JestResultHandler<? super T> resultHandler) {
+            this(clientRequest, request, resultHandler, null);
+        }
+
+        public DefaultCallback(Action<T> clientRequest, final HttpRequest request, JestResultHandler<? super T> resultHandler, Node node) {
+            this(clientRequest, request, resultHandler, node, null);
+        }
+
+        private DefaultCallback(Action<T> clientRequest, final HttpRequest request, JestResultHandler<? super T> resultHandler, Node node, AsyncExecution<T> execution) {
+            this.execution = execution;
             this.clientRequest = clientRequest;
             this.request = request;
             this.resultHandler = resultHandler;
+            this.node = node;
+            this.actionType = getActionType(clientRequest);
+            this.startNanos = System.nanoTime();
+            pendingAsyncRequests.incrementAndGet();
+            if (node != null) {
+                node.onRequestStart();
+            }
         }
 
         @Override
         public void completed(final HttpResponse response) {
             T jestResult = null;
+            responseReceived = true;
             try {
+                if (node != null) {
+                    onResponse(node, response);
+                }
                 jestResult = deserializeResponse(response, request, clientRequest);
+                recordRequestEnd(response, null);
+                recordBulkItemFailures(node, jestResult);
             } catch (Exception e) {
                 failed(e);
             } catch (Throwable t) {
@@ -296,6 +735,15 @@ public class JestHttpClient extends AbstractJestClient {
 
         @Override
         public void failed(final Exception ex) {
+            if (node != null && !requestEndRecorded && isConnectFailure(ex)) {
+                markNodeDead(node);
+            }
+            recordRequestEnd(null, ex);
+            // like sync requests, failures reading the response are not retried
+            if (execution != null && execution.onAttemptFailed(ex, node, !responseReceived)) {
+                log.debug("Exception occurred during async execution, retrying or waiting for another attempt.", ex);
+                return;
+            }
             log.error("Exception occurred during async execution.", ex);
             if (ex instanceof HttpHostConnectException) {
                 String host = ((HttpHostConnectException) ex).getHost().toURI();
@@ -307,7 +755,40 @@ public class JestHttpClient extends AbstractJestClient {
 
         @Override
         public void cancelled() {
-            log.warn("Async execution was cancelled; this is not expected to occur under normal operation.");
+            recordRequestEnd(null, null);
+            log.debug("Async execution was cancelled.");
+            if (execution != null && isClosed()) {
+                // aborted by closing the async client, e.g.: sent while the client was being closed
+                execution.fail(new IOException("client closed"));
+            }
+        }
+
+        /**
+         * @param response the response if one was read, null if the request failed (with the given failure, if
+         *                 any) or was cancelled
+         */
+        private void recordRequestEnd(HttpResponse response, Exception failure) {
+            if (requestEndRecorded) {
+                return;
+            }
+            requestEndRecorded = true;
+            pendingAsyncRequests.decrementAndGet();
+
+            final long latencyNanos = System.nanoTime() - startNanos;
+            if (node != null) {
+                if (response == null && failure == null) {
+                    // aborted by the client (e.g.: the loser of a hedged request), not a failure of the node
+                    node.onRequestCancelled();
+                } else {
+                    node.onRequestEnd(latencyNanos, response == null);
+                }
+            }
+            if (response != null) {
+                getMetricsListener().onRequest(actionType, node, latencyNanos, getContentLength(request),
+                        getContentLength(response), response.getStatusLine().getStatusCode());
+            } else if (failure != null) {
+                getMetricsListener().onRequestFailure(actionType, node, latencyNanos, failure);
+            }
         }
     }
 
@@ -0,0 +1,173 @@
+package io.searchbox.client.config.discovery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.config.HttpClientConfig;
+import io.searchbox.client.config.exception.CouldNotConnectException;
+import io.searchbox.client.http.JestHttpClient;
+import io.searchbox.client.node.Node;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncNodeCheckerTest {
+
+    private final HttpClientConfig clientConfig = new HttpClientConfig.Builder("http://localhost:9200")
+            .discoveryEnabled(true)
+            .asyncDiscovery(2, 100, TimeUnit.MILLISECONDS)
+            .build();
+
+    @Test
+    public void mergeNodesReportedByParallelProbes() throws Exception {
+        ProbedClient client = new ProbedClient();
+        client.setServers(ImmutableSet.of("http://192.168.2.7:9200", "http://192.168.2.8:9200"));
+        Node keptNode = client.getNodes().get(0);
+        client.responses.put("http://192.168.2.7:9200", nodesInfo("inet[/192.168.2.7:9200]", "inet[/192.168.2.9:9200]"));
+        client.responses.put("http://192.168.2.8:9200", nodesInfo("inet[/192.168.2.9:9200]", "inet[/192.168.2.10:9200]"));
+
+        new AsyncNodeChecker(client, clientConfig).runOneIteration();
+
+        assertEquals(2, client.probedServers.size());
+        assertEquals(ImmutableSet.of("http://192.168.2.7:9200", "http://192.168.2.9:9200", "http://192.168.2.10:9200"),
+                servers(client));
+        Node node = node(client, "http://192.168.2.7:9200");
+        assertSame("state of nodes kept in the pool should be preserved", keptNode, node);
+        assertEquals(1, node.getRequestCount());
+    }
+
+    @Test
+    public void removeUnreachableNodes() throws Exception {
+        ProbedClient client = new ProbedClient();
+        client.setServers(ImmutableSet.of("http://192.168.2.7:9200", "http://192.168.2.8:9200", "http://192.168.2.9:9200"));
+        AsyncNodeChecker nodeChecker = new AsyncNodeChecker(client, clientConfig);
+        nodeChecker.discoveredServerList.addAll(servers(client));
+
+        nodeChecker.runOneIteration();
+
+        assertEquals(2, client.probedServers.size());
+        assertEquals(1, servers(client).size());
+        assertEquals(servers(client), nodeChecker.discoveredServerList);
+    }
+
+    @Test
+    public void fallBackToBootstrapServersOnError() throws Exception {
+        ProbedClient client = new ProbedClient();
+        client.setServers(ImmutableSet.of("http://192.168.2.7:9200"));
+        client.responses.put("http://192.168.2.7:9200", new JestResult(new ObjectMapper()));
+
+        new AsyncNodeChecker(client, clientConfig).runOneIteration();
+
+        assertEquals(ImmutableSet.of("http://localhost:9200"), servers(client));
+    }
+
+    @Test
+    public void fetchClusterStateWithoutBlocking() throws Exception {
+        ProbedClient client = new ProbedClient();
+        client.setServers(ImmutableSet.of("http://192.168.2.7:9200"));
+        client.responses.put("http://192.168.2.7:9200", nodesInfo("inet[/192.168.2.7:9200]"));
+        HttpClientConfig shardAwareConfig = new HttpClientConfig.Builder("http://localhost:9200")
+                .discoveryEnabled(true)
+                .asyncDiscovery(2, 100, TimeUnit.MILLISECONDS)
+                .shardAwareRoutingEnabled(true)
+                .build();
+
+        new AsyncNodeChecker(client, shardAwareConfig).runOneIteration();
+
+        assertEquals(1, client.asyncActions.size());
+        String uri = client.asyncActions.get(0).getURI();
+        assertTrue(uri, uri.contains("_cluster/state/routing_table,metadata?"));
+        assertTrue(uri, uri.contains("filter_path="));
+        assertEquals(ImmutableSet.of("twitter"), client.getShardRoutingTable().getIndices());
+    }
+
+    private static ImmutableSet<String> servers(JestHttpClient client) {
+        ImmutableSet.Builder<String> servers = ImmutableSet.builder();
+        for (Node node : client.getNodes()) {
+            servers.add(node.getServer());
+        }
+        return servers.build();
+    }
+
+    private static Node node(JestHttpClient client, String server) {
+        for (Node node : client.getNodes()) {
+            if (node.getServer().equals(server)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static JestResult nodesInfo(String... httpAddresses) {
+        Map<String, Object> nodes = new HashMap<String, Object>();
+        for (int i = 0; i < httpAddresses.length; i++) {
+            nodes.put("node" + i, ImmutableMap.of("http_address", httpAddresses[i]));
+        }
+        JestResult result = new JestResult(new ObjectMapper());
+        result.setJsonMap(ImmutableMap.<String, Object>of("nodes", nodes));
+        result.setSucceeded(true);
+        return result;
+    }
+
+    /**
+     * Completes each probe immediately with the scripted result of its server, or a connect failure.
+     */
+    private static class ProbedClient extends JestHttpClient {
+        final Map<String, JestResult> responses = new HashMap<String, JestResult>();
+        final List<String> probedServers = new ArrayList<String>();
+        final List<Action<?>> asyncActions = new ArrayList<Action<?>>();
+
+        @Override
+        public <T extends JestResult> T execute(Action<T> clientRequest) throws IOException {
+            throw new AssertionError("Discovery must not block on " + clientRequest.getURI());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends JestResult> void executeAsync(Action<T> clientRequest, JestResultHandler<? super T> resultHandler,
+                                                        RequestConfig requestConfig) throws IOException {
+            asyncActions.add(clientRequest);
+            JestResult result = new JestResult(new ObjectMapper());
+            result.setJsonMap(ImmutableMap.<String, Object>of(
+                    "metadata", ImmutableMap.of("indices", ImmutableMap.of("twitter",
+                            ImmutableMap.of("settings", ImmutableMap.of("index", ImmutableMap.of("number_of_shards", "1"))))),
+                    "routing_table", ImmutableMap.of("indices", ImmutableMap.of("twitter",
+                            ImmutableMap.of("shards", ImmutableMap.of("0", ImmutableList.of(
+                                    ImmutableMap.of("primary", true, "state", "STARTED", "node", "node0"))))))));
+            result.setSucceeded(true);
+            resultHandler.completed((T) result);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends JestResult> Future<HttpResponse> executeAsync(Action<T> clientRequest, JestResultHandler<? super T> resultHandler,
+                                                                        RequestConfig requestConfig, Node node) throws IOException {
+            probedServers.add(node.getServer());
+            node.onRequestStart();
+            node.onRequestEnd(1000, false);
+            JestResult result = responses.get(node.getServer());
+            if (result == null) {
+                resultHandler.failed(new CouldNotConnectException(node.getServer(), new IOException("Connection refused")));
+            } else {
+                resultHandler.completed((T) result);
+            }
+            return null;
+        }
+    }
+}
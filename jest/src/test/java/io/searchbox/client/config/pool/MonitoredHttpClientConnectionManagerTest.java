@@ -0,0 +1,127 @@
+package io.searchbox.client.config.pool;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MonitoredHttpClientConnectionManagerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 9200));
+
+    private PoolingHttpClientConnectionManager pool;
+
+    @Before
+    public void setUp() {
+        pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(1);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void leaseWaitIsRecordedAndReported() throws Exception {
+        // loads the pool classes, so that the first monitored lease does not wait on them
+        pool.releaseConnection(pool.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS), null, 0, TimeUnit.MILLISECONDS);
+
+        final AtomicLong reportedWaitNanos = new AtomicLong();
+        final AtomicReference<PoolStats> reportedStats = new AtomicReference<PoolStats>();
+        final MonitoredHttpClientConnectionManager connectionManager = new MonitoredHttpClientConnectionManager(pool,
+                new ConnectionPoolMonitor(pool, 20, TimeUnit.MILLISECONDS, new LeaseWaitListener() {
+                    @Override
+                    public void onLeaseWaitExceeded(HttpRoute route, long waitNanos, PoolStats routeStats) {
+                        reportedWaitNanos.set(waitNanos);
+                        reportedStats.set(routeStats);
+                    }
+                }));
+
+        final HttpClientConnection first = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+        assertEquals("first lease does not wait", 0, reportedWaitNanos.get());
+
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    waiting.await();
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                connectionManager.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+            }
+        });
+        releaser.start();
+        waiting.countDown();
+        final HttpClientConnection second = connectionManager.requestConnection(ROUTE, null).get(5, TimeUnit.SECONDS);
+        releaser.join();
+
+        assertTrue(reportedWaitNanos.get() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, reportedStats.get().getLeased());
+
+        final ConnectionPoolStats stats = connectionManager.getMonitor().getStats();
+        assertEquals(2, stats.getLeaseCount());
+        assertEquals(0, stats.getFailedLeaseCount());
+        assertEquals(TimeUnit.NANOSECONDS.toMillis(reportedWaitNanos.get()), stats.getMaxLeaseWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, stats.getTotalStats().getLeased());
+        assertEquals(1, stats.getRouteStats().get(ROUTE).getLeased());
+        assertEquals(0, stats.getRouteStats().get(ROUTE).getPending());
+
+        connectionManager.releaseConnection(second, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void leaseTimeoutIsRecordedAsFailed() throws Exception {
+        final MonitoredHttpClientConnectionManager connectionManager = new MonitoredHttpClientConnectionManager(pool,
+                new ConnectionPoolMonitor(pool, 0, TimeUnit.MILLISECONDS, null));
+        final HttpClientConnection first = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+        HttpClientConnection second = null;
+        try {
+            second = connectionManager.requestConnection(ROUTE, null).get(20, TimeUnit.MILLISECONDS);
+        } catch (Exception expected) {
+            // the pool is exhausted
+        }
+        assertNull(second);
+
+        final ConnectionPoolStats stats = connectionManager.getMonitor().getStats();
+        assertEquals(1, stats.getLeaseCount());
+        assertEquals(1, stats.getFailedLeaseCount());
+        assertTrue(stats.getTotalLeaseWaitTime(TimeUnit.MILLISECONDS) >= 10);
+
+        connectionManager.releaseConnection(first, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void routeWithoutConnectionsIsDropped() throws Exception {
+        final MonitoredHttpClientConnectionManager connectionManager = new MonitoredHttpClientConnectionManager(pool,
+                new ConnectionPoolMonitor(pool, 0, TimeUnit.MILLISECONDS, null));
+        final HttpClientConnection connection = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+        assertEquals(1, connectionManager.getMonitor().getStats().getRouteStats().get(ROUTE).getLeased());
+
+        // the connection was never opened, so the pool discards it on release
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        assertFalse(connectionManager.getMonitor().getStats().getRouteStats().containsKey(ROUTE));
+
+        final HttpClientConnection again = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+        assertTrue("tracked again on the next lease", connectionManager.getMonitor().getStats().getRouteStats().containsKey(ROUTE));
+        connectionManager.releaseConnection(again, null, 0, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,37 +1,77 @@
 package io.searchbox.client.http;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.searchbox.action.Action;
+import io.searchbox.client.HedgingPolicy;
 import io.searchbox.client.JestClientFactory;
+import io.searchbox.client.JestResult;
+import io.searchbox.client.JestResultHandler;
+import io.searchbox.client.RequestCompressionPolicy;
+import io.searchbox.client.RetryBackoff;
+import io.searchbox.client.RetryBudget;
 import io.searchbox.client.config.HttpClientConfig;
 import io.searchbox.client.http.apache.HttpDeleteWithEntity;
 import io.searchbox.client.http.apache.HttpGetWithEntity;
+import io.searchbox.client.metrics.ClientGauges;
+import io.searchbox.client.metrics.ClientMetricsListener;
+import io.searchbox.client.node.Node;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.Delete;
+import io.searchbox.core.DocumentResult;
+import io.searchbox.core.Get;
+import io.searchbox.core.Index;
 import io.searchbox.core.Search;
 import io.searchbox.core.search.sort.Sort;
+import org.apache.http.ConnectionClosedException;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 import org.apache.http.util.EntityUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.*;
 
@@ -105,6 +145,44 @@ public class JestHttpClientTest {
         assertTrue(request instanceof HttpHead);
     }
 
+    @Test
+    public void constructPutHttpMethodWithoutPayload() throws UnsupportedEncodingException {
+        client.setRequestCompressionEnabled(true);
+
+        HttpUriRequest request = client.constructHttpMethod("PUT", "jest/put", null);
+        assertNotNull(request);
+        assertEquals(request.getURI().getPath(), "jest/put");
+        assertTrue(request instanceof HttpPut);
+        assertNull(((HttpPut) request).getEntity());
+    }
+
+    @Test
+    public void constructHttpMethodWithoutPayloadAndCustomRequestConfig() throws UnsupportedEncodingException {
+        final RequestConfig requestConfig = RequestConfig.custom().setMaxRedirects(42).build();
+        HttpUriRequest request = client.constructHttpMethod("POST", "jest/post", requestConfig);
+        assertNotNull(request);
+        assertTrue(request instanceof HttpPost);
+        assertEquals(requestConfig, ((HttpRequestBase) request).getConfig());
+    }
+
+    @Test
+    public void prepareRequestUsesOverriddenConstructHttpMethod() throws IOException {
+        JestHttpClient jestHttpClient = new JestHttpClient() {
+            @Override
+            protected HttpUriRequest constructHttpMethod(String methodName, String url, RequestConfig requestConfig) {
+                HttpUriRequest request = super.constructHttpMethod(methodName, url, requestConfig);
+                request.addHeader("X-Signature", "signed");
+                return request;
+            }
+        };
+        jestHttpClient.setServers(Collections.singleton("http://localhost:9200"));
+
+        HttpUriRequest request = jestHttpClient.prepareRequest(new Delete.Builder("1").index("twitter").type("tweet").build(), null,
+                jestHttpClient.getNodes().get(0));
+
+        assertEquals("signed", request.getFirstHeader("X-Signature").getValue());
+    }
+
     @Test
     public void addHeadersToRequest() throws IOException {
         final String headerKey = "foo";
@@ -168,6 +246,407 @@ public class JestHttpClientTest {
         }));
     }
 
+    @Test
+    public void executeReportsRequestToMetricsListener() throws IOException {
+        final StringEntity responseEntity = new StringEntity("{\"took\":1,\"errors\":true,\"items\":[" +
+                "{\"index\":{\"_id\":\"1\",\"status\":201}}," +
+                "{\"index\":{\"_id\":\"2\",\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}]}",
+                ContentType.APPLICATION_JSON);
+        CloseableHttpResponse httpResponseMock = mock(CloseableHttpResponse.class);
+        doReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK")).when(httpResponseMock).getStatusLine();
+        doReturn(responseEntity).when(httpResponseMock).getEntity();
+
+        CloseableHttpClient closeableHttpClientMock = mock(CloseableHttpClient.class);
+        doReturn(httpResponseMock).when(closeableHttpClientMock).execute(any(HttpUriRequest.class));
+
+        ClientMetricsListener metricsListener = mock(ClientMetricsListener.class);
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder("http://localhost:9200")
+                .metricsListener(metricsListener)
+                .build());
+        JestHttpClient clientWithMockedHttpClient = (JestHttpClient) factory.getObject();
+        clientWithMockedHttpClient.setHttpClient(closeableHttpClientMock);
+
+        Bulk bulk = new Bulk.Builder()
+                .defaultIndex("twitter")
+                .defaultType("tweet")
+                .addAction(new Index.Builder("{\"user\":\"kimchy\"}").id("1").build())
+                .addAction(new Index.Builder("{\"user\":1}").id("2").build())
+                .build();
+        clientWithMockedHttpClient.execute(bulk);
+
+        verify(metricsListener).bindGauges(any(ClientGauges.class));
+        // the bulk is streamed, its size is not known
+        verify(metricsListener).onRequest(eq("Bulk"), any(Node.class), anyLong(), eq(-1L),
+                eq(responseEntity.getContentLength()), eq(200));
+        verify(metricsListener).onBulkItemFailures(any(Node.class), eq(1), eq(2));
+    }
+
+    @Test
+    public void failureReadingResponseIsNotPartOfNodeLatency() throws IOException {
+        HttpEntity failingEntity = mock(HttpEntity.class);
+        doThrow(new ConnectionClosedException("Premature end of chunk coded message body")).when(failingEntity).getContent();
+        CloseableHttpResponse httpResponseMock = mock(CloseableHttpResponse.class);
+        doReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK")).when(httpResponseMock).getStatusLine();
+        doReturn(failingEntity).when(httpResponseMock).getEntity();
+
+        CloseableHttpClient closeableHttpClientMock = mock(CloseableHttpClient.class);
+        doReturn(httpResponseMock).when(closeableHttpClientMock).execute(any(HttpUriRequest.class));
+
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder("http://localhost:9200").build());
+        JestHttpClient clientWithMockedHttpClient = (JestHttpClient) factory.getObject();
+        clientWithMockedHttpClient.setHttpClient(closeableHttpClientMock);
+
+        try {
+            clientWithMockedHttpClient.execute(new Get.Builder("twitter", "1").build());
+            fail("reading the response should fail");
+        } catch (ConnectionClosedException expected) {
+        }
+        Node node = clientWithMockedHttpClient.getNodes().get(0);
+        assertEquals(0, node.getInFlightRequests());
+        assertEquals(1, node.getFailureCount());
+        assertEquals(0, node.getEwmaLatencyNanos(), 0);
+    }
+
+    @Test
+    public void executeUsesOverriddenPrepareRequest() throws IOException {
+        CloseableHttpResponse httpResponseMock = mock(CloseableHttpResponse.class);
+        doReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK")).when(httpResponseMock).getStatusLine();
+        doReturn(null).when(httpResponseMock).getEntity();
+
+        CloseableHttpClient closeableHttpClientMock = mock(CloseableHttpClient.class);
+        doReturn(httpResponseMock).when(closeableHttpClientMock).execute(any(HttpUriRequest.class));
+
+        JestHttpClient signingClient = new JestHttpClient() {
+            @Override
+            protected <T extends JestResult> HttpUriRequest prepareRequest(Action<T> clientRequest, RequestConfig requestConfig, Node node, boolean streaming) throws IOException {
+                HttpUriRequest request = super.prepareRequest(clientRequest, requestConfig, node, streaming);
+                request.addHeader("X-Signature", "signed");
+                return request;
+            }
+        };
+        signingClient.setServers(Collections.singleton("http://localhost:9200"));
+        signingClient.setHttpClient(closeableHttpClientMock);
+
+        signingClient.execute(new Get.Builder("twitter", "1").build());
+
+        verify(closeableHttpClientMock).execute(argThat(new ArgumentMatcher<HttpUriRequest>() {
+            @Override
+            public boolean matches(Object argument) {
+                HttpUriRequest request = (HttpUriRequest) argument;
+                return request.getURI().toString().startsWith("http://localhost:9200/")
+                        && request.containsHeader("X-Signature");
+            }
+        }));
+        assertEquals(0, signingClient.getNodes().get(0).getInFlightRequests());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void executeAsyncUsesOverriddenHooks() throws Exception {
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) {
+                HttpUriRequest request = (HttpUriRequest) invocation.getArguments()[0];
+                FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                if (request.containsHeader("X-Signature")) {
+                    BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+                    response.setEntity(new StringEntity("{\"_index\":\"twitter\",\"_id\":\"1\",\"found\":true}", ContentType.APPLICATION_JSON));
+                    callback.completed(response);
+                } else {
+                    callback.failed(new IOException("request not signed"));
+                }
+                return mock(Future.class);
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        final AtomicInteger sentRequests = new AtomicInteger();
+        JestHttpClient signingClient = new JestHttpClient() {
+            @Override
+            protected <T extends JestResult> HttpUriRequest prepareRequest(Action<T> clientRequest, RequestConfig requestConfig, Node node, boolean streaming) throws IOException {
+                HttpUriRequest request = super.prepareRequest(clientRequest, requestConfig, node, streaming);
+                request.addHeader("X-Signature", "signed");
+                return request;
+            }
+
+            @Override
+            protected <T extends JestResult> Future<HttpResponse> executeAsyncRequest(Action<T> clientRequest, JestResultHandler<? super T> resultHandler, HttpUriRequest request, Node node, AsyncExecution<T> execution) {
+                assertNotNull(node);
+                assertNotNull(execution);
+                sentRequests.incrementAndGet();
+                return super.executeAsyncRequest(clientRequest, resultHandler, request, node, execution);
+            }
+        };
+        signingClient.setServers(Collections.singleton("http://localhost:9200"));
+        signingClient.setAsyncClient(asyncClientMock);
+
+        DocumentResult result = signingClient.executeAsync(new Get.Builder("twitter", "1").build()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSucceeded());
+        assertEquals(1, sentRequests.get());
+        Node node = signingClient.getNodes().get(0);
+        assertEquals(0, node.getInFlightRequests());
+        assertEquals(0, node.getFailureCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cancellingFutureAbortsAsyncRequest() {
+        Future<HttpResponse> responseFutureMock = mock(Future.class);
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doReturn(responseFutureMock).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder("http://localhost:9200").build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        CompletableFuture<DocumentResult> future = clientWithMockedAsyncClient.executeAsync(new Get.Builder("twitter", "1").build());
+        assertFalse(future.isDone());
+        verify(responseFutureMock, never()).cancel(anyBoolean());
+
+        assertTrue(future.cancel(true));
+        verify(responseFutureMock).cancel(true);
+    }
+
+    @SuppressWarnings ("unchecked")
+    @Test
+    public void asyncRequestIsRetriedOnAnotherNode() throws Exception {
+        final List<String> requestedUris = new CopyOnWriteArrayList<String>();
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) {
+                HttpUriRequest request = (HttpUriRequest) invocation.getArguments()[0];
+                FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                requestedUris.add(request.getURI().toString());
+                if (requestedUris.size() == 1) {
+                    callback.failed(new ConnectionClosedException("Connection closed"));
+                } else {
+                    BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+                    response.setEntity(new StringEntity("{\"_index\":\"twitter\",\"_id\":\"1\",\"found\":true}", ContentType.APPLICATION_JSON));
+                    callback.completed(response);
+                }
+                return mock(Future.class);
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder(Arrays.asList("http://localhost:9200", "http://localhost:9201"))
+                .retryHandler(new HttpRetryHandler(1))
+                .retryBackoff(new RetryBackoff.Builder().initialDelay(1, TimeUnit.MILLISECONDS).build())
+                .retryBudget(new RetryBudget.Builder().maxRetries(1).retryRatio(0).build())
+                .build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        DocumentResult result = clientWithMockedAsyncClient.executeAsync(new Get.Builder("twitter", "1").build())
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSucceeded());
+        assertEquals(2, requestedUris.size());
+        assertNotEquals("retried on another node", requestedUris.get(0).substring(0, 21), requestedUris.get(1).substring(0, 21));
+
+        requestedUris.clear();
+        try {
+            clientWithMockedAsyncClient.executeAsync(new Get.Builder("twitter", "1").build()).get(5, TimeUnit.SECONDS);
+            fail("retry budget is exhausted");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConnectionClosedException);
+        }
+        assertEquals(1, requestedUris.size());
+        clientWithMockedAsyncClient.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void closingClientFailsScheduledRetry() throws Exception {
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) {
+                FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                callback.failed(new ConnectionClosedException("Connection closed"));
+                return mock(Future.class);
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder(Arrays.asList("http://localhost:9200", "http://localhost:9201"))
+                .retryHandler(new HttpRetryHandler(1))
+                .retryBackoff(new RetryBackoff.Builder().initialDelay(1, TimeUnit.HOURS).build())
+                .build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        CompletableFuture<DocumentResult> future = clientWithMockedAsyncClient.executeAsync(new Get.Builder("twitter", "1").build());
+        assertFalse("retry is scheduled", future.isDone());
+
+        clientWithMockedAsyncClient.close();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("client is closed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("client closed", e.getCause().getMessage());
+        }
+        verify(asyncClientMock, times(1)).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+    }
+
+    @SuppressWarnings ("unchecked")
+    @Test
+    public void asyncBulkIsCompressed() throws Exception {
+        final List<String> requestBodies = new CopyOnWriteArrayList<String>();
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) throws IOException {
+                HttpEntity entity = ((HttpPost) invocation.getArguments()[0]).getEntity();
+                FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                // read through getContent(), as the async client does
+                assertEquals("gzip", entity.getContentEncoding().getValue());
+                requestBodies.add(EntityUtils.toString(new GzipDecompressingEntity(entity), "UTF-8"));
+
+                BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+                response.setEntity(new StringEntity("{\"took\":1,\"errors\":false,\"items\":[]}", ContentType.APPLICATION_JSON));
+                callback.completed(response);
+                return mock(Future.class);
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder("http://localhost:9200")
+                .requestCompressionEnabled(true)
+                .requestCompressionPolicy(new RequestCompressionPolicy.Builder().threshold(0).build())
+                .build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        Bulk bulk = new Bulk.Builder()
+                .addAction(new Delete.Builder("1").index("twitter").type("tweet").build())
+                .build();
+        assertTrue(clientWithMockedAsyncClient.executeAsync(bulk).get(5, TimeUnit.SECONDS).isSucceeded());
+        assertEquals(Arrays.asList(bulk.getData(new ObjectMapper())), requestBodies);
+        clientWithMockedAsyncClient.close();
+    }
+
+    @SuppressWarnings ("unchecked")
+    @Test
+    public void slowReadIsHedgedOnAnotherNode() throws Exception {
+        final List<String> requestedUris = new CopyOnWriteArrayList<String>();
+        final Future<HttpResponse> slowResponseFuture = mock(Future.class);
+        final AtomicReference<FutureCallback<HttpResponse>> slowCallback = new AtomicReference<FutureCallback<HttpResponse>>();
+        doAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                slowCallback.get().cancelled();
+                return true;
+            }
+        }).when(slowResponseFuture).cancel(true);
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) {
+                HttpUriRequest request = (HttpUriRequest) invocation.getArguments()[0];
+                FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                requestedUris.add(request.getURI().toString());
+                if (requestedUris.size() == 1) {
+                    // the first node never answers, until the request is aborted
+                    slowCallback.set(callback);
+                    return slowResponseFuture;
+                }
+                BasicHttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+                response.setEntity(new StringEntity("{\"_index\":\"twitter\",\"_id\":\"1\",\"found\":true}", ContentType.APPLICATION_JSON));
+                callback.completed(response);
+                return mock(Future.class);
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        HedgingPolicy hedgingPolicy = new HedgingPolicy.Builder()
+                .minSamples(1)
+                .minDelay(1, TimeUnit.MILLISECONDS)
+                .build();
+        hedgingPolicy.onLatency("Get", TimeUnit.MILLISECONDS.toNanos(1));
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder(Arrays.asList("http://localhost:9200", "http://localhost:9201"))
+                .hedgingPolicy(hedgingPolicy)
+                .build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        DocumentResult result = clientWithMockedAsyncClient.execute(new Get.Builder("twitter", "1").build());
+        assertTrue(result.isSucceeded());
+        assertEquals(2, requestedUris.size());
+        assertNotEquals("hedged on another node", requestedUris.get(0).substring(0, 21), requestedUris.get(1).substring(0, 21));
+        verify(slowResponseFuture).cancel(true);
+        for (Node node : clientWithMockedAsyncClient.getNodes()) {
+            assertEquals("aborted request is not a failure of " + node, 0, node.getFailureCount());
+            assertEquals(0, node.getInFlightRequests());
+        }
+        assertEquals("only the response is counted", 1,
+                clientWithMockedAsyncClient.getNodes().get(0).getRequestCount() + clientWithMockedAsyncClient.getNodes().get(1).getRequestCount());
+        clientWithMockedAsyncClient.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void hedgedReadStopsWaitingAfterAttemptTimeout() throws Exception {
+        final List<FutureCallback<HttpResponse>> callbacks = new CopyOnWriteArrayList<FutureCallback<HttpResponse>>();
+        CloseableHttpAsyncClient asyncClientMock = mock(CloseableHttpAsyncClient.class);
+        doReturn(true).when(asyncClientMock).isRunning();
+        doAnswer(new Answer<Future<HttpResponse>>() {
+            @Override
+            public Future<HttpResponse> answer(InvocationOnMock invocation) {
+                // no node ever answers, until the request is aborted
+                final FutureCallback<HttpResponse> callback = (FutureCallback<HttpResponse>) invocation.getArguments()[1];
+                callbacks.add(callback);
+                Future<HttpResponse> responseFuture = mock(Future.class);
+                doAnswer(new Answer<Boolean>() {
+                    @Override
+                    public Boolean answer(InvocationOnMock invocation) {
+                        callback.cancelled();
+                        return true;
+                    }
+                }).when(responseFuture).cancel(true);
+                return responseFuture;
+            }
+        }).when(asyncClientMock).execute(any(HttpUriRequest.class), any(FutureCallback.class));
+
+        HedgingPolicy hedgingPolicy = new HedgingPolicy.Builder()
+                .minSamples(1)
+                .minDelay(1, TimeUnit.MILLISECONDS)
+                .build();
+        hedgingPolicy.onLatency("Get", TimeUnit.MILLISECONDS.toNanos(1));
+        JestClientFactory factory = new JestClientFactory();
+        factory.setHttpClientConfig(new HttpClientConfig.Builder(Arrays.asList("http://localhost:9200", "http://localhost:9201"))
+                .connTimeout(50)
+                .readTimeout(50)
+                .hedgingPolicy(hedgingPolicy)
+                .build());
+        JestHttpClient clientWithMockedAsyncClient = (JestHttpClient) factory.getObject();
+        clientWithMockedAsyncClient.setAsyncClient(asyncClientMock);
+
+        long startNanos = System.nanoTime();
+        try {
+            clientWithMockedAsyncClient.execute(new Get.Builder("twitter", "1").build());
+            fail("no node answered");
+        } catch (SocketTimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals("hedged on the second node", 2, callbacks.size());
+        for (Node node : clientWithMockedAsyncClient.getNodes()) {
+            assertEquals("attempt was aborted on " + node, 0, node.getInFlightRequests());
+        }
+        clientWithMockedAsyncClient.close();
+    }
+
     @SuppressWarnings ("unchecked")
     @Test
     public void prepareShouldNotRewriteLongToDoubles() throws IOException {
@@ -210,6 +689,92 @@ public class JestHttpClientTest {
         assertTrue(payload.contains("567800000000000000000"));
     }
 
+    @Test
+    public void prepareBulkRequestWithStreamingEntity() throws IOException {
+        JestHttpClient jestHttpClient = (JestHttpClient) new JestClientFactory().getObject();
+
+        Bulk bulk = new Bulk.Builder()
+                .defaultIndex("twitter")
+                .defaultType("tweet")
+                .addAction(new Index.Builder("{\"user\":\"kimchy\"}").id("1").build())
+                .addAction(new Delete.Builder("2").build())
+                .build();
+
+        HttpUriRequest request = jestHttpClient.prepareRequest(bulk, null);
+        HttpEntity entity = ((HttpPost) request).getEntity();
+
+        assertTrue(entity.isChunked());
+        assertTrue(entity.isRepeatable());
+        assertEquals(bulk.getData(new ObjectMapper()), EntityUtils.toString(entity, "UTF-8"));
+    }
+
+    @Test
+    public void prepareAsyncBulkRequestWithBufferedEntity() throws IOException {
+        JestHttpClient jestHttpClient = (JestHttpClient) new JestClientFactory().getObject();
+
+        Bulk bulk = new Bulk.Builder()
+                .defaultIndex("twitter")
+                .defaultType("tweet")
+                .addAction(new Index.Builder("{\"user\":\"kimchy\"}").id("1").build())
+                .addAction(new Delete.Builder("2").build())
+                .build();
+
+        HttpUriRequest request = jestHttpClient.prepareAsyncRequest(bulk, null, jestHttpClient.getNodes().get(0));
+        HttpEntity entity = ((HttpPost) request).getEntity();
+        String payload = bulk.getData(new ObjectMapper());
+
+        assertFalse(entity.isChunked());
+        assertEquals(payload.length(), entity.getContentLength());
+        // read through getContent(), as the async client does
+        assertEquals(payload, EntityUtils.toString(entity, "UTF-8"));
+    }
+
+    @Test
+    public void prepareCompressedBulkRequestWithStreamingEntity() throws IOException {
+        JestHttpClient jestHttpClient = (JestHttpClient) new JestClientFactory().getObject();
+        jestHttpClient.setRequestCompressionEnabled(true);
+
+        Bulk bulk = new Bulk.Builder()
+                .addAction(new Delete.Builder("1").index("twitter").type("tweet").build())
+                .build();
+
+        HttpUriRequest request = jestHttpClient.prepareRequest(bulk, null);
+        HttpEntity entity = ((HttpPost) request).getEntity();
+
+        assertEquals("gzip", entity.getContentEncoding().getValue());
+        assertTrue(entity.isChunked());
+        assertEquals(bulk.getData(new ObjectMapper()), EntityUtils.toString(new GzipDecompressingEntity(entity), "UTF-8"));
+    }
+
+    @Test
+    public void prepareRequestCompressesOnlyBodiesOverTheThreshold() throws IOException {
+        JestHttpClient jestHttpClient = (JestHttpClient) new JestClientFactory().getObject();
+        jestHttpClient.setRequestCompressionEnabled(true);
+        jestHttpClient.setRequestCompressionPolicy(new RequestCompressionPolicy.Builder().threshold(64).build());
+        jestHttpClient.setResponseCompressionEnabled(true);
+
+        HttpUriRequest smallRequest = jestHttpClient.prepareRequest(
+                new Index.Builder("{\"user\":\"kimchy\"}").index("twitter").type("tweet").id("1").build(), null);
+        HttpEntity smallEntity = ((HttpPut) smallRequest).getEntity();
+
+        assertNull(smallEntity.getContentEncoding());
+        assertEquals("{\"user\":\"kimchy\"}", EntityUtils.toString(smallEntity));
+        assertEquals("gzip", smallRequest.getFirstHeader("Accept-Encoding").getValue());
+
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            message.append("kimchy ");
+        }
+        String largeSource = "{\"message\":\"" + message + "\"}";
+        HttpUriRequest largeRequest = jestHttpClient.prepareRequest(
+                new Index.Builder(largeSource).index("twitter").type("tweet").id("2").build(), null);
+        HttpEntity largeEntity = ((HttpPut) largeRequest).getEntity();
+
+        assertEquals("gzip", largeEntity.getContentEncoding().getValue());
+        assertEquals(largeSource, EntityUtils.toString(new GzipDecompressingEntity(largeEntity)));
+        assertTrue(jestHttpClient.getRequestCompressionPolicy().getCompressionRatio("Index") < 0.8);
+    }
+
     @Test
     public void createContextInstanceWithPreemptiveAuth() {
         AuthCache authCacheMock = mock(AuthCache.class);